@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.amqp.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.support.MessageBatch;
+import org.springframework.amqp.rabbit.core.support.SimpleBatchingStrategy;
+
+/**
+ * Creating and splitting batches with the {@link SimpleBatchingStrategy}.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BatchingStrategyBenchmark {
+
+	private static final int BUFFER_LIMIT = Integer.MAX_VALUE;
+
+	private static final long TIMEOUT = Long.MAX_VALUE;
+
+	@Param({ "10", "100" })
+	private int batchSize;
+
+	@Param({ "100", "1024" })
+	private int messageSize;
+
+	private SimpleBatchingStrategy strategy;
+
+	private Message message;
+
+	private Message batched;
+
+	@Setup
+	public void setup() {
+		this.strategy = new SimpleBatchingStrategy(this.batchSize, BUFFER_LIMIT, TIMEOUT);
+		this.message = new Message(Payloads.text(this.messageSize), new MessageProperties());
+		this.batched = batch().getMessage();
+	}
+
+	@Benchmark
+	public MessageBatch batch() {
+		MessageBatch batch = null;
+		for (int i = 0; i < this.batchSize; i++) {
+			batch = this.strategy.addToBatch("exchange", "routing.key", this.message);
+		}
+		return batch;
+	}
+
+	@Benchmark
+	public void deBatch(Blackhole blackhole) {
+		// only the batch format header is removed, so the message can be reused
+		this.strategy.deBatch(this.batched, blackhole::consume);
+	}
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.amqp.benchmarks;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.connection.Connection;
+
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.ConnectionFactory;
+
+/**
+ * Checking out and returning cached channels with the {@link CachingConnectionFactory},
+ * with and without a channel checkout timeout (which limits the number of channels with
+ * permits). The RabbitMQ connection and channels are mocks.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CachingConnectionFactoryBenchmark {
+
+	private static final int THREADS = 4;
+
+	@Param({ "0", "1000" })
+	private long checkoutTimeout;
+
+	private CachingConnectionFactory connectionFactory;
+
+	private Connection connection;
+
+	@Setup
+	public void setup() throws IOException, TimeoutException {
+		ConnectionFactory rabbitConnectionFactory = mock(ConnectionFactory.class, withSettings().stubOnly());
+		com.rabbitmq.client.Connection rabbitConnection =
+				mock(com.rabbitmq.client.Connection.class, withSettings().stubOnly());
+		Channel rabbitChannel = mock(Channel.class, withSettings().stubOnly());
+		given(rabbitConnectionFactory.newConnection(any(ExecutorService.class), anyString()))
+				.willReturn(rabbitConnection);
+		given(rabbitConnection.createChannel()).willReturn(rabbitChannel);
+		given(rabbitConnection.isOpen()).willReturn(true);
+		given(rabbitChannel.isOpen()).willReturn(true);
+		this.connectionFactory = new CachingConnectionFactory(rabbitConnectionFactory);
+		this.connectionFactory.setExecutor(mock(ExecutorService.class, withSettings().stubOnly()));
+		this.connectionFactory.setChannelCheckoutTimeout(this.checkoutTimeout);
+		this.connectionFactory.afterPropertiesSet();
+		this.connection = this.connectionFactory.createConnection();
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.connectionFactory.destroy();
+	}
+
+	@Benchmark
+	public Channel checkoutAndReturn() throws IOException, TimeoutException {
+		Channel channel = this.connection.createChannel(false);
+		channel.close();
+		return channel;
+	}
+
+	@Benchmark
+	@Threads(THREADS)
+	public Channel checkoutAndReturnContended() throws IOException, TimeoutException {
+		Channel channel = this.connection.createChannel(false);
+		channel.close();
+		return channel;
+	}
+
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.amqp.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.postprocessor.CompressionDictionary;
+import org.springframework.amqp.support.postprocessor.DeflaterPostProcessor;
+import org.springframework.amqp.support.postprocessor.GUnzipPostProcessor;
+import org.springframework.amqp.support.postprocessor.GZipPostProcessor;
+import org.springframework.amqp.support.postprocessor.InflaterPostProcessor;
+import org.springframework.amqp.support.postprocessor.Lz4DecompressingPostProcessor;
+import org.springframework.amqp.support.postprocessor.Lz4PostProcessor;
+import org.springframework.amqp.support.postprocessor.UnzipPostProcessor;
+import org.springframework.amqp.support.postprocessor.ZipPostProcessor;
+import org.springframework.util.StreamUtils;
+
+/**
+ * The compressing and decompressing post processors; the {@code -stream} codecs use the
+ * JDK streams (the implementation before deflaters and inflaters were pooled) as a
+ * baseline.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CompressionBenchmark {
+
+	private static final int SAMPLES = 200;
+
+	private static final int SAMPLE_SIZE = 1024;
+
+	private static final int DICTIONARY_SIZE = 4096;
+
+	private static final long SAMPLE_SEED = 1000L;
+
+	@Param({ "gzip", "gzip-stream", "zip", "zip-stream", "deflate", "deflate-stream", "lz4", "lz4-dictionary" })
+	private String codec;
+
+	@Param({ "100", "1024", "65536", "1048576" })
+	private int size;
+
+	private MessagePostProcessor compressor;
+
+	private MessagePostProcessor decompressor;
+
+	private Message message;
+
+	private byte[] compressed;
+
+	private String encoding;
+
+	@Setup
+	public void setup() {
+		switch (this.codec) {
+			case "gzip":
+				this.compressor = new GZipPostProcessor();
+				this.decompressor = new GUnzipPostProcessor(true);
+				break;
+			case "gzip-stream":
+				this.compressor = new StreamGZipPostProcessor();
+				this.decompressor = new StreamGUnzipPostProcessor();
+				break;
+			case "zip":
+				this.compressor = new ZipPostProcessor();
+				this.decompressor = new UnzipPostProcessor(true);
+				break;
+			case "zip-stream":
+				this.compressor = new StreamZipPostProcessor();
+				this.decompressor = new StreamUnzipPostProcessor();
+				break;
+			case "deflate":
+				this.compressor = new DeflaterPostProcessor();
+				this.decompressor = new InflaterPostProcessor(true);
+				break;
+			case "deflate-stream":
+				this.compressor = new StreamDeflaterPostProcessor();
+				this.decompressor = new StreamInflaterPostProcessor();
+				break;
+			case "lz4":
+				this.compressor = new Lz4PostProcessor();
+				this.decompressor = new Lz4DecompressingPostProcessor(true);
+				break;
+			case "lz4-dictionary":
+				List<byte[]> samples = new ArrayList<>();
+				for (int i = 0; i < SAMPLES; i++) {
+					samples.add(Payloads.text(SAMPLE_SIZE, SAMPLE_SEED + i));
+				}
+				CompressionDictionary dictionary = CompressionDictionary.train(samples, DICTIONARY_SIZE);
+				Lz4PostProcessor lz4 = new Lz4PostProcessor();
+				lz4.setDictionary(dictionary);
+				this.compressor = lz4;
+				Lz4DecompressingPostProcessor unlz4 = new Lz4DecompressingPostProcessor(true);
+				unlz4.addDictionary(dictionary);
+				this.decompressor = unlz4;
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown codec: " + this.codec);
+		}
+		this.message = new Message(Payloads.text(this.size), new MessageProperties());
+		Message compressedMessage = this.compressor.postProcessMessage(this.message);
+		this.compressed = compressedMessage.getBody();
+		this.encoding = compressedMessage.getMessageProperties().getContentEncoding();
+	}
+
+	@Benchmark
+	public Message compress() {
+		return this.compressor.postProcessMessage(this.message);
+	}
+
+	@Benchmark
+	public Message decompress() {
+		// decompression updates the properties
+		MessageProperties properties = new MessageProperties();
+		properties.setContentEncoding(this.encoding);
+		return this.decompressor.postProcessMessage(new Message(this.compressed, properties));
+	}
+
+	private static byte[] streamCompress(byte[] body, StreamFactory<OutputStream> factory) throws IOException {
+		ByteArrayOutputStream zipped = new ByteArrayOutputStream();
+		try (OutputStream zipper = factory.create(zipped)) {
+			zipper.write(body);
+		}
+		return zipped.toByteArray();
+	}
+
+	private static byte[] streamDecompress(byte[] body, StreamFactory<InputStream> factory) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (InputStream unzipper = factory.create(new ByteArrayInputStream(body))) {
+			StreamUtils.copy(unzipper, out);
+		}
+		return out.toByteArray();
+	}
+
+	@FunctionalInterface
+	private interface StreamFactory<S> {
+
+		S create(S stream) throws IOException;
+
+	}
+
+	private static final class StreamGZipPostProcessor extends GZipPostProcessor {
+
+		StreamGZipPostProcessor() {
+			super();
+		}
+
+		@Override
+		protected byte[] compress(byte[] body) throws IOException {
+			return streamCompress(body, this::getCompressorStream);
+		}
+
+	}
+
+	private static final class StreamGUnzipPostProcessor extends GUnzipPostProcessor {
+
+		StreamGUnzipPostProcessor() {
+			super(true);
+		}
+
+		@Override
+		protected byte[] decompress(byte[] body) throws IOException {
+			return streamDecompress(body, this::getDecompressorStream);
+		}
+
+	}
+
+	private static final class StreamZipPostProcessor extends ZipPostProcessor {
+
+		StreamZipPostProcessor() {
+			super();
+		}
+
+		@Override
+		protected byte[] compress(byte[] body) throws IOException {
+			return streamCompress(body, this::getCompressorStream);
+		}
+
+	}
+
+	private static final class StreamUnzipPostProcessor extends UnzipPostProcessor {
+
+		StreamUnzipPostProcessor() {
+			super(true);
+		}
+
+		@Override
+		protected byte[] decompress(byte[] body) throws IOException {
+			return streamDecompress(body, this::getDecompressorStream);
+		}
+
+	}
+
+	private static final class StreamDeflaterPostProcessor extends DeflaterPostProcessor {
+
+		StreamDeflaterPostProcessor() {
+			super();
+		}
+
+		@Override
+		protected byte[] compress(byte[] body) throws IOException {
+			return streamCompress(body, this::getCompressorStream);
+		}
+
+	}
+
+	private static final class StreamInflaterPostProcessor extends InflaterPostProcessor {
+
+		StreamInflaterPostProcessor() {
+			super(true);
+		}
+
+		@Override
+		protected byte[] decompress(byte[] body) throws IOException {
+			return streamDecompress(body, this::getDecompressorStream);
+		}
+
+	}
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.amqp.benchmarks;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.AmqpHeaderMapper;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.amqp.support.SimpleAmqpHeaderMapper;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * {@link SimpleAmqpHeaderMapper} in both directions, compared with the previous
+ * implementation ({@link LegacySimpleAmqpHeaderMapper}).
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HeaderMapperBenchmark {
+
+	@Param({ "current", "legacy" })
+	private String mapper;
+
+	@Param({ "0", "10" })
+	private int customHeaders;
+
+	private AmqpHeaderMapper headerMapper;
+
+	private MessageHeaders messageHeaders;
+
+	private MessageProperties messageProperties;
+
+	@Setup
+	public void setup() {
+		this.headerMapper = "legacy".equals(this.mapper)
+				? new LegacySimpleAmqpHeaderMapper()
+				: new SimpleAmqpHeaderMapper();
+		Map<String, Object> headers = new HashMap<>();
+		headers.put(AmqpHeaders.APP_ID, "app");
+		headers.put(AmqpHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON);
+		headers.put(AmqpHeaders.CORRELATION_ID, "corr");
+		headers.put(AmqpHeaders.DELIVERY_MODE, MessageDeliveryMode.PERSISTENT);
+		headers.put(AmqpHeaders.MESSAGE_ID, "id");
+		headers.put(AmqpHeaders.REPLY_TO, "replies");
+		headers.put(AmqpHeaders.TIMESTAMP, new Date(0));
+		headers.put(AmqpHeaders.TYPE, "order");
+		this.messageProperties = new MessageProperties();
+		this.messageProperties.setAppId("app");
+		this.messageProperties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+		this.messageProperties.setCorrelationId("corr");
+		this.messageProperties.setReceivedDeliveryMode(MessageDeliveryMode.PERSISTENT);
+		this.messageProperties.setDeliveryTag(42L); // NOSONAR magic #
+		this.messageProperties.setMessageId("id");
+		this.messageProperties.setReceivedExchange("exchange");
+		this.messageProperties.setReceivedRoutingKey("routing.key");
+		this.messageProperties.setRedelivered(false);
+		this.messageProperties.setConsumerTag("consumerTag");
+		this.messageProperties.setConsumerQueue("queue");
+		for (int i = 0; i < this.customHeaders; i++) {
+			headers.put("custom" + i, "value" + i);
+			this.messageProperties.setHeader("custom" + i, "value" + i);
+		}
+		this.messageHeaders = new MessageHeaders(headers);
+	}
+
+	@Benchmark
+	public MessageProperties fromHeaders() {
+		MessageProperties properties = new MessageProperties();
+		this.headerMapper.fromHeaders(this.messageHeaders, properties);
+		return properties;
+	}
+
+	@Benchmark
+	public MessageHeaders toHeaders() {
+		return this.headerMapper.toHeaders(this.messageProperties);
+	}
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.amqp.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+/**
+ * Encoding and decoding with the {@link Jackson2JsonMessageConverter}.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JacksonConverterBenchmark {
+
+	@Param({ "1024", "65536", "1048576" })
+	private int size;
+
+	private Jackson2JsonMessageConverter converter;
+
+	private Payloads.Order order;
+
+	private Message message;
+
+	@Setup
+	public void setup() {
+		this.converter = new Jackson2JsonMessageConverter(Payloads.class.getPackage().getName());
+		this.order = Payloads.order(this.size);
+		this.message = this.converter.toMessage(this.order, new MessageProperties());
+	}
+
+	@Benchmark
+	public Message encode() {
+		return this.converter.toMessage(this.order, new MessageProperties());
+	}
+
+	@Benchmark
+	public Object decode() {
+		return this.converter.fromMessage(this.message);
+	}
+
+}
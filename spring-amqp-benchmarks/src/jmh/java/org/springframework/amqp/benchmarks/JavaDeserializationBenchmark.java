@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.amqp.benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.SerializerMessageConverter;
+import org.springframework.amqp.support.converter.SimpleMessageConverter;
+import org.springframework.amqp.support.converter.WhiteListDeserializingMessageConverter;
+
+/**
+ * Java deserialization with the {@link SimpleMessageConverter} and
+ * {@link SerializerMessageConverter}, with and without white list patterns.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JavaDeserializationBenchmark {
+
+	@Param({ "simple", "serializer" })
+	private String converterType;
+
+	@Param({ "false", "true" })
+	private boolean whiteList;
+
+	@Param({ "1024", "65536" })
+	private int size;
+
+	private WhiteListDeserializingMessageConverter converter;
+
+	private Message message;
+
+	@Setup
+	public void setup() {
+		this.converter = "serializer".equals(this.converterType)
+				? new SerializerMessageConverter()
+				: new SimpleMessageConverter();
+		if (this.whiteList) {
+			this.converter.setWhiteListPatterns(
+					Arrays.asList(Payloads.class.getPackage().getName() + ".*", "java.util.ArrayList"));
+		}
+		this.message = this.converter.toMessage(Payloads.order(this.size), new MessageProperties());
+	}
+
+	@Benchmark
+	public Object deserialize() {
+		return this.converter.fromMessage(this.message);
+	}
+
+}
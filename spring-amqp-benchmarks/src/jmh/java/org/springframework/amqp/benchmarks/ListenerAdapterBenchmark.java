@@ -0,0 +1,139 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.amqp.benchmarks;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.listener.adapter.HandlerAdapter;
+import org.springframework.amqp.rabbit.listener.adapter.MessageListenerAdapter;
+import org.springframework.amqp.rabbit.listener.adapter.MessagingMessageListenerAdapter;
+import org.springframework.amqp.rabbit.listener.api.ChannelAwareMessageListener;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.messaging.handler.annotation.support.DefaultMessageHandlerMethodFactory;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Invoking a POJO listener through the {@link MessageListenerAdapter} and the
+ * {@link MessagingMessageListenerAdapter} (used for {@code @RabbitListener} methods),
+ * with a {@code String} and a JSON payload.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ListenerAdapterBenchmark {
+
+	private static final int JSON_SIZE = 1024;
+
+	@Param({ "adapter", "messaging", "messaging-json" })
+	private String adapter;
+
+	private Listener listener;
+
+	private ChannelAwareMessageListener messageListener;
+
+	private Message message;
+
+	@Setup
+	public void setup() {
+		Listener listener = new Listener();
+		this.listener = listener;
+		if ("adapter".equals(this.adapter)) {
+			this.messageListener = new MessageListenerAdapter(listener);
+			this.message = textMessage();
+		}
+		else {
+			DefaultMessageHandlerMethodFactory factory = new DefaultMessageHandlerMethodFactory();
+			factory.setBeanFactory(new StaticListableBeanFactory());
+			factory.afterPropertiesSet();
+			boolean json = "messaging-json".equals(this.adapter);
+			Method method = json
+					? ReflectionUtils.findMethod(Listener.class, "handleOrder", Payloads.Order.class)
+					: ReflectionUtils.findMethod(Listener.class, "handle", String.class);
+			MessagingMessageListenerAdapter messagingAdapter = new MessagingMessageListenerAdapter(listener, method);
+			messagingAdapter.setHandlerAdapter(new HandlerAdapter(factory.createInvocableHandlerMethod(listener,
+					method)));
+			if (json) {
+				Jackson2JsonMessageConverter converter =
+						new Jackson2JsonMessageConverter(Payloads.class.getPackage().getName());
+				messagingAdapter.setMessageConverter(converter);
+				this.message = converter.toMessage(Payloads.order(JSON_SIZE), new MessageProperties());
+			}
+			else {
+				this.message = textMessage();
+			}
+			this.messageListener = messagingAdapter;
+		}
+	}
+
+	@Benchmark
+	public Object onMessage() throws Exception {
+		this.messageListener.onMessage(this.message, null);
+		return this.listener.getReceived();
+	}
+
+	private static Message textMessage() {
+		MessageProperties properties = new MessageProperties();
+		properties.setContentType(MessageProperties.CONTENT_TYPE_TEXT_PLAIN);
+		properties.setContentEncoding(StandardCharsets.UTF_8.name());
+		return new Message("hello".getBytes(StandardCharsets.UTF_8), properties);
+	}
+
+	/**
+	 * The POJO listener.
+	 */
+	public static class Listener {
+
+		private Object received; // retained so that the conversion is not eliminated
+
+		public void handleMessage(String payload) {
+			this.received = payload;
+		}
+
+		public void handle(String payload) {
+			this.received = payload;
+		}
+
+		public void handleOrder(Payloads.Order order) {
+			this.received = order;
+		}
+
+		Object getReceived() {
+			return this.received;
+		}
+
+	}
+
+}
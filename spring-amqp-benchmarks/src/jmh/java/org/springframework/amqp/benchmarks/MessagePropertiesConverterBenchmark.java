@@ -0,0 +1,171 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.amqp.benchmarks;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+
+import com.rabbitmq.client.AMQP.BasicProperties;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.impl.LongStringHelper;
+
+/**
+ * {@link DefaultMessagePropertiesConverter} on the receive path (eager and lazy
+ * conversion, with and without the header cache) and on the send path (with and without
+ * a properties template).
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MessagePropertiesConverterBenchmark {
+
+	private static final String UTF_8 = "UTF-8";
+
+	@Benchmark
+	public MessageProperties toMessageProperties(Inbound inbound) {
+		return inbound.converter.toMessageProperties(inbound.basicProperties, inbound.envelope, UTF_8);
+	}
+
+	@Benchmark
+	public MessageProperties toLazyMessageProperties(Inbound inbound) {
+		return inbound.converter.toLazyMessageProperties(inbound.basicProperties, inbound.envelope, UTF_8);
+	}
+
+	@Benchmark
+	public void toLazyMessagePropertiesAndRead(Inbound inbound, Blackhole blackhole) {
+		MessageProperties properties =
+				inbound.converter.toLazyMessageProperties(inbound.basicProperties, inbound.envelope, UTF_8);
+		blackhole.consume(properties.getContentType());
+		blackhole.consume(properties.getHeaders());
+	}
+
+	@Benchmark
+	public BasicProperties fromMessageProperties(Outbound outbound) {
+		return outbound.converter.fromMessageProperties(outbound.messageProperties, UTF_8);
+	}
+
+	/**
+	 * Properties received from the broker.
+	 */
+	@State(Scope.Benchmark)
+	public static class Inbound {
+
+		@Param({ "0", "10" })
+		private int headers;
+
+		@Param({ "0", "64" })
+		private int headerCacheSize;
+
+		private DefaultMessagePropertiesConverter converter;
+
+		private BasicProperties basicProperties;
+
+		private Envelope envelope;
+
+		@Setup
+		public void setup() {
+			this.converter = new DefaultMessagePropertiesConverter();
+			this.converter.setHeaderCacheSize(this.headerCacheSize);
+			Map<String, Object> inbound = new HashMap<>();
+			for (int i = 0; i < this.headers; i++) {
+				inbound.put("header" + i, LongStringHelper.asLongString("value" + i));
+			}
+			this.basicProperties = new BasicProperties.Builder()
+					.contentType(MessageProperties.CONTENT_TYPE_JSON)
+					.contentEncoding(UTF_8)
+					.deliveryMode(2)
+					.priority(0)
+					.correlationId("corr")
+					.replyTo("replies")
+					.messageId("id")
+					.timestamp(new Date(0))
+					.type("order")
+					.appId("app")
+					.headers(inbound)
+					.build();
+			this.envelope = new Envelope(42L, false, "exchange", "routing.key"); // NOSONAR magic #
+		}
+
+	}
+
+	/**
+	 * Properties to be sent; with a template, the common properties and headers are
+	 * supplied by the template instead of each message.
+	 */
+	@State(Scope.Benchmark)
+	public static class Outbound {
+
+		@Param({ "0", "10" })
+		private int headers;
+
+		@Param({ "false", "true" })
+		private boolean template;
+
+		private DefaultMessagePropertiesConverter converter;
+
+		private MessageProperties messageProperties;
+
+		@Setup
+		public void setup() {
+			this.converter = new DefaultMessagePropertiesConverter();
+			Map<String, Object> common = new HashMap<>();
+			for (int i = 0; i < this.headers; i++) {
+				common.put("header" + i, "value" + i);
+			}
+			this.messageProperties = new MessageProperties();
+			this.messageProperties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+			this.messageProperties.setContentEncoding(UTF_8);
+			this.messageProperties.setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+			this.messageProperties.setCorrelationId("corr");
+			this.messageProperties.setMessageId("id");
+			if (this.template) {
+				MessageProperties templateProperties = new MessageProperties();
+				templateProperties.setAppId("app");
+				templateProperties.setType("order");
+				common.forEach(templateProperties::setHeader);
+				this.converter.setPropertiesTemplate(templateProperties);
+			}
+			else {
+				this.messageProperties.setAppId("app");
+				this.messageProperties.setType("order");
+				common.forEach(this.messageProperties::setHeader);
+			}
+		}
+
+	}
+
+}
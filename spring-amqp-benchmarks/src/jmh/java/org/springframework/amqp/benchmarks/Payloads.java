@@ -0,0 +1,192 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.amqp.benchmarks;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic payloads for the benchmarks; a fixed seed is used so that results are
+ * comparable across builds.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+final class Payloads {
+
+	private static final long SEED = 42L;
+
+	private static final int ITEM_SIZE = 100; // approximate JSON size of an item
+
+	private static final String[] WORDS = { "order", "item", "quantity", "price", "customer", "address",
+			"status", "shipped", "pending", "warehouse", "discount", "total", "currency", "EUR", "USD" };
+
+	private Payloads() {
+		super();
+	}
+
+	/**
+	 * Create an order whose JSON representation is approximately the size.
+	 * @param size the size.
+	 * @return the order.
+	 */
+	static Order order(int size) {
+		Random random = new Random(SEED);
+		Order order = new Order();
+		order.setId("order-" + random.nextInt(1_000_000)); // NOSONAR magic #
+		order.setCustomer("customer-" + random.nextInt(1_000)); // NOSONAR magic #
+		List<Item> items = new ArrayList<>();
+		for (int i = 0; i < Math.max(1, size / ITEM_SIZE); i++) {
+			Item item = new Item();
+			item.setSku(WORDS[random.nextInt(WORDS.length)] + "-" + random.nextInt(100_000)); // NOSONAR
+			item.setDescription(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]);
+			item.setQuantity(random.nextInt(100)); // NOSONAR magic #
+			item.setPrice(random.nextInt(100_000) / 100.0); // NOSONAR magic #
+			items.add(item);
+		}
+		order.setItems(items);
+		return order;
+	}
+
+	/**
+	 * Create compressible, JSON-like text of exactly the size.
+	 * @param size the size.
+	 * @return the text.
+	 */
+	static byte[] text(int size) {
+		return text(size, SEED);
+	}
+
+	/**
+	 * Create compressible, JSON-like text of exactly the size.
+	 * @param size the size.
+	 * @param seed the random seed.
+	 * @return the text.
+	 */
+	static byte[] text(int size, long seed) {
+		Random random = new Random(seed);
+		StringBuilder builder = new StringBuilder(size + ITEM_SIZE);
+		builder.append('[');
+		while (builder.length() < size) {
+			builder.append("{\"")
+					.append(WORDS[random.nextInt(WORDS.length)])
+					.append("\":\"")
+					.append(WORDS[random.nextInt(WORDS.length)])
+					.append('-')
+					.append(random.nextInt(10_000)) // NOSONAR magic #
+					.append("\",\"quantity\":")
+					.append(random.nextInt(100)) // NOSONAR magic #
+					.append("},");
+		}
+		builder.setLength(size);
+		return builder.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * An order.
+	 */
+	public static class Order implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private String id;
+
+		private String customer;
+
+		private List<Item> items;
+
+		public String getId() {
+			return this.id;
+		}
+
+		public void setId(String id) {
+			this.id = id;
+		}
+
+		public String getCustomer() {
+			return this.customer;
+		}
+
+		public void setCustomer(String customer) {
+			this.customer = customer;
+		}
+
+		public List<Item> getItems() {
+			return this.items;
+		}
+
+		public void setItems(List<Item> items) {
+			this.items = items;
+		}
+
+	}
+
+	/**
+	 * An order item.
+	 */
+	public static class Item implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private String sku;
+
+		private String description;
+
+		private int quantity;
+
+		private double price;
+
+		public String getSku() {
+			return this.sku;
+		}
+
+		public void setSku(String sku) {
+			this.sku = sku;
+		}
+
+		public String getDescription() {
+			return this.description;
+		}
+
+		public void setDescription(String description) {
+			this.description = description;
+		}
+
+		public int getQuantity() {
+			return this.quantity;
+		}
+
+		public void setQuantity(int quantity) {
+			this.quantity = quantity;
+		}
+
+		public double getPrice() {
+			return this.price;
+		}
+
+		public void setPrice(double price) {
+			this.price = price;
+		}
+
+	}
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.amqp.benchmarks;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.connection.PendingConfirm;
+import org.springframework.amqp.rabbit.connection.PublisherCallbackChannel;
+import org.springframework.amqp.rabbit.connection.PublisherCallbackChannelImpl;
+
+import com.rabbitmq.client.AMQP.BasicProperties;
+import com.rabbitmq.client.Channel;
+
+/**
+ * Tracking publisher confirms with the {@link PublisherCallbackChannelImpl}: adding
+ * pending confirms and processing single and multiple acks, with and without correlation
+ * data. The underlying channel is a mock.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PublisherCallbackChannelBenchmark {
+
+	private static final int BATCH = 100;
+
+	@Param({ "false", "true" })
+	private boolean correlated;
+
+	private PublisherCallbackChannelImpl channel;
+
+	private PublisherCallbackChannel.Listener listener;
+
+	private CorrelationData correlationData;
+
+	private long seq;
+
+	@Setup
+	public void setup() {
+		this.channel = new PublisherCallbackChannelImpl(mock(Channel.class, withSettings().stubOnly()),
+				mock(ExecutorService.class, withSettings().stubOnly()));
+		this.listener = new ConfirmListener();
+		this.channel.addListener(this.listener);
+		this.correlationData = this.correlated ? new CorrelationData("id") : null;
+	}
+
+	@Benchmark
+	public void ack() {
+		long next = ++this.seq;
+		this.channel.addPendingConfirm(this.listener, next,
+				new PendingConfirm(this.correlationData, System.currentTimeMillis()));
+		this.channel.handleAck(next, false);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void multipleAck() {
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < BATCH; i++) {
+			this.channel.addPendingConfirm(this.listener, ++this.seq, new PendingConfirm(this.correlationData, now));
+		}
+		this.channel.handleAck(this.seq, true);
+	}
+
+	private static final class ConfirmListener implements PublisherCallbackChannel.Listener {
+
+		private final String uuid = UUID.randomUUID().toString();
+
+		private int confirms;
+
+		ConfirmListener() {
+			super();
+		}
+
+		@Override
+		public void handleConfirm(PendingConfirm pendingConfirm, boolean ack) {
+			this.confirms++;
+		}
+
+		@Override
+		public void handleReturn(int replyCode, String replyText, String exchange, String routingKey,
+				BasicProperties properties, byte[] body) {
+			// no returns
+		}
+
+		@Override
+		public void revoke(Channel revoked) {
+			// not revoked
+		}
+
+		@Override
+		public String getUUID() {
+			return this.uuid;
+		}
+
+		@Override
+		public boolean isConfirmListener() {
+			return true;
+		}
+
+		@Override
+		public boolean isReturnListener() {
+			return false;
+		}
+
+	}
+
+}
@@ -16,6 +16,8 @@
 
 package org.springframework.amqp.core;
 
+import java.util.List;
+
 /**
  * Listener interface to receive asynchronous delivery of Amqp Messages.
  *
@@ -37,4 +39,13 @@ public interface MessageListener {
 		// NOSONAR - empty
 	}
 
+	/**
+	 * Delivers a batch of messages.
+	 * @param messages the messages.
+	 * @since 2.2
+	 */
+	default void onMessageBatch(List<Message> messages) {
+		throw new UnsupportedOperationException("This listener does not support message batches");
+	}
+
 }
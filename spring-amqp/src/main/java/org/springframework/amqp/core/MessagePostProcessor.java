@@ -17,6 +17,7 @@
 package org.springframework.amqp.core;
 
 import org.springframework.amqp.AmqpException;
+import org.springframework.lang.Nullable;
 
 /**
  * Used in several places in the framework, such as
@@ -59,4 +60,20 @@ public interface MessagePostProcessor {
 		return postProcessMessage(message);
 	}
 
+	/**
+	 * Change (or replace) the message and/or change its correlation data; invoked
+	 * immediately before publishing, when the exchange and routing key are known.
+	 * @param message the message.
+	 * @param correlation the correlation data.
+	 * @param exchange the exchange.
+	 * @param routingKey the routing key.
+	 * @return the message.
+	 * @since 2.2
+	 */
+	default Message postProcessMessage(Message message, @Nullable Correlation correlation, String exchange,
+			String routingKey) {
+
+		return postProcessMessage(message, correlation);
+	}
+
 }
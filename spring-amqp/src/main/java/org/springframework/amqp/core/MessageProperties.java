@@ -26,6 +26,11 @@ import java.util.Map;
 
 /**
  * Message Properties for an AMQP message.
+ * <p>
+ * Since 2.2, the fields are no longer {@code volatile} and the headers map is only
+ * allocated when first needed. Instances are not thread-safe; when handing an instance to
+ * another thread, it must be safely published (for example via a
+ * {@link java.util.concurrent.BlockingQueue}, as the listener containers do).
  *
  * @author Mark Fisher
  * @author Mark Pollack
@@ -52,6 +57,8 @@ public class MessageProperties implements Serializable {
 
 	public static final String CONTENT_TYPE_XML = "application/xml";
 
+	public static final String CONTENT_TYPE_AVRO = "application/avro";
+
 	public static final String SPRING_BATCH_FORMAT = "springBatchFormat";
 
 	public static final String BATCH_FORMAT_LENGTH_HEADER4 = "lengthHeader4";
@@ -66,74 +73,74 @@ public class MessageProperties implements Serializable {
 
 	public static final Integer DEFAULT_PRIORITY = 0;
 
-	private final Map<String, Object> headers = new HashMap<>();
+	private Map<String, Object> headers;
 
-	private volatile Date timestamp;
+	private Date timestamp;
 
-	private volatile String messageId;
+	private String messageId;
 
-	private volatile String userId;
+	private String userId;
 
-	private volatile String appId;
+	private String appId;
 
-	private volatile String clusterId;
+	private String clusterId;
 
-	private volatile String type;
+	private String type;
 
-	private volatile String correlationId;
+	private String correlationId;
 
-	private volatile String replyTo;
+	private String replyTo;
 
-	private volatile String contentType = DEFAULT_CONTENT_TYPE;
+	private String contentType = DEFAULT_CONTENT_TYPE;
 
-	private volatile String contentEncoding;
+	private String contentEncoding;
 
-	private volatile long contentLength;
+	private long contentLength;
 
-	private volatile boolean contentLengthSet;
+	private boolean contentLengthSet;
 
-	private volatile MessageDeliveryMode deliveryMode = DEFAULT_DELIVERY_MODE;
+	private MessageDeliveryMode deliveryMode = DEFAULT_DELIVERY_MODE;
 
-	private volatile String expiration;
+	private String expiration;
 
-	private volatile Integer priority = DEFAULT_PRIORITY;
+	private Integer priority = DEFAULT_PRIORITY;
 
-	private volatile Boolean redelivered;
+	private Boolean redelivered;
 
-	private volatile String receivedExchange;
+	private String receivedExchange;
 
-	private volatile String receivedRoutingKey;
+	private String receivedRoutingKey;
 
-	private volatile String receivedUserId;
+	private String receivedUserId;
 
-	private volatile long deliveryTag;
+	private long deliveryTag;
 
-	private volatile boolean deliveryTagSet;
+	private boolean deliveryTagSet;
 
-	private volatile Integer messageCount;
+	private Integer messageCount;
 
 	// Not included in hashCode()
 
-	private volatile String consumerTag;
+	private String consumerTag;
 
-	private volatile String consumerQueue;
+	private String consumerQueue;
 
-	private volatile Integer receivedDelay;
+	private Integer receivedDelay;
 
-	private volatile MessageDeliveryMode receivedDeliveryMode;
+	private MessageDeliveryMode receivedDeliveryMode;
 
-	private volatile boolean finalRetryForMessageWithNoId;
+	private boolean finalRetryForMessageWithNoId;
 
-	private volatile long publishSequenceNumber;
+	private long publishSequenceNumber;
 
-	private transient volatile Type inferredArgumentType;
+	private transient Type inferredArgumentType;
 
-	private transient volatile Method targetMethod;
+	private transient Method targetMethod;
 
-	private transient volatile Object targetBean;
+	private transient Object targetBean;
 
 	public void setHeader(String key, Object value) {
-		this.headers.put(key, value);
+		getHeaders().put(key, value);
 	}
 
 	/**
@@ -145,13 +152,31 @@ public class MessageProperties implements Serializable {
 	 */
 	@SuppressWarnings("unchecked")
 	public <T> T getHeader(String headerName) {
-		return (T) this.headers.get(headerName);
+		return this.headers == null ? null : (T) this.headers.get(headerName);
 	}
 
+	/**
+	 * Return the (mutable) headers, allocating the map if necessary; use
+	 * {@link #getHeader(String)} or {@link #hasHeaders()} to avoid the allocation when
+	 * only reading.
+	 * @return the headers.
+	 */
 	public Map<String, Object> getHeaders() {
+		if (this.headers == null) {
+			this.headers = new HashMap<>();
+		}
 		return this.headers;
 	}
 
+	/**
+	 * Return true if there is at least one header.
+	 * @return true if there are headers.
+	 * @since 2.2
+	 */
+	public boolean hasHeaders() {
+		return this.headers != null && !this.headers.isEmpty();
+	}
+
 	public void setTimestamp(Date timestamp) {
 		this.timestamp = timestamp; //NOSONAR
 	}
@@ -427,7 +452,7 @@ public class MessageProperties implements Serializable {
 	 * @see #getReceivedDelay()
 	 */
 	public Integer getDelay() {
-		Object delay = this.headers.get(X_DELAY);
+		Object delay = getHeader(X_DELAY);
 		if (delay instanceof Integer) {
 			return (Integer) delay;
 		}
@@ -443,10 +468,12 @@ public class MessageProperties implements Serializable {
 	 */
 	public void setDelay(Integer delay) {
 		if (delay == null || delay < 0) {
-			this.headers.remove(X_DELAY);
+			if (this.headers != null) {
+				this.headers.remove(X_DELAY);
+			}
 		}
 		else {
-			this.headers.put(X_DELAY, delay);
+			getHeaders().put(X_DELAY, delay);
 		}
 	}
 
@@ -539,7 +566,7 @@ public class MessageProperties implements Serializable {
 	@SuppressWarnings("unchecked")
 	public List<Map<String, ?>> getXDeathHeader() {
 		try {
-			return (List<Map<String, ?>>) this.headers.get("x-death");
+			return (List<Map<String, ?>>) getHeader("x-death");
 		}
 		catch (Exception e) {
 			return null;
@@ -559,7 +586,7 @@ public class MessageProperties implements Serializable {
 		result = prime * result + ((this.deliveryMode == null) ? 0 : this.deliveryMode.hashCode());
 		result = prime * result + (int) (this.deliveryTag ^ (this.deliveryTag >>> INT_MASK));
 		result = prime * result + ((this.expiration == null) ? 0 : this.expiration.hashCode());
-		result = prime * result + this.headers.hashCode();
+		result = prime * result + (hasHeaders() ? this.headers.hashCode() : 0);
 		result = prime * result + ((this.messageCount == null) ? 0 : this.messageCount.hashCode());
 		result = prime * result + ((this.messageId == null) ? 0 : this.messageId.hashCode());
 		result = prime * result + ((this.priority == null) ? 0 : this.priority.hashCode());
@@ -644,8 +671,10 @@ public class MessageProperties implements Serializable {
 		else if (!this.expiration.equals(other.expiration)) {
 			return false;
 		}
-		if (!this.headers.equals(other.headers)) {
-			return false;
+		if (hasHeaders() || other.hasHeaders()) {
+			if (!hasHeaders() || !other.hasHeaders() || !this.headers.equals(other.headers)) {
+				return false;
+			}
 		}
 		if (this.messageCount == null) {
 			if (other.messageCount != null) {
@@ -732,7 +761,7 @@ public class MessageProperties implements Serializable {
 
 	@Override // NOSONAR complexity
 	public String toString() {
-		return "MessageProperties [headers=" + this.headers
+		return "MessageProperties [headers=" + (this.headers == null ? "{}" : this.headers)
 				+ (this.timestamp == null ? "" : ", timestamp=" + this.timestamp)
 				+ (this.messageId == null ? "" : ", messageId=" + this.messageId)
 				+ (this.userId == null ? "" : ", userId=" + this.userId)
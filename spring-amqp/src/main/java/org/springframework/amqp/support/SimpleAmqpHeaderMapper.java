@@ -16,6 +16,7 @@
 
 package org.springframework.amqp.support;
 
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -23,7 +24,7 @@ import java.util.function.BiConsumer;
 
 import org.springframework.amqp.core.MessageDeliveryMode;
 import org.springframework.amqp.core.MessageProperties;
-import org.springframework.amqp.utils.JavaUtils;
+import org.springframework.lang.Nullable;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.support.AbstractHeaderMapper;
 import org.springframework.util.MimeType;
@@ -52,122 +53,111 @@ import org.springframework.util.StringUtils;
  */
 public class SimpleAmqpHeaderMapper extends AbstractHeaderMapper<MessageProperties> implements AmqpHeaderMapper {
 
+	/**
+	 * The number of headers that {@link #toHeaders(MessageProperties)} can map from
+	 * {@link MessageProperties} properties; used to presize the map.
+	 */
+	private static final int PROPERTY_HEADERS = 24;
+
+	private static final Map<String, Mapping> FROM_HEADERS = new HashMap<>();
+
+	static {
+		FROM_HEADERS.put(AmqpHeaders.APP_ID, text(MessageProperties::setAppId));
+		FROM_HEADERS.put(AmqpHeaders.CLUSTER_ID, text(MessageProperties::setClusterId));
+		FROM_HEADERS.put(AmqpHeaders.CONTENT_ENCODING, text(MessageProperties::setContentEncoding));
+		FROM_HEADERS.put(AmqpHeaders.CONTENT_LENGTH, value(Long.class, MessageProperties::setContentLength));
+		FROM_HEADERS.put(AmqpHeaders.CORRELATION_ID, value(String.class, MessageProperties::setCorrelationId));
+		FROM_HEADERS.put(AmqpHeaders.DELAY, value(Integer.class, MessageProperties::setDelay));
+		FROM_HEADERS.put(AmqpHeaders.DELIVERY_MODE,
+				value(MessageDeliveryMode.class, MessageProperties::setDeliveryMode));
+		FROM_HEADERS.put(AmqpHeaders.DELIVERY_TAG, value(Long.class, MessageProperties::setDeliveryTag));
+		FROM_HEADERS.put(AmqpHeaders.EXPIRATION, text(MessageProperties::setExpiration));
+		FROM_HEADERS.put(AmqpHeaders.MESSAGE_COUNT, value(Integer.class, MessageProperties::setMessageCount));
+		FROM_HEADERS.put(AmqpHeaders.MESSAGE_ID, text(MessageProperties::setMessageId));
+		FROM_HEADERS.put(AmqpMessageHeaderAccessor.PRIORITY, value(Integer.class, MessageProperties::setPriority));
+		FROM_HEADERS.put(AmqpHeaders.RECEIVED_EXCHANGE, text(MessageProperties::setReceivedExchange));
+		FROM_HEADERS.put(AmqpHeaders.RECEIVED_ROUTING_KEY, text(MessageProperties::setReceivedRoutingKey));
+		FROM_HEADERS.put(AmqpHeaders.REDELIVERED, value(Boolean.class, MessageProperties::setRedelivered));
+		FROM_HEADERS.put(AmqpHeaders.REPLY_TO, value(String.class, MessageProperties::setReplyTo));
+		FROM_HEADERS.put(AmqpHeaders.TIMESTAMP, value(Date.class, MessageProperties::setTimestamp));
+		FROM_HEADERS.put(AmqpHeaders.TYPE, value(String.class, MessageProperties::setType));
+		FROM_HEADERS.put(AmqpHeaders.USER_ID, text(MessageProperties::setUserId));
+		FROM_HEADERS.put(AmqpHeaders.SPRING_REPLY_CORRELATION,
+				length((props, value) -> props.setHeader("spring_reply_correlation", value)));
+		FROM_HEADERS.put(AmqpHeaders.SPRING_REPLY_TO_STACK,
+				length((props, value) -> props.setHeader("spring_reply_to", value)));
+	}
+
 	@Override
 	public void fromHeaders(MessageHeaders headers, MessageProperties amqpMessageProperties) {
-		JavaUtils javaUtils = JavaUtils.INSTANCE
-			.acceptIfHasText(getHeaderIfAvailable(headers, AmqpHeaders.APP_ID, String.class),
-					amqpMessageProperties::setAppId)
-			.acceptIfHasText(getHeaderIfAvailable(headers, AmqpHeaders.CLUSTER_ID, String.class),
-					amqpMessageProperties::setClusterId)
-			.acceptIfHasText(getHeaderIfAvailable(headers, AmqpHeaders.CONTENT_ENCODING, String.class),
-					amqpMessageProperties::setContentEncoding)
-			.acceptIfNotNull(getHeaderIfAvailable(headers, AmqpHeaders.CONTENT_LENGTH, Long.class),
-					amqpMessageProperties::setContentLength)
-			.acceptIfHasText(extractContentTypeAsString(headers), amqpMessageProperties::setContentType);
-		Object correlationId = headers.get(AmqpHeaders.CORRELATION_ID);
-		if (correlationId instanceof String) {
-			amqpMessageProperties.setCorrelationId((String) correlationId);
-		}
-		javaUtils
-			.acceptIfNotNull(getHeaderIfAvailable(headers, AmqpHeaders.DELAY, Integer.class),
-					amqpMessageProperties::setDelay)
-			.acceptIfNotNull(getHeaderIfAvailable(headers, AmqpHeaders.DELIVERY_MODE, MessageDeliveryMode.class),
-					amqpMessageProperties::setDeliveryMode)
-			.acceptIfNotNull(getHeaderIfAvailable(headers, AmqpHeaders.DELIVERY_TAG, Long.class),
-					amqpMessageProperties::setDeliveryTag)
-			.acceptIfHasText(getHeaderIfAvailable(headers, AmqpHeaders.EXPIRATION, String.class),
-					amqpMessageProperties::setExpiration)
-			.acceptIfNotNull(getHeaderIfAvailable(headers, AmqpHeaders.MESSAGE_COUNT, Integer.class),
-					amqpMessageProperties::setMessageCount)
-			.acceptIfHasText(getHeaderIfAvailable(headers, AmqpHeaders.MESSAGE_ID, String.class),
-					amqpMessageProperties::setMessageId)
-			.acceptIfNotNull(getHeaderIfAvailable(headers, AmqpMessageHeaderAccessor.PRIORITY, Integer.class),
-					amqpMessageProperties::setPriority)
-			.acceptIfHasText(getHeaderIfAvailable(headers, AmqpHeaders.RECEIVED_EXCHANGE, String.class),
-					amqpMessageProperties::setReceivedExchange)
-			.acceptIfHasText(getHeaderIfAvailable(headers, AmqpHeaders.RECEIVED_ROUTING_KEY, String.class),
-					amqpMessageProperties::setReceivedRoutingKey)
-			.acceptIfNotNull(getHeaderIfAvailable(headers, AmqpHeaders.REDELIVERED, Boolean.class),
-					amqpMessageProperties::setRedelivered)
-			.acceptIfNotNull(getHeaderIfAvailable(headers, AmqpHeaders.REPLY_TO, String.class),
-					amqpMessageProperties::setReplyTo)
-			.acceptIfNotNull(getHeaderIfAvailable(headers, AmqpHeaders.TIMESTAMP, Date.class),
-					amqpMessageProperties::setTimestamp)
-			.acceptIfNotNull(getHeaderIfAvailable(headers, AmqpHeaders.TYPE, String.class),
-					amqpMessageProperties::setType)
-			.acceptIfHasText(getHeaderIfAvailable(headers, AmqpHeaders.USER_ID, String.class),
-					amqpMessageProperties::setUserId);
-
-		String replyCorrelation = getHeaderIfAvailable(headers, AmqpHeaders.SPRING_REPLY_CORRELATION, String.class);
-		if (StringUtils.hasLength(replyCorrelation)) {
-			amqpMessageProperties.setHeader("spring_reply_correlation", replyCorrelation);
-		}
-		String replyToStack = getHeaderIfAvailable(headers, AmqpHeaders.SPRING_REPLY_TO_STACK, String.class);
-		if (StringUtils.hasLength(replyToStack)) {
-			amqpMessageProperties.setHeader("spring_reply_to", replyToStack);
-		}
-
-		// Map custom headers
 		for (Map.Entry<String, Object> entry : headers.entrySet()) {
 			String headerName = entry.getKey();
-			if (StringUtils.hasText(headerName) && !headerName.startsWith(AmqpHeaders.PREFIX)) {
-				Object value = entry.getValue();
-				if (value != null) {
-					String propertyName = this.fromHeaderName(headerName);
-					if (!amqpMessageProperties.getHeaders().containsKey(headerName)) {
-						amqpMessageProperties.setHeader(propertyName, value);
-					}
+			Object value = entry.getValue();
+			if (AmqpHeaders.CONTENT_TYPE.equals(headerName)) {
+				String contentType = extractContentTypeAsString(value);
+				if (StringUtils.hasText(contentType)) {
+					amqpMessageProperties.setContentType(contentType);
 				}
 			}
+			else {
+				Mapping mapping = FROM_HEADERS.get(headerName);
+				if (mapping != null && value != null && !mapping.map(value, amqpMessageProperties)
+						&& logger.isDebugEnabled()) {
+					logger.debug("skipping header '" + headerName + "' since it is not of expected type ["
+							+ mapping.type + "], it is [" + value.getClass() + "]");
+				}
+			}
+			// Map custom headers
+			if (value != null && StringUtils.hasText(headerName) && !headerName.startsWith(AmqpHeaders.PREFIX)
+					&& (!amqpMessageProperties.hasHeaders()
+							|| !amqpMessageProperties.getHeaders().containsKey(headerName))) {
+				amqpMessageProperties.setHeader(this.fromHeaderName(headerName), value);
+			}
 		}
 	}
 
 	@Override
 	public MessageHeaders toHeaders(MessageProperties amqpMessageProperties) {
-		Map<String, Object> headers = new HashMap<String, Object>();
+		Map<String, Object> custom = amqpMessageProperties.hasHeaders()
+				? amqpMessageProperties.getHeaders()
+				: Collections.emptyMap();
+		Map<String, Object> headers = new HashMap<String, Object>(
+				(int) ((PROPERTY_HEADERS + custom.size()) / 0.75f) + 1); // NOSONAR magic #
 		try {
-			BiConsumer<String, Object> putObject = headers::put;
-			BiConsumer<String, String> putString = headers::put;
-			JavaUtils javaUtils = JavaUtils.INSTANCE
-					.acceptIfNotNull(AmqpHeaders.APP_ID, amqpMessageProperties.getAppId(), putObject)
-					.acceptIfNotNull(AmqpHeaders.CLUSTER_ID, amqpMessageProperties.getClusterId(), putObject)
-					.acceptIfNotNull(AmqpHeaders.CONTENT_ENCODING, amqpMessageProperties.getContentEncoding(),
-							putObject);
+			putIfNotNull(headers, AmqpHeaders.APP_ID, amqpMessageProperties.getAppId());
+			putIfNotNull(headers, AmqpHeaders.CLUSTER_ID, amqpMessageProperties.getClusterId());
+			putIfNotNull(headers, AmqpHeaders.CONTENT_ENCODING, amqpMessageProperties.getContentEncoding());
 			long contentLength = amqpMessageProperties.getContentLength();
-			javaUtils
-					.acceptIfCondition(contentLength > 0, AmqpHeaders.CONTENT_LENGTH, contentLength, putObject)
-					.acceptIfHasText(AmqpHeaders.CONTENT_TYPE, amqpMessageProperties.getContentType(), putString)
-					.acceptIfHasText(AmqpHeaders.CORRELATION_ID, amqpMessageProperties.getCorrelationId(), putString)
-					.acceptIfNotNull(AmqpHeaders.RECEIVED_DELIVERY_MODE,
-							amqpMessageProperties.getReceivedDeliveryMode(), putObject);
+			if (contentLength > 0) {
+				headers.put(AmqpHeaders.CONTENT_LENGTH, contentLength);
+			}
+			putIfHasText(headers, AmqpHeaders.CONTENT_TYPE, amqpMessageProperties.getContentType());
+			putIfHasText(headers, AmqpHeaders.CORRELATION_ID, amqpMessageProperties.getCorrelationId());
+			putIfNotNull(headers, AmqpHeaders.RECEIVED_DELIVERY_MODE, amqpMessageProperties.getReceivedDeliveryMode());
 			long deliveryTag = amqpMessageProperties.getDeliveryTag();
-			javaUtils
-					.acceptIfCondition(deliveryTag > 0, AmqpHeaders.DELIVERY_TAG, deliveryTag, putObject)
-					.acceptIfHasText(AmqpHeaders.EXPIRATION, amqpMessageProperties.getExpiration(), putString)
-					.acceptIfNotNull(AmqpHeaders.MESSAGE_COUNT, amqpMessageProperties.getMessageCount(), putObject)
-					.acceptIfNotNull(AmqpHeaders.MESSAGE_ID, amqpMessageProperties.getMessageId(), putObject);
+			if (deliveryTag > 0) {
+				headers.put(AmqpHeaders.DELIVERY_TAG, deliveryTag);
+			}
+			putIfHasText(headers, AmqpHeaders.EXPIRATION, amqpMessageProperties.getExpiration());
+			putIfNotNull(headers, AmqpHeaders.MESSAGE_COUNT, amqpMessageProperties.getMessageCount());
+			putIfNotNull(headers, AmqpHeaders.MESSAGE_ID, amqpMessageProperties.getMessageId());
 			Integer priority = amqpMessageProperties.getPriority();
-			javaUtils
-					.acceptIfCondition(priority != null && priority > 0, AmqpMessageHeaderAccessor.PRIORITY, priority,
-							putObject)
-					.acceptIfNotNull(AmqpHeaders.RECEIVED_DELAY, amqpMessageProperties.getReceivedDelay(), putObject)
-					.acceptIfHasText(AmqpHeaders.RECEIVED_EXCHANGE, amqpMessageProperties.getReceivedExchange(),
-							putString)
-					.acceptIfHasText(AmqpHeaders.RECEIVED_ROUTING_KEY, amqpMessageProperties.getReceivedRoutingKey(),
-							putString)
-					.acceptIfNotNull(AmqpHeaders.REDELIVERED, amqpMessageProperties.isRedelivered(), putObject)
-					.acceptIfNotNull(AmqpHeaders.REPLY_TO, amqpMessageProperties.getReplyTo(), putObject)
-					.acceptIfNotNull(AmqpHeaders.TIMESTAMP, amqpMessageProperties.getTimestamp(), putObject)
-					.acceptIfHasText(AmqpHeaders.TYPE, amqpMessageProperties.getType(), putString)
-					.acceptIfHasText(AmqpHeaders.RECEIVED_USER_ID, amqpMessageProperties.getReceivedUserId(),
-							putString)
-					.acceptIfHasText(AmqpHeaders.CONSUMER_TAG, amqpMessageProperties.getConsumerTag(), putString)
-					.acceptIfHasText(AmqpHeaders.CONSUMER_QUEUE, amqpMessageProperties.getConsumerQueue(), putString);
+			if (priority != null && priority > 0) {
+				headers.put(AmqpMessageHeaderAccessor.PRIORITY, priority);
+			}
+			putIfNotNull(headers, AmqpHeaders.RECEIVED_DELAY, amqpMessageProperties.getReceivedDelay());
+			putIfHasText(headers, AmqpHeaders.RECEIVED_EXCHANGE, amqpMessageProperties.getReceivedExchange());
+			putIfHasText(headers, AmqpHeaders.RECEIVED_ROUTING_KEY, amqpMessageProperties.getReceivedRoutingKey());
+			putIfNotNull(headers, AmqpHeaders.REDELIVERED, amqpMessageProperties.isRedelivered());
+			putIfNotNull(headers, AmqpHeaders.REPLY_TO, amqpMessageProperties.getReplyTo());
+			putIfNotNull(headers, AmqpHeaders.TIMESTAMP, amqpMessageProperties.getTimestamp());
+			putIfHasText(headers, AmqpHeaders.TYPE, amqpMessageProperties.getType());
+			putIfHasText(headers, AmqpHeaders.RECEIVED_USER_ID, amqpMessageProperties.getReceivedUserId());
+			putIfHasText(headers, AmqpHeaders.CONSUMER_TAG, amqpMessageProperties.getConsumerTag());
+			putIfHasText(headers, AmqpHeaders.CONSUMER_QUEUE, amqpMessageProperties.getConsumerQueue());
 
 			// Map custom headers
-			for (Map.Entry<String, Object> entry : amqpMessageProperties.getHeaders().entrySet()) {
-				headers.put(entry.getKey(), entry.getValue());
-			}
+			headers.putAll(custom);
 		}
 		catch (Exception e) {
 			if (logger.isWarnEnabled()) {
@@ -177,18 +167,29 @@ public class SimpleAmqpHeaderMapper extends AbstractHeaderMapper<MessageProperti
 		return new MessageHeaders(headers);
 	}
 
+	private static void putIfNotNull(Map<String, Object> headers, String name, @Nullable Object value) {
+		if (value != null) {
+			headers.put(name, value);
+		}
+	}
+
+	private static void putIfHasText(Map<String, Object> headers, String name, @Nullable String value) {
+		if (StringUtils.hasText(value)) {
+			headers.put(name, value);
+		}
+	}
+
 	/**
 	 * Will extract Content-Type from MessageHeaders and convert it to String if possible
 	 * Required since Content-Type can be represented as org.springframework.http.MediaType
 	 * or org.springframework.util.MimeType.
-	 * @param headers the headers.
+	 * @param contentType the content type header.
 	 * @return the content type.
 	 */
-	private String extractContentTypeAsString(Map<String, Object> headers) {
+	@Nullable
+	private String extractContentTypeAsString(@Nullable Object contentType) {
 		String contentTypeStringValue = null;
 
-		Object contentType = getHeaderIfAvailable(headers, AmqpHeaders.CONTENT_TYPE, Object.class);
-
 		if (contentType != null) {
 			if (contentType instanceof MimeType) {
 				contentTypeStringValue = contentType.toString();
@@ -206,4 +207,50 @@ public class SimpleAmqpHeaderMapper extends AbstractHeaderMapper<MessageProperti
 		return contentTypeStringValue;
 	}
 
+	private static <V> Mapping value(Class<V> type, BiConsumer<MessageProperties, V> setter) {
+		return new Mapping(type, (props, value) -> setter.accept(props, type.cast(value)));
+	}
+
+	private static Mapping text(BiConsumer<MessageProperties, String> setter) {
+		return new Mapping(String.class, (props, value) -> {
+			if (StringUtils.hasText((String) value)) {
+				setter.accept(props, (String) value);
+			}
+		});
+	}
+
+	private static Mapping length(BiConsumer<MessageProperties, String> setter) {
+		return new Mapping(String.class, (props, value) -> {
+			if (StringUtils.hasLength((String) value)) {
+				setter.accept(props, (String) value);
+			}
+		});
+	}
+
+	/**
+	 * Maps a header to a {@link MessageProperties} property when the value has the
+	 * expected type; built once, so each inbound header costs a single map lookup rather
+	 * than looking up every supported header.
+	 */
+	private static final class Mapping {
+
+		private final Class<?> type;
+
+		private final BiConsumer<MessageProperties, Object> setter;
+
+		Mapping(Class<?> type, BiConsumer<MessageProperties, Object> setter) {
+			this.type = type;
+			this.setter = setter;
+		}
+
+		boolean map(Object value, MessageProperties props) {
+			if (this.type.isInstance(value)) {
+				this.setter.accept(props, value);
+				return true;
+			}
+			return false;
+		}
+
+	}
+
 }
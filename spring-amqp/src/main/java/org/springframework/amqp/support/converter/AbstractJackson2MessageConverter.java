@@ -16,10 +16,20 @@
 
 package org.springframework.amqp.support.converter;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.lang.reflect.Type;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -35,6 +45,8 @@ import org.springframework.util.MimeType;
 
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 /**
  * Abstract Jackson2 message converter.
@@ -83,7 +95,17 @@ public abstract class AbstractJackson2MessageConverter extends AbstractMessageCo
 
 	private ProjectingMessageConverter projectingConverter;
 
-	private boolean standardCharset;
+	private boolean standardCharset = true;
+
+	/*
+	 * Readers, writers and types are immutable and resolve their (de)serializers once;
+	 * the object mapper must therefore be fully configured before the converter is used.
+	 */
+	private final BoundedConcurrentCache<JavaType, ObjectReader> readers = new BoundedConcurrentCache<>();
+
+	private final BoundedConcurrentCache<Class<?>, ObjectWriter> writers = new BoundedConcurrentCache<>();
+
+	private final BoundedConcurrentCache<Type, JavaType> javaTypes = new BoundedConcurrentCache<>();
 
 	/**
 	 * Construct with the provided {@link ObjectMapper} instance.
@@ -120,9 +142,7 @@ public abstract class AbstractJackson2MessageConverter extends AbstractMessageCo
 	public void setDefaultCharset(@Nullable String defaultCharset) {
 		this.defaultCharset = (defaultCharset != null) ? Charset.forName(defaultCharset)
 				: DEFAULT_CHARSET;
-		if (this.defaultCharset.equals(StandardCharsets.UTF_8)) {
-			this.standardCharset = true;
-		}
+		this.standardCharset = this.defaultCharset.equals(StandardCharsets.UTF_8);
 	}
 
 	public String getDefaultCharset() {
@@ -225,6 +245,9 @@ public abstract class AbstractJackson2MessageConverter extends AbstractMessageCo
 
 	/**
 	 * {@inheritDoc}
+	 * <p>When the target type (inferred from the listener method parameter or provided
+	 * as the conversion hint) is an {@link Iterator} or a {@link Stream}, the elements of
+	 * a JSON array body are converted lazily, as they are consumed.
 	 * @param conversionHint The conversionHint must be a {@link ParameterizedTypeReference}.
 	 */
 	@Override
@@ -265,8 +288,7 @@ public abstract class AbstractJackson2MessageConverter extends AbstractMessageCo
 			}
 			else if (conversionHint instanceof ParameterizedTypeReference) {
 				content = convertBytesToObject(message.getBody(), encoding,
-						this.objectMapper.getTypeFactory().constructType(
-								((ParameterizedTypeReference<?>) conversionHint).getType()));
+						javaType(((ParameterizedTypeReference<?>) conversionHint).getType()));
 			}
 			else if (getClassMapper() == null) {
 				JavaType targetJavaType = getJavaTypeMapper()
@@ -288,14 +310,49 @@ public abstract class AbstractJackson2MessageConverter extends AbstractMessageCo
 		return content;
 	}
 
+	/*
+	 * UTF-8 content is parsed directly from the body; other encodings are decoded while
+	 * parsing, rather than into an intermediate String.
+	 */
 	private Object convertBytesToObject(byte[] body, String encoding, JavaType targetJavaType) throws IOException {
-		String contentAsString = new String(body, encoding);
-		return this.objectMapper.readValue(contentAsString, targetJavaType);
+		Class<?> rawClass = targetJavaType.getRawClass();
+		if (Iterator.class.equals(rawClass) || Stream.class.equals(rawClass)) {
+			Iterator<?> elements = readElements(body, encoding, targetJavaType.containedTypeOrUnknown(0));
+			return Iterator.class.equals(rawClass)
+					? elements
+					: StreamSupport.stream(Spliterators.spliteratorUnknownSize(elements, Spliterator.ORDERED), false);
+		}
+		ObjectReader reader = this.readers.get(targetJavaType, this.objectMapper::readerFor);
+		if (isUtf8(encoding)) {
+			return reader.readValue(body);
+		}
+		return reader.readValue(new InputStreamReader(new ByteArrayInputStream(body), encoding));
+	}
+
+	/*
+	 * When the target is an Iterator or Stream, the elements of a root-level array (or a
+	 * single root value) are bound one at a time as the consumer advances, instead of
+	 * materializing the whole collection; binding errors surface from the iterator as
+	 * (unchecked) RuntimeJsonMappingExceptions.
+	 */
+	private Iterator<?> readElements(byte[] body, String encoding, JavaType elementType) throws IOException {
+		ObjectReader reader = this.readers.get(elementType, this.objectMapper::readerFor);
+		if (isUtf8(encoding)) {
+			return reader.readValues(body);
+		}
+		return reader.readValues(new InputStreamReader(new ByteArrayInputStream(body), encoding));
 	}
 
 	private Object convertBytesToObject(byte[] body, String encoding, Class<?> targetClass) throws IOException {
-		String contentAsString = new String(body, encoding);
-		return this.objectMapper.readValue(contentAsString, this.objectMapper.constructType(targetClass));
+		return convertBytesToObject(body, encoding, javaType(targetClass));
+	}
+
+	private JavaType javaType(Type type) {
+		return this.javaTypes.get(type, this.objectMapper::constructType);
+	}
+
+	private static boolean isUtf8(String encoding) {
+		return "UTF-8".equalsIgnoreCase(encoding) || "UTF8".equalsIgnoreCase(encoding);
 	}
 
 	@Override
@@ -313,12 +370,15 @@ public abstract class AbstractJackson2MessageConverter extends AbstractMessageCo
 		byte[] bytes;
 		try {
 			if (this.standardCharset) {
-				bytes = this.objectMapper.writeValueAsBytes(objectToConvert);
+				// Jackson encodes into its recycled buffers; the result is copied once
+				bytes = writer(objectToConvert).writeValueAsBytes(objectToConvert);
 			}
 			else {
-				String jsonString = this.objectMapper
-						.writeValueAsString(objectToConvert);
-				bytes = jsonString.getBytes(getDefaultCharset());
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				try (Writer writer = new OutputStreamWriter(out, this.defaultCharset)) {
+					writer(objectToConvert).writeValue(writer, objectToConvert);
+				}
+				bytes = out.toByteArray();
 			}
 		}
 		catch (IOException e) {
@@ -329,8 +389,8 @@ public abstract class AbstractJackson2MessageConverter extends AbstractMessageCo
 		messageProperties.setContentLength(bytes.length);
 
 		if (getClassMapper() == null) {
-			getJavaTypeMapper().fromJavaType(this.objectMapper.constructType(
-					genericType == null ? objectToConvert.getClass() : genericType), messageProperties);
+			getJavaTypeMapper().fromJavaType(javaType(genericType == null ? objectToConvert.getClass() : genericType),
+					messageProperties);
 		}
 		else {
 			getClassMapper().fromClass(objectToConvert.getClass(), messageProperties); // NOSONAR never null
@@ -339,4 +399,8 @@ public abstract class AbstractJackson2MessageConverter extends AbstractMessageCo
 		return new Message(bytes, messageProperties);
 	}
 
+	private ObjectWriter writer(Object objectToConvert) {
+		return this.writers.get(objectToConvert.getClass(), this.objectMapper::writerFor);
+	}
+
 }
@@ -16,6 +16,7 @@
 
 package org.springframework.amqp.support.converter;
 
+import java.lang.reflect.Type;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -48,6 +49,8 @@ public abstract class AbstractJavaTypeMapper implements BeanClassLoaderAware {
 
 	private final Map<Class<?>, String> classIdMapping = new HashMap<Class<?>, String>();
 
+	private final BoundedConcurrentCache<Type, JavaType> inferredTypes = new BoundedConcurrentCache<>();
+
 	private ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
 
 	public String getClassIdFieldName() {
@@ -96,8 +99,7 @@ public abstract class AbstractJavaTypeMapper implements BeanClassLoaderAware {
 
 	@Nullable
 	protected String retrieveHeaderAsString(MessageProperties properties, String headerName) {
-		Map<String, Object> headers = properties.getHeaders();
-		Object classIdFieldNameValue = headers.get(headerName);
+		Object classIdFieldNameValue = properties.getHeader(headerName);
 		String classId = null;
 		if (classIdFieldNameValue != null) {
 			classId = classIdFieldNameValue.toString();
@@ -123,7 +125,8 @@ public abstract class AbstractJavaTypeMapper implements BeanClassLoaderAware {
 	}
 
 	protected JavaType fromInferredTypeHeader(MessageProperties properties) {
-		return TypeFactory.defaultInstance().constructType(properties.getInferredArgumentType());
+		return this.inferredTypes.get(properties.getInferredArgumentType(),
+				type -> TypeFactory.defaultInstance().constructType(type));
 	}
 
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.support.converter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * A simple, bounded, concurrent cache for values that are expensive to compute but are
+ * derived from a small number of keys, such as the types used for conversion. When the
+ * limit is reached, the cache is cleared; it is not expected to be reached in normal
+ * operation.
+ *
+ * @param <K> the key type.
+ * @param <V> the value type.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+final class BoundedConcurrentCache<K, V> {
+
+	/**
+	 * The default maximum number of entries.
+	 */
+	static final int DEFAULT_MAX_SIZE = 256;
+
+	private final Map<K, V> cache = new ConcurrentHashMap<>();
+
+	private final int maxSize;
+
+	BoundedConcurrentCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	BoundedConcurrentCache(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Return the cached value, computing and caching it if necessary. Exceptions thrown
+	 * by the function are propagated and nothing is cached.
+	 * @param key the key.
+	 * @param function the function to compute the value.
+	 * @return the value.
+	 */
+	V get(K key, Function<? super K, ? extends V> function) {
+		V value = this.cache.get(key);
+		if (value == null) {
+			value = function.apply(key);
+			put(key, value);
+		}
+		return value;
+	}
+
+	/**
+	 * Return the cached value, if present.
+	 * @param key the key.
+	 * @return the value, or null.
+	 */
+	@Nullable
+	V getIfPresent(K key) {
+		return this.cache.get(key);
+	}
+
+	/**
+	 * Cache the value, clearing the cache first if it is full.
+	 * @param key the key.
+	 * @param value the value.
+	 */
+	void put(K key, V value) {
+		if (this.cache.size() >= this.maxSize) {
+			this.cache.clear();
+		}
+		this.cache.put(key, value);
+	}
+
+	/**
+	 * Remove all entries.
+	 */
+	void clear() {
+		this.cache.clear();
+	}
+
+	int size() {
+		return this.cache.size();
+	}
+
+}
@@ -16,12 +16,14 @@
 
 package org.springframework.amqp.support.converter;
 
+import java.lang.reflect.Type;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.MessageProperties;
+import org.springframework.lang.Nullable;
 
 /**
  * A composite {@link MessageConverter} that delegates to an actual {@link MessageConverter}
@@ -29,13 +31,14 @@ import org.springframework.amqp.core.MessageProperties;
  * Note: the {@link MessageProperties} requires a content type header to select a converter
  * when used for outbound conversion, but the converter will (generally) override it to match
  * the actual conversion.
+ * Conversion hints and generic types are passed on to delegates that support them.
  *
  * @author Eric Rizzo
  * @author Gary Russell
  * @author Artem Bilan
  * @since 1.4.2
  */
-public class ContentTypeDelegatingMessageConverter implements MessageConverter {
+public class ContentTypeDelegatingMessageConverter implements SmartMessageConverter {
 
 	private final Map<String, MessageConverter> delegates = new HashMap<String, MessageConverter>();
 
@@ -93,12 +96,28 @@ public class ContentTypeDelegatingMessageConverter implements MessageConverter {
 		return getConverterForContentType(contentType).fromMessage(message);
 	}
 
+	@Override
+	public Object fromMessage(Message message, @Nullable Object conversionHint) throws MessageConversionException {
+		MessageConverter delegate = getConverterForContentType(message.getMessageProperties().getContentType());
+		return delegate instanceof SmartMessageConverter
+				? ((SmartMessageConverter) delegate).fromMessage(message, conversionHint)
+				: delegate.fromMessage(message);
+	}
+
 	@Override
 	public Message toMessage(Object object, MessageProperties messageProperties) {
 		String contentType = messageProperties.getContentType();
 		return getConverterForContentType(contentType).toMessage(object, messageProperties);
 	}
 
+	@Override
+	public Message toMessage(Object object, MessageProperties messageProperties, @Nullable Type genericType)
+			throws MessageConversionException {
+
+		String contentType = messageProperties.getContentType();
+		return getConverterForContentType(contentType).toMessage(object, messageProperties, genericType);
+	}
+
 	protected MessageConverter getConverterForContentType(String contentType) {
 		MessageConverter delegate = getDelegates().get(contentType);
 		if (delegate == null) {
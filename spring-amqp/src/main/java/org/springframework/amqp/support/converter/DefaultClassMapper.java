@@ -169,8 +169,7 @@ public class DefaultClassMapper implements ClassMapper, InitializingBean {
 
 	@Override
 	public Class<?> toClass(MessageProperties properties) {
-		Map<String, Object> headers = properties.getHeaders();
-		Object classIdFieldNameValue = headers.get(getClassIdFieldName());
+		Object classIdFieldNameValue = properties.getHeader(getClassIdFieldName());
 		String classId = null;
 		if (classIdFieldNameValue != null) {
 			classId = classIdFieldNameValue.toString();
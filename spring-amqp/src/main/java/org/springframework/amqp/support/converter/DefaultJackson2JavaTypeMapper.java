@@ -19,6 +19,7 @@ package org.springframework.amqp.support.converter;
 import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.springframework.amqp.core.MessageProperties;
@@ -47,6 +48,12 @@ public class DefaultJackson2JavaTypeMapper extends AbstractJavaTypeMapper implem
 
 	private final Set<String> trustedPackages = new LinkedHashSet<String>(TRUSTED_PACKAGES);
 
+	/*
+	 * Resolved (and trusted) type ids; cleared whenever the trusted packages, id/class
+	 * mappings or class loader change.
+	 */
+	private final BoundedConcurrentCache<String, JavaType> classIdTypes = new BoundedConcurrentCache<>();
+
 	private volatile TypePrecedence typePrecedence = TypePrecedence.INFERRED;
 
 	/**
@@ -101,6 +108,7 @@ public class DefaultJackson2JavaTypeMapper extends AbstractJavaTypeMapper implem
 					this.trustedPackages.add(whiteListClass);
 				}
 			}
+			this.classIdTypes.clear();
 		}
 	}
 
@@ -109,6 +117,18 @@ public class DefaultJackson2JavaTypeMapper extends AbstractJavaTypeMapper implem
 		setTrustedPackages(packages);
 	}
 
+	@Override
+	public void setIdClassMapping(Map<String, Class<?>> idClassMapping) {
+		super.setIdClassMapping(idClassMapping);
+		this.classIdTypes.clear();
+	}
+
+	@Override
+	public void setBeanClassLoader(ClassLoader classLoader) {
+		super.setBeanClassLoader(classLoader);
+		this.classIdTypes.clear();
+	}
+
 	@Override
 	public JavaType toJavaType(MessageProperties properties) {
 		JavaType inferredType = getInferredType(properties);
@@ -158,6 +178,10 @@ public class DefaultJackson2JavaTypeMapper extends AbstractJavaTypeMapper implem
 	}
 
 	private JavaType getClassIdType(String classId) {
+		return this.classIdTypes.get(classId, this::resolveClassIdType);
+	}
+
+	private JavaType resolveClassIdType(String classId) {
 		if (getIdClassMapping().containsKey(classId)) {
 			return TypeFactory.defaultInstance().constructType(getIdClassMapping().get(classId));
 		}
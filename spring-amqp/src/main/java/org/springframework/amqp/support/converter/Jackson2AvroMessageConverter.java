@@ -0,0 +1,242 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.support.converter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+import org.apache.avro.SchemaNormalization;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.avro.AvroMapper;
+import com.fasterxml.jackson.dataformat.avro.AvroSchema;
+
+/**
+ * Compact binary converter that uses the Jackson 2 Avro data format. The Avro schema
+ * for each type is generated from the class and the compiled reader and writer are
+ * cached.
+ * <p>Avro data carries no type information, so the sender adds the type id to the
+ * {@code __TypeId__} (and related) headers, as with the
+ * {@link Jackson2JsonMessageConverter}. On the receiving side, the type is determined
+ * from those headers, from the inferred argument type of a {@code @RabbitListener}
+ * method, or from a {@link ParameterizedTypeReference} conversion hint; both sides
+ * must use compatible types.
+ * <p>The sender also adds the {@link #SCHEMA_FINGERPRINT_HEADER} header, containing the
+ * Avro CRC-64 fingerprint of the parsing canonical form of the writer schema. If it is
+ * present, the receiver rejects a message whose fingerprint does not match the reader
+ * schema, because Avro data written with a different schema cannot be decoded reliably.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+public class Jackson2AvroMessageConverter extends AbstractMessageConverter
+		implements BeanClassLoaderAware, SmartMessageConverter {
+
+	/**
+	 * The header containing the fingerprint of the writer schema.
+	 */
+	public static final String SCHEMA_FINGERPRINT_HEADER = "spring_avro_schema_fingerprint";
+
+	private static final Log logger = LogFactory.getLog(Jackson2AvroMessageConverter.class); // NOSONAR lower case
+
+	private final AvroMapper avroMapper;
+
+	private final DefaultJackson2JavaTypeMapper javaTypeMapper = new DefaultJackson2JavaTypeMapper();
+
+	private final BoundedConcurrentCache<JavaType, Codec> codecs = new BoundedConcurrentCache<>();
+
+	private final BoundedConcurrentCache<Type, JavaType> javaTypes = new BoundedConcurrentCache<>();
+
+	/**
+	 * Construct with an internal {@link AvroMapper} instance
+	 * and trusted packages set to all ({@code *}).
+	 */
+	public Jackson2AvroMessageConverter() {
+		this("*");
+	}
+
+	/**
+	 * Construct with an internal {@link AvroMapper} instance.
+	 * The {@link DeserializationFeature#FAIL_ON_UNKNOWN_PROPERTIES} is set to false on
+	 * the {@link AvroMapper}.
+	 * @param trustedPackages the trusted Java packages for deserialization
+	 * @see DefaultJackson2JavaTypeMapper#setTrustedPackages(String...)
+	 */
+	public Jackson2AvroMessageConverter(String... trustedPackages) {
+		this(new AvroMapper(), trustedPackages);
+		this.avroMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+	}
+
+	/**
+	 * Construct with the provided {@link AvroMapper} instance.
+	 * The mapper must be fully configured before the converter is used, because the
+	 * readers and writers created from it are cached.
+	 * @param avroMapper the {@link AvroMapper} to use.
+	 * @param trustedPackages the trusted Java packages for deserialization
+	 * @see DefaultJackson2JavaTypeMapper#setTrustedPackages(String...)
+	 */
+	public Jackson2AvroMessageConverter(AvroMapper avroMapper, String... trustedPackages) {
+		Assert.notNull(avroMapper, "'avroMapper' must not be null");
+		this.avroMapper = avroMapper;
+		this.javaTypeMapper.setTrustedPackages(trustedPackages);
+	}
+
+	/**
+	 * Return the type mapper used to populate and interpret the type id headers.
+	 * @return the mapper.
+	 */
+	public DefaultJackson2JavaTypeMapper getJavaTypeMapper() {
+		return this.javaTypeMapper;
+	}
+
+	/**
+	 * Set the precedence for evaluating type information in message properties.
+	 * @param typePrecedence the precedence.
+	 * @see DefaultJackson2JavaTypeMapper#setTypePrecedence(Jackson2JavaTypeMapper.TypePrecedence)
+	 */
+	public void setTypePrecedence(Jackson2JavaTypeMapper.TypePrecedence typePrecedence) {
+		this.javaTypeMapper.setTypePrecedence(typePrecedence);
+	}
+
+	@Override
+	public void setBeanClassLoader(ClassLoader classLoader) {
+		this.javaTypeMapper.setBeanClassLoader(classLoader);
+	}
+
+	@Override
+	public Object fromMessage(Message message) throws MessageConversionException {
+		return fromMessage(message, null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @param conversionHint The conversionHint must be a {@link ParameterizedTypeReference}.
+	 */
+	@Override
+	public Object fromMessage(Message message, @Nullable Object conversionHint) throws MessageConversionException {
+		MessageProperties properties = message.getMessageProperties();
+		String contentType = properties.getContentType();
+		if (contentType == null || !contentType.contains("avro")) {
+			if (logger.isWarnEnabled()) {
+				logger.warn("Could not convert incoming message with content-type ["
+						+ contentType + "], 'avro' keyword missing.");
+			}
+			return message.getBody();
+		}
+		JavaType targetType;
+		if (conversionHint instanceof ParameterizedTypeReference) {
+			targetType = javaType(((ParameterizedTypeReference<?>) conversionHint).getType());
+		}
+		else {
+			targetType = this.javaTypeMapper.toJavaType(properties);
+		}
+		if (Object.class.equals(targetType.getRawClass())) {
+			throw new MessageConversionException("No type information for Avro content; a '"
+					+ this.javaTypeMapper.getClassIdFieldName() + "' header or an inferred argument type is required");
+		}
+		Object fingerprint = properties.getHeaders().get(SCHEMA_FINGERPRINT_HEADER);
+		try {
+			Codec codec = codec(targetType);
+			if (fingerprint instanceof Number && ((Number) fingerprint).longValue() != codec.fingerprint) {
+				throw new MessageConversionException("The writer schema fingerprint " + fingerprint
+						+ " does not match the reader schema fingerprint " + codec.fingerprint + " for " + targetType);
+			}
+			return codec.reader.readValue(message.getBody());
+		}
+		catch (IOException | IllegalArgumentException e) {
+			throw new MessageConversionException("Failed to convert Message content", e);
+		}
+	}
+
+	@Override
+	protected Message createMessage(Object object, MessageProperties messageProperties) {
+		return createMessage(object, messageProperties, null);
+	}
+
+	@Override
+	protected Message createMessage(Object objectToConvert, MessageProperties messageProperties,
+			@Nullable Type genericType) {
+
+		JavaType type = javaType(genericType == null ? objectToConvert.getClass() : genericType);
+		Codec codec;
+		byte[] bytes;
+		try {
+			codec = codec(type);
+			bytes = codec.writer.writeValueAsBytes(objectToConvert);
+		}
+		catch (IOException | IllegalArgumentException e) {
+			throw new MessageConversionException("Failed to convert Message content", e);
+		}
+		messageProperties.setContentType(MessageProperties.CONTENT_TYPE_AVRO);
+		messageProperties.setContentLength(bytes.length);
+		messageProperties.setHeader(SCHEMA_FINGERPRINT_HEADER, codec.fingerprint);
+		this.javaTypeMapper.fromJavaType(type, messageProperties);
+		return new Message(bytes, messageProperties);
+	}
+
+	private JavaType javaType(Type type) {
+		return this.javaTypes.get(type, this.avroMapper::constructType);
+	}
+
+	/*
+	 * Schema generation is the expensive part of creating a reader or writer; it only
+	 * happens on a cache miss.
+	 */
+	private Codec codec(JavaType type) {
+		return this.codecs.get(type, t -> {
+			AvroSchema schema;
+			try {
+				schema = this.avroMapper.schemaFor(t);
+			}
+			catch (IOException e) {
+				throw new IllegalArgumentException("Failed to generate an Avro schema for " + t, e);
+			}
+			return new Codec(this.avroMapper.readerFor(t).with(schema), this.avroMapper.writerFor(t).with(schema),
+					SchemaNormalization.parsingFingerprint64(schema.getAvroSchema()));
+		});
+	}
+
+	private static final class Codec {
+
+		private final ObjectReader reader;
+
+		private final ObjectWriter writer;
+
+		private final long fingerprint;
+
+		Codec(ObjectReader reader, ObjectWriter writer, long fingerprint) {
+			this.reader = reader;
+			this.writer = writer;
+			this.fingerprint = fingerprint;
+		}
+
+	}
+
+}
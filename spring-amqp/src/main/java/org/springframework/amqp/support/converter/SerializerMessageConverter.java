@@ -113,6 +113,7 @@ public class SerializerMessageConverter extends WhiteListDeserializingMessageCon
 		else {
 			this.usingDefaultDeserializer = false;
 		}
+		clearWhiteListCaches();
 	}
 
 	/**
@@ -173,9 +174,7 @@ public class SerializerMessageConverter extends WhiteListDeserializingMessageCon
 				@Override
 				protected Class<?> resolveClass(ObjectStreamClass classDesc)
 						throws IOException, ClassNotFoundException {
-					Class<?> clazz = super.resolveClass(classDesc);
-					checkWhiteList(clazz);
-					return clazz;
+					return resolveWhiteListedClass(classDesc, super::resolveClass);
 				}
 
 			}) {
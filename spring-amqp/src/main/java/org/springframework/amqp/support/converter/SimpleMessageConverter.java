@@ -55,6 +55,7 @@ public class SimpleMessageConverter extends WhiteListDeserializingMessageConvert
 	@Override
 	public void setBeanClassLoader(ClassLoader beanClassLoader) {
 		this.beanClassLoader = beanClassLoader;
+		clearWhiteListCaches();
 	}
 
 	/**
@@ -70,6 +71,7 @@ public class SimpleMessageConverter extends WhiteListDeserializingMessageConvert
 	 */
 	public void setCodebaseUrl(String codebaseUrl) {
 		this.codebaseUrl = codebaseUrl;
+		clearWhiteListCaches();
 	}
 
 	/**
@@ -175,9 +177,7 @@ public class SimpleMessageConverter extends WhiteListDeserializingMessageConvert
 
 			@Override
 			protected Class<?> resolveClass(ObjectStreamClass classDesc) throws IOException, ClassNotFoundException {
-				Class<?> clazz = super.resolveClass(classDesc);
-				checkWhiteList(clazz);
-				return clazz;
+				return resolveWhiteListedClass(classDesc, super::resolveClass);
 			}
 
 		};
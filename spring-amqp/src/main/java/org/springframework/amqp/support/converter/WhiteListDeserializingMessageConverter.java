@@ -16,6 +16,8 @@
 
 package org.springframework.amqp.support.converter;
 
+import java.io.IOException;
+import java.io.ObjectStreamClass;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -32,7 +34,12 @@ import org.springframework.amqp.utils.SerializationUtils;
  */
 public abstract class WhiteListDeserializingMessageConverter extends AbstractMessageConverter {
 
-	private final Set<String> whiteListPatterns = new LinkedHashSet<String>();
+	/*
+	 * The patterns and the caches derived from them are replaced together whenever the
+	 * patterns change, so a decision made with old patterns can never be cached for the
+	 * new ones.
+	 */
+	private volatile WhiteList whiteList = new WhiteList(Collections.emptySet());
 
 	/**
 	 * Set simple patterns for allowable packages/classes for deserialization.
@@ -42,9 +49,8 @@ public abstract class WhiteListDeserializingMessageConverter extends AbstractMes
 	 * Examples: {@code com.foo.*}, {@code *.MyClass}.
 	 * @param whiteListPatterns the patterns.
 	 */
-	public void setWhiteListPatterns(List<String> whiteListPatterns) {
-		this.whiteListPatterns.clear();
-		this.whiteListPatterns.addAll(whiteListPatterns);
+	public synchronized void setWhiteListPatterns(List<String> whiteListPatterns) {
+		this.whiteList = new WhiteList(new LinkedHashSet<>(whiteListPatterns));
 	}
 
 	/**
@@ -53,12 +59,111 @@ public abstract class WhiteListDeserializingMessageConverter extends AbstractMes
 	 * @since 1.5.7
 	 * @see #setWhiteListPatterns(List)
 	 */
-	public void addWhiteListPatterns(String... patterns) {
-		Collections.addAll(this.whiteListPatterns, patterns);
+	public synchronized void addWhiteListPatterns(String... patterns) {
+		Set<String> whiteListPatterns = new LinkedHashSet<>(this.whiteList.patterns);
+		Collections.addAll(whiteListPatterns, patterns);
+		this.whiteList = new WhiteList(whiteListPatterns);
 	}
 
+	/**
+	 * Verify that the class is in the white list; the decision is cached for each class.
+	 * @param clazz the class.
+	 * @throws SecurityException if the class is not allowed.
+	 */
 	protected void checkWhiteList(Class<?> clazz) {
-		SerializationUtils.checkWhiteList(clazz, this.whiteListPatterns);
+		this.whiteList.check(clazz);
+	}
+
+	/**
+	 * Resolve the class for a descriptor encountered while deserializing and verify that
+	 * it is in the white list. Allowed classes are cached by name, so descriptors that
+	 * have been seen before bypass both the class loader and the white list patterns.
+	 * Intended to be called from {@code ObjectInputStream.resolveClass()} with a resolver
+	 * such as {@code super::resolveClass}; subclasses must call
+	 * {@link #clearWhiteListCaches()} if the class loader used by the resolver changes.
+	 * @param classDesc the class descriptor.
+	 * @param resolver the resolver to use if the class has not been resolved before.
+	 * @return the class.
+	 * @throws IOException an IO exception.
+	 * @throws ClassNotFoundException if the class cannot be found.
+	 * @since 2.2
+	 */
+	protected Class<?> resolveWhiteListedClass(ObjectStreamClass classDesc, ClassResolver resolver)
+			throws IOException, ClassNotFoundException {
+
+		WhiteList current = this.whiteList;
+		Class<?> clazz = current.resolvedClasses.getIfPresent(classDesc.getName());
+		if (clazz == null) {
+			clazz = resolver.resolve(classDesc);
+			current.check(clazz);
+			current.resolvedClasses.put(classDesc.getName(), clazz);
+		}
+		return clazz;
+	}
+
+	/**
+	 * Clear the cached white list decisions and resolved classes.
+	 * @since 2.2
+	 */
+	protected synchronized void clearWhiteListCaches() {
+		this.whiteList = new WhiteList(this.whiteList.patterns);
+	}
+
+	/**
+	 * Strategy for resolving a class descriptor, typically
+	 * {@code ObjectInputStream.resolveClass()}.
+	 * @since 2.2
+	 */
+	@FunctionalInterface
+	protected interface ClassResolver {
+
+		/**
+		 * Resolve the class.
+		 * @param classDesc the class descriptor.
+		 * @return the class.
+		 * @throws IOException an IO exception.
+		 * @throws ClassNotFoundException if the class cannot be found.
+		 */
+		Class<?> resolve(ObjectStreamClass classDesc) throws IOException, ClassNotFoundException;
+
+	}
+
+	/**
+	 * An immutable snapshot of the patterns, with the white list decisions and resolved
+	 * classes cached for them; resolved classes are only cached after passing the white
+	 * list check.
+	 */
+	private static final class WhiteList {
+
+		private final Set<String> patterns;
+
+		private final BoundedConcurrentCache<Class<?>, Boolean> decisions = new BoundedConcurrentCache<>();
+
+		private final BoundedConcurrentCache<String, Class<?>> resolvedClasses = new BoundedConcurrentCache<>();
+
+		WhiteList(Set<String> patterns) {
+			this.patterns = Collections.unmodifiableSet(patterns);
+		}
+
+		void check(Class<?> clazz) {
+			if (this.patterns.isEmpty()) {
+				return;
+			}
+			if (!this.decisions.get(clazz, this::isWhiteListed)) {
+				throw new SecurityException("Attempt to deserialize unauthorized " + clazz);
+			}
+		}
+
+		private boolean isWhiteListed(Class<?> clazz) {
+			try {
+				SerializationUtils.checkWhiteList(clazz, this.patterns);
+				return true;
+			}
+			catch (SecurityException e) {
+				return false;
+			}
+		}
+
 	}
 
 }
@@ -16,7 +16,6 @@
 
 package org.springframework.amqp.support.postprocessor;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -31,7 +30,6 @@ import org.springframework.amqp.core.MessagePostProcessor;
 import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.core.MessagePropertiesBuilder;
 import org.springframework.core.Ordered;
-import org.springframework.util.FileCopyUtils;
 
 /**
  * Base class for post processors that compress the message body. The content encoding is
@@ -88,39 +86,46 @@ public abstract class AbstractCompressingPostProcessor implements MessagePostPro
 	@Override
 	public Message postProcessMessage(Message message) throws AmqpException {
 		try {
-			ByteArrayOutputStream zipped = new ByteArrayOutputStream();
-			OutputStream zipper = getCompressorStream(zipped);
-			FileCopyUtils.copy(new ByteArrayInputStream(message.getBody()), zipper);
-			byte[] compressed = zipped.toByteArray();
-			if (this.logger.isTraceEnabled()) {
-				this.logger.trace("Compressed " + message.getBody().length + " to " + compressed.length);
-			}
-
-			MessageProperties originalProperties = message.getMessageProperties();
-
-			MessagePropertiesBuilder messagePropertiesBuilder =
-					this.copyProperties
-							? MessagePropertiesBuilder.fromClonedProperties(originalProperties)
-							: MessagePropertiesBuilder.fromProperties(originalProperties);
-
-			if (this.autoDecompress) {
-				messagePropertiesBuilder.setHeader(MessageProperties.SPRING_AUTO_DECOMPRESS, true);
-			}
-
-			MessageProperties messageProperties =
-					messagePropertiesBuilder.setContentEncoding(getEncoding() +
-							(originalProperties.getContentEncoding() == null
-									? ""
-									: ":" + originalProperties.getContentEncoding()))
-							.build();
-
-			return new Message(compressed, messageProperties);
+			return compressedMessage(message, compress(message.getBody()));
 		}
 		catch (IOException e) {
 			throw new AmqpIOException(e);
 		}
 	}
 
+	/**
+	 * Create the compressed message, setting the content encoding and, optionally, the
+	 * auto decompress header.
+	 * @param message the original message.
+	 * @param compressed the compressed body.
+	 * @return the compressed message.
+	 */
+	Message compressedMessage(Message message, byte[] compressed) {
+		if (this.logger.isTraceEnabled()) {
+			this.logger.trace("Compressed " + message.getBody().length + " to " + compressed.length);
+		}
+
+		MessageProperties originalProperties = message.getMessageProperties();
+
+		MessagePropertiesBuilder messagePropertiesBuilder =
+				this.copyProperties
+						? MessagePropertiesBuilder.fromClonedProperties(originalProperties)
+						: MessagePropertiesBuilder.fromProperties(originalProperties);
+
+		if (this.autoDecompress) {
+			messagePropertiesBuilder.setHeader(MessageProperties.SPRING_AUTO_DECOMPRESS, true);
+		}
+
+		MessageProperties messageProperties =
+				messagePropertiesBuilder.setContentEncoding(getEncoding() +
+						(originalProperties.getContentEncoding() == null
+								? ""
+								: ":" + originalProperties.getContentEncoding()))
+						.build();
+
+		return new Message(compressed, messageProperties);
+	}
+
 	@Override
 	public int getOrder() {
 		return this.order;
@@ -135,6 +140,23 @@ public abstract class AbstractCompressingPostProcessor implements MessagePostPro
 		this.order = order;
 	}
 
+	/**
+	 * Compress the body. By default, the body is written to the
+	 * {@link #getCompressorStream(OutputStream) compressor stream}; subclasses may
+	 * override to compress the array directly.
+	 * @param body the body.
+	 * @return the compressed body.
+	 * @throws IOException IOException
+	 * @since 2.2
+	 */
+	protected byte[] compress(byte[] body) throws IOException {
+		ByteArrayOutputStream zipped = new ByteArrayOutputStream(body.length / 2 + 64); // NOSONAR magic #
+		try (OutputStream zipper = getCompressorStream(zipped)) {
+			zipper.write(body);
+		}
+		return zipped.toByteArray();
+	}
+
 	/**
 	 * Get the stream.
 	 * @param stream The output stream to write the compressed data to.
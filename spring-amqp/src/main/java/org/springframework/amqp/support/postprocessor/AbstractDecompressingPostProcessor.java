@@ -28,7 +28,7 @@ import org.springframework.amqp.core.MessagePostProcessor;
 import org.springframework.amqp.core.MessageProperties;
 import org.springframework.core.Ordered;
 import org.springframework.util.Assert;
-import org.springframework.util.FileCopyUtils;
+import org.springframework.util.StreamUtils;
 
 /**
  * Base class for post processors that decompress the message body if the
@@ -81,14 +81,10 @@ public abstract class AbstractDecompressingPostProcessor implements MessagePostP
 
 	@Override
 	public Message postProcessMessage(Message message) throws AmqpException {
-		Object autoDecompress = message.getMessageProperties().getHeaders()
-				.get(MessageProperties.SPRING_AUTO_DECOMPRESS);
+		Object autoDecompress = message.getMessageProperties().getHeader(MessageProperties.SPRING_AUTO_DECOMPRESS);
 		if (this.alwaysDecompress || (autoDecompress instanceof Boolean && ((Boolean) autoDecompress))) {
-			ByteArrayInputStream zipped = new ByteArrayInputStream(message.getBody());
 			try {
-				InputStream unzipper = getDecompressorStream(zipped);
-				ByteArrayOutputStream out = new ByteArrayOutputStream();
-				FileCopyUtils.copy(unzipper, out);
+				byte[] decompressed = decompress(message.getBody());
 				MessageProperties messageProperties = message.getMessageProperties();
 				String encoding = messageProperties.getContentEncoding();
 				int colonAt = encoding.indexOf(':');
@@ -104,7 +100,7 @@ public abstract class AbstractDecompressingPostProcessor implements MessagePostP
 					messageProperties.setContentEncoding(messageProperties.getContentEncoding().substring(colonAt + 1));
 				}
 				messageProperties.getHeaders().remove(MessageProperties.SPRING_AUTO_DECOMPRESS);
-				return new Message(out.toByteArray(), messageProperties);
+				return new Message(decompressed, messageProperties);
 			}
 			catch (IOException e) {
 				throw new AmqpIOException(e);
@@ -115,6 +111,23 @@ public abstract class AbstractDecompressingPostProcessor implements MessagePostP
 		}
 	}
 
+	/**
+	 * Decompress the body. By default, the body is read from the
+	 * {@link #getDecompressorStream(InputStream) decompressor stream}; subclasses may
+	 * override to decompress the array directly.
+	 * @param body the body.
+	 * @return the decompressed body.
+	 * @throws IOException IOException
+	 * @since 2.2
+	 */
+	protected byte[] decompress(byte[] body) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(body.length * 4); // NOSONAR magic #
+		try (InputStream unzipper = getDecompressorStream(new ByteArrayInputStream(body))) {
+			StreamUtils.copy(unzipper, out);
+		}
+		return out.toByteArray();
+	}
+
 	/**
 	 * Get the stream.
 	 * @param stream The output stream to write the compressed data to.
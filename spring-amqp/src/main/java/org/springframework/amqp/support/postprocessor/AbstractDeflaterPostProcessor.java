@@ -19,7 +19,8 @@ package org.springframework.amqp.support.postprocessor;
 import java.util.zip.Deflater;
 
 /**
- * Base class for post processors based on {@link Deflater}.
+ * Base class for post processors based on {@link Deflater}. Since 2.2, deflaters are
+ * pooled and reused across messages.
  * @author Gary Russell
  *
  * @since 1.4.2
@@ -27,6 +28,8 @@ import java.util.zip.Deflater;
  */
 public abstract class AbstractDeflaterPostProcessor extends AbstractCompressingPostProcessor {
 
+	private final ZlibPool<Deflater> deflaters = new ZlibPool<>(this::createDeflater, Deflater::reset, Deflater::end);
+
 	private int level = Deflater.BEST_SPEED;
 
 	public AbstractDeflaterPostProcessor() {
@@ -54,4 +57,30 @@ public abstract class AbstractDeflaterPostProcessor extends AbstractCompressingP
 		return this.level;
 	}
 
+	/**
+	 * Create a new {@link Deflater}; by default, one that produces raw deflate data
+	 * (no zlib header or trailer), as required by the gzip and zip formats.
+	 * @return the deflater.
+	 * @since 2.2
+	 */
+	protected Deflater createDeflater() {
+		return new Deflater(getLevel(), true);
+	}
+
+	/**
+	 * Deflate the body into the builder using a pooled {@link Deflater}.
+	 * @param body the body.
+	 * @param out the builder.
+	 */
+	void deflate(byte[] body, ByteArrayBuilder out) {
+		Deflater deflater = this.deflaters.acquire();
+		try {
+			deflater.setLevel(this.level);
+			out.deflate(deflater, body);
+		}
+		finally {
+			this.deflaters.release(deflater);
+		}
+	}
+
 }
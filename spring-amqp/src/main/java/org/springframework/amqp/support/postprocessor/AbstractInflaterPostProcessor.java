@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.support.postprocessor;
+
+import java.io.IOException;
+import java.util.zip.Inflater;
+
+/**
+ * Base class for post processors based on {@link Inflater}; inflaters are pooled and
+ * reused across messages.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+public abstract class AbstractInflaterPostProcessor extends AbstractDecompressingPostProcessor {
+
+	private final ZlibPool<Inflater> inflaters = new ZlibPool<>(this::createInflater, Inflater::reset, Inflater::end);
+
+	public AbstractInflaterPostProcessor() {
+		super();
+	}
+
+	public AbstractInflaterPostProcessor(boolean alwaysDecompress) {
+		super(alwaysDecompress);
+	}
+
+	/**
+	 * Create a new {@link Inflater}; by default, one that consumes raw deflate data
+	 * (no zlib header or trailer), as found in the gzip and zip formats.
+	 * @return the inflater.
+	 */
+	protected Inflater createInflater() {
+		return new Inflater(true);
+	}
+
+	/**
+	 * Inflate a complete compressed stream into the builder using a pooled
+	 * {@link Inflater}.
+	 * @param body the body.
+	 * @param offset the start of the compressed data.
+	 * @param length the maximum length of the compressed data.
+	 * @param out the builder.
+	 * @return the number of bytes consumed.
+	 * @throws IOException if the data is truncated or invalid.
+	 */
+	int inflate(byte[] body, int offset, int length, ByteArrayBuilder out) throws IOException {
+		Inflater inflater = this.inflaters.acquire();
+		try {
+			return out.inflate(inflater, body, offset, length);
+		}
+		finally {
+			this.inflaters.release(inflater);
+		}
+	}
+
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.support.postprocessor;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.AmqpIOException;
+import org.springframework.amqp.core.Correlation;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link MessagePostProcessor} that uses a delegate compressor only when compression
+ * pays off. Bodies smaller than the {@link #setMinSize(int) minimum size} are not
+ * compressed. For larger bodies, the compression ratio is sampled per content type (or
+ * per routing key, when {@link #setSampleByRoutingKey(boolean) configured}); when the
+ * compressed size of a sample exceeds the {@link #setMaxRatio(double) maximum ratio} of
+ * the original size, compression is disabled for that key for a
+ * {@link #setRetryInterval(int) number of messages}, after which it is sampled again.
+ * <p>
+ * Messages that are sent uncompressed keep their original content encoding; compressed
+ * messages have the delegate's encoding (and auto decompress header), so a
+ * {@link DelegatingDecompressingPostProcessor} (or the matching decompressor) on the
+ * receiving side handles both.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+public class AdaptiveCompressingPostProcessor implements MessagePostProcessor, Ordered {
+
+	private static final int DEFAULT_MIN_SIZE = 1024;
+
+	private static final double DEFAULT_MAX_RATIO = 0.9;
+
+	private static final int DEFAULT_SAMPLE_SIZE = 100;
+
+	private static final int DEFAULT_RETRY_INTERVAL = 10_000;
+
+	private static final int DEFAULT_MAX_KEYS = 1000;
+
+	protected final Log logger = LogFactory.getLog(getClass()); // NOSONAR final
+
+	private final Map<String, Sample> samples = new ConcurrentHashMap<>();
+
+	private final AbstractCompressingPostProcessor delegate;
+
+	private int minSize = DEFAULT_MIN_SIZE;
+
+	private double maxRatio = DEFAULT_MAX_RATIO;
+
+	private int sampleSize = DEFAULT_SAMPLE_SIZE;
+
+	private int retryInterval = DEFAULT_RETRY_INTERVAL;
+
+	private int maxKeys = DEFAULT_MAX_KEYS;
+
+	private boolean sampleByRoutingKey;
+
+	private int order;
+
+	/**
+	 * Construct an instance with the provided compressor.
+	 * @param delegate the compressor.
+	 */
+	public AdaptiveCompressingPostProcessor(AbstractCompressingPostProcessor delegate) {
+		Assert.notNull(delegate, "'delegate' cannot be null");
+		this.delegate = delegate;
+	}
+
+	/**
+	 * Set the minimum body size to compress; default 1024.
+	 * @param minSize the size.
+	 */
+	public void setMinSize(int minSize) {
+		this.minSize = minSize;
+	}
+
+	/**
+	 * Set the maximum ratio of compressed to original size for which compression is
+	 * considered worthwhile; default 0.9 (a 10% saving). Also, an individual message that
+	 * does not compress to less than this ratio is sent uncompressed.
+	 * @param maxRatio the ratio.
+	 */
+	public void setMaxRatio(double maxRatio) {
+		Assert.isTrue(maxRatio > 0 && maxRatio <= 1, "'maxRatio' must be > 0 and <= 1");
+		this.maxRatio = maxRatio;
+	}
+
+	/**
+	 * Set the number of messages per key in each sample; default 100.
+	 * @param sampleSize the sample size.
+	 */
+	public void setSampleSize(int sampleSize) {
+		Assert.isTrue(sampleSize > 0, "'sampleSize' must be > 0");
+		this.sampleSize = sampleSize;
+	}
+
+	/**
+	 * Set the number of messages for a key to send uncompressed, after compression was
+	 * disabled, before sampling again; default 10000.
+	 * @param retryInterval the interval.
+	 */
+	public void setRetryInterval(int retryInterval) {
+		this.retryInterval = retryInterval;
+	}
+
+	/**
+	 * Set the maximum number of keys to track; when exceeded, all statistics are
+	 * discarded and sampling starts again. Default 1000.
+	 * @param maxKeys the maximum.
+	 */
+	public void setMaxKeys(int maxKeys) {
+		this.maxKeys = maxKeys;
+	}
+
+	/**
+	 * Set to true to sample by routing key instead of content type. The routing key is
+	 * only available when this is used as a before publish post processor in a
+	 * {@code RabbitTemplate}; otherwise the content type is used.
+	 * @param sampleByRoutingKey true to sample by routing key.
+	 */
+	public void setSampleByRoutingKey(boolean sampleByRoutingKey) {
+		this.sampleByRoutingKey = sampleByRoutingKey;
+	}
+
+	@Override
+	public int getOrder() {
+		return this.order;
+	}
+
+	/**
+	 * Set the order.
+	 * @param order the order, default 0.
+	 * @see Ordered
+	 */
+	public void setOrder(int order) {
+		this.order = order;
+	}
+
+	/**
+	 * Return true if compression is currently enabled for the key (content type or routing
+	 * key).
+	 * @param key the key.
+	 * @return true if enabled.
+	 */
+	public boolean isCompressing(String key) {
+		Sample sample = this.samples.get(key);
+		return sample == null || sample.disabledCount.get() < 0;
+	}
+
+	@Override
+	public Message postProcessMessage(Message message) throws AmqpException {
+		return process(message, null);
+	}
+
+	@Override
+	public Message postProcessMessage(Message message, @Nullable Correlation correlation, String exchange,
+			String routingKey) {
+
+		return process(message, this.sampleByRoutingKey ? routingKey : null);
+	}
+
+	private Message process(Message message, @Nullable String routingKey) {
+		byte[] body = message.getBody();
+		if (body.length < this.minSize) {
+			return message;
+		}
+		String key = routingKey;
+		if (key == null) {
+			key = message.getMessageProperties().getContentType();
+			if (key == null) {
+				key = "";
+			}
+		}
+		Sample sample = sample(key);
+		if (sample.skip(this.retryInterval)) {
+			return message;
+		}
+		byte[] compressed;
+		try {
+			compressed = this.delegate.compress(body);
+		}
+		catch (IOException e) {
+			throw new AmqpIOException(e);
+		}
+		if (sample.record(body.length, compressed.length, this.sampleSize, this.maxRatio)
+				&& this.logger.isDebugEnabled()) {
+			this.logger.debug("Compression disabled for '" + key + "'; ratio exceeded " + this.maxRatio);
+		}
+		if (compressed.length > body.length * this.maxRatio) {
+			return message;
+		}
+		return this.delegate.compressedMessage(message, compressed);
+	}
+
+	private Sample sample(String key) {
+		Sample sample = this.samples.get(key);
+		if (sample == null) {
+			if (this.samples.size() >= this.maxKeys) {
+				this.samples.clear();
+			}
+			sample = this.samples.computeIfAbsent(key, k -> new Sample());
+		}
+		return sample;
+	}
+
+	/**
+	 * Compression statistics for a key.
+	 */
+	private static final class Sample {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		private final AtomicLong originalBytes = new AtomicLong();
+
+		private final AtomicLong compressedBytes = new AtomicLong();
+
+		/**
+		 * Negative while compressing; otherwise the number of messages since compression
+		 * was disabled.
+		 */
+		private final AtomicInteger disabledCount = new AtomicInteger(-1);
+
+		Sample() {
+			super();
+		}
+
+		boolean skip(int retryInterval) {
+			if (this.disabledCount.get() < 0) {
+				return false;
+			}
+			if (this.disabledCount.incrementAndGet() > retryInterval) {
+				this.disabledCount.set(-1);
+				return false;
+			}
+			return true;
+		}
+
+		/**
+		 * Record a compression result.
+		 * @return true if this result caused compression to be disabled.
+		 */
+		boolean record(int original, int compressed, int sampleSize, double maxRatio) {
+			long originalTotal = this.originalBytes.addAndGet(original);
+			long compressedTotal = this.compressedBytes.addAndGet(compressed);
+			if (this.count.incrementAndGet() == sampleSize) {
+				this.count.set(0);
+				this.originalBytes.addAndGet(-originalTotal);
+				this.compressedBytes.addAndGet(-compressedTotal);
+				if (compressedTotal > originalTotal * maxRatio) {
+					this.disabledCount.set(0);
+					return true;
+				}
+			}
+			return false;
+		}
+
+	}
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.support.postprocessor;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.Checksum;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * A growable byte array used to build compressed and decompressed message bodies; the
+ * deflater and inflater write directly into it, avoiding the intermediate buffers and
+ * copies of stream-based processing. With an accurate initial capacity, the result is
+ * returned without copying.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+final class ByteArrayBuilder {
+
+	private static final int MIN_CAPACITY = 64;
+
+	private byte[] buffer;
+
+	private int count;
+
+	ByteArrayBuilder(int initialCapacity) {
+		this.buffer = new byte[Math.max(initialCapacity, MIN_CAPACITY)];
+	}
+
+	void write(byte[] bytes) {
+		ensureCapacity(bytes.length);
+		System.arraycopy(bytes, 0, this.buffer, this.count, bytes.length);
+		this.count += bytes.length;
+	}
+
+	void writeShortLE(int value) {
+		ensureCapacity(2);
+		this.buffer[this.count++] = (byte) value;
+		this.buffer[this.count++] = (byte) (value >> 8);
+	}
+
+	void writeIntLE(int value) {
+		ensureCapacity(4);
+		setIntLE(this.count, value);
+		this.count += 4;
+	}
+
+	/**
+	 * Overwrite 4 bytes at the position, which must have already been written.
+	 * @param position the position.
+	 * @param value the value.
+	 */
+	void setIntLE(int position, int value) {
+		this.buffer[position] = (byte) value;
+		this.buffer[position + 1] = (byte) (value >> 8);
+		this.buffer[position + 2] = (byte) (value >> 16);
+		this.buffer[position + 3] = (byte) (value >> 24);
+	}
+
+	/**
+	 * Compress all of the input, which is the complete body.
+	 * @param deflater the deflater.
+	 * @param input the input.
+	 */
+	void deflate(Deflater deflater, byte[] input) {
+		deflater.setInput(input);
+		deflater.finish();
+		while (!deflater.finished()) {
+			ensureCapacity(1);
+			this.count += deflater.deflate(this.buffer, this.count, this.buffer.length - this.count);
+		}
+	}
+
+	/**
+	 * Decompress a complete compressed stream that starts at the offset.
+	 * @param inflater the inflater.
+	 * @param input the input.
+	 * @param offset the start of the compressed data.
+	 * @param length the maximum length of the compressed data.
+	 * @return the number of input bytes consumed.
+	 * @throws IOException if the data is truncated or invalid.
+	 */
+	int inflate(Inflater inflater, byte[] input, int offset, int length) throws IOException {
+		inflater.setInput(input, offset, length);
+		byte[] probe = null;
+		try {
+			while (!inflater.finished()) {
+				int n;
+				if (this.count < this.buffer.length) {
+					n = inflater.inflate(this.buffer, this.count, this.buffer.length - this.count);
+					this.count += n;
+				}
+				else {
+					// when the size was known, avoid growing for the end of the stream
+					if (probe == null) {
+						probe = new byte[1];
+					}
+					n = inflater.inflate(probe, 0, 1);
+					if (n > 0) {
+						ensureCapacity(1);
+						this.buffer[this.count++] = probe[0];
+					}
+				}
+				if (n == 0 && !inflater.finished()) {
+					if (inflater.needsDictionary()) {
+						throw new ZipException("A preset dictionary is required");
+					}
+					if (inflater.needsInput()) {
+						throw new EOFException("Unexpected end of compressed data");
+					}
+				}
+			}
+		}
+		catch (DataFormatException e) {
+			throw new ZipException(e.getMessage() != null ? e.getMessage() : "Invalid compressed data");
+		}
+		return length - inflater.getRemaining();
+	}
+
+	/**
+	 * Update the checksum with the bytes written since the position.
+	 * @param checksum the checksum.
+	 * @param from the position.
+	 */
+	void updateChecksum(Checksum checksum, int from) {
+		checksum.update(this.buffer, from, this.count - from);
+	}
+
+	int size() {
+		return this.count;
+	}
+
+	byte[] toByteArray() {
+		return this.count == this.buffer.length ? this.buffer : Arrays.copyOf(this.buffer, this.count);
+	}
+
+	static int shortLE(byte[] bytes, int position) {
+		return (bytes[position] & 0xff) | ((bytes[position + 1] & 0xff) << 8);
+	}
+
+	static int intLE(byte[] bytes, int position) {
+		return shortLE(bytes, position) | (shortLE(bytes, position + 2) << 16);
+	}
+
+	private void ensureCapacity(int additional) {
+		int required = this.count + additional;
+		if (required > this.buffer.length) {
+			this.buffer = Arrays.copyOf(this.buffer,
+					Math.max(required, this.buffer.length + (this.buffer.length >> 1)));
+		}
+	}
+
+}
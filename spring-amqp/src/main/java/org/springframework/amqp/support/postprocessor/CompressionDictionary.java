@@ -0,0 +1,199 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.support.postprocessor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * A dictionary of content common to many (small) messages, such as JSON property names,
+ * used to prime a compressor and the corresponding decompressor, greatly improving the
+ * compression of messages that would otherwise be too small to contain much redundancy.
+ * The same dictionary must be available to the sender and the receiver; it is identified
+ * in the compressed data by its {@link #getId() id}.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+public final class CompressionDictionary {
+
+	/**
+	 * The maximum dictionary size; matches cannot reference data further back.
+	 */
+	public static final int MAX_SIZE = Lz4Codec.MAX_OFFSET;
+
+	private static final int GRAM = 8;
+
+	private static final int SEGMENT = 32;
+
+	private final byte[] bytes;
+
+	private final int id;
+
+	private final int[] hashTable;
+
+	/**
+	 * Construct an instance with the provided content; if longer than {@link #MAX_SIZE}
+	 * only the last {@link #MAX_SIZE} bytes are used, so the most useful content should
+	 * be at the end.
+	 * @param bytes the dictionary content.
+	 */
+	public CompressionDictionary(byte[] bytes) {
+		Assert.notNull(bytes, "'bytes' cannot be null");
+		this.bytes = bytes.length > MAX_SIZE ? Arrays.copyOfRange(bytes, bytes.length - MAX_SIZE, bytes.length)
+				: bytes.clone();
+		CRC32 crc = new CRC32();
+		crc.update(this.bytes, 0, this.bytes.length);
+		this.id = (int) crc.getValue();
+		this.hashTable = Lz4Codec.hashTable(this.bytes);
+	}
+
+	/**
+	 * Return the id of this dictionary (a CRC32 of the content).
+	 * @return the id.
+	 */
+	public int getId() {
+		return this.id;
+	}
+
+	/**
+	 * Return a copy of the dictionary content, for example to save it for use by other
+	 * applications.
+	 * @return the content.
+	 */
+	public byte[] toByteArray() {
+		return this.bytes.clone();
+	}
+
+	byte[] getBytes() {
+		return this.bytes;
+	}
+
+	int[] hashTable() {
+		return this.hashTable.clone();
+	}
+
+	/**
+	 * Train a dictionary from sample messages; segments that occur in the most samples
+	 * are selected, with the most common at the end of the dictionary (where they can be
+	 * referenced most cheaply). Use a few hundred representative samples; typically, a
+	 * dictionary of a few kilobytes is sufficient for small JSON messages.
+	 * @param samples the samples.
+	 * @param maxSize the maximum dictionary size.
+	 * @return the dictionary.
+	 */
+	public static CompressionDictionary train(Collection<byte[]> samples, int maxSize) {
+		Assert.notEmpty(samples, "At least one sample is required");
+		Assert.isTrue(maxSize > 0 && maxSize <= MAX_SIZE, () -> "'maxSize' must be between 1 and " + MAX_SIZE);
+		Map<Long, Integer> frequencies = new HashMap<>();
+		for (byte[] sample : samples) {
+			Set<Long> grams = new HashSet<>();
+			for (int i = 0; i + GRAM <= sample.length; i++) {
+				grams.add(gram(sample, i));
+			}
+			grams.forEach(gram -> frequencies.merge(gram, 1, Integer::sum));
+		}
+		List<Segment> candidates = new ArrayList<>();
+		for (byte[] sample : samples) {
+			for (int i = 0; i < sample.length; i += SEGMENT / 2) {
+				int end = Math.min(sample.length, i + SEGMENT);
+				int score = score(sample, i, end, frequencies, null);
+				if (score > 0) {
+					candidates.add(new Segment(sample, i, end, score));
+				}
+			}
+		}
+		candidates.sort((a, b) -> Integer.compare(b.score, a.score));
+		Set<Long> covered = new HashSet<>();
+		List<Segment> selected = new ArrayList<>();
+		int size = 0;
+		for (Segment segment : candidates) {
+			int length = segment.end - segment.start;
+			if (size + length > maxSize) {
+				continue;
+			}
+			// skip segments that mostly repeat what has already been selected
+			if (score(segment.sample, segment.start, segment.end, frequencies, covered) * 2 > segment.score) {
+				selected.add(segment);
+				size += length;
+				for (int i = segment.start; i + GRAM <= segment.end; i++) {
+					covered.add(gram(segment.sample, i));
+				}
+			}
+		}
+		byte[] dictionary = new byte[size];
+		int position = size;
+		for (Segment segment : selected) {
+			int length = segment.end - segment.start;
+			position -= length;
+			System.arraycopy(segment.sample, segment.start, dictionary, position, length);
+		}
+		return new CompressionDictionary(dictionary);
+	}
+
+	private static int score(byte[] sample, int start, int end, Map<Long, Integer> frequencies,
+			@Nullable Set<Long> excluded) {
+
+		int score = 0;
+		for (int i = start; i + GRAM <= end; i++) {
+			long gram = gram(sample, i);
+			if (excluded == null || !excluded.contains(gram)) {
+				int frequency = frequencies.get(gram);
+				if (frequency > 1) {
+					score += frequency;
+				}
+			}
+		}
+		return score;
+	}
+
+	private static long gram(byte[] bytes, int position) {
+		return (ByteArrayBuilder.intLE(bytes, position) & 0xffffffffL)
+				| ((long) ByteArrayBuilder.intLE(bytes, position + 4) << 32); // NOSONAR magic #
+	}
+
+	private static final class Segment {
+
+		private final byte[] sample;
+
+		private final int start;
+
+		private final int end;
+
+		private final int score;
+
+		Segment(byte[] sample, int start, int end, int score) {
+			this.sample = sample;
+			this.start = start;
+			this.end = end;
+			this.score = score;
+		}
+
+	}
+
+}
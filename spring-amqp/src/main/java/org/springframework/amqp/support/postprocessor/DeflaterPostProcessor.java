@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.support.postprocessor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * A post processor that compresses the message body in the zlib format (the output is
+ * the same as that of a {@link DeflaterOutputStream}, using a pooled deflater). Sets
+ * {@link org.springframework.amqp.core.MessageProperties#SPRING_AUTO_DECOMPRESS} to true
+ * by default.
+ *
+ * @author agent
+ * @since 2.2
+ */
+public class DeflaterPostProcessor extends AbstractDeflaterPostProcessor {
+
+	private final boolean customStream = MessagePostProcessorUtils.isOverridden(getClass(), DeflaterPostProcessor.class,
+			"getCompressorStream", OutputStream.class);
+
+	public DeflaterPostProcessor() {
+		super();
+	}
+
+	public DeflaterPostProcessor(boolean autoDecompress) {
+		super(autoDecompress);
+	}
+
+	@Override
+	protected Deflater createDeflater() {
+		return new Deflater(getLevel());
+	}
+
+	@Override
+	protected byte[] compress(byte[] body) throws IOException {
+		if (this.customStream) {
+			return super.compress(body);
+		}
+		ByteArrayBuilder out = new ByteArrayBuilder(body.length / 2 + 64); // NOSONAR magic #
+		deflate(body, out);
+		return out.toByteArray();
+	}
+
+	@Override
+	protected OutputStream getCompressorStream(OutputStream zipped) throws IOException {
+		return new SettableLevelDeflaterOutputStream(zipped, getLevel());
+	}
+
+	@Override
+	protected String getEncoding() {
+		return "deflate";
+	}
+
+	private static final class SettableLevelDeflaterOutputStream extends DeflaterOutputStream {
+
+		SettableLevelDeflaterOutputStream(OutputStream out, int level) {
+			super(out, new Deflater(level));
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				super.close();
+			}
+			finally {
+				this.def.end();
+			}
+		}
+
+	}
+
+}
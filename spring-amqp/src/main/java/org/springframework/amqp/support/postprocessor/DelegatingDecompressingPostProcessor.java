@@ -26,7 +26,7 @@ import org.springframework.core.Ordered;
 
 /**
  * A {@link MessagePostProcessor} that delegates to one of its {@link MessagePostProcessor}s
- * depending on the content encoding. Supports {@code gzip, zip} by default.
+ * depending on the content encoding. Supports {@code gzip, zip, deflate, lz4} by default.
  *
  * @author Gary Russell
  * @since 1.4.2
@@ -40,6 +40,8 @@ public class DelegatingDecompressingPostProcessor implements MessagePostProcesso
 	public DelegatingDecompressingPostProcessor() {
 		this.decompressors.put("gzip", new GUnzipPostProcessor());
 		this.decompressors.put("zip", new UnzipPostProcessor());
+		this.decompressors.put("deflate", new InflaterPostProcessor());
+		this.decompressors.put("lz4", new Lz4DecompressingPostProcessor());
 	}
 
 	@Override
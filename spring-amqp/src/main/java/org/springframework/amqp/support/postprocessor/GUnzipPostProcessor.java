@@ -16,18 +16,37 @@
 
 package org.springframework.amqp.support.postprocessor;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.zip.CRC32;
 import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
 
 /**
- * A post processor that uses a {@link GZIPInputStream} to decompress the
- * message body.
+ * A post processor that decompresses a gzip message body (as would a
+ * {@link GZIPInputStream}, using a pooled inflater).
  *
  * @author Gary Russell
  * @since 1.4.2
  */
-public class GUnzipPostProcessor extends AbstractDecompressingPostProcessor {
+public class GUnzipPostProcessor extends AbstractInflaterPostProcessor {
+
+	private static final int HEADER_LENGTH = 10;
+
+	private static final int TRAILER_LENGTH = 8;
+
+	private static final int FHCRC = 2;
+
+	private static final int FEXTRA = 4;
+
+	private static final int FNAME = 8;
+
+	private static final int FCOMMENT = 16;
+
+
+	private final boolean customStream = MessagePostProcessorUtils.isOverridden(getClass(), GUnzipPostProcessor.class,
+			"getDecompressorStream", InputStream.class);
 
 	public GUnzipPostProcessor() {
 		super();
@@ -37,6 +56,85 @@ public class GUnzipPostProcessor extends AbstractDecompressingPostProcessor {
 		super(alwaysDecompress);
 	}
 
+	@Override
+	protected byte[] decompress(byte[] body) throws IOException {
+		if (this.customStream) {
+			return super.decompress(body);
+		}
+		ByteArrayBuilder out = new ByteArrayBuilder(sizeHint(body));
+		int position = 0;
+		do {
+			position = readHeader(body, position);
+			int start = out.size();
+			position += inflate(body, position, body.length - position, out);
+			if (body.length - position < TRAILER_LENGTH) {
+				throw new EOFException("Unexpected end of GZIP trailer");
+			}
+			CRC32 crc = new CRC32();
+			out.updateChecksum(crc, start);
+			if (ByteArrayBuilder.intLE(body, position) != (int) crc.getValue()
+					|| ByteArrayBuilder.intLE(body, position + 4) != out.size() - start) { // NOSONAR magic #
+				throw new ZipException("Corrupt GZIP trailer");
+			}
+			position += TRAILER_LENGTH;
+		}
+		while (isMagic(body, position)); // concatenated members; other trailing bytes are ignored
+		return out.toByteArray();
+	}
+
+	private static int sizeHint(byte[] body) {
+		if (body.length >= HEADER_LENGTH + TRAILER_LENGTH) {
+			int size = ByteArrayBuilder.intLE(body, body.length - 4); // NOSONAR magic #
+			// ISIZE is modulo 2^32; don't trust an implausible expansion
+			if (size > 0 && size / 1032 <= body.length) { // NOSONAR max deflate ratio
+				return size;
+			}
+		}
+		return body.length * 4; // NOSONAR magic #
+	}
+
+	private static int readHeader(byte[] body, int offset) throws IOException {
+		if (body.length - offset < HEADER_LENGTH || !isMagic(body, offset) || body[offset + 2] != 8) {
+			throw new ZipException("Not in GZIP format");
+		}
+		int flags = body[offset + 3] & 0xff; // NOSONAR magic #
+		int position = offset + HEADER_LENGTH;
+		if ((flags & FEXTRA) != 0) {
+			checkAvailable(body, position, 2);
+			position += 2 + ByteArrayBuilder.shortLE(body, position);
+		}
+		if ((flags & FNAME) != 0) {
+			position = skipString(body, position);
+		}
+		if ((flags & FCOMMENT) != 0) {
+			position = skipString(body, position);
+		}
+		if ((flags & FHCRC) != 0) {
+			position += 2;
+		}
+		checkAvailable(body, position, 0);
+		return position;
+	}
+
+	private static int skipString(byte[] body, int offset) throws IOException {
+		int position = offset;
+		while (position < body.length && body[position] != 0) {
+			position++;
+		}
+		checkAvailable(body, position, 1);
+		return position + 1;
+	}
+
+	private static void checkAvailable(byte[] body, int position, int needed) throws IOException {
+		if (position + needed > body.length) {
+			throw new EOFException("Unexpected end of GZIP header");
+		}
+	}
+
+	private static boolean isMagic(byte[] body, int position) {
+		return body.length - position >= 2 && body[position] == 0x1f && body[position + 1] == (byte) 0x8b;
+	}
+
 	@Override
 	protected InputStream getDecompressorStream(InputStream zipped) throws IOException {
 		return new GZIPInputStream(zipped);
@@ -18,10 +18,12 @@ package org.springframework.amqp.support.postprocessor;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.zip.CRC32;
 import java.util.zip.GZIPOutputStream;
 
 /**
- * A post processor that uses a {@link GZIPOutputStream} to compress the message body.
+ * A post processor that compresses the message body in the gzip format (the output is
+ * the same as that of a {@link GZIPOutputStream}, using a pooled deflater).
  * Sets {@link org.springframework.amqp.core.MessageProperties#SPRING_AUTO_DECOMPRESS} to
  * true by default.
  *
@@ -30,6 +32,11 @@ import java.util.zip.GZIPOutputStream;
  */
 public class GZipPostProcessor extends AbstractDeflaterPostProcessor {
 
+	private static final byte[] HEADER = { 0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, 0 };
+
+	private final boolean customStream = MessagePostProcessorUtils.isOverridden(getClass(), GZipPostProcessor.class,
+			"getCompressorStream", OutputStream.class);
+
 	public GZipPostProcessor() {
 		super();
 	}
@@ -38,6 +45,21 @@ public class GZipPostProcessor extends AbstractDeflaterPostProcessor {
 		super(autoDecompress);
 	}
 
+	@Override
+	protected byte[] compress(byte[] body) throws IOException {
+		if (this.customStream) {
+			return super.compress(body);
+		}
+		ByteArrayBuilder out = new ByteArrayBuilder(body.length / 2 + 64); // NOSONAR magic #
+		out.write(HEADER);
+		deflate(body, out);
+		CRC32 crc = new CRC32();
+		crc.update(body, 0, body.length);
+		out.writeIntLE((int) crc.getValue());
+		out.writeIntLE(body.length);
+		return out.toByteArray();
+	}
+
 	@Override
 	protected OutputStream getCompressorStream(OutputStream zipped) throws IOException {
 		return new SettableLevelGZIPOutputStream(zipped, getLevel());
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.support.postprocessor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A post processor that decompresses a zlib message body (as would an
+ * {@link InflaterInputStream}, using a pooled inflater).
+ *
+ * @author agent
+ * @since 2.2
+ */
+public class InflaterPostProcessor extends AbstractInflaterPostProcessor {
+
+	private final boolean customStream = MessagePostProcessorUtils.isOverridden(getClass(), InflaterPostProcessor.class,
+			"getDecompressorStream", InputStream.class);
+
+	public InflaterPostProcessor() {
+		super();
+	}
+
+	public InflaterPostProcessor(boolean alwaysDecompress) {
+		super(alwaysDecompress);
+	}
+
+	@Override
+	protected Inflater createInflater() {
+		return new Inflater();
+	}
+
+	@Override
+	protected byte[] decompress(byte[] body) throws IOException {
+		if (this.customStream) {
+			return super.decompress(body);
+		}
+		ByteArrayBuilder out = new ByteArrayBuilder(body.length * 4); // NOSONAR magic #
+		inflate(body, 0, body.length, out);
+		return out.toByteArray();
+	}
+
+	@Override
+	protected InputStream getDecompressorStream(InputStream zipped) throws IOException {
+		return new InflaterInputStream(zipped);
+	}
+
+	@Override
+	protected String getEncoding() {
+		return "deflate";
+	}
+
+}
@@ -0,0 +1,480 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.support.postprocessor;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * A pure Java implementation of the
+ * <a href="https://github.com/lz4/lz4/blob/dev/doc/lz4_Frame_format.md">LZ4 frame
+ * format</a>, with independent blocks, the content size and, optionally, a dictionary id
+ * in the frame descriptor. Block and content checksums are not written, but are skipped
+ * when present in frames from other encoders.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+final class Lz4Codec {
+
+	static final int MAGIC = 0x184D2204;
+
+	static final int MAX_OFFSET = 65535;
+
+	private static final int MAX_BLOCK_SIZE = 4 * 1024 * 1024;
+
+	/**
+	 * Each byte of a compressed block can expand to at most 255 bytes of content.
+	 */
+	private static final int MAX_EXPANSION = 255;
+
+	private static final int VERSION = 0x40;
+
+	private static final int BLOCK_INDEPENDENCE = 0x20;
+
+	private static final int BLOCK_CHECKSUM = 0x10;
+
+	private static final int CONTENT_SIZE = 0x08;
+
+	private static final int CONTENT_CHECKSUM = 0x04;
+
+	private static final int DICT_ID = 0x01;
+
+	private static final int BLOCK_MAX_SIZE_4MB = 0x70;
+
+	private static final int UNCOMPRESSED = 0x80000000;
+
+	private static final int MIN_MATCH = 4;
+
+	private static final int LAST_LITERALS = 5;
+
+	private static final int MF_LIMIT = 12;
+
+	private static final int MAX_HASH_LOG = 12;
+
+	private static final int MIN_HASH_LOG = 8;
+
+	private static final int SKIP_STRENGTH = 6;
+
+	private static final int ML_MASK = 0x0f;
+
+	private static final int RUN_MASK = 0x0f;
+
+	private Lz4Codec() {
+		super();
+	}
+
+	/**
+	 * Compress the body into an LZ4 frame.
+	 * @param body the body.
+	 * @param dictionary an optional dictionary.
+	 * @return the frame.
+	 */
+	static byte[] compress(byte[] body, @Nullable CompressionDictionary dictionary) {
+		int blocks = Math.max(1, (body.length + MAX_BLOCK_SIZE - 1) / MAX_BLOCK_SIZE);
+		byte[] out = new byte[23 + maxBlockLength(body.length) + blocks * 20]; // NOSONAR magic #
+		int op = writeFrameHeader(out, body.length, dictionary);
+		for (int start = 0; start < body.length; start += MAX_BLOCK_SIZE) {
+			int end = Math.min(body.length, start + MAX_BLOCK_SIZE);
+			int sizeAt = op;
+			op += 4; // NOSONAR magic #
+			int compressedEnd = dictionary == null
+					? compressBlock(body, start, end, start, newTable(end - start), out, op)
+					: compressWithDictionary(body, start, end, dictionary, out, op);
+			if (compressedEnd - op >= end - start) {
+				System.arraycopy(body, start, out, op, end - start);
+				setIntLE(out, sizeAt, (end - start) | UNCOMPRESSED);
+				op += end - start;
+			}
+			else {
+				setIntLE(out, sizeAt, compressedEnd - op);
+				op = compressedEnd;
+			}
+		}
+		setIntLE(out, op, 0); // end mark
+		op += 4; // NOSONAR magic #
+		return op == out.length ? out : Arrays.copyOf(out, op);
+	}
+
+	/**
+	 * Decompress an LZ4 frame.
+	 * @param frame the frame.
+	 * @param dictionaries a function to look up a dictionary by id, if the frame requires one.
+	 * @return the content.
+	 * @throws IOException if the frame is malformed or a dictionary is not available.
+	 */
+	static byte[] decompress(byte[] frame, DictionaryResolver dictionaries) throws IOException {
+		if (frame.length < 7 || ByteArrayBuilder.intLE(frame, 0) != MAGIC) { // NOSONAR magic #
+			throw new IOException("Not in LZ4 frame format");
+		}
+		int flags = frame[4] & 0xff; // NOSONAR magic #
+		if ((flags & 0xc0) != VERSION) { // NOSONAR magic #
+			throw new IOException("Unsupported LZ4 frame version");
+		}
+		int ip = 6; // NOSONAR magic #
+		long contentSize = -1;
+		if ((flags & CONTENT_SIZE) != 0) {
+			checkAvailable(frame, ip, 8); // NOSONAR magic #
+			contentSize = (ByteArrayBuilder.intLE(frame, ip) & 0xffffffffL)
+					| ((long) ByteArrayBuilder.intLE(frame, ip + 4) << 32); // NOSONAR magic #
+			ip += 8; // NOSONAR magic #
+			if (contentSize < 0 || contentSize > Math.min(Integer.MAX_VALUE - 8, // NOSONAR magic #
+					(long) frame.length * MAX_EXPANSION)) {
+				throw new IOException("Invalid LZ4 content size: " + Long.toUnsignedString(contentSize));
+			}
+		}
+		CompressionDictionary dictionary = null;
+		if ((flags & DICT_ID) != 0) {
+			checkAvailable(frame, ip, 4); // NOSONAR magic #
+			int id = ByteArrayBuilder.intLE(frame, ip);
+			ip += 4; // NOSONAR magic #
+			dictionary = dictionaries.resolve(id);
+			if (dictionary == null) {
+				throw new IOException("No dictionary available for LZ4 dictionary id " + id);
+			}
+		}
+		checkAvailable(frame, ip, 1);
+		if ((frame[ip] & 0xff) != headerChecksum(frame, 4, ip - 4)) { // NOSONAR magic #
+			throw new IOException("Corrupt LZ4 frame descriptor");
+		}
+		ip++;
+		boolean independent = (flags & BLOCK_INDEPENDENCE) != 0;
+		int blockChecksum = (flags & BLOCK_CHECKSUM) != 0 ? 4 : 0; // NOSONAR magic #
+		byte[] dest = new byte[contentSize >= 0
+				? (int) contentSize
+				: (int) Math.min(Integer.MAX_VALUE - 8, Math.max(64, frame.length * 4L))]; // NOSONAR magic #
+		int op = 0;
+		while (true) {
+			checkAvailable(frame, ip, 4); // NOSONAR magic #
+			int blockSize = ByteArrayBuilder.intLE(frame, ip);
+			ip += 4; // NOSONAR magic #
+			if (blockSize == 0) {
+				break;
+			}
+			boolean uncompressed = (blockSize & UNCOMPRESSED) != 0;
+			blockSize &= ~UNCOMPRESSED;
+			if (blockSize > MAX_BLOCK_SIZE) {
+				throw new IOException("Invalid LZ4 block size: " + blockSize);
+			}
+			checkAvailable(frame, ip, blockSize + blockChecksum);
+			if (contentSize < 0) {
+				dest = ensureCapacity(dest, op, uncompressed
+						? blockSize
+						: (int) Math.min(MAX_BLOCK_SIZE, (long) blockSize * MAX_EXPANSION));
+			}
+			if (uncompressed) {
+				checkSpace(dest, op, blockSize);
+				System.arraycopy(frame, ip, dest, op, blockSize);
+				op += blockSize;
+			}
+			else {
+				op = decompressBlock(frame, ip, ip + blockSize, dest, op, independent ? op : 0, dictionary);
+			}
+			ip += blockSize + blockChecksum;
+		}
+		if (contentSize >= 0 && op != contentSize) {
+			throw new IOException("LZ4 content size mismatch; expected " + contentSize + " was " + op);
+		}
+		return op == dest.length ? dest : Arrays.copyOf(dest, op);
+	}
+
+	static int maxBlockLength(int length) {
+		return length + length / 255 + 16; // NOSONAR magic #
+	}
+
+	/**
+	 * Calculate the frame descriptor checksum: the second byte of the xxHash32 (seed 0)
+	 * of the descriptor. The descriptor is always shorter than 16 bytes.
+	 * @param bytes the bytes.
+	 * @param offset the descriptor start.
+	 * @param length the descriptor length.
+	 * @return the checksum.
+	 */
+	static int headerChecksum(byte[] bytes, int offset, int length) {
+		return (xxHash32(bytes, offset, length) >>> 8) & 0xff; // NOSONAR magic #
+	}
+
+	private static int xxHash32(byte[] bytes, int offset, int length) {
+		final int prime1 = 0x9E3779B1;
+		final int prime2 = 0x85EBCA77;
+		final int prime3 = 0xC2B2AE3D;
+		final int prime4 = 0x27D4EB2F;
+		final int prime5 = 0x165667B1;
+		int end = offset + length;
+		int position = offset;
+		int hash = prime5 + length;
+		for (; position + 4 <= end; position += 4) { // NOSONAR magic #
+			hash += ByteArrayBuilder.intLE(bytes, position) * prime3;
+			hash = Integer.rotateLeft(hash, 17) * prime4; // NOSONAR magic #
+		}
+		for (; position < end; position++) {
+			hash += (bytes[position] & 0xff) * prime5;
+			hash = Integer.rotateLeft(hash, 11) * prime1; // NOSONAR magic #
+		}
+		hash ^= hash >>> 15; // NOSONAR magic #
+		hash *= prime2;
+		hash ^= hash >>> 13; // NOSONAR magic #
+		hash *= prime3;
+		hash ^= hash >>> 16; // NOSONAR magic #
+		return hash;
+	}
+
+	private static int writeFrameHeader(byte[] out, int length, @Nullable CompressionDictionary dictionary) {
+		setIntLE(out, 0, MAGIC);
+		out[4] = (byte) (VERSION | BLOCK_INDEPENDENCE | CONTENT_SIZE | (dictionary != null ? DICT_ID : 0)); // NOSONAR
+		out[5] = (byte) BLOCK_MAX_SIZE_4MB; // NOSONAR magic #
+		setIntLE(out, 6, length); // NOSONAR magic #
+		setIntLE(out, 10, 0); // NOSONAR magic #
+		int op = 14; // NOSONAR magic #
+		if (dictionary != null) {
+			setIntLE(out, op, dictionary.getId());
+			op += 4; // NOSONAR magic #
+		}
+		out[op] = (byte) headerChecksum(out, 4, op - 4); // NOSONAR magic #
+		return op + 1;
+	}
+
+	private static int compressWithDictionary(byte[] body, int start, int end, CompressionDictionary dictionary,
+			byte[] out, int op) {
+
+		byte[] dict = dictionary.getBytes();
+		byte[] in = new byte[dict.length + end - start];
+		System.arraycopy(dict, 0, in, 0, dict.length);
+		System.arraycopy(body, start, in, dict.length, end - start);
+		return compressBlock(in, dict.length, in.length, 0, dictionary.hashTable(), out, op);
+	}
+
+	private static int[] newTable(int length) {
+		int hashLog = Math.max(MIN_HASH_LOG, Math.min(MAX_HASH_LOG, 32 - Integer.numberOfLeadingZeros(length))); // NOSONAR
+		return new int[1 << hashLog];
+	}
+
+	/**
+	 * Build a hash table of the dictionary positions, for use when compressing.
+	 * @param dict the dictionary.
+	 * @return the table.
+	 */
+	static int[] hashTable(byte[] dict) {
+		int[] table = new int[1 << MAX_HASH_LOG];
+		for (int i = 0; i + MIN_MATCH <= dict.length; i++) {
+			table[hash(ByteArrayBuilder.intLE(dict, i), MAX_HASH_LOG)] = i;
+		}
+		return table;
+	}
+
+	/**
+	 * Compress a block; {@code in[windowStart, start)} is a dictionary prefix.
+	 * @param in the input.
+	 * @param start the block start.
+	 * @param end the block end.
+	 * @param windowStart the first byte that matches may reference.
+	 * @param table the hash table (may be pre-populated with dictionary positions).
+	 * @param out the output.
+	 * @param outStart the output position.
+	 * @return the output position after the block.
+	 */
+	private static int compressBlock(byte[] in, int start, int end, int windowStart, int[] table, byte[] out,
+			int outStart) {
+
+		int hashLog = Integer.numberOfTrailingZeros(table.length);
+		int op = outStart;
+		int anchor = start;
+		int ip = start;
+		int matchLimit = end - LAST_LITERALS;
+		int mfLimit = end - MF_LIMIT;
+		int searchCount = 1 << SKIP_STRENGTH;
+		while (ip <= mfLimit) {
+			int sequence = ByteArrayBuilder.intLE(in, ip);
+			int h = hash(sequence, hashLog);
+			int ref = table[h];
+			table[h] = ip;
+			if (ref >= windowStart && ref < ip && ip - ref <= MAX_OFFSET
+					&& ByteArrayBuilder.intLE(in, ref) == sequence) {
+				while (ip > anchor && ref > windowStart && in[ip - 1] == in[ref - 1]) {
+					ip--;
+					ref--;
+				}
+				int length = MIN_MATCH;
+				while (ip + length < matchLimit && in[ref + length] == in[ip + length]) {
+					length++;
+				}
+				op = writeSequence(in, anchor, ip - anchor, ip - ref, length - MIN_MATCH, out, op);
+				ip += length;
+				anchor = ip;
+				searchCount = 1 << SKIP_STRENGTH;
+				if (ip - 2 <= mfLimit) {
+					table[hash(ByteArrayBuilder.intLE(in, ip - 2), hashLog)] = ip - 2;
+				}
+			}
+			else {
+				ip += searchCount++ >>> SKIP_STRENGTH;
+			}
+		}
+		return writeLiterals(in, anchor, end - anchor, out, op);
+	}
+
+	private static int writeSequence(byte[] in, int literalStart, int literals, int offset, int matchLength,
+			byte[] out, int outStart) {
+
+		int op = outStart;
+		int token = op++;
+		op = writeLength(literals, RUN_MASK, out, op);
+		System.arraycopy(in, literalStart, out, op, literals);
+		op += literals;
+		out[op++] = (byte) offset;
+		out[op++] = (byte) (offset >>> 8); // NOSONAR magic #
+		op = writeLength(matchLength, ML_MASK, out, op);
+		out[token] = (byte) ((Math.min(literals, RUN_MASK) << 4) | Math.min(matchLength, ML_MASK)); // NOSONAR
+		return op;
+	}
+
+	private static int writeLiterals(byte[] in, int literalStart, int literals, byte[] out, int outStart) {
+		int op = outStart;
+		out[op++] = (byte) (Math.min(literals, RUN_MASK) << 4); // NOSONAR magic #
+		op = writeLength(literals, RUN_MASK, out, op);
+		System.arraycopy(in, literalStart, out, op, literals);
+		return op + literals;
+	}
+
+	private static int writeLength(int length, int mask, byte[] out, int outStart) {
+		int op = outStart;
+		if (length >= mask) {
+			int remaining = length - mask;
+			while (remaining >= 255) { // NOSONAR magic #
+				out[op++] = (byte) 255; // NOSONAR magic #
+				remaining -= 255; // NOSONAR magic #
+			}
+			out[op++] = (byte) remaining;
+		}
+		return op;
+	}
+
+	private static int decompressBlock(byte[] in, int start, int end, byte[] dest, int outStart, int historyStart,
+			@Nullable CompressionDictionary dictionary) throws IOException {
+
+		byte[] dict = dictionary == null ? null : dictionary.getBytes();
+		int ip = start;
+		int op = outStart;
+		while (true) {
+			checkAvailable(in, ip, 1, end);
+			int token = in[ip++] & 0xff;
+			int literals = token >>> 4; // NOSONAR magic #
+			if (literals == RUN_MASK) {
+				int b;
+				do {
+					checkAvailable(in, ip, 1, end);
+					b = in[ip++] & 0xff;
+					literals += b;
+				}
+				while (b == 255); // NOSONAR magic #
+			}
+			checkAvailable(in, ip, literals, end);
+			checkSpace(dest, op, literals);
+			System.arraycopy(in, ip, dest, op, literals);
+			ip += literals;
+			op += literals;
+			if (ip == end) {
+				return op;
+			}
+			checkAvailable(in, ip, 2, end);
+			int offset = ByteArrayBuilder.shortLE(in, ip);
+			ip += 2;
+			int length = token & ML_MASK;
+			if (length == ML_MASK) {
+				int b;
+				do {
+					checkAvailable(in, ip, 1, end);
+					b = in[ip++] & 0xff;
+					length += b;
+				}
+				while (b == 255); // NOSONAR magic #
+			}
+			length += MIN_MATCH;
+			checkSpace(dest, op, length);
+			int ref = op - offset;
+			if (offset == 0 || ref < historyStart - (dict == null ? 0 : dict.length)) {
+				throw new IOException("Invalid LZ4 match offset: " + offset);
+			}
+			if (ref < historyStart) {
+				int fromDict = Math.min(historyStart - ref, length);
+				System.arraycopy(dict, dict.length - (historyStart - ref), dest, op, fromDict); // NOSONAR not null
+				op += fromDict;
+				length -= fromDict;
+				ref = historyStart;
+			}
+			if (op - ref >= length) {
+				System.arraycopy(dest, ref, dest, op, length);
+				op += length;
+			}
+			else {
+				for (int i = 0; i < length; i++) {
+					dest[op++] = dest[ref++];
+				}
+			}
+		}
+	}
+
+	private static int hash(int sequence, int hashLog) {
+		return (sequence * 0x9E3779B1) >>> (32 - hashLog); // NOSONAR magic #
+	}
+
+	private static void setIntLE(byte[] bytes, int position, int value) {
+		bytes[position] = (byte) value;
+		bytes[position + 1] = (byte) (value >>> 8); // NOSONAR magic #
+		bytes[position + 2] = (byte) (value >>> 16); // NOSONAR magic #
+		bytes[position + 3] = (byte) (value >>> 24); // NOSONAR magic #
+	}
+
+	private static byte[] ensureCapacity(byte[] dest, int position, int needed) {
+		long required = (long) position + needed;
+		if (required <= dest.length) {
+			return dest;
+		}
+		return Arrays.copyOf(dest, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(required, dest.length * 2L))); // NOSONAR
+	}
+
+	private static void checkAvailable(byte[] in, int position, int needed) throws IOException {
+		checkAvailable(in, position, needed, in.length);
+	}
+
+	private static void checkAvailable(byte[] in, int position, int needed, int end) throws IOException {
+		if (needed < 0 || (long) position + needed > end) {
+			throw new IOException("Unexpected end of LZ4 data");
+		}
+	}
+
+	private static void checkSpace(byte[] dest, int position, int needed) throws IOException {
+		if ((long) position + needed > dest.length) {
+			throw new IOException("LZ4 content exceeds the declared size");
+		}
+	}
+
+	/**
+	 * Strategy to look up a dictionary by id.
+	 */
+	@FunctionalInterface
+	interface DictionaryResolver {
+
+		@Nullable
+		CompressionDictionary resolve(int id);
+
+	}
+
+}
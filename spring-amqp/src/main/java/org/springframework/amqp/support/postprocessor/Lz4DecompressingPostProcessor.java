@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.support.postprocessor;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.util.StreamUtils;
+
+/**
+ * A post processor that decompresses an LZ4 frame message body. Frames that reference a
+ * dictionary can only be decompressed if that dictionary has been
+ * {@link #addDictionary(CompressionDictionary) added}.
+ *
+ * @author agent
+ * @since 2.2
+ */
+public class Lz4DecompressingPostProcessor extends AbstractDecompressingPostProcessor {
+
+	private final Map<Integer, CompressionDictionary> dictionaries = new ConcurrentHashMap<>();
+
+	public Lz4DecompressingPostProcessor() {
+		super();
+	}
+
+	public Lz4DecompressingPostProcessor(boolean alwaysDecompress) {
+		super(alwaysDecompress);
+	}
+
+	/**
+	 * Add a dictionary that senders may have used to compress messages.
+	 * @param dictionary the dictionary.
+	 */
+	public void addDictionary(CompressionDictionary dictionary) {
+		this.dictionaries.put(dictionary.getId(), dictionary);
+	}
+
+	@Override
+	protected byte[] decompress(byte[] body) throws IOException {
+		return Lz4Codec.decompress(body, this.dictionaries::get);
+	}
+
+	@Override
+	protected InputStream getDecompressorStream(InputStream zipped) throws IOException {
+		return new ByteArrayInputStream(decompress(StreamUtils.copyToByteArray(zipped)));
+	}
+
+	@Override
+	protected String getEncoding() {
+		return "lz4";
+	}
+
+}
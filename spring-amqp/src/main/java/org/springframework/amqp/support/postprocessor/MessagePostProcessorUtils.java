@@ -16,6 +16,7 @@
 
 package org.springframework.amqp.support.postprocessor;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -24,6 +25,7 @@ import org.springframework.amqp.core.MessagePostProcessor;
 import org.springframework.core.OrderComparator;
 import org.springframework.core.Ordered;
 import org.springframework.core.PriorityOrdered;
+import org.springframework.util.ReflectionUtils;
 
 /**
  * Utilities for message post processors.
@@ -58,6 +60,23 @@ public final class MessagePostProcessorUtils {
 		return sorted;
 	}
 
+	/**
+	 * Return true if a subclass of the declaring class overrides the method; the pooled
+	 * compression paths are only used when the stream factory methods are not overridden.
+	 * @param clazz the class to check.
+	 * @param declaringClass the class that declares the method.
+	 * @param methodName the method name.
+	 * @param parameterTypes the parameter types.
+	 * @return true if overridden.
+	 * @since 2.2
+	 */
+	static boolean isOverridden(Class<?> clazz, Class<?> declaringClass, String methodName,
+			Class<?>... parameterTypes) {
+
+		Method method = ReflectionUtils.findMethod(clazz, methodName, parameterTypes);
+		return method != null && !method.getDeclaringClass().equals(declaringClass);
+	}
+
 	private MessagePostProcessorUtils() { }
 
 }
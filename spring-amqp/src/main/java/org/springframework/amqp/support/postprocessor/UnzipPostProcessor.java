@@ -16,21 +16,39 @@
 
 package org.springframework.amqp.support.postprocessor;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
 import java.util.zip.ZipInputStream;
 
 import org.springframework.util.Assert;
 
 /**
- * A post processor that uses a {@link ZipInputStream} to decompress the
- * message body.
+ * A post processor that decompresses the {@code amqp} entry of a zip message body (as
+ * would a {@link ZipInputStream}, using a pooled inflater). Entries that are not
+ * deflated, or are encrypted, are read with a {@link ZipInputStream}.
  *
  * @author Gary Russell
  * @since 1.4.2
  */
-public class UnzipPostProcessor extends AbstractDecompressingPostProcessor {
+public class UnzipPostProcessor extends AbstractInflaterPostProcessor {
+
+	private static final int LOCAL_HEADER_LENGTH = 30;
+
+	private static final int DESCRIPTOR_SIGNATURE = 0x08074b50;
+
+	private static final int ENCRYPTED = 1;
+
+	private static final int DESCRIPTOR = 8;
+
+
+	private final boolean customStream = MessagePostProcessorUtils.isOverridden(getClass(), UnzipPostProcessor.class,
+			"getDecompressorStream", InputStream.class);
 
 	public UnzipPostProcessor() {
 		super();
@@ -40,15 +58,61 @@ public class UnzipPostProcessor extends AbstractDecompressingPostProcessor {
 		super(alwaysDecompress);
 	}
 
+	@Override
+	protected byte[] decompress(byte[] body) throws IOException {
+		if (this.customStream || body.length < LOCAL_HEADER_LENGTH
+				|| ByteArrayBuilder.intLE(body, 0) != ZipPostProcessor.LOCAL_HEADER_SIGNATURE) {
+			return super.decompress(body);
+		}
+		int flags = ByteArrayBuilder.shortLE(body, 6); // NOSONAR magic #
+		int method = ByteArrayBuilder.shortLE(body, 8); // NOSONAR magic #
+		int crc = ByteArrayBuilder.intLE(body, 14); // NOSONAR magic #
+		int size = ByteArrayBuilder.intLE(body, 22); // NOSONAR magic #
+		int nameLength = ByteArrayBuilder.shortLE(body, 26); // NOSONAR magic #
+		int extraLength = ByteArrayBuilder.shortLE(body, 28); // NOSONAR magic #
+		int dataStart = LOCAL_HEADER_LENGTH + nameLength + extraLength;
+		boolean descriptor = (flags & DESCRIPTOR) != 0;
+		if (method != Deflater.DEFLATED || (flags & ENCRYPTED) != 0 || dataStart > body.length
+				|| (!descriptor && size == -1)) { // stored, encrypted, truncated or zip64
+			return super.decompress(body);
+		}
+		String entryName = new String(body, LOCAL_HEADER_LENGTH, nameLength, StandardCharsets.UTF_8);
+		checkEntryName(entryName);
+		ByteArrayBuilder out = new ByteArrayBuilder(descriptor
+				? body.length * 4 // NOSONAR magic #
+				: (int) Math.min(size, body.length * 1032L)); // NOSONAR max deflate ratio
+		int position = dataStart + inflate(body, dataStart, body.length - dataStart, out);
+		if (descriptor) {
+			if (body.length - position >= 4 // NOSONAR magic #
+					&& ByteArrayBuilder.intLE(body, position) == DESCRIPTOR_SIGNATURE) {
+				position += 4; // NOSONAR magic #
+			}
+			if (body.length - position < 12) { // NOSONAR magic #
+				throw new EOFException("Unexpected end of ZIP data descriptor");
+			}
+			crc = ByteArrayBuilder.intLE(body, position);
+			size = ByteArrayBuilder.intLE(body, position + 8); // NOSONAR magic #
+		}
+		CRC32 actual = new CRC32();
+		out.updateChecksum(actual, 0);
+		if (crc != (int) actual.getValue() || size != out.size()) {
+			throw new ZipException("Invalid entry CRC or size for '" + entryName + "'");
+		}
+		return out.toByteArray();
+	}
+
 	@Override
 	protected InputStream getDecompressorStream(InputStream zipped) throws IOException {
 		ZipInputStream zipper = new ZipInputStream(zipped);
 		ZipEntry entry = zipper.getNextEntry();
-		String entryName = entry.getName();
-		Assert.state("amqp".equals(entryName), () -> "Zip 'entryName' must be 'amqp', not '" + entryName + "'");
+		checkEntryName(entry.getName());
 		return zipper;
 	}
 
+	private static void checkEntryName(String entryName) {
+		Assert.state(ZipPostProcessor.ENTRY_NAME.equals(entryName), () -> "Zip 'entryName' must be 'amqp', not '" + entryName + "'");
+	}
+
 	@Override
 	protected String getEncoding() {
 		return "zip";
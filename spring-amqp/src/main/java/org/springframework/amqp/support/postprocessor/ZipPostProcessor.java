@@ -18,11 +18,16 @@ package org.springframework.amqp.support.postprocessor;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 /**
- * A post processor that uses a {@link ZipOutputStream} to compress the message body. Sets
+ * A post processor that compresses the message body into a zip archive with a single
+ * entry named {@code amqp} (readable with a {@link ZipOutputStream}, using a pooled
+ * deflater). Sets
  * {@link org.springframework.amqp.core.MessageProperties#SPRING_AUTO_DECOMPRESS} to true
  * by default.
  *
@@ -31,6 +36,23 @@ import java.util.zip.ZipOutputStream;
  */
 public class ZipPostProcessor extends AbstractDeflaterPostProcessor {
 
+	static final String ENTRY_NAME = "amqp";
+
+	static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+
+	private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+
+	private static final int END_SIGNATURE = 0x06054b50;
+
+	private static final int VERSION = 20;
+
+	private static final int DOS_DATE = 0x21; // 1980-01-01
+
+	private static final byte[] NAME = ENTRY_NAME.getBytes(StandardCharsets.UTF_8);
+
+	private final boolean customStream = MessagePostProcessorUtils.isOverridden(getClass(), ZipPostProcessor.class,
+			"getCompressorStream", OutputStream.class);
+
 	public ZipPostProcessor() {
 		super();
 	}
@@ -39,10 +61,69 @@ public class ZipPostProcessor extends AbstractDeflaterPostProcessor {
 		super(autoDecompress);
 	}
 
+	@Override
+	protected byte[] compress(byte[] body) throws IOException {
+		if (this.customStream) {
+			return super.compress(body);
+		}
+		ByteArrayBuilder out = new ByteArrayBuilder(body.length / 2 + 160); // NOSONAR magic #
+		out.writeIntLE(LOCAL_HEADER_SIGNATURE);
+		out.writeShortLE(VERSION);
+		out.writeShortLE(0); // flags
+		out.writeShortLE(Deflater.DEFLATED);
+		out.writeShortLE(0); // time
+		out.writeShortLE(DOS_DATE);
+		int sizes = out.size();
+		out.writeIntLE(0); // crc, compressed size and size are set after deflating
+		out.writeIntLE(0);
+		out.writeIntLE(0);
+		out.writeShortLE(NAME.length);
+		out.writeShortLE(0); // extra
+		out.write(NAME);
+		int dataStart = out.size();
+		deflate(body, out);
+		CRC32 crc = new CRC32();
+		crc.update(body, 0, body.length);
+		int crcValue = (int) crc.getValue();
+		int compressedSize = out.size() - dataStart;
+		out.setIntLE(sizes, crcValue);
+		out.setIntLE(sizes + 4, compressedSize); // NOSONAR magic #
+		out.setIntLE(sizes + 8, body.length); // NOSONAR magic #
+		int centralStart = out.size();
+		out.writeIntLE(CENTRAL_HEADER_SIGNATURE);
+		out.writeShortLE(VERSION); // made by
+		out.writeShortLE(VERSION); // needed
+		out.writeShortLE(0); // flags
+		out.writeShortLE(Deflater.DEFLATED);
+		out.writeShortLE(0); // time
+		out.writeShortLE(DOS_DATE);
+		out.writeIntLE(crcValue);
+		out.writeIntLE(compressedSize);
+		out.writeIntLE(body.length);
+		out.writeShortLE(NAME.length);
+		out.writeShortLE(0); // extra
+		out.writeShortLE(0); // comment
+		out.writeShortLE(0); // disk
+		out.writeShortLE(0); // internal attributes
+		out.writeIntLE(0); // external attributes
+		out.writeIntLE(0); // local header offset
+		out.write(NAME);
+		int centralSize = out.size() - centralStart;
+		out.writeIntLE(END_SIGNATURE);
+		out.writeShortLE(0); // disk
+		out.writeShortLE(0); // central directory disk
+		out.writeShortLE(1); // entries on disk
+		out.writeShortLE(1); // entries
+		out.writeIntLE(centralSize);
+		out.writeIntLE(centralStart);
+		out.writeShortLE(0); // comment
+		return out.toByteArray();
+	}
+
 	@Override
 	protected OutputStream getCompressorStream(OutputStream zipped) throws IOException {
 		ZipOutputStream zipper = new SettableLevelZipOutputStream(zipped, getLevel());
-		zipper.putNextEntry(new ZipEntry("amqp"));
+		zipper.putNextEntry(new ZipEntry(ENTRY_NAME));
 		return zipper;
 	}
 
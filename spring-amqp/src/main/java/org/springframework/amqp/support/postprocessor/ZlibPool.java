@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.support.postprocessor;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A bounded pool of {@link java.util.zip.Deflater} or {@link java.util.zip.Inflater}
+ * instances. Each instance holds native memory that would otherwise be allocated and
+ * released for every message. Instances are reset when they are returned; those that do
+ * not fit in the pool are ended.
+ *
+ * @param <T> the pooled type.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+final class ZlibPool<T> {
+
+	private static final int DEFAULT_CAPACITY = Runtime.getRuntime().availableProcessors() * 2;
+
+	private final BlockingQueue<T> pool;
+
+	private final Supplier<T> factory;
+
+	private final Consumer<T> reset;
+
+	private final Consumer<T> end;
+
+	ZlibPool(Supplier<T> factory, Consumer<T> reset, Consumer<T> end) {
+		this(DEFAULT_CAPACITY, factory, reset, end);
+	}
+
+	ZlibPool(int capacity, Supplier<T> factory, Consumer<T> reset, Consumer<T> end) {
+		this.pool = new ArrayBlockingQueue<>(capacity);
+		this.factory = factory;
+		this.reset = reset;
+		this.end = end;
+	}
+
+	/**
+	 * Take an instance from the pool, or create one if the pool is empty.
+	 * @return the instance.
+	 */
+	T acquire() {
+		T resource = this.pool.poll();
+		return resource != null ? resource : this.factory.get();
+	}
+
+	/**
+	 * Reset the instance and return it to the pool, or end it if the pool is full.
+	 * @param resource the instance.
+	 */
+	void release(T resource) {
+		this.reset.accept(resource);
+		if (!this.pool.offer(resource)) {
+			this.end.accept(resource);
+		}
+	}
+
+	int size() {
+		return this.pool.size();
+	}
+
+}
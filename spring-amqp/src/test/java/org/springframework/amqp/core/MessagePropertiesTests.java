@@ -81,4 +81,25 @@ public class MessagePropertiesTests {
 	    assertThat(messageList).hasSize(1);
 	  }
 
+	@Test
+	public void testHeadersAllocatedLazily() {
+		MessageProperties properties = new MessageProperties();
+		assertThat(properties.hasHeaders()).isFalse();
+		assertThat((Object) properties.getHeader("foo")).isNull();
+		assertThat(properties.getDelay()).isNull();
+		properties.setDelay(null);
+		assertThat(properties.getXDeathHeader()).isNull();
+		assertThat(properties.toString()).startsWith("MessageProperties [headers={}");
+		MessageProperties other = new MessageProperties();
+		other.getHeaders();
+		assertThat(other).isEqualTo(properties);
+		assertThat(other.hashCode()).isEqualTo(properties.hashCode());
+		assertThat(other.hasHeaders()).isFalse();
+		other.setHeader("foo", "bar");
+		assertThat(other.hasHeaders()).isTrue();
+		assertThat(other).isNotEqualTo(properties);
+		assertThat(properties).isNotEqualTo(other);
+		assertThat((String) other.getHeader("foo")).isEqualTo("bar");
+	}
+
 }
@@ -164,6 +164,37 @@ public class SimpleAmqpHeaderMapperTests {
 		assertThat(headerMap.get(AmqpHeaders.CONSUMER_QUEUE)).isEqualTo("consumer.queue");
 	}
 
+	@Test
+	public void fromHeadersSkipsUnexpectedTypesAndKeepsExistingHeaders() {
+		SimpleAmqpHeaderMapper headerMapper = new SimpleAmqpHeaderMapper();
+		Map<String, Object> headerMap = new HashMap<String, Object>();
+		headerMap.put(AmqpHeaders.TYPE, 42);
+		headerMap.put(AmqpHeaders.MESSAGE_ID, " ");
+		headerMap.put(AmqpHeaders.APP_ID, "test.appId");
+		headerMap.put("existing", "new");
+		headerMap.put("custom", "value");
+		MessageProperties amqpProperties = new MessageProperties();
+		amqpProperties.setHeader("existing", "old");
+		headerMapper.fromHeaders(new MessageHeaders(headerMap), amqpProperties);
+		assertThat(amqpProperties.getType()).isNull();
+		assertThat(amqpProperties.getMessageId()).isNull();
+		assertThat(amqpProperties.getAppId()).isEqualTo("test.appId");
+		assertThat(amqpProperties.getHeaders())
+				.containsEntry("existing", "old")
+				.containsEntry("custom", "value")
+				.doesNotContainKeys(AmqpHeaders.TYPE, AmqpHeaders.APP_ID);
+	}
+
+	@Test
+	public void toHeadersWithoutHeaders() {
+		SimpleAmqpHeaderMapper headerMapper = new SimpleAmqpHeaderMapper();
+		MessageProperties amqpProperties = new MessageProperties();
+		amqpProperties.setMessageId("test.messageId");
+		Map<String, Object> headerMap = headerMapper.toHeaders(amqpProperties);
+		assertThat(headerMap.get(AmqpHeaders.MESSAGE_ID)).isEqualTo("test.messageId");
+		assertThat(amqpProperties.hasHeaders()).isFalse();
+	}
+
 	@Test // INT-2090
 	public void jsonTypeIdNotOverwritten() {
 		SimpleAmqpHeaderMapper headerMapper = new SimpleAmqpHeaderMapper();
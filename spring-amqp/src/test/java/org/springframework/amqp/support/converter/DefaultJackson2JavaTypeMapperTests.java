@@ -90,6 +90,30 @@ public class DefaultJackson2JavaTypeMapperTests {
 		assertThat(TypeFactory.defaultInstance().constructType(SimpleTrade.class)).isEqualTo(javaType);
 	}
 
+	@Test
+	public void cachedTypeIdIsInvalidatedWhenMappingChanges() {
+		properties.getHeaders().put("__TypeId__", "trade");
+		javaTypeMapper.setIdClassMapping(map("trade", SimpleTrade.class));
+		assertThat(javaTypeMapper.toJavaType(properties).getRawClass()).isEqualTo(SimpleTrade.class);
+
+		javaTypeMapper.setIdClassMapping(map("trade", String.class));
+		assertThat(javaTypeMapper.toJavaType(properties).getRawClass()).isEqualTo(String.class);
+	}
+
+	@Test
+	public void untrustedTypeIdIsNotCached() {
+		properties.getHeaders().put("__TypeId__", MessageProperties.class.getName());
+		try {
+			javaTypeMapper.toJavaType(properties);
+			fail("Expected IllegalArgumentException");
+		}
+		catch (IllegalArgumentException e) {
+			assertThat(e.getMessage()).contains("not in the trusted packages");
+		}
+		javaTypeMapper.addTrustedPackages("org.springframework.amqp.core");
+		assertThat(javaTypeMapper.toJavaType(properties).getRawClass()).isEqualTo(MessageProperties.class);
+	}
+
 	@Test
 	public void fromJavaTypeShouldPopulateWithJavaTypeNameByDefault() {
 		javaTypeMapper.fromJavaType(TypeFactory.defaultInstance().constructType(SimpleTrade.class), properties);
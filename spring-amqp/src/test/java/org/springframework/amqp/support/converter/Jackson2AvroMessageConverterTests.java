@@ -0,0 +1,192 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.support.converter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Objects;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.core.ParameterizedTypeReference;
+
+/**
+ * @author agent
+ * @since 2.2
+ *
+ */
+public class Jackson2AvroMessageConverterTests {
+
+	private final Jackson2AvroMessageConverter converter =
+			new Jackson2AvroMessageConverter(Jackson2AvroMessageConverterTests.class.getPackage().getName());
+
+	@Test
+	void roundTripWithTypeId() {
+		Message message = this.converter.toMessage(new Thing("foo", 42), new MessageProperties());
+		MessageProperties properties = message.getMessageProperties();
+		assertThat(properties.getContentType()).isEqualTo(MessageProperties.CONTENT_TYPE_AVRO);
+		assertThat(properties.getContentEncoding()).isNull();
+		assertThat((String) properties.getHeaders().get("__TypeId__")).isEqualTo(Thing.class.getName());
+		assertThat(message.getBody().length).isLessThan("{\"name\":\"foo\",\"count\":42}".length());
+		assertThat(this.converter.fromMessage(message)).isEqualTo(new Thing("foo", 42));
+		assertThat(this.converter.fromMessage(this.converter.toMessage(new Thing("bar", 1), new MessageProperties())))
+				.isEqualTo(new Thing("bar", 1));
+	}
+
+	@Test
+	void inferredType() {
+		Message message = this.converter.toMessage(new Thing("foo", 42), new MessageProperties());
+		message.getMessageProperties().getHeaders().clear();
+		message.getMessageProperties().setInferredArgumentType(Thing.class);
+		assertThat(this.converter.fromMessage(message)).isEqualTo(new Thing("foo", 42));
+	}
+
+	@Test
+	void conversionHintThroughDelegatingConverter() {
+		ContentTypeDelegatingMessageConverter delegating = new ContentTypeDelegatingMessageConverter();
+		delegating.addDelegate(MessageProperties.CONTENT_TYPE_AVRO, this.converter);
+		MessageProperties properties = new MessageProperties();
+		properties.setContentType(MessageProperties.CONTENT_TYPE_AVRO);
+		Message message = delegating.toMessage(new Thing("foo", 42), properties);
+		message.getMessageProperties().getHeaders().clear();
+		assertThat(delegating.fromMessage(message, new ParameterizedTypeReference<Thing>() { }))
+				.isEqualTo(new Thing("foo", 42));
+	}
+
+	@Test
+	void noTypeInformation() {
+		Message message = this.converter.toMessage(new Thing("foo", 42), new MessageProperties());
+		message.getMessageProperties().getHeaders().clear();
+		assertThatThrownBy(() -> this.converter.fromMessage(message))
+				.isInstanceOf(MessageConversionException.class);
+	}
+
+	@Test
+	void schemaFingerprintMismatch() {
+		Message message = this.converter.toMessage(new Thing("foo", 42), new MessageProperties());
+		Object fingerprint = message.getMessageProperties()
+				.getHeaders()
+				.get(Jackson2AvroMessageConverter.SCHEMA_FINGERPRINT_HEADER);
+		assertThat(fingerprint).isInstanceOf(Long.class);
+		Message v2 = this.converter.toMessage(new ThingV2("foo", 42, "bar"), new MessageProperties());
+		assertThat(v2.getMessageProperties().getHeaders().get(Jackson2AvroMessageConverter.SCHEMA_FINGERPRINT_HEADER))
+				.isNotEqualTo(fingerprint);
+		assertThatThrownBy(() -> this.converter.fromMessage(message, new ParameterizedTypeReference<ThingV2>() { }))
+				.isInstanceOf(MessageConversionException.class)
+				.hasMessageContaining("does not match the reader schema fingerprint");
+		assertThatThrownBy(() -> this.converter.fromMessage(v2, new ParameterizedTypeReference<Thing>() { }))
+				.isInstanceOf(MessageConversionException.class)
+				.hasMessageContaining("does not match the reader schema fingerprint");
+		assertThat(this.converter.fromMessage(v2)).isEqualTo(new ThingV2("foo", 42, "bar"));
+	}
+
+	@Test
+	void untrustedType() {
+		Jackson2AvroMessageConverter untrusting = new Jackson2AvroMessageConverter("com.example");
+		Message message = this.converter.toMessage(new Thing("foo", 42), new MessageProperties());
+		assertThatThrownBy(() -> untrusting.fromMessage(message))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	public static class Thing {
+
+		private String name;
+
+		private int count;
+
+		public Thing() {
+			super();
+		}
+
+		Thing(String name, int count) {
+			this.name = name;
+			this.count = count;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public int getCount() {
+			return this.count;
+		}
+
+		public void setCount(int count) {
+			this.count = count;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof Thing)) {
+				return false;
+			}
+			Thing thing = (Thing) other;
+			return this.count == thing.count && Objects.equals(this.name, thing.name);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.name, this.count);
+		}
+
+	}
+
+	public static class ThingV2 extends Thing {
+
+		private String description;
+
+		public ThingV2() {
+			super();
+		}
+
+		ThingV2(String name, int count, String description) {
+			super(name, count);
+			this.description = description;
+		}
+
+		public String getDescription() {
+			return this.description;
+		}
+
+		public void setDescription(String description) {
+			this.description = description;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return super.equals(other) && other instanceof ThingV2
+					&& Objects.equals(this.description, ((ThingV2) other).description);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(super.hashCode(), this.description);
+		}
+
+	}
+
+}
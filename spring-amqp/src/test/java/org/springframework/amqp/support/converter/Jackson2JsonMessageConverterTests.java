@@ -19,10 +19,15 @@ package org.springframework.amqp.support.converter;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Hashtable;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -97,6 +102,20 @@ public class Jackson2JsonMessageConverterTests {
 		assertThat(marshalledTrade).isEqualTo(trade);
 	}
 
+	@Test
+	public void simpleTradeNonUtf8Charsets() {
+		trade.setUserName("Jöe Trader");
+		for (String charset : new String[] { "ISO-8859-1", "UTF-16" }) {
+			converter.setDefaultCharset(charset);
+			Message message = converter.toMessage(trade, new MessageProperties());
+			assertThat(message.getMessageProperties().getContentEncoding()).isEqualTo(charset);
+			assertThat(new String(message.getBody(), Charset.forName(charset))).contains("Jöe Trader");
+
+			SimpleTrade marshalledTrade = (SimpleTrade) converter.fromMessage(message);
+			assertThat(marshalledTrade).isEqualTo(trade);
+		}
+	}
+
 	@Test
 	public void nestedBean() {
 		Bar bar = new Bar();
@@ -229,6 +248,33 @@ public class Jackson2JsonMessageConverterTests {
 		assertThat(((List<?>) foo).get(0)).isInstanceOf(Foo.class);
 	}
 
+	@Test
+	public void testInferredStream() {
+		byte[] bytes = "[ {\"name\" : \"foo\" }, {\"name\" : \"bar\" } ]".getBytes();
+		MessageProperties messageProperties = new MessageProperties();
+		messageProperties.setContentType("application/json");
+		messageProperties.setInferredArgumentType((new ParameterizedTypeReference<Stream<Foo>>() { }).getType());
+		Message message = new Message(bytes, messageProperties);
+		Object foo = this.converter.fromMessage(message);
+		assertThat(foo).isInstanceOf(Stream.class);
+		assertThat(((Stream<?>) foo).collect(Collectors.toList())).containsExactly(new Foo("foo"), new Foo("bar"));
+	}
+
+	@Test
+	public void testIteratorConversionHint() {
+		byte[] bytes = "[ {\"name\" : \"foo\" }, {\"name\" : \"bar\" } ]".getBytes(StandardCharsets.UTF_16);
+		MessageProperties messageProperties = new MessageProperties();
+		messageProperties.setContentType("application/json");
+		messageProperties.setContentEncoding("UTF-16");
+		Message message = new Message(bytes, messageProperties);
+		Object foo = this.converter.fromMessage(message, new ParameterizedTypeReference<Iterator<Foo>>() { });
+		assertThat(foo).isInstanceOf(Iterator.class);
+		Iterator<?> iterator = (Iterator<?>) foo;
+		assertThat(iterator.next()).isEqualTo(new Foo("foo"));
+		assertThat(iterator.next()).isEqualTo(new Foo("bar"));
+		assertThat(iterator.hasNext()).isFalse();
+	}
+
 	@Test
 	public void testInferredGenericMap1() {
 		byte[] bytes = "{\"qux\" : [ { \"foo\" : { \"name\" : \"bar\" } } ] }".getBytes();
@@ -19,6 +19,7 @@ package org.springframework.amqp.support.converter;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
 
+import java.io.ObjectStreamClass;
 import java.io.Serializable;
 import java.util.Collections;
 
@@ -65,6 +66,67 @@ public class WhiteListDeserializingMessageConverterTests {
 		}
 	}
 
+	@Test
+	public void testWhiteListDecisionsInvalidated() throws Exception {
+		SimpleMessageConverter converter = new SimpleMessageConverter();
+		TestBean testBean = new TestBean("foo");
+		Message message = converter.toMessage(testBean, new MessageProperties());
+		converter.setWhiteListPatterns(Collections.singletonList("foo.*"));
+		for (int i = 0; i < 2; i++) {
+			try {
+				converter.fromMessage(message);
+				fail("Expected SecurityException");
+			}
+			catch (MessageConversionException | SecurityException e) {
+
+			}
+		}
+		converter.addWhiteListPatterns("*$TestBean");
+		assertThat(converter.fromMessage(message)).isEqualTo(testBean);
+		assertThat(converter.fromMessage(message)).isEqualTo(testBean);
+		converter.setWhiteListPatterns(Collections.singletonList("foo.*"));
+		try {
+			converter.fromMessage(message);
+			fail("Expected SecurityException");
+		}
+		catch (MessageConversionException | SecurityException e) {
+
+		}
+	}
+
+	@Test
+	public void testDecisionNotCachedAcrossPatternChange() throws Exception {
+		TestConverter converter = new TestConverter();
+		converter.setWhiteListPatterns(Collections.singletonList("*$TestBean"));
+		ObjectStreamClass classDesc = ObjectStreamClass.lookup(TestBean.class);
+		// the patterns change while the class is being resolved with the old ones
+		assertThat(converter.resolveWhiteListedClass(classDesc, desc -> {
+			converter.setWhiteListPatterns(Collections.singletonList("foo.*"));
+			return TestBean.class;
+		})).isEqualTo(TestBean.class);
+		try {
+			converter.resolveWhiteListedClass(classDesc, desc -> TestBean.class);
+			fail("Expected SecurityException");
+		}
+		catch (SecurityException e) {
+
+		}
+	}
+
+	private static class TestConverter extends WhiteListDeserializingMessageConverter {
+
+		@Override
+		public Object fromMessage(Message message) throws MessageConversionException {
+			return null;
+		}
+
+		@Override
+		protected Message createMessage(Object object, MessageProperties messageProperties) {
+			return null;
+		}
+
+	}
+
 	@SuppressWarnings("serial")
 	protected static class TestBean implements Serializable {
 
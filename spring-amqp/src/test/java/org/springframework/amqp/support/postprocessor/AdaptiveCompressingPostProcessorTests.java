@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.support.postprocessor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+/**
+ * @author agent
+ * @since 2.2
+ *
+ */
+public class AdaptiveCompressingPostProcessorTests {
+
+	@Test
+	public void smallBodiesNotCompressed() {
+		AdaptiveCompressingPostProcessor adaptive = new AdaptiveCompressingPostProcessor(new GZipPostProcessor());
+		Message small = message(new byte[1023], "text/plain");
+		assertThat(adaptive.postProcessMessage(small)).isSameAs(small);
+		assertThat(small.getMessageProperties().getContentEncoding()).isNull();
+		Message large = message(new byte[1024], "text/plain");
+		Message compressed = adaptive.postProcessMessage(large);
+		assertThat(compressed.getMessageProperties().getContentEncoding()).isEqualTo("gzip");
+		assertThat(new DelegatingDecompressingPostProcessor().postProcessMessage(compressed).getBody())
+				.isEqualTo(new byte[1024]);
+	}
+
+	@Test
+	public void disabledWhenRatioExceeded() {
+		AdaptiveCompressingPostProcessor adaptive = new AdaptiveCompressingPostProcessor(new Lz4PostProcessor());
+		adaptive.setSampleSize(5);
+		adaptive.setRetryInterval(3);
+		Random random = new Random();
+		for (int i = 0; i < 5; i++) {
+			byte[] body = new byte[2048];
+			random.nextBytes(body);
+			Message message = message(body, "application/octet-stream");
+			assertThat(adaptive.postProcessMessage(message)).isSameAs(message);
+		}
+		assertThat(adaptive.isCompressing("application/octet-stream")).isFalse();
+		assertThat(adaptive.isCompressing("application/json")).isTrue();
+		Message json = adaptive.postProcessMessage(message(new byte[2048], "application/json"));
+		assertThat(json.getMessageProperties().getContentEncoding()).isEqualTo("lz4");
+		for (int i = 0; i < 3; i++) {
+			Message message = message(new byte[2048], "application/octet-stream");
+			assertThat(adaptive.postProcessMessage(message)).isSameAs(message);
+		}
+		Message retried = adaptive.postProcessMessage(message(new byte[2048], "application/octet-stream"));
+		assertThat(retried.getMessageProperties().getContentEncoding()).isEqualTo("lz4");
+		assertThat(adaptive.isCompressing("application/octet-stream")).isTrue();
+	}
+
+	@Test
+	public void sampleByRoutingKey() {
+		AdaptiveCompressingPostProcessor adaptive = new AdaptiveCompressingPostProcessor(new DeflaterPostProcessor());
+		adaptive.setSampleByRoutingKey(true);
+		adaptive.setSampleSize(1);
+		byte[] random = new byte[2048];
+		new Random().nextBytes(random);
+		adaptive.postProcessMessage(message(random, "text/plain"), null, "ex", "images");
+		assertThat(adaptive.isCompressing("images")).isFalse();
+		assertThat(adaptive.isCompressing("text/plain")).isTrue();
+		Message message = message(new byte[2048], "text/plain");
+		assertThat(adaptive.postProcessMessage(message, null, "ex", "images")).isSameAs(message);
+		assertThat(adaptive.postProcessMessage(message(new byte[2048], "text/plain"), null, "ex", "orders")
+				.getMessageProperties().getContentEncoding()).isEqualTo("deflate");
+	}
+
+	private static Message message(byte[] body, String contentType) {
+		MessageProperties properties = new MessageProperties();
+		properties.setContentType(contentType);
+		return new Message(body, properties);
+	}
+
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.support.postprocessor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.amqp.AmqpIOException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.util.StreamUtils;
+
+/**
+ * @author agent
+ * @since 2.2
+ *
+ */
+public class CompressionPostProcessorTests {
+
+	private static final byte[] BODY = body(100_000);
+
+	@Test
+	public void gzipRoundTrip() throws IOException {
+		Message compressed = new GZipPostProcessor().postProcessMessage(message(BODY));
+		assertThat(compressed.getMessageProperties().getContentEncoding()).isEqualTo("gzip:UTF-8");
+		assertThat(StreamUtils.copyToByteArray(new GZIPInputStream(new ByteArrayInputStream(compressed.getBody()))))
+				.isEqualTo(BODY);
+		Message decompressed = new DelegatingDecompressingPostProcessor().postProcessMessage(compressed);
+		assertThat(decompressed.getBody()).isEqualTo(BODY);
+		assertThat(decompressed.getMessageProperties().getContentEncoding()).isEqualTo("UTF-8");
+	}
+
+	@Test
+	public void gunzipStreamCompressed() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPOutputStream zipper = new GZIPOutputStream(out)) {
+			zipper.write(BODY);
+		}
+		assertThat(new GUnzipPostProcessor().decompress(out.toByteArray())).isEqualTo(BODY);
+	}
+
+	@Test
+	public void gunzipCorrupt() throws IOException {
+		GZipPostProcessor gzip = new GZipPostProcessor();
+		byte[] compressed = gzip.compress(BODY);
+		compressed[compressed.length - 5]++;
+		Message message = new Message(compressed, new MessageProperties());
+		message.getMessageProperties().setContentEncoding("gzip");
+		assertThatThrownBy(() -> new GUnzipPostProcessor(true).postProcessMessage(message))
+				.isInstanceOf(AmqpIOException.class)
+				.hasMessageContaining("Corrupt GZIP trailer");
+	}
+
+	@Test
+	public void zipRoundTrip() throws IOException {
+		ZipPostProcessor zip = new ZipPostProcessor();
+		zip.setLevel(9);
+		Message compressed = zip.postProcessMessage(message(BODY));
+		ZipInputStream unzipper = new ZipInputStream(new ByteArrayInputStream(compressed.getBody()));
+		assertThat(unzipper.getNextEntry().getName()).isEqualTo("amqp");
+		assertThat(StreamUtils.copyToByteArray(unzipper)).isEqualTo(BODY);
+		assertThat(new DelegatingDecompressingPostProcessor().postProcessMessage(compressed).getBody())
+				.isEqualTo(BODY);
+	}
+
+	@Test
+	public void unzipStreamCompressed() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ZipOutputStream zipper = new ZipOutputStream(out)) {
+			zipper.putNextEntry(new ZipEntry("amqp"));
+			zipper.write(BODY);
+		}
+		assertThat(new UnzipPostProcessor().decompress(out.toByteArray())).isEqualTo(BODY);
+		out.reset();
+		try (ZipOutputStream zipper = new ZipOutputStream(out)) {
+			zipper.putNextEntry(new ZipEntry("foo"));
+			zipper.write(BODY);
+		}
+		byte[] foo = out.toByteArray();
+		assertThatThrownBy(() -> new UnzipPostProcessor().decompress(foo))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessage("Zip 'entryName' must be 'amqp', not 'foo'");
+	}
+
+	@Test
+	public void deflateRoundTrip() throws IOException {
+		Message compressed = new DeflaterPostProcessor().postProcessMessage(message(BODY));
+		assertThat(compressed.getMessageProperties().getContentEncoding()).isEqualTo("deflate:UTF-8");
+		InputStream inflater = new InflaterInputStream(new ByteArrayInputStream(compressed.getBody()));
+		assertThat(StreamUtils.copyToByteArray(inflater)).isEqualTo(BODY);
+		assertThat(new DelegatingDecompressingPostProcessor().postProcessMessage(compressed).getBody())
+				.isEqualTo(BODY);
+	}
+
+	@Test
+	public void pooledInstancesAreReused() throws IOException {
+		AtomicInteger deflaters = new AtomicInteger();
+		AtomicInteger inflaters = new AtomicInteger();
+		GZipPostProcessor gzip = new GZipPostProcessor() {
+
+			@Override
+			protected Deflater createDeflater() {
+				deflaters.incrementAndGet();
+				return super.createDeflater();
+			}
+
+		};
+		GUnzipPostProcessor gunzip = new GUnzipPostProcessor() {
+
+			@Override
+			protected Inflater createInflater() {
+				inflaters.incrementAndGet();
+				return super.createInflater();
+			}
+
+		};
+		for (int i = 1; i < 10; i++) {
+			byte[] body = body(i * 1000);
+			assertThat(gunzip.decompress(gzip.compress(body))).isEqualTo(body);
+		}
+		assertThat(gunzip.decompress(gzip.compress(new byte[0]))).isEmpty();
+		assertThat(deflaters.get()).isEqualTo(1);
+		assertThat(inflaters.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void zlibPool() {
+		AtomicInteger ended = new AtomicInteger();
+		ZlibPool<Object> pool = new ZlibPool<>(1, Object::new, o -> { }, o -> ended.incrementAndGet());
+		Object first = pool.acquire();
+		Object second = pool.acquire();
+		assertThat(pool.size()).isEqualTo(0);
+		pool.release(first);
+		assertThat(pool.size()).isEqualTo(1);
+		pool.release(second);
+		assertThat(pool.size()).isEqualTo(1);
+		assertThat(ended.get()).isEqualTo(1);
+		assertThat(pool.acquire()).isSameAs(first);
+		assertThat(pool.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void overriddenStreamsAreUsed() throws IOException {
+		AtomicInteger compressors = new AtomicInteger();
+		AtomicInteger decompressors = new AtomicInteger();
+		GZipPostProcessor gzip = new GZipPostProcessor() {
+
+			@Override
+			protected OutputStream getCompressorStream(OutputStream zipped) throws IOException {
+				compressors.incrementAndGet();
+				return super.getCompressorStream(zipped);
+			}
+
+		};
+		UnzipPostProcessor unzip = new UnzipPostProcessor() {
+
+			@Override
+			protected InputStream getDecompressorStream(InputStream zipped) throws IOException {
+				decompressors.incrementAndGet();
+				return super.getDecompressorStream(zipped);
+			}
+
+		};
+		assertThat(StreamUtils.copyToByteArray(new GZIPInputStream(new ByteArrayInputStream(gzip.compress(BODY)))))
+				.isEqualTo(BODY);
+		assertThat(unzip.decompress(new ZipPostProcessor().compress(BODY))).isEqualTo(BODY);
+		assertThat(compressors.get()).isEqualTo(1);
+		assertThat(decompressors.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void lz4RoundTrip() {
+		Message compressed = new Lz4PostProcessor().postProcessMessage(message(BODY));
+		assertThat(compressed.getMessageProperties().getContentEncoding()).isEqualTo("lz4:UTF-8");
+		assertThat(compressed.getBody().length).isLessThan(BODY.length / 10);
+		assertThat(new DelegatingDecompressingPostProcessor().postProcessMessage(compressed).getBody())
+				.isEqualTo(BODY);
+		byte[] empty = new Lz4PostProcessor().postProcessMessage(message(new byte[0])).getBody();
+		assertThat(new Lz4DecompressingPostProcessor(true).postProcessMessage(message(empty)).getBody()).isEmpty();
+	}
+
+	@Test
+	public void lz4Dictionary() throws IOException {
+		List<byte[]> samples = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			samples.add(json(i));
+		}
+		CompressionDictionary dictionary = CompressionDictionary.train(samples, 4096);
+		Lz4PostProcessor compressor = new Lz4PostProcessor();
+		byte[] json = json(1234);
+		int withoutDictionary = compressor.compress(json).length;
+		compressor.setDictionary(dictionary);
+		byte[] compressed = compressor.compress(json);
+		assertThat(compressed.length).isLessThan(withoutDictionary);
+		Lz4DecompressingPostProcessor decompressor = new Lz4DecompressingPostProcessor();
+		assertThatThrownBy(() -> decompressor.decompress(compressed))
+				.isInstanceOf(IOException.class)
+				.hasMessageContaining("No dictionary available");
+		decompressor.addDictionary(new CompressionDictionary(dictionary.toByteArray()));
+		assertThat(decompressor.decompress(compressed)).isEqualTo(json);
+	}
+
+	@Test
+	public void lz4TruncatedFrame() {
+		byte[] frame = new Lz4PostProcessor().compress(BODY);
+		assertThatThrownBy(() -> Lz4Codec.decompress(Arrays.copyOf(frame, frame.length - 8), id -> null))
+				.isInstanceOf(IOException.class)
+				.hasMessageContaining("Unexpected end of LZ4 data");
+	}
+
+	@Test
+	public void lz4OversizedFrame() {
+		byte[] frame = new Lz4PostProcessor().compress(body(100));
+		byte[] contentSize = frame.clone();
+		setIntLE(contentSize, 6, 100_000_000);
+		contentSize[14] = (byte) Lz4Codec.headerChecksum(contentSize, 4, 10);
+		assertThatThrownBy(() -> Lz4Codec.decompress(contentSize, id -> null))
+				.isInstanceOf(IOException.class)
+				.hasMessageContaining("Invalid LZ4 content size");
+		byte[] blockSize = frame.clone();
+		setIntLE(blockSize, 15, 0x7fffff00);
+		assertThatThrownBy(() -> Lz4Codec.decompress(blockSize, id -> null))
+				.isInstanceOf(IOException.class)
+				.hasMessageContaining("Invalid LZ4 block size");
+	}
+
+	private static byte[] json(int i) {
+		return ("{\"orderId\":" + i + ",\"customer\":{\"name\":\"customer" + (i % 17)
+				+ "\",\"country\":\"GB\"},\"items\":[{\"sku\":\"SKU-" + (i % 31)
+				+ "\",\"quantity\":" + (i % 5) + "}],\"status\":\"NEW\"}").getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static Message message(byte[] body) {
+		MessageProperties properties = new MessageProperties();
+		properties.setContentEncoding("UTF-8");
+		return new Message(body, properties);
+	}
+
+	private static void setIntLE(byte[] bytes, int position, int value) {
+		for (int i = 0; i < 4; i++) {
+			bytes[position + i] = (byte) (value >>> (i * 8));
+		}
+	}
+
+	private static byte[] body(int length) {
+		byte[] body = new byte[length];
+		for (int i = 0; i < length; i++) {
+			body[i] = (byte) ('a' + (i * 31 % 7));
+		}
+		return body;
+	}
+
+}
@@ -41,6 +41,7 @@ import org.springframework.amqp.rabbit.connection.PublisherCallbackChannel;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.rabbit.core.RabbitTemplate.ConfirmCallback;
 import org.springframework.amqp.rabbit.core.RabbitTemplate.ReturnCallback;
+import org.springframework.amqp.rabbit.core.RabbitTemplateMetrics;
 import org.springframework.amqp.rabbit.listener.AbstractMessageListenerContainer;
 import org.springframework.amqp.rabbit.listener.DirectReplyToMessageListenerContainer;
 import org.springframework.amqp.rabbit.listener.DirectReplyToMessageListenerContainer.ChannelHolder;
@@ -49,6 +50,9 @@ import org.springframework.amqp.rabbit.listener.api.ChannelAwareMessageListener;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.amqp.support.converter.SmartMessageConverter;
 import org.springframework.amqp.utils.JavaUtils;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.beans.factory.BeanNameAware;
 import org.springframework.context.SmartLifecycle;
 import org.springframework.core.ParameterizedTypeReference;
@@ -90,7 +94,7 @@ import com.rabbitmq.client.Channel;
  * @since 1.6
  */
 public class AsyncRabbitTemplate implements AsyncAmqpTemplate, ChannelAwareMessageListener, ReturnCallback,
-		ConfirmCallback, BeanNameAware, SmartLifecycle {
+		ConfirmCallback, BeanNameAware, BeanFactoryAware, SmartLifecycle {
 
 	public static final int DEFAULT_RECEIVE_TIMEOUT = 30000;
 
@@ -124,6 +128,8 @@ public class AsyncRabbitTemplate implements AsyncAmqpTemplate, ChannelAwareMessa
 
 	private boolean internalTaskScheduler = true;
 
+	private boolean internalTemplate;
+
 	/**
 	 * Construct an instance using the provided arguments. Replies will be
 	 * routed to the default exchange using the reply queue name as the routing
@@ -157,6 +163,7 @@ public class AsyncRabbitTemplate implements AsyncAmqpTemplate, ChannelAwareMessa
 		this.template = new RabbitTemplate(connectionFactory);
 		this.template.setExchange(exchange == null ? "" : exchange);
 		this.template.setRoutingKey(routingKey);
+		this.internalTemplate = true;
 		this.container = new SimpleMessageListenerContainer(connectionFactory);
 		JavaUtils.INSTANCE
 				.acceptIfNotNull(this.template.getAfterReceivePostProcessors(),
@@ -225,6 +232,7 @@ public class AsyncRabbitTemplate implements AsyncAmqpTemplate, ChannelAwareMessa
 		Assert.notNull(routingKey, "'routingKey' cannot be null");
 		this.template.setExchange(exchange == null ? "" : exchange);
 		this.template.setRoutingKey(routingKey);
+		this.internalTemplate = true;
 	}
 
 	/**
@@ -312,6 +320,22 @@ public class AsyncRabbitTemplate implements AsyncAmqpTemplate, ChannelAwareMessa
 	@Override
 	public void setBeanName(String beanName) {
 		this.beanName = beanName;
+		if (this.internalTemplate) {
+			this.template.setBeanName(beanName);
+		}
+	}
+
+	/**
+	 * When the {@link RabbitTemplate} was created by this object, pass the bean factory
+	 * to it, so that it can find a {@code MeterRegistry}.
+	 * @param beanFactory the bean factory.
+	 * @since 2.2
+	 */
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+		if (this.internalTemplate) {
+			this.template.setBeanFactory(beanFactory);
+		}
 	}
 
 	/**
@@ -375,6 +399,7 @@ public class AsyncRabbitTemplate implements AsyncAmqpTemplate, ChannelAwareMessa
 	public RabbitMessageFuture sendAndReceive(String exchange, String routingKey, Message message) {
 		String correlationId = getOrSetCorrelationIdAndSetReplyTo(message);
 		RabbitMessageFuture future = new RabbitMessageFuture(correlationId, message);
+		future.setDestination(exchange, routingKey);
 		CorrelationData correlationData = null;
 		if (this.enableConfirms) {
 			correlationData = new CorrelationData(correlationId);
@@ -471,7 +496,7 @@ public class AsyncRabbitTemplate implements AsyncAmqpTemplate, ChannelAwareMessa
 	private <C> RabbitConverterFuture<C> convertSendAndReceive(String exchange, String routingKey, Object object,
 			MessagePostProcessor messagePostProcessor, ParameterizedTypeReference<C> responseType) {
 		AsyncCorrelationData<C> correlationData = new AsyncCorrelationData<C>(messagePostProcessor, responseType,
-				this.enableConfirms);
+				this.enableConfirms, exchange, routingKey);
 		if (this.container != null) {
 			this.template.convertAndSend(exchange, routingKey, object, this.messagePostProcessor, correlationData);
 		}
@@ -581,6 +606,7 @@ public class AsyncRabbitTemplate implements AsyncAmqpTemplate, ChannelAwareMessa
 				}
 				RabbitFuture<?> future = this.pending.remove(correlationId);
 				if (future != null) {
+					future.recordReply(false);
 					if (future instanceof AsyncRabbitTemplate.RabbitConverterFuture) {
 						MessageConverter messageConverter = this.template.getMessageConverter();
 						RabbitConverterFuture<Object> rabbitFuture = (RabbitConverterFuture<Object>) future;
@@ -678,6 +704,8 @@ public class AsyncRabbitTemplate implements AsyncAmqpTemplate, ChannelAwareMessa
 
 		private final Message requestMessage;
 
+		private final long start = System.nanoTime();
+
 		private ScheduledFuture<?> timeoutTask;
 
 		private volatile ListenableFuture<Boolean> confirm;
@@ -686,6 +714,10 @@ public class AsyncRabbitTemplate implements AsyncAmqpTemplate, ChannelAwareMessa
 
 		private ChannelHolder channelHolder;
 
+		private volatile String exchange;
+
+		private volatile String routingKey;
+
 		public RabbitFuture(String correlationId, Message requestMessage) {
 			this.correlationId = correlationId;
 			this.requestMessage = requestMessage;
@@ -695,6 +727,18 @@ public class AsyncRabbitTemplate implements AsyncAmqpTemplate, ChannelAwareMessa
 			this.channelHolder = channel;
 		}
 
+		void setDestination(String exchange, String routingKey) {
+			this.exchange = exchange;
+			this.routingKey = routingKey;
+		}
+
+		void recordReply(boolean timedOut) {
+			RabbitTemplateMetrics metrics = AsyncRabbitTemplate.this.template.getMetrics();
+			if (metrics != null) {
+				metrics.reply(this.exchange, this.routingKey, System.nanoTime() - this.start, timedOut);
+			}
+		}
+
 		@Override
 		public boolean cancel(boolean mayInterruptIfRunning) {
 			if (this.timeoutTask != null) {
@@ -755,6 +799,7 @@ public class AsyncRabbitTemplate implements AsyncAmqpTemplate, ChannelAwareMessa
 			@Override
 			public void run() {
 				AsyncRabbitTemplate.this.pending.remove(RabbitFuture.this.correlationId);
+				recordReply(true);
 				if (RabbitFuture.this.channelHolder != null
 						&& AsyncRabbitTemplate.this.directReplyToContainer != null) {
 					AsyncRabbitTemplate.this.directReplyToContainer
@@ -824,6 +869,7 @@ public class AsyncRabbitTemplate implements AsyncAmqpTemplate, ChannelAwareMessa
 			}
 			String correlationId = getOrSetCorrelationIdAndSetReplyTo(messageToSend);
 			correlationData.future = new RabbitConverterFuture<C>(correlationId, message);
+			correlationData.future.setDestination(correlationData.exchange, correlationData.routingKey);
 			if (correlationData.enableConfirms && correlationData.getId() == null) {
 				correlationData.setId(correlationId);
 				correlationData.future.setConfirm(new SettableListenableFuture<>());
@@ -843,14 +889,20 @@ public class AsyncRabbitTemplate implements AsyncAmqpTemplate, ChannelAwareMessa
 
 		private final boolean enableConfirms;
 
+		private final String exchange;
+
+		private final String routingKey;
+
 		private volatile RabbitConverterFuture<C> future;
 
 		AsyncCorrelationData(MessagePostProcessor userPostProcessor, ParameterizedTypeReference<C> returnType,
-				boolean enableConfirms) {
+				boolean enableConfirms, String exchange, String routingKey) {
 
 			this.userPostProcessor = userPostProcessor;
 			this.returnType = returnType;
 			this.enableConfirms = enableConfirms;
+			this.exchange = exchange;
+			this.routingKey = routingKey;
 		}
 
 	}
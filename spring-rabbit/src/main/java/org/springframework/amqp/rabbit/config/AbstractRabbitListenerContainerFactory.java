@@ -86,6 +86,14 @@ public abstract class AbstractRabbitListenerContainerFactory<C extends AbstractM
 
 	private Integer prefetchCount;
 
+	private Boolean globalQos;
+
+	private Boolean prefetchTuning;
+
+	private Integer minPrefetchCount;
+
+	private Integer maxPrefetchCount;
+
 	private Boolean defaultRequeueRejected;
 
 	private Advice[] adviceChain;
@@ -124,6 +132,8 @@ public abstract class AbstractRabbitListenerContainerFactory<C extends AbstractM
 
 	private BatchingStrategy batchingStrategy;
 
+	private Executor batchConversionExecutor;
+
 	/**
 	 * @param connectionFactory The connection factory.
 	 * @see AbstractMessageListenerContainer#setConnectionFactory(ConnectionFactory)
@@ -188,6 +198,42 @@ public abstract class AbstractRabbitListenerContainerFactory<C extends AbstractM
 		this.prefetchCount = prefetch;
 	}
 
+	/**
+	 * @param globalQos true to apply the prefetch to the channel rather than per consumer.
+	 * @since 2.2
+	 * @see AbstractMessageListenerContainer#setGlobalQos(boolean)
+	 */
+	public void setGlobalQos(Boolean globalQos) {
+		this.globalQos = globalQos;
+	}
+
+	/**
+	 * @param prefetchTuning true to adjust the prefetch at runtime.
+	 * @since 2.2
+	 * @see AbstractMessageListenerContainer#setPrefetchTuning(boolean)
+	 */
+	public void setPrefetchTuning(Boolean prefetchTuning) {
+		this.prefetchTuning = prefetchTuning;
+	}
+
+	/**
+	 * @param minPrefetch the lower bound when tuning the prefetch.
+	 * @since 2.2
+	 * @see AbstractMessageListenerContainer#setMinPrefetchCount(int)
+	 */
+	public void setMinPrefetchCount(Integer minPrefetch) {
+		this.minPrefetchCount = minPrefetch;
+	}
+
+	/**
+	 * @param maxPrefetch the upper bound when tuning the prefetch.
+	 * @since 2.2
+	 * @see AbstractMessageListenerContainer#setMaxPrefetchCount(int)
+	 */
+	public void setMaxPrefetchCount(Integer maxPrefetch) {
+		this.maxPrefetchCount = maxPrefetch;
+	}
+
 	/**
 	 * @param requeueRejected true to reject by default.
 	 * @see AbstractMessageListenerContainer#setDefaultRequeueRejected
@@ -370,6 +416,18 @@ public abstract class AbstractRabbitListenerContainerFactory<C extends AbstractM
 		this.batchingStrategy = batchingStrategy;
 	}
 
+	/**
+	 * Set an executor to convert the messages of a batch listener in parallel, while
+	 * preserving their order; by default, they are converted on the consumer thread.
+	 * @param batchConversionExecutor the executor.
+	 * @since 2.2
+	 * @see #setBatchListener(boolean)
+	 * @see org.springframework.amqp.rabbit.listener.adapter.BatchMessagingMessageListenerAdapter#setConversionExecutor
+	 */
+	public void setBatchConversionExecutor(Executor batchConversionExecutor) {
+		this.batchConversionExecutor = batchConversionExecutor;
+	}
+
 	@Override
 	public C createListenerContainer(RabbitListenerEndpoint endpoint) {
 		C instance = createContainerInstance();
@@ -388,6 +446,10 @@ public abstract class AbstractRabbitListenerContainerFactory<C extends AbstractM
 			.acceptIfNotNull(this.taskExecutor, instance::setTaskExecutor)
 			.acceptIfNotNull(this.transactionManager, instance::setTransactionManager)
 			.acceptIfNotNull(this.prefetchCount, instance::setPrefetchCount)
+			.acceptIfNotNull(this.globalQos, instance::setGlobalQos)
+			.acceptIfNotNull(this.prefetchTuning, instance::setPrefetchTuning)
+			.acceptIfNotNull(this.minPrefetchCount, instance::setMinPrefetchCount)
+			.acceptIfNotNull(this.maxPrefetchCount, instance::setMaxPrefetchCount)
 			.acceptIfNotNull(this.defaultRequeueRejected, instance::setDefaultRequeueRejected)
 			.acceptIfNotNull(this.adviceChain, instance::setAdviceChain)
 			.acceptIfNotNull(this.recoveryBackOff, instance::setRecoveryBackOff)
@@ -407,7 +469,8 @@ public abstract class AbstractRabbitListenerContainerFactory<C extends AbstractM
 				.acceptIfNotNull(endpoint.getTaskExecutor(), instance::setTaskExecutor)
 				.acceptIfNotNull(endpoint.getAckMode(), instance::setAcknowledgeMode);
 			javaUtils
-				.acceptIfNotNull(this.batchingStrategy, endpoint::setBatchingStrategy);
+				.acceptIfNotNull(this.batchingStrategy, endpoint::setBatchingStrategy)
+				.acceptIfNotNull(this.batchConversionExecutor, endpoint::setBatchConversionExecutor);
 			instance.setListenerId(endpoint.getId());
 			endpoint.setBatchListener(this.batchListener);
 			endpoint.setupListenerContainer(instance);
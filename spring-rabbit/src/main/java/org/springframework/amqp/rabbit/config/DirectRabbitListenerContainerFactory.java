@@ -16,6 +16,10 @@
 
 package org.springframework.amqp.rabbit.config;
 
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.listener.DirectMessageListenerContainer;
 import org.springframework.amqp.rabbit.listener.RabbitListenerEndpoint;
 import org.springframework.amqp.utils.JavaUtils;
@@ -42,6 +46,18 @@ public class DirectRabbitListenerContainerFactory
 
 	private Long ackTimeout;
 
+	private Boolean consumerBatchEnabled;
+
+	private Integer batchSize;
+
+	private Long batchTimeout;
+
+	private Integer dispatchConcurrency;
+
+	private Function<Message, Object> partitionKeyExtractor;
+
+	private Executor dispatchExecutor;
+
 	/**
 	 * Set the task scheduler to use for the task that monitors idle containers and
 	 * failed consumers.
@@ -96,6 +112,68 @@ public class DirectRabbitListenerContainerFactory
 		this.ackTimeout = ackTimeout;
 	}
 
+	/**
+	 * Set to true to present a batch of messages to the listener; also set
+	 * {@link #setBatchListener(boolean) batchListener} for {@code @RabbitListener}
+	 * methods that receive a {@code List}.
+	 * @param consumerBatchEnabled true to enable consumer-side batching.
+	 * @since 2.2
+	 * @see DirectMessageListenerContainer#setConsumerBatchEnabled(boolean)
+	 */
+	public void setConsumerBatchEnabled(Boolean consumerBatchEnabled) {
+		this.consumerBatchEnabled = consumerBatchEnabled;
+	}
+
+	/**
+	 * Set the maximum number of messages in a batch.
+	 * @param batchSize the batch size.
+	 * @since 2.2
+	 * @see DirectMessageListenerContainer#setBatchSize(int)
+	 */
+	public void setBatchSize(Integer batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Set the time after which a partial batch is delivered.
+	 * @param batchTimeout the timeout in milliseconds.
+	 * @since 2.2
+	 * @see DirectMessageListenerContainer#setBatchTimeout(long)
+	 */
+	public void setBatchTimeout(Long batchTimeout) {
+		this.batchTimeout = batchTimeout;
+	}
+
+	/**
+	 * Set the number of serial lanes on which each consumer processes its deliveries.
+	 * @param dispatchConcurrency the number of lanes.
+	 * @since 2.2
+	 * @see DirectMessageListenerContainer#setDispatchConcurrency(int)
+	 */
+	public void setDispatchConcurrency(Integer dispatchConcurrency) {
+		this.dispatchConcurrency = dispatchConcurrency;
+	}
+
+	/**
+	 * Set a function to extract the partition key that selects the lane.
+	 * @param partitionKeyExtractor the extractor.
+	 * @since 2.2
+	 * @see DirectMessageListenerContainer#setPartitionKeyExtractor(Function)
+	 */
+	public void setPartitionKeyExtractor(Function<Message, Object> partitionKeyExtractor) {
+		this.partitionKeyExtractor = partitionKeyExtractor;
+	}
+
+	/**
+	 * Set the executor on which the lanes run.
+	 * @param dispatchExecutor the executor.
+	 * @since 2.2
+	 * @see DirectMessageListenerContainer#setDispatchExecutor(Executor)
+	 */
+	public void setDispatchExecutor(Executor dispatchExecutor) {
+		this.dispatchExecutor = dispatchExecutor;
+	}
+
 	@Override
 	protected DirectMessageListenerContainer createContainerInstance() {
 		return new DirectMessageListenerContainer();
@@ -108,7 +186,17 @@ public class DirectRabbitListenerContainerFactory
 		JavaUtils javaUtils = JavaUtils.INSTANCE.acceptIfNotNull(this.taskScheduler, instance::setTaskScheduler)
 			.acceptIfNotNull(this.monitorInterval, instance::setMonitorInterval)
 			.acceptIfNotNull(this.messagesPerAck, instance::setMessagesPerAck)
-			.acceptIfNotNull(this.ackTimeout, instance::setAckTimeout);
+			.acceptIfNotNull(this.ackTimeout, instance::setAckTimeout)
+			.acceptIfNotNull(this.consumerBatchEnabled, instance::setConsumerBatchEnabled)
+			.acceptIfNotNull(this.batchSize, instance::setBatchSize)
+			.acceptIfNotNull(this.batchTimeout, instance::setBatchTimeout)
+			.acceptIfNotNull(this.dispatchConcurrency, instance::setDispatchConcurrency)
+			.acceptIfNotNull(this.partitionKeyExtractor, instance::setPartitionKeyExtractor)
+			.acceptIfNotNull(this.dispatchExecutor, instance::setDispatchExecutor);
+		if (Boolean.TRUE.equals(this.consumerBatchEnabled)) {
+			// producer batches are added to the consumer batch
+			instance.setDeBatchingEnabled(true);
+		}
 		if (endpoint != null && endpoint.getConcurrency() != null) {
 			try {
 				instance.setConsumersPerQueue(Integer.parseInt(endpoint.getConcurrency()));
@@ -16,6 +16,7 @@
 
 package org.springframework.amqp.rabbit.config;
 
+import org.springframework.amqp.rabbit.listener.ConcurrencyPolicy;
 import org.springframework.amqp.rabbit.listener.RabbitListenerEndpoint;
 import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
 import org.springframework.amqp.utils.JavaUtils;
@@ -56,6 +57,12 @@ public class SimpleRabbitListenerContainerFactory
 
 	private Boolean deBatchingEnabled;
 
+	private ConcurrencyPolicy concurrencyPolicy;
+
+	private Long concurrencyPolicyInterval;
+
+	private Long queueDepthInterval;
+
 	/**
 	 * @param txSize the transaction size.
 	 * @see SimpleMessageListenerContainer#setTxSize
@@ -130,6 +137,33 @@ public class SimpleRabbitListenerContainerFactory
 		this.deBatchingEnabled = deBatchingEnabled;
 	}
 
+	/**
+	 * @param concurrencyPolicy the policy to determine the number of consumers.
+	 * @since 2.2
+	 * @see SimpleMessageListenerContainer#setConcurrencyPolicy
+	 */
+	public void setConcurrencyPolicy(ConcurrencyPolicy concurrencyPolicy) {
+		this.concurrencyPolicy = concurrencyPolicy;
+	}
+
+	/**
+	 * @param concurrencyPolicyInterval the interval between policy evaluations.
+	 * @since 2.2
+	 * @see SimpleMessageListenerContainer#setConcurrencyPolicyInterval
+	 */
+	public void setConcurrencyPolicyInterval(Long concurrencyPolicyInterval) {
+		this.concurrencyPolicyInterval = concurrencyPolicyInterval;
+	}
+
+	/**
+	 * @param queueDepthInterval the minimum interval between queue depth lookups.
+	 * @since 2.2
+	 * @see SimpleMessageListenerContainer#setQueueDepthInterval
+	 */
+	public void setQueueDepthInterval(Long queueDepthInterval) {
+		this.queueDepthInterval = queueDepthInterval;
+	}
+
 	@Override
 	protected SimpleMessageListenerContainer createContainerInstance() {
 		return new SimpleMessageListenerContainer();
@@ -156,7 +190,10 @@ public class SimpleRabbitListenerContainerFactory
 			.acceptIfNotNull(this.consecutiveActiveTrigger, instance::setConsecutiveActiveTrigger)
 			.acceptIfNotNull(this.consecutiveIdleTrigger, instance::setConsecutiveIdleTrigger)
 			.acceptIfNotNull(this.receiveTimeout, instance::setReceiveTimeout)
-			.acceptIfNotNull(this.deBatchingEnabled, instance::setDeBatchingEnabled);
+			.acceptIfNotNull(this.deBatchingEnabled, instance::setDeBatchingEnabled)
+			.acceptIfNotNull(this.concurrencyPolicy, instance::setConcurrencyPolicy)
+			.acceptIfNotNull(this.concurrencyPolicyInterval, instance::setConcurrencyPolicyInterval)
+			.acceptIfNotNull(this.queueDepthInterval, instance::setQueueDepthInterval);
 	}
 
 }
@@ -16,6 +16,8 @@
 
 package org.springframework.amqp.rabbit.config;
 
+import java.util.List;
+
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -56,12 +58,13 @@ public class StatelessRetryOperationsInterceptorFactoryBean extends AbstractRetr
 
 		final MessageRecoverer messageRecoverer = getMessageRecoverer();
 		retryInterceptor.setRecoverer((args, cause) -> {
-			Message message = (Message) args[1];
-			if (messageRecoverer == null) {
-				logger.warn("Message dropped on recovery: " + message, cause);
+			if (args[1] instanceof List) {
+				@SuppressWarnings("unchecked")
+				List<Message> messages = (List<Message>) args[1];
+				messages.forEach(message -> recover(messageRecoverer, message, cause));
 			}
 			else {
-				messageRecoverer.recover(message, cause);
+				recover(messageRecoverer, (Message) args[1], cause);
 			}
 			return null;
 		});
@@ -70,6 +73,15 @@ public class StatelessRetryOperationsInterceptorFactoryBean extends AbstractRetr
 
 	}
 
+	private static void recover(MessageRecoverer messageRecoverer, Message message, Throwable cause) {
+		if (messageRecoverer == null) {
+			logger.warn("Message dropped on recovery: " + message, cause);
+		}
+		else {
+			messageRecoverer.recover(message, cause);
+		}
+	}
+
 	@Override
 	public Class<?> getObjectType() {
 		return RetryOperationsInterceptor.class;
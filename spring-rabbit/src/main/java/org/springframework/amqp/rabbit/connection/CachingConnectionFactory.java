@@ -57,6 +57,7 @@ import org.springframework.jmx.export.annotation.ManagedResource;
 import org.springframework.lang.Nullable;
 import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 
@@ -105,6 +106,9 @@ public class CachingConnectionFactory extends AbstractConnectionFactory
 
 	private static final String DEFAULT_DEFERRED_POOL_PREFIX = "spring-rabbit-deferred-pool-";
 
+	private static final boolean MICROMETER_PRESENT = ClassUtils.isPresent(
+			"io.micrometer.core.instrument.MeterRegistry", CachingConnectionFactory.class.getClassLoader());
+
 	/**
 	 * Create a unique ID for the pool.
 	 */
@@ -154,6 +158,12 @@ public class CachingConnectionFactory extends AbstractConnectionFactory
 
 	private final AtomicInteger connectionHighWaterMark = new AtomicInteger();
 
+	private final AtomicInteger idleChannelCount = new AtomicInteger();
+
+	private final AtomicInteger busyChannelCount = new AtomicInteger();
+
+	private final AtomicInteger idleChannelHighWaterMark = new AtomicInteger();
+
 	private final CachingConnectionFactory publisherConnectionFactory;
 
 	/** Synchronization monitor for the shared Connection. */
@@ -177,6 +187,12 @@ public class CachingConnectionFactory extends AbstractConnectionFactory
 
 	private ConditionalExceptionLogger closeExceptionLogger = new DefaultChannelCloseLogger();
 
+	private boolean micrometerEnabled = true;
+
+	private Map<String, String> micrometerTags = new HashMap<>();
+
+	private volatile ConnectionFactoryMetrics metrics;
+
 	private volatile boolean active = true;
 
 	private volatile boolean initialized;
@@ -430,6 +446,34 @@ public class CachingConnectionFactory extends AbstractConnectionFactory
 		}
 	}
 
+	/**
+	 * Set to false to disable Micrometer metrics. When enabled (default), Micrometer is
+	 * on the class path and the application context contains a single
+	 * {@code MeterRegistry}, gauges, timers and counters are maintained for the channel
+	 * and connection caches.
+	 * @param micrometerEnabled false to disable.
+	 * @since 2.2
+	 */
+	public void setMicrometerEnabled(boolean micrometerEnabled) {
+		this.micrometerEnabled = micrometerEnabled;
+		if (this.publisherConnectionFactory != null) {
+			this.publisherConnectionFactory.setMicrometerEnabled(micrometerEnabled);
+		}
+	}
+
+	/**
+	 * Set additional tags for the Micrometer meters.
+	 * @param tags the tags.
+	 * @since 2.2
+	 */
+	public void setMicrometerTags(Map<String, String> tags) {
+		Assert.notNull(tags, "'tags' cannot be null");
+		this.micrometerTags = new HashMap<>(tags);
+		if (this.publisherConnectionFactory != null) {
+			this.publisherConnectionFactory.setMicrometerTags(tags);
+		}
+	}
+
 	@Override
 	public void afterPropertiesSet() {
 		this.initialized = true;
@@ -438,11 +482,23 @@ public class CachingConnectionFactory extends AbstractConnectionFactory
 					"When the cache mode is 'CHANNEL', the connection cache size cannot be configured.");
 		}
 		initCacheWaterMarks();
+		initializeMetrics();
 		if (this.publisherConnectionFactory != null) {
 			this.publisherConnectionFactory.afterPropertiesSet();
 		}
 	}
 
+	private void initializeMetrics() {
+		if (this.micrometerEnabled && MICROMETER_PRESENT && this.metrics == null
+				&& getApplicationContext() != null) {
+			String name = getBeanName() != null
+					? getBeanName()
+					: getClass().getSimpleName() + "@" + ObjectUtils.getIdentityHexString(this);
+			this.metrics = ConnectionFactoryMetrics.create(getApplicationContext(), this, name, // NOSONAR never null
+					this.micrometerTags);
+		}
+	}
+
 	private void initCacheWaterMarks() {
 		this.channelHighWaterMarks.put(ObjectUtils.getIdentityHexString(this.cachedChannelsNonTransactional),
 				new AtomicInteger());
@@ -509,6 +565,9 @@ public class CachingConnectionFactory extends AbstractConnectionFactory
 				throw e;
 			}
 		}
+		if (this.metrics != null) {
+			((CachedChannelInvocationHandler) Proxy.getInvocationHandler(channel)).checkedOut();
+		}
 		return channel;
 	}
 
@@ -517,7 +576,13 @@ public class CachingConnectionFactory extends AbstractConnectionFactory
 		permits = this.checkoutPermits.get(connection);
 		if (permits != null) {
 			try {
-				if (!permits.tryAcquire(this.channelCheckoutTimeout, TimeUnit.MILLISECONDS)) {
+				ConnectionFactoryMetrics factoryMetrics = this.metrics;
+				long start = factoryMetrics != null ? System.nanoTime() : 0L;
+				boolean acquired = permits.tryAcquire(this.channelCheckoutTimeout, TimeUnit.MILLISECONDS);
+				if (factoryMetrics != null) {
+					factoryMetrics.checkout(System.nanoTime() - start, acquired);
+				}
+				if (!acquired) {
 					throw new AmqpTimeoutException("No available channels");
 				}
 				if (logger.isDebugEnabled()) {
@@ -542,6 +607,7 @@ public class CachingConnectionFactory extends AbstractConnectionFactory
 		synchronized (channelList) {
 			while (!channelList.isEmpty()) {
 				channel = channelList.removeFirst();
+				this.idleChannelCount.decrementAndGet();
 				if (logger.isTraceEnabled()) {
 					logger.trace(channel + " retrieved from cache");
 				}
@@ -640,8 +706,8 @@ public class CachingConnectionFactory extends AbstractConnectionFactory
 		else if (this.cacheMode == CacheMode.CONNECTION) {
 			if (!connection.isOpen()) {
 				synchronized (this.connectionMonitor) {
-					this.allocatedConnectionNonTransactionalChannels.get(connection).clear();
-					this.allocatedConnectionTransactionalChannels.get(connection).clear();
+					clearIdleChannels(this.allocatedConnectionNonTransactionalChannels.get(connection));
+					clearIdleChannels(this.allocatedConnectionTransactionalChannels.get(connection));
 					connection.notifyCloseIfNecessary();
 					refreshProxyConnection(connection);
 				}
@@ -651,8 +717,17 @@ public class CachingConnectionFactory extends AbstractConnectionFactory
 		return null; // NOSONAR doCreate will throw an exception
 	}
 
+	private void clearIdleChannels(LinkedList<ChannelProxy> channelList) { // NOSONAR LinkedList
+		this.idleChannelCount.addAndGet(-channelList.size());
+		channelList.clear();
+	}
+
 	private Channel doCreateBareChannel(ChannelCachingConnectionProxy connection, boolean transactional) {
 		Channel channel = connection.createBareChannel(transactional);
+		ConnectionFactoryMetrics factoryMetrics = this.metrics;
+		if (factoryMetrics != null) {
+			factoryMetrics.channelCreated();
+		}
 		if (this.publisherConfirms || this.simplePublisherConfirms) {
 			try {
 				channel.confirmSelect();
@@ -680,7 +755,7 @@ public class CachingConnectionFactory extends AbstractConnectionFactory
 		synchronized (this.connectionMonitor) {
 			if (this.cacheMode == CacheMode.CHANNEL) {
 				if (this.connection.target == null) {
-					this.connection.target = super.createBareConnection();
+					this.connection.target = createMeteredConnection();
 					// invoke the listener *after* this.connection is assigned
 					if (!this.checkoutPermits.containsKey(this.connection)) {
 						this.checkoutPermits.put(this.connection, new Semaphore(this.channelCacheSize));
@@ -708,7 +783,7 @@ public class CachingConnectionFactory extends AbstractConnectionFactory
 					&& System.currentTimeMillis() - now >= this.channelCheckoutTimeout) {
 				throw new AmqpTimeoutException("Timed out attempting to get a connection");
 			}
-			cachedConnection = new ChannelCachingConnectionProxy(super.createBareConnection());
+			cachedConnection = new ChannelCachingConnectionProxy(createMeteredConnection());
 			if (logger.isDebugEnabled()) {
 				logger.debug("Adding new connection '" + cachedConnection + "'");
 			}
@@ -791,10 +866,19 @@ public class CachingConnectionFactory extends AbstractConnectionFactory
 		return cachedConnection;
 	}
 
+	private Connection createMeteredConnection() {
+		Connection bareConnection = super.createBareConnection();
+		ConnectionFactoryMetrics factoryMetrics = this.metrics;
+		if (factoryMetrics != null) {
+			factoryMetrics.monitorBlocking(bareConnection);
+		}
+		return bareConnection;
+	}
+
 	private void refreshProxyConnection(ChannelCachingConnectionProxy connection) {
 		connection.destroy();
 		connection.notifyCloseIfNecessary();
-		connection.target = super.createBareConnection();
+		connection.target = createMeteredConnection();
 		connection.closeNotified.set(false);
 		getConnectionListener().onCreate(connection);
 		if (logger.isDebugEnabled()) {
@@ -816,6 +900,11 @@ public class CachingConnectionFactory extends AbstractConnectionFactory
 	public final void destroy() {
 		super.destroy();
 		resetConnection();
+		ConnectionFactoryMetrics factoryMetrics = this.metrics;
+		if (factoryMetrics != null) {
+			factoryMetrics.destroy();
+			this.metrics = null;
+		}
 		if (getContextStopped()) {
 			this.stopped = true;
 			if (this.channelsExecutor != null) {
@@ -838,6 +927,7 @@ public class CachingConnectionFactory extends AbstractConnectionFactory
 			this.allocatedConnections.forEach(c -> c.destroy());
 			this.channelHighWaterMarks.values().forEach(count -> count.set(0));
 			this.connectionHighWaterMark.set(0);
+			this.idleChannelHighWaterMark.set(0);
 		}
 		if (this.publisherConnectionFactory != null) {
 			this.publisherConnectionFactory.resetConnection();
@@ -861,6 +951,7 @@ public class CachingConnectionFactory extends AbstractConnectionFactory
 	protected void closeAndClear(Collection<ChannelProxy> theChannels) {
 		synchronized (theChannels) {
 			closeChannels(theChannels);
+			this.idleChannelCount.addAndGet(-theChannels.size());
 			theChannels.clear();
 		}
 	}
@@ -876,6 +967,44 @@ public class CachingConnectionFactory extends AbstractConnectionFactory
 		}
 	}
 
+	/**
+	 * Return the number of channels in the cache(s); used for metrics.
+	 * @return the number of idle channels.
+	 * @since 2.2
+	 */
+	int getIdleChannelCount() {
+		return this.idleChannelCount.get();
+	}
+
+	/**
+	 * Return the number of channels checked out of the cache(s) and not yet closed;
+	 * only maintained when metrics are enabled.
+	 * @return the number of busy channels.
+	 * @since 2.2
+	 */
+	int getBusyChannelCount() {
+		return this.busyChannelCount.get();
+	}
+
+	/**
+	 * Return the largest number of channels in any channel cache since the last reset.
+	 * @return the high water mark.
+	 * @since 2.2
+	 */
+	int getIdleChannelHighWaterMark() {
+		return this.idleChannelHighWaterMark.get();
+	}
+
+	/**
+	 * Return the number of connections in the cache, when the cache mode is
+	 * {@link CacheMode#CONNECTION}.
+	 * @return the number of idle connections.
+	 * @since 2.2
+	 */
+	int getIdleConnectionCount() {
+		return this.idleConnections.size();
+	}
+
 	@ManagedAttribute
 	public Properties getCacheProperties() {
 		Properties props = new Properties();
@@ -1011,6 +1140,8 @@ public class CachingConnectionFactory extends AbstractConnectionFactory
 
 		private final boolean publisherConfirms = CachingConnectionFactory.this.publisherConfirms;
 
+		private final AtomicBoolean busy = new AtomicBoolean();
+
 		private volatile Channel target;
 
 		private volatile boolean txStarted;
@@ -1027,6 +1158,16 @@ public class CachingConnectionFactory extends AbstractConnectionFactory
 			this.transactional = transactional;
 		}
 
+		/**
+		 * Count the channel as busy until it is next closed; a channel is only counted
+		 * once, however many times it is closed.
+		 */
+		void checkedOut() {
+			if (this.busy.compareAndSet(false, true)) {
+				CachingConnectionFactory.this.busyChannelCount.incrementAndGet();
+			}
+		}
+
 		@Override // NOSONAR complexity
 		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable { // NOSONAR NCSS lines
 			if (logger.isTraceEnabled() && !method.getName().equals("toString")
@@ -1063,6 +1204,10 @@ public class CachingConnectionFactory extends AbstractConnectionFactory
 										|| this.channelList.contains(proxy))) {
 							releasePermitIfNecessary(proxy);
 							logicalClose((ChannelProxy) proxy);
+							ConnectionFactoryMetrics factoryMetrics = CachingConnectionFactory.this.metrics;
+							if (factoryMetrics != null) {
+								factoryMetrics.channelClosed(false);
+							}
 							return null;
 						}
 					}
@@ -1139,7 +1284,8 @@ public class CachingConnectionFactory extends AbstractConnectionFactory
 		}
 
 		private void releasePermitIfNecessary(Object proxy) {
-			if (CachingConnectionFactory.this.channelCheckoutTimeout > 0) {
+			if (CachingConnectionFactory.this.channelCheckoutTimeout > 0
+					|| CachingConnectionFactory.this.metrics != null) {
 				/*
 				 *  Only release a permit if this is a normal close; if the channel is
 				 *  in the list, it means we're closing a cached channel (for which a permit
@@ -1150,6 +1296,12 @@ public class CachingConnectionFactory extends AbstractConnectionFactory
 						return;
 					}
 				}
+				if (this.busy.compareAndSet(true, false)) {
+					CachingConnectionFactory.this.busyChannelCount.decrementAndGet();
+				}
+				if (CachingConnectionFactory.this.channelCheckoutTimeout <= 0) {
+					return;
+				}
 				Semaphore permits = CachingConnectionFactory.this.checkoutPermits.get(this.theConnection);
 				if (permits != null) {
 					permits.release();
@@ -1180,8 +1332,8 @@ public class CachingConnectionFactory extends AbstractConnectionFactory
 						if (this.target instanceof PublisherCallbackChannel) {
 							this.target.close(); // emit nacks if necessary
 						}
-						if (this.channelList.contains(proxy)) {
-							this.channelList.remove(proxy);
+						if (this.channelList.remove(proxy)) {
+							CachingConnectionFactory.this.idleChannelCount.decrementAndGet();
 						}
 						this.target = null;
 						return;
@@ -1215,6 +1367,7 @@ public class CachingConnectionFactory extends AbstractConnectionFactory
 								logger.trace("Returning cached Channel: " + this.target);
 							}
 							this.channelList.addLast((ChannelProxy) proxy);
+							CachingConnectionFactory.this.idleChannelCount.incrementAndGet();
 							setHighWaterMark();
 						}
 					}
@@ -1239,6 +1392,7 @@ public class CachingConnectionFactory extends AbstractConnectionFactory
 				int size = this.channelList.size();
 				if (size > prev) {
 					hwm.set(size);
+					CachingConnectionFactory.this.idleChannelHighWaterMark.accumulateAndGet(size, Math::max);
 				}
 			}
 		}
@@ -1250,6 +1404,10 @@ public class CachingConnectionFactory extends AbstractConnectionFactory
 			if (this.target == null) {
 				return;
 			}
+			ConnectionFactoryMetrics factoryMetrics = CachingConnectionFactory.this.metrics;
+			if (factoryMetrics != null) {
+				factoryMetrics.channelClosed(true);
+			}
 			try {
 				if (CachingConnectionFactory.this.active &&
 						(CachingConnectionFactory.this.publisherConfirms ||
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.rabbit.connection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory.CacheMode;
+import org.springframework.context.ApplicationContext;
+import org.springframework.lang.Nullable;
+
+import com.rabbitmq.client.BlockedListener;
+import com.rabbitmq.client.ShutdownListener;
+import com.rabbitmq.client.ShutdownSignalException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Micrometer meters for a {@link CachingConnectionFactory}. The gauges read counters
+ * that the factory maintains without locking, so scraping them never contends with
+ * the channel and connection caches.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+final class ConnectionFactoryMetrics {
+
+	static final String CONNECTION = "spring.rabbitmq.connection";
+
+	static final String CHANNELS = CONNECTION + ".channels";
+
+	static final String HIGH_WATER = CHANNELS + ".idle.high.water";
+
+	static final String CREATED = CHANNELS + ".created";
+
+	static final String CLOSED = CHANNELS + ".closed";
+
+	static final String CHECKOUT = CONNECTION + ".channel.checkout";
+
+	static final String IDLE_CONNECTIONS = CONNECTION + ".connections.idle";
+
+	static final String BLOCKED = CONNECTION + ".blocked";
+
+	static final String BLOCKED_CURRENT = BLOCKED + ".current";
+
+	private final MeterRegistry registry;
+
+	private final List<Meter> meters = new ArrayList<>();
+
+	private final AtomicInteger blockedConnections = new AtomicInteger();
+
+	private final Timer checkoutTimer;
+
+	private final Timer checkoutTimeoutTimer;
+
+	private final Counter created;
+
+	private final Counter logicallyClosed;
+
+	private final Counter physicallyClosed;
+
+	private final Timer blocked;
+
+	private ConnectionFactoryMetrics(MeterRegistry registry, CachingConnectionFactory factory, Tags tags) {
+		this.registry = registry;
+		this.checkoutTimer = register(checkout(tags, "acquired"));
+		this.checkoutTimeoutTimer = register(checkout(tags, "timeout"));
+		this.created = register(Counter.builder(CREATED)
+				.description("Channels created")
+				.tags(tags)
+				.register(registry));
+		this.logicallyClosed = register(closed(tags, "logical"));
+		this.physicallyClosed = register(closed(tags, "physical"));
+		this.blocked = register(Timer.builder(BLOCKED)
+				.description("The time connections were blocked by the broker")
+				.tags(tags)
+				.register(registry));
+		register(Gauge.builder(CHANNELS, factory, CachingConnectionFactory::getIdleChannelCount)
+				.description("Channels in the cache")
+				.tags(tags)
+				.tag("state", "idle")
+				.register(registry));
+		register(Gauge.builder(CHANNELS, factory, CachingConnectionFactory::getBusyChannelCount)
+				.description("Channels checked out of the cache")
+				.tags(tags)
+				.tag("state", "busy")
+				.register(registry));
+		register(Gauge.builder(HIGH_WATER, factory, CachingConnectionFactory::getIdleChannelHighWaterMark)
+				.description("The largest number of channels in a channel cache")
+				.tags(tags)
+				.register(registry));
+		register(Gauge.builder(BLOCKED_CURRENT, this.blockedConnections, AtomicInteger::get)
+				.description("Connections currently blocked by the broker")
+				.tags(tags)
+				.register(registry));
+		if (factory.getCacheMode() == CacheMode.CONNECTION) {
+			register(Gauge.builder(IDLE_CONNECTIONS, factory, CachingConnectionFactory::getIdleConnectionCount)
+					.description("Connections in the cache")
+					.tags(tags)
+					.register(registry));
+		}
+	}
+
+	private Timer checkout(Tags tags, String result) {
+		return Timer.builder(CHECKOUT)
+				.description("Time waiting for a channel when the number of channels is limited")
+				.tags(tags)
+				.tag("result", result)
+				.register(this.registry);
+	}
+
+	private Counter closed(Tags tags, String type) {
+		return Counter.builder(CLOSED)
+				.description("Channels returned to the cache (logical) or closed (physical)")
+				.tags(tags)
+				.tag("type", type)
+				.register(this.registry);
+	}
+
+	private <M extends Meter> M register(M meter) {
+		this.meters.add(meter);
+		return meter;
+	}
+
+	/**
+	 * Create the meters if there is exactly one {@link MeterRegistry} in the context.
+	 * @param context the application context.
+	 * @param factory the connection factory.
+	 * @param name the value of the {@code connection.factory} tag.
+	 * @param extraTags additional tags.
+	 * @return the metrics, or null if there is no unique registry.
+	 */
+	@Nullable
+	static ConnectionFactoryMetrics create(ApplicationContext context, CachingConnectionFactory factory,
+			String name, Map<String, String> extraTags) {
+
+		Map<String, MeterRegistry> registries = context.getBeansOfType(MeterRegistry.class, false, false);
+		if (registries.size() != 1) {
+			return null;
+		}
+		Tags tags = Tags.of("connection.factory", name);
+		for (Map.Entry<String, String> tag : extraTags.entrySet()) {
+			tags = tags.and(tag.getKey(), tag.getValue());
+		}
+		return new ConnectionFactoryMetrics(registries.values().iterator().next(), factory, tags);
+	}
+
+	void checkout(long nanos, boolean acquired) {
+		(acquired ? this.checkoutTimer : this.checkoutTimeoutTimer).record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	void channelCreated() {
+		this.created.increment();
+	}
+
+	void channelClosed(boolean physical) {
+		(physical ? this.physicallyClosed : this.logicallyClosed).increment();
+	}
+
+	/**
+	 * Time the blocked periods of a connection; a period still open when the connection
+	 * shuts down ends then.
+	 * @param connection the connection.
+	 */
+	void monitorBlocking(Connection connection) {
+		MeteredBlockedListener listener = new MeteredBlockedListener();
+		connection.addBlockedListener(listener);
+		com.rabbitmq.client.Connection delegate = connection.getDelegate();
+		if (delegate != null) {
+			delegate.addShutdownListener(listener);
+		}
+	}
+
+	/**
+	 * Remove the meters from the registry.
+	 */
+	void destroy() {
+		synchronized (this.meters) {
+			this.meters.forEach(this.registry::remove);
+			this.meters.clear();
+		}
+	}
+
+	private final class MeteredBlockedListener implements BlockedListener, ShutdownListener {
+
+		private long blockedAt;
+
+		private boolean isBlocked;
+
+		MeteredBlockedListener() {
+			super();
+		}
+
+		@Override
+		public synchronized void handleBlocked(String reason) {
+			if (!this.isBlocked) {
+				this.isBlocked = true;
+				this.blockedAt = System.nanoTime();
+				ConnectionFactoryMetrics.this.blockedConnections.incrementAndGet();
+			}
+		}
+
+		@Override
+		public void shutdownCompleted(ShutdownSignalException cause) {
+			handleUnblocked();
+		}
+
+		@Override
+		public synchronized void handleUnblocked() {
+			if (this.isBlocked) {
+				this.isBlocked = false;
+				ConnectionFactoryMetrics.this.blockedConnections.decrementAndGet();
+				ConnectionFactoryMetrics.this.blocked.record(System.nanoTime() - this.blockedAt, TimeUnit.NANOSECONDS);
+			}
+		}
+
+	}
+
+}
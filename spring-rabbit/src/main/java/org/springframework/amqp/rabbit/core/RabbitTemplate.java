@@ -35,6 +35,7 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import org.springframework.amqp.AmqpException;
 import org.springframework.amqp.AmqpIllegalStateException;
@@ -68,6 +69,7 @@ import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter
 import org.springframework.amqp.rabbit.support.Delivery;
 import org.springframework.amqp.rabbit.support.ListenerContainerAware;
 import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.PublishTime;
 import org.springframework.amqp.rabbit.support.RabbitExceptionTranslator;
 import org.springframework.amqp.rabbit.support.ValueExpression;
 import org.springframework.amqp.support.converter.MessageConverter;
@@ -90,6 +92,7 @@ import org.springframework.retry.RecoveryCallback;
 import org.springframework.retry.RetryCallback;
 import org.springframework.retry.support.RetryTemplate;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.ErrorHandler;
 import org.springframework.util.StringUtils;
 
@@ -164,6 +167,11 @@ public class RabbitTemplate extends RabbitAccessor // NOSONAR type line count
 
 	private static final SpelExpressionParser PARSER = new SpelExpressionParser();
 
+	private static final int DEFAULT_MICROMETER_MAX_DESTINATIONS = 100;
+
+	private static final boolean MICROMETER_PRESENT = ClassUtils.isPresent(
+			"io.micrometer.core.instrument.MeterRegistry", RabbitTemplate.class.getClassLoader());
+
 	/*
 	 * Not static as normal since we want this TL to be scoped within the template instance.
 	 */
@@ -190,6 +198,8 @@ public class RabbitTemplate extends RabbitAccessor // NOSONAR type line count
 
 	private final AtomicInteger containerInstance = new AtomicInteger();
 
+	private final Object metricsMonitor = new Object();
+
 	private String exchange = DEFAULT_EXCHANGE;
 
 	private String routingKey = DEFAULT_ROUTING_KEY;
@@ -248,8 +258,24 @@ public class RabbitTemplate extends RabbitAccessor // NOSONAR type line count
 
 	private boolean noLocalReplyConsumer;
 
+	private boolean publishTimeHeader;
+
 	private ErrorHandler replyErrorHandler;
 
+	private BeanFactory beanFactory;
+
+	private boolean micrometerEnabled = true;
+
+	private Map<String, String> micrometerTags = new HashMap<>();
+
+	private int micrometerMaxDestinations = DEFAULT_MICROMETER_MAX_DESTINATIONS;
+
+	private Function<String, String> micrometerRoutingKeyMapper = Function.identity();
+
+	private volatile RabbitTemplateMetrics metrics;
+
+	private volatile boolean evaluatedMetrics;
+
 	private volatile Boolean confirmsOrReturnsCapable;
 
 	private volatile boolean publisherConfirms;
@@ -564,6 +590,7 @@ public class RabbitTemplate extends RabbitAccessor // NOSONAR type line count
 
 	@Override
 	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+		this.beanFactory = beanFactory;
 		this.evaluationContext.setBeanResolver(new BeanFactoryResolver(beanFactory));
 		this.evaluationContext.addPropertyAccessor(new MapAccessor());
 	}
@@ -749,6 +776,90 @@ public class RabbitTemplate extends RabbitAccessor // NOSONAR type line count
 		this.beanName = name;
 	}
 
+	/**
+	 * Set to true to add a {@link PublishTime#HEADER} header with the nanosecond-precision
+	 * time that each message is published, so that listener containers with
+	 * {@code deliveryLatencyEnabled} can record the latency between publishing and
+	 * delivery. Default false.
+	 * @param publishTimeHeader true to add the header.
+	 * @since 2.2
+	 */
+	public void setPublishTimeHeader(boolean publishTimeHeader) {
+		this.publishTimeHeader = publishTimeHeader;
+	}
+
+	/**
+	 * Set to false to disable Micrometer metrics. When enabled (default), Micrometer is
+	 * on the class path and the template's bean factory contains a single
+	 * {@code MeterRegistry}, timers and counters are maintained for sends, publisher
+	 * confirms, returns and replies, tagged with the template's bean name, the exchange
+	 * and the routing key.
+	 * @param micrometerEnabled false to disable.
+	 * @since 2.2
+	 * @see #setMicrometerMaxDestinations(int)
+	 * @see #setMicrometerRoutingKeyMapper(Function)
+	 */
+	public void setMicrometerEnabled(boolean micrometerEnabled) {
+		this.micrometerEnabled = micrometerEnabled;
+	}
+
+	/**
+	 * Set additional tags for the Micrometer meters.
+	 * @param tags the tags.
+	 * @since 2.2
+	 */
+	public void setMicrometerTags(Map<String, String> tags) {
+		Assert.notNull(tags, "'tags' cannot be null");
+		this.micrometerTags = new HashMap<>(tags);
+	}
+
+	/**
+	 * Set the maximum number of distinct exchange/routing key tag combinations for which
+	 * meters are created (default 100). Once reached, other destinations are recorded
+	 * with {@code exchange} and {@code routing.key} tags of {@code other}.
+	 * @param maxDestinations the maximum.
+	 * @since 2.2
+	 */
+	public void setMicrometerMaxDestinations(int maxDestinations) {
+		Assert.isTrue(maxDestinations > 0, "'maxDestinations' must be greater than 0");
+		this.micrometerMaxDestinations = maxDestinations;
+	}
+
+	/**
+	 * Set a function to map routing keys to the value of the {@code routing.key} tag;
+	 * use it to group routing keys that contain variable parts, such as identifiers, so
+	 * they share meters. By default, the routing key is used as is.
+	 * @param routingKeyMapper the mapper.
+	 * @since 2.2
+	 */
+	public void setMicrometerRoutingKeyMapper(Function<String, String> routingKeyMapper) {
+		Assert.notNull(routingKeyMapper, "'routingKeyMapper' cannot be null");
+		this.micrometerRoutingKeyMapper = routingKeyMapper;
+	}
+
+	/**
+	 * Return the Micrometer meters, if enabled and a single {@code MeterRegistry} is
+	 * available in the bean factory; the meters are created when first needed after the
+	 * bean factory has been set.
+	 * @return the metrics, or null.
+	 * @since 2.2
+	 */
+	@Nullable
+	public RabbitTemplateMetrics getMetrics() {
+		if (!this.evaluatedMetrics && this.beanFactory != null) { // the registry is discovered in the bean factory
+			synchronized (this.metricsMonitor) {
+				if (!this.evaluatedMetrics) {
+					if (this.micrometerEnabled && MICROMETER_PRESENT) {
+						this.metrics = RabbitTemplateMetrics.create(this.beanFactory, this.beanName,
+								this.micrometerTags, this.micrometerMaxDestinations, this.micrometerRoutingKeyMapper);
+					}
+					this.evaluatedMetrics = true;
+				}
+			}
+		}
+		return this.metrics;
+	}
+
 	/**
 	 * Set a task executor to use when using a {@link DirectReplyToMessageListenerContainer}.
 	 * @param taskExecutor the executor.
@@ -896,6 +1007,14 @@ public class RabbitTemplate extends RabbitAccessor // NOSONAR type line count
 				.forEach(AbstractMessageListenerContainer::stop);
 			this.directReplyToContainers.clear();
 		}
+		synchronized (this.metricsMonitor) {
+			RabbitTemplateMetrics templateMetrics = this.metrics;
+			if (templateMetrics != null) {
+				templateMetrics.destroy();
+				this.metrics = null;
+			}
+			this.evaluatedMetrics = false;
+		}
 		doStop();
 	}
 
@@ -1433,7 +1552,7 @@ public class RabbitTemplate extends RabbitAccessor // NOSONAR type line count
 
 		Object correlation = this.correlationKey == null
 				? receiveMessageProperties.getCorrelationId()
-				: receiveMessageProperties.getHeaders().get(this.correlationKey);
+				: receiveMessageProperties.getHeader(this.correlationKey);
 
 		if (this.correlationKey == null || correlation == null) {
 			// using standard correlationId property
@@ -1906,7 +2025,7 @@ public class RabbitTemplate extends RabbitAccessor // NOSONAR type line count
 		if (this.userCorrelationId) {
 			String correlationId;
 			if (this.correlationKey != null) {
-				correlationId = (String) message.getMessageProperties().getHeaders().get(this.correlationKey);
+				correlationId = message.getMessageProperties().getHeader(this.correlationKey);
 			}
 			else {
 				correlationId = message.getMessageProperties().getCorrelationId();
@@ -1979,11 +2098,17 @@ public class RabbitTemplate extends RabbitAccessor // NOSONAR type line count
 		if (mandatory && this.returnCallback == null) {
 			message.getMessageProperties().getHeaders().put(RETURN_CORRELATION_KEY, messageTag);
 		}
+		RabbitTemplateMetrics templateMetrics = getMetrics();
+		long start = templateMetrics != null ? System.nanoTime() : 0L;
 		doSend(channel, exchange, routingKey, message, mandatory, correlationData);
 		reply = this.replyTimeout < 0 ? pendingReply.get() : pendingReply.get(this.replyTimeout, TimeUnit.MILLISECONDS);
 		if (this.logger.isDebugEnabled()) {
 			this.logger.debug("Reply: " + reply);
 		}
+		if (templateMetrics != null) {
+			templateMetrics.reply(exchange == null ? this.exchange : exchange,
+					routingKey == null ? this.routingKey : routingKey, System.nanoTime() - start, reply == null);
+		}
 		if (reply == null) {
 			replyTimedOut(message.getMessageProperties().getCorrelationId());
 		}
@@ -2274,17 +2399,31 @@ public class RabbitTemplate extends RabbitAccessor // NOSONAR type line count
 		}
 		if (this.beforePublishPostProcessors != null) {
 			for (MessagePostProcessor processor : this.beforePublishPostProcessors) {
-				messageToUse = processor.postProcessMessage(messageToUse, correlationData);
+				messageToUse = processor.postProcessMessage(messageToUse, correlationData, exch, rKey);
 			}
 		}
-		setupConfirm(channel, messageToUse, correlationData);
+		RabbitTemplateMetrics templateMetrics = getMetrics();
+		RabbitTemplateMetrics.Destination destination = templateMetrics != null
+				? templateMetrics.destination(exch, rKey)
+				: null;
+		setupConfirm(channel, messageToUse, correlationData, destination);
 		if (this.userIdExpression != null && messageProperties.getUserId() == null) {
 			String userId = this.userIdExpression.getValue(this.evaluationContext, messageToUse, String.class);
 			if (userId != null) {
 				messageProperties.setUserId(userId);
 			}
 		}
-		sendToRabbit(channel, exch, rKey, mandatory, messageToUse);
+		if (this.publishTimeHeader) {
+			messageToUse.getMessageProperties().setHeader(PublishTime.HEADER, PublishTime.currentTimeNanos());
+		}
+		if (destination != null) {
+			long start = System.nanoTime();
+			sendToRabbit(channel, exch, rKey, mandatory, messageToUse);
+			templateMetrics.sent(destination, System.nanoTime() - start); // NOSONAR never null here
+		}
+		else {
+			sendToRabbit(channel, exch, rKey, mandatory, messageToUse);
+		}
 		// Check if commit needed
 		if (isChannelLocallyTransacted(channel)) {
 			// Transacted channel created by this template -> commit.
@@ -2299,7 +2438,9 @@ public class RabbitTemplate extends RabbitAccessor // NOSONAR type line count
 		channel.basicPublish(exchange, routingKey, mandatory, convertedMessageProperties, message.getBody());
 	}
 
-	private void setupConfirm(Channel channel, Message message, @Nullable CorrelationData correlationDataArg) {
+	private void setupConfirm(Channel channel, Message message, @Nullable CorrelationData correlationDataArg,
+			@Nullable RabbitTemplateMetrics.Destination destination) {
+
 		if ((this.publisherConfirms || this.confirmCallback != null) && channel instanceof PublisherCallbackChannel) {
 
 			PublisherCallbackChannel publisherCallbackChannel = (PublisherCallbackChannel) channel;
@@ -2308,8 +2449,9 @@ public class RabbitTemplate extends RabbitAccessor // NOSONAR type line count
 					: correlationDataArg;
 			long nextPublishSeqNo = channel.getNextPublishSeqNo();
 			message.getMessageProperties().setPublishSequenceNumber(nextPublishSeqNo);
-			publisherCallbackChannel.addPendingConfirm(this, nextPublishSeqNo,
-					new PendingConfirm(correlationData, System.currentTimeMillis()));
+			publisherCallbackChannel.addPendingConfirm(this, nextPublishSeqNo, destination == null
+					? new PendingConfirm(correlationData, System.currentTimeMillis())
+					: new MeteredPendingConfirm(correlationData, destination));
 			if (correlationData != null && StringUtils.hasText(correlationData.getId())) {
 				message.getMessageProperties().setHeader(PublisherCallbackChannel.RETURNED_MESSAGE_CORRELATION_KEY,
 						correlationData.getId());
@@ -2432,6 +2574,11 @@ public class RabbitTemplate extends RabbitAccessor // NOSONAR type line count
 
 	@Override
 	public void handleConfirm(PendingConfirm pendingConfirm, boolean ack) {
+		RabbitTemplateMetrics templateMetrics = this.metrics;
+		if (templateMetrics != null && pendingConfirm instanceof MeteredPendingConfirm) {
+			MeteredPendingConfirm metered = (MeteredPendingConfirm) pendingConfirm;
+			templateMetrics.confirmed(metered.destination, System.nanoTime() - metered.start, ack);
+		}
 		if (this.confirmCallback != null) {
 			this.confirmCallback.confirm(pendingConfirm.getCorrelationData(), ack, pendingConfirm.getCause()); // NOSONAR never null
 		}
@@ -2445,6 +2592,10 @@ public class RabbitTemplate extends RabbitAccessor // NOSONAR type line count
 			BasicProperties properties,
 			byte[] body) {
 
+		RabbitTemplateMetrics templateMetrics = this.metrics;
+		if (templateMetrics != null) {
+			templateMetrics.returned(exchange, routingKey);
+		}
 		ReturnCallback callback = this.returnCallback;
 		if (callback == null) {
 			Object messageTagHeader = properties.getHeaders().remove(RETURN_CORRELATION_KEY);
@@ -2476,7 +2627,7 @@ public class RabbitTemplate extends RabbitAccessor // NOSONAR type line count
 
 	@Override
 	public boolean isConfirmListener() {
-		return this.confirmCallback != null;
+		return this.confirmCallback != null || this.metrics != null;
 	}
 
 	@Override
@@ -2589,6 +2740,24 @@ public class RabbitTemplate extends RabbitAccessor // NOSONAR type line count
 		return consumer;
 	}
 
+	/**
+	 * A {@link PendingConfirm} that also carries the state needed to time the confirm.
+	 */
+	private static final class MeteredPendingConfirm extends PendingConfirm {
+
+		private final RabbitTemplateMetrics.Destination destination;
+
+		private final long start = System.nanoTime();
+
+		MeteredPendingConfirm(@Nullable CorrelationData correlationData,
+				RabbitTemplateMetrics.Destination destination) {
+
+			super(correlationData, System.currentTimeMillis());
+			this.destination = destination;
+		}
+
+	}
+
 	private static class PendingReply {
 
 		@Nullable
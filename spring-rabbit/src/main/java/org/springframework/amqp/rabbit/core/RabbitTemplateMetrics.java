@@ -0,0 +1,273 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.rabbit.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.lang.Nullable;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Micrometer meters for a {@link RabbitTemplate}, tagged with the exchange and (mapped)
+ * routing key. Once {@code maxDestinations} distinct tag combinations have been seen,
+ * further destinations share meters tagged with {@value #OTHER}, so the number of
+ * meters is bounded regardless of the routing keys used. Meters are registered on
+ * first use for a destination; after that, recording does not allocate.
+ * <p>
+ * Obtained from {@link RabbitTemplate#getMetrics()}; not intended to be created
+ * directly.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+public final class RabbitTemplateMetrics {
+
+	static final String TEMPLATE = "spring.rabbitmq.template";
+
+	static final String SEND = TEMPLATE + ".send";
+
+	static final String CONFIRM = TEMPLATE + ".confirm";
+
+	static final String RETURNS = TEMPLATE + ".returns";
+
+	static final String REPLY = TEMPLATE + ".reply";
+
+	static final String OTHER = "other";
+
+	private static final int SEND_TIMER = 0;
+
+	private static final int ACK_TIMER = 1;
+
+	private static final int NACK_TIMER = 2;
+
+	private static final int RETURN_COUNTER = 3;
+
+	private static final int REPLY_TIMER = 4;
+
+	private static final int TIMEOUT_TIMER = 5;
+
+	private static final int METER_TYPES = 6;
+
+	private final MeterRegistry registry;
+
+	private final Tags tags;
+
+	private final int maxDestinations;
+
+	private final Function<String, String> routingKeyMapper;
+
+	private final ConcurrentMap<String, ConcurrentMap<String, Destination>> destinations = new ConcurrentHashMap<>();
+
+	private final List<Meter> meters = new ArrayList<>();
+
+	private Destination other;
+
+	private int destinationCount;
+
+	private RabbitTemplateMetrics(MeterRegistry registry, Tags tags, int maxDestinations,
+			Function<String, String> routingKeyMapper) {
+
+		this.registry = registry;
+		this.tags = tags;
+		this.maxDestinations = maxDestinations;
+		this.routingKeyMapper = routingKeyMapper;
+		this.other = newOther();
+	}
+
+	/**
+	 * Create the meters if there is exactly one {@link MeterRegistry} in the bean factory.
+	 * @param beanFactory the bean factory.
+	 * @param name the value of the {@code template.name} tag.
+	 * @param extraTags additional tags.
+	 * @param maxDestinations the maximum number of distinct exchange/routing key tag
+	 * combinations.
+	 * @param routingKeyMapper a function to map a routing key to its tag value.
+	 * @return the metrics, or null if there is no unique registry.
+	 */
+	@Nullable
+	static RabbitTemplateMetrics create(BeanFactory beanFactory, String name, Map<String, String> extraTags,
+			int maxDestinations, Function<String, String> routingKeyMapper) {
+
+		if (!(beanFactory instanceof ListableBeanFactory)) {
+			return null;
+		}
+		Map<String, MeterRegistry> registries = ((ListableBeanFactory) beanFactory)
+				.getBeansOfType(MeterRegistry.class, false, false);
+		if (registries.size() != 1) {
+			return null;
+		}
+		Tags tags = Tags.of("template.name", name);
+		for (Map.Entry<String, String> tag : extraTags.entrySet()) {
+			tags = tags.and(tag.getKey(), tag.getValue());
+		}
+		return new RabbitTemplateMetrics(registries.values().iterator().next(), tags, maxDestinations,
+				routingKeyMapper);
+	}
+
+	/**
+	 * Record the time taken to publish a request that expects a reply, until the reply
+	 * arrived or the request timed out.
+	 * @param exchange the exchange.
+	 * @param routingKey the routing key.
+	 * @param nanos the elapsed time.
+	 * @param timedOut true if no reply was received.
+	 */
+	public void reply(@Nullable String exchange, @Nullable String routingKey, long nanos, boolean timedOut) {
+		destination(exchange, routingKey).timer(timedOut ? TIMEOUT_TIMER : REPLY_TIMER)
+				.record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	void sent(Destination destination, long nanos) {
+		destination.timer(SEND_TIMER).record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	void confirmed(Destination destination, long nanos, boolean ack) {
+		destination.timer(ack ? ACK_TIMER : NACK_TIMER).record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	void returned(@Nullable String exchange, @Nullable String routingKey) {
+		((Counter) destination(exchange, routingKey).meter(RETURN_COUNTER)).increment();
+	}
+
+	Destination destination(@Nullable String exchangeArg, @Nullable String routingKeyArg) {
+		String exchange = exchangeArg == null ? "" : exchangeArg;
+		String routingKey = this.routingKeyMapper.apply(routingKeyArg == null ? "" : routingKeyArg);
+		ConcurrentMap<String, Destination> forExchange = this.destinations.get(exchange);
+		Destination destination = forExchange == null ? null : forExchange.get(routingKey);
+		if (destination == null) {
+			destination = newDestination(exchange, routingKey);
+		}
+		return destination;
+	}
+
+	private Destination newDestination(String exchange, String routingKey) {
+		synchronized (this.meters) {
+			ConcurrentMap<String, Destination> forExchange = this.destinations.get(exchange);
+			Destination destination = forExchange == null ? null : forExchange.get(routingKey);
+			if (destination == null) {
+				if (this.destinationCount >= this.maxDestinations) {
+					return this.other;
+				}
+				if (forExchange == null) {
+					forExchange = new ConcurrentHashMap<>();
+					this.destinations.put(exchange, forExchange);
+				}
+				destination = new Destination(this.tags.and("exchange", exchange, "routing.key", routingKey));
+				forExchange.put(routingKey, destination);
+				this.destinationCount++;
+			}
+			return destination;
+		}
+	}
+
+	private Destination newOther() {
+		return new Destination(this.tags.and("exchange", OTHER, "routing.key", OTHER));
+	}
+
+	/**
+	 * Remove the meters from the registry.
+	 */
+	void destroy() {
+		synchronized (this.meters) {
+			this.meters.forEach(this.registry::remove);
+			this.meters.clear();
+			this.destinations.clear();
+			this.destinationCount = 0;
+			// the overflow destination caches its (now removed) meters too
+			this.other = newOther();
+		}
+	}
+
+	/**
+	 * The meters for one exchange/routing key tag combination.
+	 */
+	final class Destination {
+
+		private final Tags destinationTags;
+
+		private final AtomicReferenceArray<Meter> destinationMeters = new AtomicReferenceArray<>(METER_TYPES);
+
+		Destination(Tags destinationTags) {
+			this.destinationTags = destinationTags;
+		}
+
+		Timer timer(int type) {
+			return (Timer) meter(type);
+		}
+
+		Meter meter(int type) {
+			Meter meter = this.destinationMeters.get(type);
+			if (meter == null) {
+				synchronized (RabbitTemplateMetrics.this.meters) {
+					meter = this.destinationMeters.get(type);
+					if (meter == null) {
+						meter = build(type);
+						RabbitTemplateMetrics.this.meters.add(meter);
+						this.destinationMeters.set(type, meter);
+					}
+				}
+			}
+			return meter;
+		}
+
+		private Meter build(int type) {
+			MeterRegistry meterRegistry = RabbitTemplateMetrics.this.registry;
+			switch (type) {
+				case SEND_TIMER:
+					return Timer.builder(SEND)
+							.description("Time to publish a message, including any blocking by the broker")
+							.tags(this.destinationTags)
+							.register(meterRegistry);
+				case ACK_TIMER:
+				case NACK_TIMER:
+					return Timer.builder(CONFIRM)
+							.description("Time from publishing a message until the publisher confirm")
+							.tags(this.destinationTags)
+							.tag("result", type == ACK_TIMER ? "ack" : "nack")
+							.register(meterRegistry);
+				case RETURN_COUNTER:
+					return Counter.builder(RETURNS)
+							.description("Messages returned as unroutable")
+							.tags(this.destinationTags)
+							.register(meterRegistry);
+				default:
+					return Timer.builder(REPLY)
+							.description("Time from publishing a request until the reply or timeout")
+							.tags(this.destinationTags)
+							.tag("result", type == REPLY_TIMER ? "success" : "timeout")
+							.register(meterRegistry);
+			}
+		}
+
+	}
+
+}
@@ -157,8 +157,7 @@ public class SimpleBatchingStrategy implements BatchingStrategy {
 	@Override
 	public boolean canDebatch(MessageProperties properties) {
 		return MessageProperties.BATCH_FORMAT_LENGTH_HEADER4.equals(properties
-				.getHeaders()
-				.get(MessageProperties.SPRING_BATCH_FORMAT));
+				.getHeader(MessageProperties.SPRING_BATCH_FORMAT));
 	}
 
 	/**
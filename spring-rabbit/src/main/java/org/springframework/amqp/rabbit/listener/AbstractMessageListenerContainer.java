@@ -19,6 +19,7 @@ package org.springframework.amqp.rabbit.listener;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -26,6 +27,8 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
@@ -43,6 +46,7 @@ import org.springframework.amqp.core.AmqpAdmin;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.MessageListener;
 import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.rabbit.connection.Connection;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
@@ -58,7 +62,9 @@ import org.springframework.amqp.rabbit.listener.exception.FatalListenerExecution
 import org.springframework.amqp.rabbit.listener.exception.FatalListenerStartupException;
 import org.springframework.amqp.rabbit.listener.exception.ListenerExecutionFailedException;
 import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.LatencyHistogram;
 import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.PublishTime;
 import org.springframework.amqp.support.ConditionalExceptionLogger;
 import org.springframework.amqp.support.ConsumerTagStrategy;
 import org.springframework.amqp.support.postprocessor.MessagePostProcessorUtils;
@@ -78,7 +84,9 @@ import org.springframework.transaction.interceptor.DefaultTransactionAttribute;
 import org.springframework.transaction.interceptor.TransactionAttribute;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.ErrorHandler;
+import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.util.backoff.BackOff;
 import org.springframework.util.backoff.FixedBackOff;
@@ -115,6 +123,19 @@ public abstract class AbstractMessageListenerContainer extends RabbitAccessor
 
 	public static final long DEFAULT_SHUTDOWN_TIMEOUT = 5000;
 
+	/**
+	 * The default maximum prefetch when prefetch tuning is enabled.
+	 */
+	public static final int DEFAULT_MAX_PREFETCH_COUNT = 1000;
+
+	/**
+	 * The default interval between prefetch adjustments: 5000 ms = 5 seconds.
+	 */
+	public static final long DEFAULT_PREFETCH_TUNING_INTERVAL = 5000;
+
+	private static final boolean MICROMETER_PRESENT = ClassUtils.isPresent(
+			"io.micrometer.core.instrument.MeterRegistry", AbstractMessageListenerContainer.class.getClassLoader());
+
 	private final ContainerDelegate delegate = this::actualInvokeListener;
 
 	protected final Object consumersMonitor = new Object(); //NOSONAR
@@ -202,6 +223,16 @@ public abstract class AbstractMessageListenerContainer extends RabbitAccessor
 
 	private volatile int prefetchCount = DEFAULT_PREFETCH_COUNT;
 
+	private boolean globalQos;
+
+	private boolean prefetchTuning;
+
+	private int minPrefetchCount = 1;
+
+	private int maxPrefetchCount = DEFAULT_MAX_PREFETCH_COUNT;
+
+	private long prefetchTuningInterval = DEFAULT_PREFETCH_TUNING_INTERVAL;
+
 	private long idleEventInterval;
 
 	private volatile long lastReceive = System.currentTimeMillis();
@@ -222,6 +253,17 @@ public abstract class AbstractMessageListenerContainer extends RabbitAccessor
 
 	private volatile boolean lazyLoad;
 
+	private boolean micrometerEnabled = true;
+
+	private Map<String, String> micrometerTags = new HashMap<>();
+
+	@Nullable
+	private volatile ListenerMetrics metrics;
+
+	private boolean deliveryLatencyEnabled;
+
+	private final ConcurrentMap<String, LatencyHistogram> deliveryLatencies = new ConcurrentHashMap<>();
+
 	@Override
 	public void setApplicationEventPublisher(ApplicationEventPublisher applicationEventPublisher) {
 		this.applicationEventPublisher = applicationEventPublisher;
@@ -769,6 +811,111 @@ public abstract class AbstractMessageListenerContainer extends RabbitAccessor
 		return this.prefetchCount;
 	}
 
+	/**
+	 * Apply the {@link #setPrefetchCount(int) prefetchCount} to the channel ({@code global}
+	 * qos) rather than to each consumer on the channel. Since each container consumer has
+	 * its own channel, this only makes a difference when a consumer listens to more than
+	 * one queue. Default false.
+	 * @param globalQos true to apply the prefetch to the channel.
+	 * @since 2.2
+	 */
+	public void setGlobalQos(boolean globalQos) {
+		this.globalQos = globalQos;
+	}
+
+	/**
+	 * Return whether the prefetch is applied to the channel rather than per consumer.
+	 * @return true if global.
+	 * @since 2.2
+	 */
+	protected boolean isGlobalQos() {
+		return this.globalQos;
+	}
+
+	/**
+	 * Set to true to adjust the prefetch of each consumer at runtime, based on the
+	 * measured listener time and network round trip time, within the range
+	 * {@link #setMinPrefetchCount(int) minPrefetchCount} to
+	 * {@link #setMaxPrefetchCount(int) maxPrefetchCount}; the
+	 * {@link #setPrefetchCount(int) prefetchCount} is used as the initial value.
+	 * The tuned value is applied to each consumer's channel as a channel-global limit, so
+	 * adjustments take effect immediately; unless {@link #setGlobalQos(boolean) globalQos}
+	 * is true, the per-consumer prefetch is set to {@code maxPrefetchCount}.
+	 * Ignored with {@link AcknowledgeMode#NONE}.
+	 * @param prefetchTuning true to enable.
+	 * @since 2.2
+	 */
+	public void setPrefetchTuning(boolean prefetchTuning) {
+		this.prefetchTuning = prefetchTuning;
+	}
+
+	/**
+	 * Set the lower bound for the prefetch when {@link #setPrefetchTuning(boolean)
+	 * prefetchTuning} is enabled. Default 1.
+	 * @param minPrefetchCount the minimum prefetch.
+	 * @since 2.2
+	 */
+	public void setMinPrefetchCount(int minPrefetchCount) {
+		Assert.isTrue(minPrefetchCount > 0, "'minPrefetchCount' must be > 0");
+		this.minPrefetchCount = minPrefetchCount;
+	}
+
+	/**
+	 * Set the upper bound for the prefetch when {@link #setPrefetchTuning(boolean)
+	 * prefetchTuning} is enabled. Default 1000.
+	 * @param maxPrefetchCount the maximum prefetch.
+	 * @since 2.2
+	 */
+	public void setMaxPrefetchCount(int maxPrefetchCount) {
+		Assert.isTrue(maxPrefetchCount > 0, "'maxPrefetchCount' must be > 0");
+		this.maxPrefetchCount = maxPrefetchCount;
+	}
+
+	/**
+	 * Set the minimum time (milliseconds) between prefetch adjustments when
+	 * {@link #setPrefetchTuning(boolean) prefetchTuning} is enabled. Default 5000.
+	 * @param prefetchTuningInterval the interval.
+	 * @since 2.2
+	 */
+	public void setPrefetchTuningInterval(long prefetchTuningInterval) {
+		Assert.isTrue(prefetchTuningInterval > 0, "'prefetchTuningInterval' must be > 0");
+		this.prefetchTuningInterval = prefetchTuningInterval;
+	}
+
+	/**
+	 * Return true if prefetch tuning is enabled and applicable to the acknowledge mode.
+	 * @return true if enabled.
+	 * @since 2.2
+	 */
+	protected boolean isPrefetchTuning() {
+		return this.prefetchTuning && !this.acknowledgeMode.isAutoAck();
+	}
+
+	/**
+	 * Return the upper bound for the prefetch when tuning.
+	 * @return the maximum.
+	 * @since 2.2
+	 */
+	protected int getMaxPrefetchCount() {
+		return this.maxPrefetchCount;
+	}
+
+	/**
+	 * Create a tuner for a new consumer, if tuning is enabled.
+	 * @param initialPrefetch the initial prefetch.
+	 * @param ackBatchSize the number of deliveries acknowledged together.
+	 * @return the tuner, or null.
+	 */
+	@Nullable
+	PrefetchTuner createPrefetchTuner(int initialPrefetch, int ackBatchSize) {
+		if (!isPrefetchTuning()) {
+			return null;
+		}
+		int max = Math.max(this.maxPrefetchCount, ackBatchSize);
+		return new PrefetchTuner(this.minPrefetchCount, max, initialPrefetch, ackBatchSize,
+				this.prefetchTuningInterval, this.globalQos);
+	}
+
 	/**
 	 * The time to wait for workers in milliseconds after the container is stopped. If any
 	 * workers are active when the shutdown signal comes they will be allowed to finish
@@ -805,6 +952,48 @@ public abstract class AbstractMessageListenerContainer extends RabbitAccessor
 		return this.lastReceive;
 	}
 
+	/**
+	 * Return the number of active consumers; used for metrics. The default
+	 * implementation returns 0.
+	 * @return the number of consumers.
+	 * @since 2.2
+	 */
+	public int getActiveConsumerCount() {
+		return 0;
+	}
+
+	/**
+	 * Return the metrics, if enabled.
+	 * @return the metrics, or null.
+	 */
+	@Nullable
+	ListenerMetrics getMetrics() {
+		return this.metrics;
+	}
+
+	/**
+	 * Record deliveries acknowledged by the container, if metrics are enabled.
+	 * @param count the number of deliveries.
+	 */
+	void recordAcks(int count) {
+		ListenerMetrics listenerMetrics = this.metrics;
+		if (listenerMetrics != null) {
+			listenerMetrics.acked(count);
+		}
+	}
+
+	/**
+	 * Record deliveries rejected by the container, if metrics are enabled.
+	 * @param count the number of deliveries.
+	 * @param requeue true if the deliveries were requeued.
+	 */
+	void recordRejects(int count, boolean requeue) {
+		ListenerMetrics listenerMetrics = this.metrics;
+		if (listenerMetrics != null) {
+			listenerMetrics.rejected(count, requeue);
+		}
+	}
+
 	/**
 	 * Set the transaction manager to use.
 	 * @param transactionManager the transaction manager.
@@ -1059,6 +1248,52 @@ public abstract class AbstractMessageListenerContainer extends RabbitAccessor
 		this.batchingStrategy = batchingStrategy;
 	}
 
+	/**
+	 * Set to false to disable Micrometer metrics. When enabled (default), Micrometer is
+	 * on the class path, and the application context contains exactly one
+	 * {@code MeterRegistry}, the container records listener timers, acknowledgement
+	 * counters, batch sizes and consumer gauges, tagged with the listener id (or bean
+	 * name).
+	 * @param micrometerEnabled false to disable.
+	 * @since 2.2
+	 */
+	public void setMicrometerEnabled(boolean micrometerEnabled) {
+		this.micrometerEnabled = micrometerEnabled;
+	}
+
+	/**
+	 * Set additional tags for the Micrometer meters.
+	 * @param tags the tags.
+	 * @since 2.2
+	 */
+	public void setMicrometerTags(Map<String, String> tags) {
+		Assert.notNull(tags, "'tags' cannot be null");
+		this.micrometerTags = new HashMap<>(tags);
+	}
+
+	/**
+	 * Set to true to record the latency between publishing and delivery for messages
+	 * with a {@link PublishTime#HEADER} header (see
+	 * {@code RabbitTemplate.setPublishTimeHeader()}), in a {@link LatencyHistogram} for
+	 * each queue. Default false; when false, the header is not examined.
+	 * @param deliveryLatencyEnabled true to record latencies.
+	 * @since 2.2
+	 * @see #getDeliveryLatencies()
+	 */
+	public void setDeliveryLatencyEnabled(boolean deliveryLatencyEnabled) {
+		this.deliveryLatencyEnabled = deliveryLatencyEnabled;
+	}
+
+	/**
+	 * Return the delivery latency histograms, keyed by queue name.
+	 * @return the histograms.
+	 * @since 2.2
+	 * @see #setDeliveryLatencyEnabled(boolean)
+	 */
+	public Map<String, LatencyHistogram> getDeliveryLatencies() {
+		return Collections.unmodifiableMap(this.deliveryLatencies);
+	}
+
 	/**
 	 * Delegates to {@link #validateConfiguration()} and {@link #initialize()}.
 	 */
@@ -1112,6 +1347,11 @@ public abstract class AbstractMessageListenerContainer extends RabbitAccessor
 	@Override
 	public void destroy() {
 		shutdown();
+		ListenerMetrics listenerMetrics = this.metrics;
+		if (listenerMetrics != null) {
+			listenerMetrics.destroy();
+			this.metrics = null;
+		}
 	}
 
 	// -------------------------------------------------------------------------
@@ -1146,6 +1386,7 @@ public abstract class AbstractMessageListenerContainer extends RabbitAccessor
 			if (this.messageListener != null) {
 				this.messageListener.containerAckMode(this.acknowledgeMode);
 			}
+			initializeMetrics();
 			this.initialized = true;
 		}
 		catch (Exception ex) {
@@ -1153,6 +1394,16 @@ public abstract class AbstractMessageListenerContainer extends RabbitAccessor
 		}
 	}
 
+	private void initializeMetrics() {
+		if (this.micrometerEnabled && MICROMETER_PRESENT && this.metrics == null && this.applicationContext != null) {
+			String id = this.listenerId != null ? this.listenerId : this.beanName;
+			if (id == null) {
+				id = getClass().getSimpleName() + "@" + ObjectUtils.getIdentityHexString(this);
+			}
+			this.metrics = ListenerMetrics.create(this.applicationContext, this, id, this.micrometerTags);
+		}
+	}
+
 	/**
 	 * Stop the shared Connection, call {@link #doShutdown()}, and close this container.
 	 */
@@ -1342,10 +1593,21 @@ public abstract class AbstractMessageListenerContainer extends RabbitAccessor
 			}
 			throw new MessageRejectedWhileStoppingException();
 		}
+		if (this.deliveryLatencyEnabled) {
+			recordDeliveryLatency(messageIn, PublishTime.currentTimeNanos());
+		}
+		ListenerMetrics listenerMetrics = this.metrics;
+		long start = listenerMetrics != null ? System.nanoTime() : 0L;
 		try {
 			doExecuteListener(channel, messageIn);
+			if (listenerMetrics != null) {
+				listenerMetrics.success(System.nanoTime() - start);
+			}
 		}
 		catch (RuntimeException ex) {
+			if (listenerMetrics != null) {
+				listenerMetrics.failure(System.nanoTime() - start, ex);
+			}
 			if (messageIn.getMessageProperties().isFinalRetryForMessageWithNoId()) {
 				if (this.statefulRetryFatalWithNullMessageId) {
 					throw new FatalListenerExecutionException(
@@ -1362,6 +1624,20 @@ public abstract class AbstractMessageListenerContainer extends RabbitAccessor
 		}
 	}
 
+	private void recordDeliveryLatency(Message message, long now) {
+		MessageProperties properties = message.getMessageProperties();
+		Object published = properties.getHeader(PublishTime.HEADER);
+		if (published instanceof Long) {
+			String queue = properties.getConsumerQueue();
+			String key = queue == null ? "" : queue;
+			LatencyHistogram histogram = this.deliveryLatencies.get(key);
+			if (histogram == null) {
+				histogram = this.deliveryLatencies.computeIfAbsent(key, k -> new LatencyHistogram());
+			}
+			histogram.record(now - (Long) published);
+		}
+	}
+
 	private void doExecuteListener(Channel channel, Message messageIn) {
 		Message message = messageIn;
 		if (this.afterReceivePostProcessors != null) {
@@ -1381,20 +1657,107 @@ public abstract class AbstractMessageListenerContainer extends RabbitAccessor
 		}
 	}
 
-	protected void invokeListener(Channel channel, Message message) {
-		this.proxy.invokeListener(channel, message);
+	/**
+	 * Execute the specified listener with a batch of messages, committing or rolling
+	 * back the transaction afterwards (if necessary). Messages for which an after receive
+	 * post processor returns null are removed from the batch.
+	 * @param channel the Rabbit Channel to operate on
+	 * @param messagesIn the received Rabbit Messages
+	 * @since 2.2
+	 * @see #executeListener(Channel, Message)
+	 */
+	protected void executeListener(Channel channel, List<Message> messagesIn) {
+		if (!isRunning()) {
+			if (logger.isWarnEnabled()) {
+				logger.warn("Rejecting received messages because the listener container has been stopped: "
+						+ messagesIn);
+			}
+			throw new MessageRejectedWhileStoppingException();
+		}
+		if (this.deliveryLatencyEnabled) {
+			long now = PublishTime.currentTimeNanos();
+			for (Message message : messagesIn) {
+				recordDeliveryLatency(message, now);
+			}
+		}
+		List<Message> messages = messagesIn;
+		if (this.afterReceivePostProcessors != null) {
+			messages = new ArrayList<>(messagesIn.size());
+			for (Message messageIn : messagesIn) {
+				Message message = messageIn;
+				for (MessagePostProcessor processor : this.afterReceivePostProcessors) {
+					message = processor.postProcessMessage(message);
+					if (message == null) {
+						break;
+					}
+				}
+				if (message != null) {
+					messages.add(message);
+				}
+			}
+			if (messages.isEmpty()) {
+				throw new ImmediateAcknowledgeAmqpException(
+						"Message Post Processor returned 'null' for all messages, discarding batch");
+			}
+		}
+		if (this.deBatchingEnabled) {
+			List<Message> fragments = null;
+			for (int i = 0; i < messages.size(); i++) {
+				Message message = messages.get(i);
+				if (this.batchingStrategy.canDebatch(message.getMessageProperties())) {
+					if (fragments == null) {
+						fragments = new ArrayList<>(messages.subList(0, i));
+					}
+					this.batchingStrategy.deBatch(message, fragments::add);
+				}
+				else if (fragments != null) {
+					fragments.add(message);
+				}
+			}
+			if (fragments != null) {
+				messages = fragments;
+			}
+		}
+		ListenerMetrics listenerMetrics = this.metrics;
+		long start = 0L;
+		if (listenerMetrics != null) {
+			listenerMetrics.batch(messages.size());
+			start = System.nanoTime();
+		}
+		try {
+			invokeListener(channel, messages);
+			if (listenerMetrics != null) {
+				listenerMetrics.success(System.nanoTime() - start);
+			}
+		}
+		catch (RuntimeException ex) {
+			if (listenerMetrics != null) {
+				listenerMetrics.failure(System.nanoTime() - start, ex);
+			}
+			handleListenerException(ex);
+			throw ex;
+		}
+	}
+
+	/**
+	 * Invoke the listener through the advice chain, if any.
+	 * @param channel the Rabbit Channel to operate on
+	 * @param data the received Rabbit Message or, for a batch, a list of messages.
+	 */
+	protected void invokeListener(Channel channel, Object data) {
+		this.proxy.invokeListener(channel, data);
 	}
 
 	/**
 	 * Invoke the specified listener: either as standard MessageListener or (preferably) as SessionAwareMessageListener.
 	 * @param channel the Rabbit Channel to operate on
-	 * @param message the received Rabbit Message
+	 * @param data the received Rabbit Message or, for a batch, a list of messages.
 	 * @see #setMessageListener(MessageListener)
 	 */
-	protected void actualInvokeListener(Channel channel, Message message) {
+	protected void actualInvokeListener(Channel channel, Object data) {
 		Object listener = getMessageListener();
 		if (listener instanceof ChannelAwareMessageListener) {
-			doInvokeListener((ChannelAwareMessageListener) listener, channel, message);
+			doInvokeListener((ChannelAwareMessageListener) listener, channel, data);
 		}
 		else if (listener instanceof MessageListener) {
 			boolean bindChannel = isExposeListenerChannel() && isChannelLocallyTransacted();
@@ -1405,7 +1768,7 @@ public abstract class AbstractMessageListenerContainer extends RabbitAccessor
 						resourceHolder);
 			}
 			try {
-				doInvokeListener((MessageListener) listener, message);
+				doInvokeListener((MessageListener) listener, data);
 			}
 			finally {
 				if (bindChannel) {
@@ -1429,11 +1792,12 @@ public abstract class AbstractMessageListenerContainer extends RabbitAccessor
 	 * An exception thrown from the listener will be wrapped in a {@link ListenerExecutionFailedException}.
 	 * @param listener the Spring ChannelAwareMessageListener to invoke
 	 * @param channel the Rabbit Channel to operate on
-	 * @param message the received Rabbit Message
+	 * @param data the received Rabbit Message or, for a batch, a list of messages.
 	 * @see ChannelAwareMessageListener
 	 * @see #setExposeListenerChannel(boolean)
 	 */
-	protected void doInvokeListener(ChannelAwareMessageListener listener, Channel channel, Message message) {
+	@SuppressWarnings("unchecked")
+	protected void doInvokeListener(ChannelAwareMessageListener listener, Channel channel, Object data) {
 
 		RabbitResourceHolder resourceHolder = null;
 		Channel channelToUse = channel;
@@ -1468,10 +1832,15 @@ public abstract class AbstractMessageListenerContainer extends RabbitAccessor
 			}
 			// Actually invoke the message listener...
 			try {
-				listener.onMessage(message, channelToUse);
+				if (data instanceof Message) {
+					listener.onMessage((Message) data, channelToUse);
+				}
+				else {
+					listener.onMessageBatch((List<Message>) data, channelToUse);
+				}
 			}
 			catch (Exception e) {
-				throw wrapToListenerExecutionFailedExceptionIfNeeded(e, message);
+				throw wrapToListenerExecutionFailedExceptionIfNeeded(e, data);
 			}
 		}
 		finally {
@@ -1510,16 +1879,22 @@ public abstract class AbstractMessageListenerContainer extends RabbitAccessor
 	 * Exception thrown from listener will be wrapped to {@link ListenerExecutionFailedException}.
 	 *
 	 * @param listener the Rabbit MessageListener to invoke
-	 * @param message the received Rabbit Message
+	 * @param data the received Rabbit Message or, for a batch, a list of messages.
 	 *
 	 * @see org.springframework.amqp.core.MessageListener#onMessage
 	 */
-	protected void doInvokeListener(MessageListener listener, Message message) {
+	@SuppressWarnings("unchecked")
+	protected void doInvokeListener(MessageListener listener, Object data) {
 		try {
-			listener.onMessage(message);
+			if (data instanceof Message) {
+				listener.onMessage((Message) data);
+			}
+			else {
+				listener.onMessageBatch((List<Message>) data);
+			}
 		}
 		catch (Exception e) {
-			throw wrapToListenerExecutionFailedExceptionIfNeeded(e, message);
+			throw wrapToListenerExecutionFailedExceptionIfNeeded(e, data);
 		}
 	}
 
@@ -1558,16 +1933,20 @@ public abstract class AbstractMessageListenerContainer extends RabbitAccessor
 
 	/**
 	 * @param e The Exception.
-	 * @param message The failed message.
+	 * @param data The failed message or, for a batch, list of messages.
 	 * @return If 'e' is of type {@link ListenerExecutionFailedException} - return 'e' as it is, otherwise wrap it to
 	 * {@link ListenerExecutionFailedException} and return.
 	 */
+	@SuppressWarnings("unchecked")
 	protected ListenerExecutionFailedException wrapToListenerExecutionFailedExceptionIfNeeded(Exception e,
-			Message message) {
+			Object data) {
 
 		if (!(e instanceof ListenerExecutionFailedException)) {
 			// Wrap exception to ListenerExecutionFailedException.
-			return new ListenerExecutionFailedException("Listener threw exception", e, message);
+			if (data instanceof Message) {
+				return new ListenerExecutionFailedException("Listener threw exception", e, (Message) data);
+			}
+			return new ListenerExecutionFailedException("Listener threw exception", e, (List<Message>) data);
 		}
 		return (ListenerExecutionFailedException) e;
 	}
@@ -1588,7 +1967,7 @@ public abstract class AbstractMessageListenerContainer extends RabbitAccessor
 	}
 
 	protected void updateLastReceive() {
-		if (this.idleEventInterval > 0) {
+		if (this.idleEventInterval > 0 || this.metrics != null) {
 			this.lastReceive = System.currentTimeMillis();
 		}
 	}
@@ -1799,7 +2178,7 @@ public abstract class AbstractMessageListenerContainer extends RabbitAccessor
 	@FunctionalInterface
 	private interface ContainerDelegate {
 
-		void invokeListener(Channel channel, Message message);
+		void invokeListener(Channel channel, Object data);
 
 	}
 
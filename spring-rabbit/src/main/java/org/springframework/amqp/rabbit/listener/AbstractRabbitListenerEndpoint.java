@@ -21,6 +21,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import org.springframework.amqp.core.AcknowledgeMode;
 import org.springframework.amqp.core.AmqpAdmin;
@@ -88,6 +89,8 @@ public abstract class AbstractRabbitListenerEndpoint implements RabbitListenerEn
 
 	private BatchingStrategy batchingStrategy;
 
+	private Executor batchConversionExecutor;
+
 	private AcknowledgeMode ackMode;
 
 	@Override
@@ -312,6 +315,16 @@ public abstract class AbstractRabbitListenerEndpoint implements RabbitListenerEn
 		this.batchingStrategy = batchingStrategy;
 	}
 
+	@Nullable
+	public Executor getBatchConversionExecutor() {
+		return this.batchConversionExecutor;
+	}
+
+	@Override
+	public void setBatchConversionExecutor(Executor batchConversionExecutor) {
+		this.batchConversionExecutor = batchConversionExecutor;
+	}
+
 	@Override
 	@Nullable
 	public AcknowledgeMode getAckMode() {
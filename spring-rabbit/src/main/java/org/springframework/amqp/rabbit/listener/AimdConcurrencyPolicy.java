@@ -0,0 +1,135 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.rabbit.listener;
+
+import org.springframework.util.Assert;
+
+/**
+ * An additive increase/multiplicative decrease {@link ConcurrencyPolicy}. While there is
+ * a backlog (or, when the queue depth is unknown, while the consumers are busy), the
+ * number of consumers is increased by a fixed amount on each evaluation; when the
+ * queues are drained and the consumers are mostly idle, the number of consumers is
+ * reduced by a factor. Between the two, the current number of consumers is retained,
+ * which avoids oscillation under steady load.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+public class AimdConcurrencyPolicy implements ConcurrencyPolicy {
+
+	/**
+	 * The default number of consumers to add when under pressure.
+	 */
+	public static final int DEFAULT_INCREASE = 1;
+
+	/**
+	 * The default factor to apply to the consumer count when idle.
+	 */
+	public static final double DEFAULT_DECREASE_FACTOR = 0.5;
+
+	/**
+	 * The default utilization above which the consumers are considered busy.
+	 */
+	public static final double DEFAULT_HIGH_UTILIZATION = 0.8;
+
+	/**
+	 * The default utilization below which the consumers are considered idle.
+	 */
+	public static final double DEFAULT_LOW_UTILIZATION = 0.3;
+
+	private int increase = DEFAULT_INCREASE;
+
+	private double decreaseFactor = DEFAULT_DECREASE_FACTOR;
+
+	private long backlogThreshold;
+
+	private double highUtilization = DEFAULT_HIGH_UTILIZATION;
+
+	private double lowUtilization = DEFAULT_LOW_UTILIZATION;
+
+	/**
+	 * Set the number of consumers to add on each evaluation while under pressure.
+	 * Default 1.
+	 * @param increase the increase.
+	 */
+	public void setIncrease(int increase) {
+		Assert.isTrue(increase > 0, "'increase' must be > 0");
+		this.increase = increase;
+	}
+
+	/**
+	 * Set the factor to apply to the number of consumers on each evaluation while idle.
+	 * Default 0.5.
+	 * @param decreaseFactor the factor; must be greater than 0 and less than 1.
+	 */
+	public void setDecreaseFactor(double decreaseFactor) {
+		Assert.isTrue(decreaseFactor > 0 && decreaseFactor < 1, "'decreaseFactor' must be > 0 and < 1");
+		this.decreaseFactor = decreaseFactor;
+	}
+
+	/**
+	 * Set the queue depth above which the container is considered to be under pressure.
+	 * Default 0.
+	 * @param backlogThreshold the threshold.
+	 */
+	public void setBacklogThreshold(long backlogThreshold) {
+		Assert.isTrue(backlogThreshold >= 0, "'backlogThreshold' must be >= 0");
+		this.backlogThreshold = backlogThreshold;
+	}
+
+	/**
+	 * Set the utilization at or above which the consumers are considered busy; only used
+	 * when the queue depth is unknown. Default 0.8.
+	 * @param highUtilization the utilization.
+	 */
+	public void setHighUtilization(double highUtilization) {
+		Assert.isTrue(highUtilization > 0 && highUtilization <= 1, "'highUtilization' must be > 0 and <= 1");
+		this.highUtilization = highUtilization;
+	}
+
+	/**
+	 * Set the utilization below which the consumers are considered idle. Default 0.3.
+	 * @param lowUtilization the utilization.
+	 */
+	public void setLowUtilization(double lowUtilization) {
+		Assert.isTrue(lowUtilization >= 0 && lowUtilization < 1, "'lowUtilization' must be >= 0 and < 1");
+		this.lowUtilization = lowUtilization;
+	}
+
+	@Override
+	public int desiredConsumers(ConcurrencySample sample) {
+		int consumers = sample.getConsumers();
+		boolean backlog;
+		if (sample.isQueueDepthKnown()) {
+			backlog = sample.getQueueDepth() > this.backlogThreshold;
+		}
+		else {
+			backlog = sample.getUtilization() >= this.highUtilization;
+		}
+		if (backlog) {
+			return consumers + this.increase;
+		}
+		else if (sample.getUtilization() < this.lowUtilization) {
+			return (int) Math.floor(consumers * this.decreaseFactor);
+		}
+		else {
+			return consumers;
+		}
+	}
+
+}
@@ -24,10 +24,8 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.OptionalLong;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
@@ -131,7 +129,14 @@ public class BlockingQueueConsumer {
 
 	private final boolean exclusive;
 
-	private final Set<Long> deliveryTags = new LinkedHashSet<Long>();
+	/*
+	 * Delivery tags on a channel are monotonically increasing so we only need the
+	 * highest tag (for multiple ack/nack) and a count of outstanding deliveries;
+	 * avoids boxing each tag.
+	 */
+	private long lastDeliveryTag;
+
+	private int deliveryTagCount;
 
 	private final boolean defaultRequeueRejected;
 
@@ -156,6 +161,12 @@ public class BlockingQueueConsumer {
 
 	private ApplicationEventPublisher applicationEventPublisher;
 
+	private PrefetchTuner prefetchTuner;
+
+	private boolean globalQos;
+
+	private ListenerMetrics metrics;
+
 	private volatile long abortStarted;
 
 	private volatile boolean normalCancel;
@@ -370,13 +381,78 @@ public class BlockingQueueConsumer {
 		this.applicationEventPublisher = applicationEventPublisher;
 	}
 
+	/**
+	 * Apply the prefetch count to the channel rather than to each consumer.
+	 * @param globalQos true to apply the prefetch to the channel.
+	 * @since 2.2
+	 */
+	public void setGlobalQos(boolean globalQos) {
+		this.globalQos = globalQos;
+	}
+
+	/**
+	 * Set the tuner used to adjust the prefetch at runtime.
+	 * @param prefetchTuner the tuner.
+	 * @since 2.2
+	 */
+	void setPrefetchTuner(PrefetchTuner prefetchTuner) {
+		this.prefetchTuner = prefetchTuner;
+	}
+
+	/**
+	 * Set the metrics used to count acknowledged and rejected deliveries.
+	 * @param metrics the metrics.
+	 * @since 2.2
+	 */
+	void setMetrics(@Nullable ListenerMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Return true if the prefetch is being tuned; the caller should then report
+	 * listener times via {@link #recordListenerTime(long)}.
+	 * @return true if tuning.
+	 * @since 2.2
+	 */
+	boolean isPrefetchTuning() {
+		return this.prefetchTuner != null;
+	}
+
+	/**
+	 * Record the time taken by the listener for one delivery.
+	 * @param nanos the time.
+	 * @since 2.2
+	 */
+	void recordListenerTime(long nanos) {
+		if (this.prefetchTuner != null) {
+			this.prefetchTuner.recordListenerTime(nanos);
+		}
+	}
+
+	/**
+	 * Adjust the prefetch, if tuning is enabled and necessary. Must be called on the
+	 * consumer thread, between deliveries.
+	 * @since 2.2
+	 */
+	void adjustPrefetchIfNecessary() {
+		if (this.prefetchTuner != null && this.channel != null && this.channel.isOpen()) {
+			try {
+				this.prefetchTuner.adjustIfNecessary(this.channel);
+			}
+			catch (IOException e) {
+				throw new AmqpIOException(e);
+			}
+		}
+	}
+
 	/**
 	 * Clear the delivery tags when rolling back with an external transaction
 	 * manager.
 	 * @since 1.6.6
 	 */
 	public void clearDeliveryTags() {
-		this.deliveryTags.clear();
+		this.lastDeliveryTag = 0;
+		this.deliveryTagCount = 0;
 	}
 
 	/**
@@ -460,7 +536,7 @@ public class BlockingQueueConsumer {
 		byte[] body = delivery.getBody();
 		Envelope envelope = delivery.getEnvelope();
 
-		MessageProperties messageProperties = this.messagePropertiesConverter.toMessageProperties(
+		MessageProperties messageProperties = this.messagePropertiesConverter.toLazyMessageProperties(
 				delivery.getProperties(), envelope, "UTF-8");
 		messageProperties.setConsumerTag(delivery.getConsumerTag());
 		messageProperties.setConsumerQueue(delivery.getQueue());
@@ -468,7 +544,7 @@ public class BlockingQueueConsumer {
 		if (logger.isDebugEnabled()) {
 			logger.debug("Received message: " + message);
 		}
-		this.deliveryTags.add(messageProperties.getDeliveryTag());
+		addDeliveryTag(messageProperties.getDeliveryTag());
 		if (this.transactional && !this.locallyTransacted) {
 			ConnectionFactoryUtils.registerDeliveryTag(this.connectionFactory, this.channel,
 					delivery.getEnvelope().getDeliveryTag());
@@ -575,7 +651,7 @@ public class BlockingQueueConsumer {
 		catch (AmqpAuthenticationException e) {
 			throw new FatalListenerStartupException("Authentication failure", e);
 		}
-		this.deliveryTags.clear();
+		clearDeliveryTags();
 		this.activeObjectCounter.add(this);
 
 		passiveDeclarations();
@@ -610,7 +686,15 @@ public class BlockingQueueConsumer {
 			// Set basicQos before calling basicConsume (otherwise if we are not acking the broker
 			// will send blocks of 100 messages)
 			try {
-				this.channel.basicQos(this.prefetchCount);
+				if (this.prefetchTuner != null) {
+					this.prefetchTuner.initialize(this.channel);
+				}
+				else if (this.globalQos) {
+					this.channel.basicQos(this.prefetchCount, true);
+				}
+				else {
+					this.channel.basicQos(this.prefetchCount);
+				}
 			}
 			catch (IOException e) {
 				this.activeObjectCounter.release(this);
@@ -736,7 +820,7 @@ public class BlockingQueueConsumer {
 		}
 		RabbitUtils.setPhysicalCloseRequired(this.channel, true);
 		ConnectionFactoryUtils.releaseResources(this.resourceHolder);
-		this.deliveryTags.clear();
+		clearDeliveryTags();
 		this.consumers.clear();
 		this.queue.clear(); // in case we still have a client thread blocked
 	}
@@ -756,10 +840,12 @@ public class BlockingQueueConsumer {
 				RabbitUtils.rollbackIfNecessary(this.channel);
 			}
 			if (ackRequired) {
-				OptionalLong deliveryTag = this.deliveryTags.stream().mapToLong(l -> l).max();
-				if (deliveryTag.isPresent()) {
-					this.channel.basicNack(deliveryTag.getAsLong(), true,
-							ContainerUtils.shouldRequeue(this.defaultRequeueRejected, ex, logger));
+				if (this.deliveryTagCount > 0) {
+					boolean requeue = ContainerUtils.shouldRequeue(this.defaultRequeueRejected, ex, logger);
+					this.channel.basicNack(this.lastDeliveryTag, true, requeue);
+					if (this.metrics != null) {
+						this.metrics.rejected(this.deliveryTagCount, requeue);
+					}
 				}
 				if (this.transactional) {
 					// Need to commit the reject (=nack)
@@ -772,7 +858,7 @@ public class BlockingQueueConsumer {
 			throw RabbitExceptionTranslator.convertRabbitAccessException(e); // NOSONAR stack trace loss
 		}
 		finally {
-			this.deliveryTags.clear();
+			clearDeliveryTags();
 		}
 	}
 
@@ -784,7 +870,7 @@ public class BlockingQueueConsumer {
 	 */
 	public boolean commitIfNecessary(boolean locallyTransacted) throws IOException {
 
-		if (this.deliveryTags.isEmpty()) {
+		if (this.deliveryTagCount == 0) {
 			return false;
 		}
 
@@ -799,8 +885,10 @@ public class BlockingQueueConsumer {
 			boolean ackRequired = !this.acknowledgeMode.isAutoAck() && !this.acknowledgeMode.isManual();
 
 			if (ackRequired && (!this.transactional || isLocallyTransacted)) {
-				long deliveryTag = new ArrayList<Long>(this.deliveryTags).get(this.deliveryTags.size() - 1);
-				this.channel.basicAck(deliveryTag, true);
+				this.channel.basicAck(this.lastDeliveryTag, true);
+				if (this.metrics != null) {
+					this.metrics.acked(this.deliveryTagCount);
+				}
 			}
 
 			if (isLocallyTransacted) {
@@ -810,13 +898,20 @@ public class BlockingQueueConsumer {
 
 		}
 		finally {
-			this.deliveryTags.clear();
+			clearDeliveryTags();
 		}
 
 		return true;
 
 	}
 
+	private void addDeliveryTag(long deliveryTag) {
+		if (deliveryTag > this.lastDeliveryTag) {
+			this.lastDeliveryTag = deliveryTag;
+		}
+		this.deliveryTagCount++;
+	}
+
 	@Override
 	public String toString() {
 		return "Consumer@" + ObjectUtils.getIdentityHexString(this) + ": "
@@ -860,7 +955,7 @@ public class BlockingQueueConsumer {
 			}
 			BlockingQueueConsumer.this.shutdown = sig;
 			// The delivery tags will be invalid if the channel shuts down
-			BlockingQueueConsumer.this.deliveryTags.clear();
+			BlockingQueueConsumer.this.clearDeliveryTags();
 			BlockingQueueConsumer.this.activeObjectCounter.release(BlockingQueueConsumer.this);
 		}
 
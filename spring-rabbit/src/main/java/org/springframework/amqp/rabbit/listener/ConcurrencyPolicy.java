@@ -0,0 +1,41 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.rabbit.listener;
+
+/**
+ * A strategy to determine how many consumers a {@link SimpleMessageListenerContainer}
+ * should be running, based on the load observed since the previous evaluation. When
+ * configured, it replaces the {@code consecutiveActiveTrigger}/{@code consecutiveIdleTrigger}
+ * algorithm.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ * @see SimpleMessageListenerContainer#setConcurrencyPolicy(ConcurrencyPolicy)
+ */
+@FunctionalInterface
+public interface ConcurrencyPolicy {
+
+	/**
+	 * Return the number of consumers that should be running. The container limits the
+	 * result to the range {@code concurrentConsumers} to {@code maxConcurrentConsumers}.
+	 * @param sample the load observed since the previous evaluation.
+	 * @return the desired number of consumers.
+	 */
+	int desiredConsumers(ConcurrencySample sample);
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.rabbit.listener;
+
+/**
+ * The load observed by a {@link SimpleMessageListenerContainer} over one
+ * {@link ConcurrencyPolicy} evaluation interval.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+public class ConcurrencySample {
+
+	private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+	private static final double MILLIS_PER_SECOND = 1_000.0;
+
+	private final int consumers;
+
+	private final int minConsumers;
+
+	private final int maxConsumers;
+
+	private final long queueDepth;
+
+	private final long messageCount;
+
+	private final long listenerTimeNanos;
+
+	private final long intervalMillis;
+
+	/**
+	 * Construct an instance.
+	 * @param consumers the number of consumers currently running.
+	 * @param minConsumers the container's {@code concurrentConsumers}.
+	 * @param maxConsumers the container's {@code maxConcurrentConsumers}.
+	 * @param queueDepth the total number of ready messages in the container's queues;
+	 * negative if unknown.
+	 * @param messageCount the number of messages processed during the interval.
+	 * @param listenerTimeNanos the total time spent in the listener during the interval.
+	 * @param intervalMillis the length of the interval.
+	 */
+	public ConcurrencySample(int consumers, int minConsumers, int maxConsumers, long queueDepth,
+			long messageCount, long listenerTimeNanos, long intervalMillis) {
+
+		this.consumers = consumers;
+		this.minConsumers = minConsumers;
+		this.maxConsumers = maxConsumers;
+		this.queueDepth = queueDepth;
+		this.messageCount = messageCount;
+		this.listenerTimeNanos = listenerTimeNanos;
+		this.intervalMillis = intervalMillis;
+	}
+
+	public int getConsumers() {
+		return this.consumers;
+	}
+
+	public int getMinConsumers() {
+		return this.minConsumers;
+	}
+
+	public int getMaxConsumers() {
+		return this.maxConsumers;
+	}
+
+	/**
+	 * Return the total number of ready messages in the container's queues, or a
+	 * negative number if it could not be determined (for example, when no
+	 * {@link org.springframework.amqp.core.AmqpAdmin} is available).
+	 * @return the queue depth.
+	 */
+	public long getQueueDepth() {
+		return this.queueDepth;
+	}
+
+	/**
+	 * Return true if the queue depth is known.
+	 * @return true if known.
+	 */
+	public boolean isQueueDepthKnown() {
+		return this.queueDepth >= 0;
+	}
+
+	public long getMessageCount() {
+		return this.messageCount;
+	}
+
+	public long getListenerTimeNanos() {
+		return this.listenerTimeNanos;
+	}
+
+	public long getIntervalMillis() {
+		return this.intervalMillis;
+	}
+
+	/**
+	 * Return the number of messages processed per second during the interval.
+	 * @return the throughput.
+	 */
+	public double getThroughput() {
+		return this.intervalMillis > 0 ? this.messageCount * MILLIS_PER_SECOND / this.intervalMillis : 0;
+	}
+
+	/**
+	 * Return the average time, in seconds, spent in the listener for each message; 0 if
+	 * no messages were processed.
+	 * @return the average listener time.
+	 */
+	public double getAverageListenerTime() {
+		return this.messageCount > 0 ? this.listenerTimeNanos / NANOS_PER_SECOND / this.messageCount : 0;
+	}
+
+	/**
+	 * Return the fraction of the available consumer time that was spent in the
+	 * listener during the interval.
+	 * @return the utilization, normally between 0 and 1.
+	 */
+	public double getUtilization() {
+		if (this.intervalMillis <= 0 || this.consumers <= 0) {
+			return 0;
+		}
+		return this.listenerTimeNanos / (this.intervalMillis * 1_000_000.0 * this.consumers);
+	}
+
+	@Override
+	public String toString() {
+		return "ConcurrencySample [consumers=" + this.consumers + ", minConsumers=" + this.minConsumers
+				+ ", maxConsumers=" + this.maxConsumers + ", queueDepth=" + this.queueDepth + ", messageCount="
+				+ this.messageCount + ", listenerTimeNanos=" + this.listenerTimeNanos + ", intervalMillis="
+				+ this.intervalMillis + "]";
+	}
+
+}
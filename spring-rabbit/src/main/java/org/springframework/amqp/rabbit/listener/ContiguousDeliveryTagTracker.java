@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.rabbit.listener;
+
+import java.util.BitSet;
+
+/**
+ * Tracks out-of-order completion of the deliveries on a channel so that they can be
+ * acknowledged in order, with {@code multiple=true}, up to the highest tag below which
+ * all deliveries have completed.
+ * <p>
+ * Deliveries that are rejected individually are recorded as complete but never used as
+ * the tag of a multiple ack, since the broker requires that tag to be outstanding.
+ * <p>
+ * Not thread-safe; callers must synchronize.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+final class ContiguousDeliveryTagTracker {
+
+	private static final int COMPACT_THRESHOLD = 1 << 16;
+
+	private BitSet completed = new BitSet();
+
+	private BitSet acked = new BitSet();
+
+	private long origin = -1;
+
+	private int low;
+
+	/**
+	 * Record a delivery; must be called, in delivery order, before the delivery is
+	 * completed.
+	 * @param deliveryTag the delivery tag.
+	 */
+	void delivered(long deliveryTag) {
+		if (this.origin < 0) {
+			this.origin = deliveryTag;
+		}
+	}
+
+	/**
+	 * Record the completion of a delivery.
+	 * @param deliveryTag the delivery tag.
+	 * @param ack true if the delivery is to be acknowledged, false if it has already
+	 * been rejected.
+	 * @return the tag to acknowledge with {@code multiple=true}, or -1 if there is nothing
+	 * to acknowledge yet.
+	 */
+	long complete(long deliveryTag, boolean ack) {
+		int index = (int) (deliveryTag - this.origin);
+		this.completed.set(index);
+		if (ack) {
+			this.acked.set(index);
+		}
+		if (index != this.low) {
+			return -1;
+		}
+		int contiguous = this.completed.nextClearBit(this.low);
+		int lastAcked = this.acked.previousSetBit(contiguous - 1);
+		long ackTag = lastAcked < this.low ? -1 : this.origin + lastAcked;
+		this.completed.clear(this.low, contiguous);
+		this.acked.clear(this.low, contiguous);
+		this.low = contiguous;
+		if (this.low >= COMPACT_THRESHOLD) {
+			compact();
+		}
+		return ackTag;
+	}
+
+	/**
+	 * Return the number of completed deliveries waiting for an earlier delivery to
+	 * complete.
+	 * @return the number.
+	 */
+	int getPendingCount() {
+		return this.completed.cardinality();
+	}
+
+	/*
+	 * Shift the window back to index 0 occasionally so the sets don't grow with the
+	 * lifetime of the channel; the copy is limited to the out-of-order completions.
+	 */
+	private void compact() {
+		this.completed = this.completed.get(this.low, Math.max(this.low, this.completed.length()));
+		this.acked = this.acked.get(this.low, Math.max(this.low, this.acked.length()));
+		this.origin += this.low;
+		this.low = 0;
+	}
+
+}
@@ -31,8 +31,10 @@ import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -44,6 +46,7 @@ import org.springframework.amqp.AmqpException;
 import org.springframework.amqp.AmqpIOException;
 import org.springframework.amqp.ImmediateAcknowledgeAmqpException;
 import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.BatchMessageListener;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.core.Queue;
@@ -54,9 +57,11 @@ import org.springframework.amqp.rabbit.connection.ConsumerChannelRegistry;
 import org.springframework.amqp.rabbit.connection.RabbitResourceHolder;
 import org.springframework.amqp.rabbit.connection.RabbitUtils;
 import org.springframework.amqp.rabbit.connection.SimpleResourceHolder;
+import org.springframework.amqp.rabbit.listener.api.ChannelAwareBatchMessageListener;
 import org.springframework.amqp.rabbit.transaction.RabbitTransactionManager;
 import org.springframework.lang.Nullable;
 import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.interceptor.TransactionAttribute;
@@ -98,6 +103,10 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 
 	private static final int DEFAULT_ACK_TIMEOUT = 20_000;
 
+	private static final int DEFAULT_BATCH_SIZE = 10;
+
+	private static final long DEFAULT_BATCH_TIMEOUT = 1000;
+
 	protected final List<SimpleConsumer> consumers = new LinkedList<>(); // NOSONAR
 
 	private final List<SimpleConsumer> consumersToRestart = new LinkedList<>();
@@ -116,6 +125,20 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 
 	private long ackTimeout = DEFAULT_ACK_TIMEOUT;
 
+	private boolean consumerBatchEnabled;
+
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	private long batchTimeout = DEFAULT_BATCH_TIMEOUT;
+
+	private int dispatchConcurrency;
+
+	private Function<Message, Object> partitionKeyExtractor;
+
+	private Executor dispatchExecutor;
+
+	private boolean dispatchExecutorSet;
+
 	private volatile boolean started;
 
 	private volatile boolean aborted;
@@ -235,6 +258,107 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 		this.ackTimeout = ackTimeout;
 	}
 
+	/**
+	 * Set to true to present a batch of messages to the listener, instead of invoking it
+	 * once per delivery. Each consumer accumulates deliveries until
+	 * {@link #setBatchSize(int) batchSize} have been received or the
+	 * {@link #setBatchTimeout(long) batchTimeout} has elapsed since the first; the
+	 * listener must be a {@link BatchMessageListener} or a
+	 * {@link ChannelAwareBatchMessageListener} and the batch is acknowledged (or
+	 * rejected) with a single {@code multiple} ack (or nack). Not allowed with
+	 * {@link #setMessagesPerAck(int) messagesPerAck}.
+	 * @param consumerBatchEnabled true to enable consumer-side batching.
+	 * @since 2.2
+	 */
+	public void setConsumerBatchEnabled(boolean consumerBatchEnabled) {
+		this.consumerBatchEnabled = consumerBatchEnabled;
+	}
+
+	/**
+	 * The maximum number of messages in a batch when
+	 * {@link #setConsumerBatchEnabled(boolean) consumerBatchEnabled} is true.
+	 * If the {@link #setPrefetchCount(int) prefetchCount} is lower, it is increased to
+	 * match.
+	 * @param batchSize the batch size; default 10.
+	 * @since 2.2
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "'batchSize' must be greater than zero");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * The time after which a partial batch is delivered to the listener when
+	 * {@link #setConsumerBatchEnabled(boolean) consumerBatchEnabled} is true. Partial
+	 * batches are delivered by the task that monitors the consumers, so the
+	 * {@link #setMonitorInterval(long) monitorInterval} is reduced to this value if
+	 * necessary.
+	 * @param batchTimeout the timeout in milliseconds; default 1000.
+	 * @since 2.2
+	 */
+	public void setBatchTimeout(long batchTimeout) {
+		Assert.isTrue(batchTimeout > 0, "'batchTimeout' must be greater than zero");
+		this.batchTimeout = batchTimeout;
+	}
+
+	/**
+	 * Set the number of threads on which each consumer processes its deliveries; when
+	 * greater than 1, deliveries are handed off from the connection's thread to this
+	 * many serial lanes per consumer, selected by the
+	 * {@link #setPartitionKeyExtractor(Function) partition key}. Messages with the same
+	 * key are processed in order; with
+	 * {@link org.springframework.amqp.core.AcknowledgeMode#AUTO}, acks are sent in
+	 * delivery order as soon as all earlier deliveries have completed. Not allowed with
+	 * transactions, {@link #setMessagesPerAck(int) messagesPerAck} or
+	 * {@link #setPrefetchTuning(boolean) prefetchTuning}. Set the
+	 * {@link #setPrefetchCount(int) prefetchCount} high enough to keep the lanes busy.
+	 * @param dispatchConcurrency the number of lanes per consumer; default 0 (the
+	 * listener is invoked on the connection's thread).
+	 * @since 2.2
+	 * @see #setPartitionKeyExtractor(Function)
+	 * @see #setDispatchExecutor(Executor)
+	 */
+	public void setDispatchConcurrency(int dispatchConcurrency) {
+		this.dispatchConcurrency = dispatchConcurrency;
+	}
+
+	/**
+	 * Set a function to extract the partition key from a message when the
+	 * {@link #setDispatchConcurrency(int) dispatchConcurrency} is greater than 1. Messages
+	 * with equal keys are processed in order. When not set, messages are distributed
+	 * round-robin and may be processed out of order.
+	 * @param partitionKeyExtractor the extractor.
+	 * @since 2.2
+	 * @see #setPartitionKeyHeader(String)
+	 */
+	public void setPartitionKeyExtractor(Function<Message, Object> partitionKeyExtractor) {
+		this.partitionKeyExtractor = partitionKeyExtractor;
+	}
+
+	/**
+	 * Convenience for {@link #setPartitionKeyExtractor(Function)} to use the value of a
+	 * message header as the partition key.
+	 * @param headerName the header name.
+	 * @since 2.2
+	 */
+	public void setPartitionKeyHeader(String headerName) {
+		Assert.hasText(headerName, "'headerName' cannot be empty");
+		this.partitionKeyExtractor = message -> message.getMessageProperties().getHeader(headerName);
+	}
+
+	/**
+	 * Set the executor on which the lanes run when the
+	 * {@link #setDispatchConcurrency(int) dispatchConcurrency} is greater than 1. It must
+	 * be able to run one task per lane of each consumer concurrently. By default, a
+	 * thread pool that grows as necessary is used.
+	 * @param dispatchExecutor the executor.
+	 * @since 2.2
+	 */
+	public void setDispatchExecutor(Executor dispatchExecutor) {
+		this.dispatchExecutor = dispatchExecutor;
+		this.dispatchExecutorSet = true;
+	}
+
 	@Override
 	public void addQueueNames(String... queueNames) {
 		Assert.notNull(queueNames, "'queueNames' cannot be null");
@@ -279,6 +403,13 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 		}
 	}
 
+	@Override
+	public int getActiveConsumerCount() {
+		synchronized (this.consumersMonitor) {
+			return this.consumers.size();
+		}
+	}
+
 	@Override
 	public boolean removeQueueNames(String... queueNames) {
 		removeQueues(Arrays.stream(queueNames));
@@ -363,6 +494,30 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 		if (this.messagesPerAck > 0) {
 			Assert.state(!isChannelTransacted(), "'messagesPerAck' is not allowed with transactions");
 		}
+		if (this.consumerBatchEnabled) {
+			Assert.state(this.messagesPerAck <= 1, "'messagesPerAck' is not allowed with 'consumerBatchEnabled'");
+			Assert.state(this.dispatchConcurrency <= 1,
+					"'dispatchConcurrency' is not allowed with 'consumerBatchEnabled'");
+			Object listener = getMessageListener();
+			Assert.state(listener instanceof BatchMessageListener
+							|| listener instanceof ChannelAwareBatchMessageListener,
+					"'consumerBatchEnabled' requires a 'BatchMessageListener' or a "
+							+ "'ChannelAwareBatchMessageListener'");
+		}
+		if (this.dispatchConcurrency > 1) {
+			Assert.state(!isChannelTransacted() && getTransactionManager() == null,
+					"'dispatchConcurrency' is not allowed with transactions");
+			Assert.state(this.messagesPerAck <= 1, "'dispatchConcurrency' is not allowed with 'messagesPerAck'");
+			Assert.state(!isPrefetchTuning(), "'dispatchConcurrency' is not allowed with 'prefetchTuning'");
+			if (this.dispatchExecutor == null) {
+				ThreadPoolTaskExecutor threadPoolTaskExecutor = new ThreadPoolTaskExecutor();
+				threadPoolTaskExecutor.setThreadNamePrefix(getBeanName() + "-dispatcher-");
+				threadPoolTaskExecutor.setCorePoolSize(this.dispatchConcurrency);
+				threadPoolTaskExecutor.setQueueCapacity(0);
+				threadPoolTaskExecutor.afterPropertiesSet();
+				this.dispatchExecutor = threadPoolTaskExecutor;
+			}
+		}
 	}
 
 	@Override
@@ -379,6 +534,10 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 			((ThreadPoolTaskScheduler) this.taskScheduler).shutdown();
 			this.taskScheduler = null;
 		}
+		if (!this.dispatchExecutorSet && this.dispatchExecutor != null) {
+			((ThreadPoolTaskExecutor) this.dispatchExecutor).shutdown();
+			this.dispatchExecutor = null;
+		}
 	}
 
 	protected void actualStart() {
@@ -387,6 +546,9 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 		if (getPrefetchCount() < this.messagesPerAck) {
 			setPrefetchCount(this.messagesPerAck);
 		}
+		if (this.consumerBatchEnabled && getPrefetchCount() < this.batchSize) {
+			setPrefetchCount(this.batchSize);
+		}
 		super.doStart();
 		final String[] queueNames = getQueueNames();
 		checkMissingQueues(queueNames);
@@ -400,6 +562,9 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 		if (getFailedDeclarationRetryInterval() < this.monitorInterval) {
 			this.monitorInterval = getFailedDeclarationRetryInterval();
 		}
+		if (this.consumerBatchEnabled && this.batchTimeout < this.monitorInterval) {
+			this.monitorInterval = this.batchTimeout;
+		}
 		final Map<String, Queue> namesToQueues = getQueueNamesToQueues();
 		this.lastRestartAttempt = System.currentTimeMillis();
 		startMonitor(idleEventInterval, namesToQueues);
@@ -469,6 +634,7 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 
 	private void checkConsumers(long now) {
 		final List<SimpleConsumer> consumersToCancel;
+		final List<SimpleConsumer> batchingConsumers;
 		synchronized (this.consumersMonitor) {
 			consumersToCancel = this.consumers.stream()
 					.filter(c -> {
@@ -484,6 +650,16 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 						return !open;
 					})
 					.collect(Collectors.toList());
+			// the partial batches of consumers with closed channels are discarded when they are canceled
+			batchingConsumers = this.consumerBatchEnabled
+					? this.consumers.stream()
+							.filter(c -> !consumersToCancel.contains(c))
+							.collect(Collectors.toList())
+					: null;
+		}
+		if (batchingConsumers != null) {
+			// outside the lock; the listener is invoked if a partial batch has timed out
+			batchingConsumers.forEach(c -> c.deliverBatchIfNecessary(now));
 		}
 		consumersToCancel
 				.forEach(c -> {
@@ -695,8 +871,19 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 		SimpleConsumer consumer = null;
 		try {
 			channel = connection.createChannel(isChannelTransacted());
-			channel.basicQos(getPrefetchCount());
+			PrefetchTuner prefetchTuner = createPrefetchTuner(getPrefetchCount(),
+					this.consumerBatchEnabled ? this.batchSize : Math.max(1, this.messagesPerAck));
+			if (prefetchTuner != null) {
+				prefetchTuner.initialize(channel);
+			}
+			else if (isGlobalQos()) {
+				channel.basicQos(getPrefetchCount(), true);
+			}
+			else {
+				channel.basicQos(getPrefetchCount());
+			}
 			consumer = new SimpleConsumer(connection, channel, queue);
+			consumer.prefetchTuner = prefetchTuner;
 			channel.queueDeclarePassive(queue);
 			consumer.consumerTag = channel.basicConsume(queue, getAcknowledgeMode().isAutoAck(),
 					(getConsumerTagStrategy() != null
@@ -770,7 +957,7 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 							if (logger.isWarnEnabled()) {
 								logger.warn(eventMessage);
 							}
-							consumer.cancelConsumer(eventMessage);
+							consumer.cancelConsumer(eventMessage, true);
 						});
 					}
 				}
@@ -869,6 +1056,18 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 
 		private final long ackTimeout = DirectMessageListenerContainer.this.ackTimeout;
 
+		private final boolean consumerBatchEnabled = DirectMessageListenerContainer.this.consumerBatchEnabled;
+
+		private final int batchSize = DirectMessageListenerContainer.this.batchSize;
+
+		private final long batchTimeout = DirectMessageListenerContainer.this.batchTimeout;
+
+		private final Object batchDeliveryLock = new Object();
+
+		private List<Message> pendingBatch;
+
+		private long batchStarted;
+
 		private int pendingAcks;
 
 		private long lastAck = System.currentTimeMillis();
@@ -885,11 +1084,27 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 
 		private volatile boolean canceled;
 
+		private PrefetchTuner prefetchTuner;
+
+		private final PartitionedDispatcher dispatcher;
+
+		private final ContiguousDeliveryTagTracker ackTracker;
+
 		private SimpleConsumer(Connection connection, Channel channel, String queue) {
 			super(channel);
 			this.connection = connection;
 			this.queue = queue;
 			this.ackRequired = !getAcknowledgeMode().isAutoAck() && !getAcknowledgeMode().isManual();
+			if (channel != null && DirectMessageListenerContainer.this.dispatchConcurrency > 1) {
+				this.dispatcher = new PartitionedDispatcher(DirectMessageListenerContainer.this.dispatchExecutor,
+						DirectMessageListenerContainer.this.dispatchConcurrency,
+						DirectMessageListenerContainer.this.partitionKeyExtractor, this.logger);
+				this.ackTracker = this.ackRequired ? new ContiguousDeliveryTagTracker() : null;
+			}
+			else {
+				this.dispatcher = null;
+				this.ackTracker = null;
+			}
 		}
 
 		private String getQueue() {
@@ -923,7 +1138,7 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 				BasicProperties properties, byte[] body) {
 
 			MessageProperties messageProperties =
-					getMessagePropertiesConverter().toMessageProperties(properties, envelope, "UTF-8");
+					getMessagePropertiesConverter().toLazyMessageProperties(properties, envelope, "UTF-8");
 			messageProperties.setConsumerTag(consumerTag);
 			messageProperties.setConsumerQueue(this.queue);
 			Message message = new Message(body, messageProperties);
@@ -932,9 +1147,103 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 				this.logger.debug(this + " received " + message);
 			}
 			updateLastReceive();
+			if (this.dispatcher != null) {
+				dispatch(message, deliveryTag);
+			}
+			else if (this.consumerBatchEnabled) {
+				addToBatch(message);
+			}
+			else {
+				process(message, deliveryTag);
+			}
+		}
+
+		private void addToBatch(Message message) {
+			boolean full;
+			synchronized (this) {
+				if (this.pendingBatch == null) {
+					this.pendingBatch = new ArrayList<>(this.batchSize);
+					this.batchStarted = System.currentTimeMillis();
+				}
+				this.pendingBatch.add(message);
+				full = this.pendingBatch.size() >= this.batchSize;
+			}
+			if (full) {
+				synchronized (this.batchDeliveryLock) {
+					// null if the monitor delivered it in the meantime
+					List<Message> batch = takeBatch(System.currentTimeMillis());
+					if (batch != null) {
+						deliverBatch(batch);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Deliver a partial batch if the batch timeout has elapsed or the consumer has
+		 * been canceled; discard it if the channel has been closed.
+		 * @param now the current time.
+		 */
+		void deliverBatchIfNecessary(long now) {
+			synchronized (this.batchDeliveryLock) {
+				List<Message> batch = takeBatch(now);
+				if (batch != null) {
+					if (getChannel().isOpen()) {
+						deliverBatch(batch);
+					}
+					else if (this.logger.isDebugEnabled()) {
+						this.logger.debug("Discarding a partial batch of " + batch.size()
+								+ " deliveries for " + this);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Remove the pending batch if it is full, its timeout has elapsed or the consumer
+		 * has been canceled. The batch is taken under the consumer's monitor, but the
+		 * listener is invoked outside it, so that acks and cancellation are not blocked
+		 * by the listener; the batch delivery lock keeps the batches in order.
+		 * @param now the current time.
+		 * @return the batch, or null.
+		 */
+		private synchronized List<Message> takeBatch(long now) {
+			List<Message> batch = this.pendingBatch;
+			if (batch != null && (batch.size() >= this.batchSize || now - this.batchStarted >= this.batchTimeout
+					|| this.canceled)) {
+				this.pendingBatch = null;
+				return batch;
+			}
+			return null;
+		}
+
+		/**
+		 * Discard a partial batch; its deliveries can no longer be acknowledged and will
+		 * be redelivered by the broker.
+		 */
+		private synchronized void discardBatch() {
+			if (this.pendingBatch != null) {
+				if (this.logger.isDebugEnabled()) {
+					this.logger.debug("Discarding a partial batch of " + this.pendingBatch.size()
+							+ " deliveries for " + this);
+				}
+				this.pendingBatch = null;
+			}
+		}
+
+		private void deliverBatch(List<Message> batch) {
+			process(batch, batch.get(batch.size() - 1).getMessageProperties().getDeliveryTag());
+		}
+
+		/**
+		 * Process a message or a batch of messages.
+		 * @param data the message or list of messages.
+		 * @param deliveryTag the (last) delivery tag.
+		 */
+		private void process(Object data, long deliveryTag) {
 			if (this.transactionManager != null) {
 				try {
-					executeListenerInTransaction(message, deliveryTag);
+					executeListenerInTransaction(data, deliveryTag);
 				}
 				catch (WrappedTransactionException e) {
 					if (e.getCause() instanceof Error) {
@@ -952,7 +1261,7 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 			}
 			else {
 				try {
-					callExecuteListener(message, deliveryTag);
+					callExecuteListener(data, deliveryTag);
 				}
 				catch (Exception e) {
 					// NOSONAR
@@ -960,7 +1269,31 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 			}
 		}
 
-		private void executeListenerInTransaction(Message message, long deliveryTag) {
+		private void dispatch(Message message, long deliveryTag) {
+			if (this.ackTracker != null) {
+				synchronized (this.ackTracker) {
+					this.ackTracker.delivered(deliveryTag);
+				}
+			}
+			try {
+				this.dispatcher.dispatch(message, () -> {
+					try {
+						callExecuteListener(message, deliveryTag);
+					}
+					catch (Exception e) {
+						this.logger.error("Failed to process dispatched delivery " + deliveryTag, e);
+						rollback(deliveryTag, 1, e);
+					}
+				});
+			}
+			catch (RuntimeException e) {
+				this.logger.error("Failed to dispatch " + message, e);
+				rollback(deliveryTag, 1, e);
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private void executeListenerInTransaction(Object data, long deliveryTag) {
 			if (this.isRabbitTxManager) {
 				ConsumerChannelRegistry.registerConsumerChannel(getChannel(), this.connectionFactory);
 			}
@@ -972,11 +1305,17 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 				RabbitResourceHolder resourceHolder = ConnectionFactoryUtils.bindResourceToTransaction(
 						new RabbitResourceHolder(getChannel(), false), this.connectionFactory, true);
 				if (resourceHolder != null) {
-					resourceHolder.addDeliveryTag(getChannel(), deliveryTag);
+					if (data instanceof Message) {
+						resourceHolder.addDeliveryTag(getChannel(), deliveryTag);
+					}
+					else {
+						((List<Message>) data).forEach(message -> resourceHolder.addDeliveryTag(getChannel(),
+								message.getMessageProperties().getDeliveryTag()));
+					}
 				}
 				// unbound in ResourceHolderSynchronization.beforeCompletion()
 				try {
-					callExecuteListener(message, deliveryTag);
+					callExecuteListener(data, deliveryTag);
 				}
 				catch (RuntimeException e1) {
 					prepareHolderForRollback(resourceHolder, e1);
@@ -989,11 +1328,20 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 			});
 		}
 
-		private void callExecuteListener(Message message, long deliveryTag) {
+		private void callExecuteListener(Object data, long deliveryTag) {
 			boolean channelLocallyTransacted = isChannelLocallyTransacted();
+			int count = data instanceof Message ? 1 : ((List<?>) data).size();
 			try {
-				executeListener(getChannel(), message);
-				handleAck(deliveryTag, channelLocallyTransacted);
+				if (this.prefetchTuner != null) {
+					long start = System.nanoTime();
+					invokeListener(data);
+					this.prefetchTuner.recordListenerTime((System.nanoTime() - start) / count);
+				}
+				else {
+					invokeListener(data);
+				}
+				handleAck(deliveryTag, count, channelLocallyTransacted);
+				adjustPrefetchIfNecessary();
 			}
 			catch (ImmediateAcknowledgeAmqpException e) {
 				if (this.logger.isDebugEnabled()) {
@@ -1001,14 +1349,14 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 							+ e.getMessage() + "': "
 							+ deliveryTag);
 				}
-				handleAck(deliveryTag, channelLocallyTransacted);
+				handleAck(deliveryTag, count, channelLocallyTransacted);
 			}
 			catch (Exception e) {
 				if (causeChainHasImmediateAcknowledgeAmqpException(e)) {
 					if (this.logger.isDebugEnabled()) {
 						this.logger.debug("User requested ack for failed delivery: " + deliveryTag);
 					}
-					handleAck(deliveryTag, channelLocallyTransacted);
+					handleAck(deliveryTag, count, channelLocallyTransacted);
 				}
 				else {
 					this.logger.error("Failed to invoke listener", e);
@@ -1022,7 +1370,7 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 								 * If we don't actually have a transaction, we have to roll back
 								 * manually. See prepareHolderForRollback().
 								 */
-								rollback(deliveryTag, e);
+								rollback(deliveryTag, count, e);
 							}
 							throw e; // encompassing transaction will handle the rollback.
 						}
@@ -1033,14 +1381,28 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 						}
 					}
 					else {
-						rollback(deliveryTag, e);
+						rollback(deliveryTag, count, e);
 						// no need to rethrow e - we'd ignore it anyway, not throw to client
 					}
 				}
 			}
 		}
 
-		private void handleAck(long deliveryTag, boolean channelLocallyTransacted) {
+		/**
+		 * Invoke the listener with a message or a batch of messages.
+		 * @param data the message or list of messages.
+		 */
+		@SuppressWarnings("unchecked")
+		private void invokeListener(Object data) {
+			if (data instanceof Message) {
+				executeListener(getChannel(), (Message) data);
+			}
+			else {
+				executeListener(getChannel(), (List<Message>) data);
+			}
+		}
+
+		private void handleAck(long deliveryTag, int count, boolean channelLocallyTransacted) {
 			/*
 			 * If we have a TX Manager, but no TX, act like we are locally transacted.
 			 */
@@ -1050,7 +1412,12 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 									TransactionSynchronizationManager.getResource(this.connectionFactory) == null);
 			try {
 				if (this.ackRequired) {
-					if (this.messagesPerAck > 1) {
+					if (this.ackTracker != null) {
+						synchronized (this.ackTracker) {
+							completeInOrder(deliveryTag, true);
+						}
+					}
+					else if (this.messagesPerAck > 1) {
 						synchronized (this) {
 							this.latestDeferredDeliveryTag = deliveryTag;
 							this.pendingAcks++;
@@ -1059,8 +1426,9 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 						}
 					}
 					else if (!isChannelTransacted() || isLocallyTransacted) {
-						getChannel().basicAck(deliveryTag, false);
+						getChannel().basicAck(deliveryTag, this.consumerBatchEnabled);
 					}
+					recordAcks(count);
 				}
 				if (isLocallyTransacted) {
 					RabbitUtils.commitIfNecessary(getChannel());
@@ -1071,6 +1439,31 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 			}
 		}
 
+		/**
+		 * Record the completion of a dispatched delivery and ack all deliveries up to
+		 * the highest contiguous completed tag; ackTracker must be held.
+		 * @param deliveryTag the delivery tag.
+		 * @param ack false if the delivery has already been rejected.
+		 * @throws IOException if one occurs.
+		 */
+		private void completeInOrder(long deliveryTag, boolean ack) throws IOException {
+			long ackTag = this.ackTracker.complete(deliveryTag, ack);
+			if (ackTag > 0) {
+				getChannel().basicAck(ackTag, true);
+			}
+		}
+
+		private void adjustPrefetchIfNecessary() {
+			if (this.prefetchTuner != null) {
+				try {
+					this.prefetchTuner.adjustIfNecessary(getChannel());
+				}
+				catch (IOException e) {
+					this.logger.error("Failed to adjust prefetch", e);
+				}
+			}
+		}
+
 		/**
 		 * Send the ack if we've reached the threshold (count or time) or immediately if
 		 * we are processing deliveries after a cancel has been issued.
@@ -1084,21 +1477,33 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 			}
 		}
 
-		private void rollback(long deliveryTag, Exception e) {
+		private void rollback(long deliveryTag, int count, Exception e) {
 			if (isChannelTransacted()) {
 				RabbitUtils.rollbackIfNecessary(getChannel());
 			}
 			if (this.ackRequired) {
 				try {
-					if (this.messagesPerAck > 1) {
-						synchronized (this) {
-							if (this.pendingAcks > 0) {
-								sendAck(System.currentTimeMillis());
+					boolean requeue = ContainerUtils.shouldRequeue(isDefaultRequeueRejected(), e, this.logger);
+					recordRejects(count, requeue);
+					if (this.ackTracker != null) {
+						/*
+						 * Other deliveries may still be in process; reject just this one.
+						 */
+						synchronized (this.ackTracker) {
+							getChannel().basicNack(deliveryTag, false, requeue);
+							completeInOrder(deliveryTag, false);
+						}
+					}
+					else {
+						if (this.messagesPerAck > 1) {
+							synchronized (this) {
+								if (this.pendingAcks > 0) {
+									sendAck(System.currentTimeMillis());
+								}
 							}
 						}
+						getChannel().basicNack(deliveryTag, true, requeue);
 					}
-					getChannel().basicNack(deliveryTag, true,
-							ContainerUtils.shouldRequeue(isDefaultRequeueRejected(), e, this.logger));
 				}
 				catch (IOException e1) {
 					this.logger.error("Failed to nack message", e1);
@@ -1131,7 +1536,10 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 			if (this.logger.isDebugEnabled()) {
 				this.logger.debug("CancelOk " + this);
 			}
-			finalizeConsumer();
+			if (this.consumerBatchEnabled) {
+				deliverBatchIfNecessary(System.currentTimeMillis());
+			}
+			finalizeConsumer(false);
 		}
 
 		@Override
@@ -1141,6 +1549,16 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 		}
 
 		void cancelConsumer(final String eventMessage) {
+			cancelConsumer(eventMessage, false);
+		}
+
+		/**
+		 * Cancel the consumer and close its channel.
+		 * @param eventMessage the message for the consumer failed event.
+		 * @param force true to close the channel without waiting for dispatched deliveries.
+		 */
+		void cancelConsumer(final String eventMessage, boolean force) {
+			discardBatch();
 			publishConsumerFailedEvent(eventMessage, true, null);
 			synchronized (DirectMessageListenerContainer.this.consumersMonitor) {
 				List<SimpleConsumer> list = DirectMessageListenerContainer.this.consumersByQueue.get(this.queue);
@@ -1150,10 +1568,26 @@ public class DirectMessageListenerContainer extends AbstractMessageListenerConta
 				DirectMessageListenerContainer.this.consumers.remove(this);
 				addConsumerToRestart(this);
 			}
-			finalizeConsumer();
+			finalizeConsumer(force);
+		}
+
+		/**
+		 * Close the channel and release the consumer; with a dispatcher, this is deferred
+		 * until the dispatched deliveries have been processed (and acknowledged), unless
+		 * forced. Since the container's stop waits for the release, only the stop path
+		 * waits for those deliveries; this is often called on the client's thread.
+		 * @param force true to close immediately.
+		 */
+		private void finalizeConsumer(boolean force) {
+			if (this.dispatcher != null && !force) {
+				this.dispatcher.whenIdle(this::closeAndRelease);
+			}
+			else {
+				closeAndRelease();
+			}
 		}
 
-		private void finalizeConsumer() {
+		private void closeAndRelease() {
 			RabbitUtils.setPhysicalCloseRequired(getChannel(), true);
 			RabbitUtils.closeChannel(getChannel());
 			RabbitUtils.closeConnection(this.connection);
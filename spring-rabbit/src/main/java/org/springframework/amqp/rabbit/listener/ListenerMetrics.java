@@ -0,0 +1,187 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.rabbit.listener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.lang.Nullable;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Micrometer meters for a listener container. All meters are registered when the
+ * container is initialized (apart from one failure timer per exception type, registered
+ * on first use), so recording does not allocate tags or look up meters.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+final class ListenerMetrics {
+
+	static final String LISTENER = "spring.rabbitmq.listener";
+
+	static final String ACKS = LISTENER + ".acks";
+
+	static final String BATCH_SIZE = LISTENER + ".batch.size";
+
+	static final String CONSUMERS = LISTENER + ".consumers";
+
+	static final String IDLE = LISTENER + ".idle";
+
+	private final MeterRegistry registry;
+
+	private final Tags tags;
+
+	private final List<Meter> meters = new ArrayList<>();
+
+	private final ConcurrentMap<Class<?>, Timer> failureTimers = new ConcurrentHashMap<>();
+
+	private final Timer successTimer;
+
+	private final Counter acks;
+
+	private final Counter rejects;
+
+	private final Counter requeues;
+
+	private final DistributionSummary batchSize;
+
+	private ListenerMetrics(MeterRegistry registry, AbstractMessageListenerContainer container, Tags tags) {
+		this.registry = registry;
+		this.tags = tags;
+		this.successTimer = register(Timer.builder(LISTENER)
+				.description("Listener execution time")
+				.tags(tags)
+				.tag("result", "success")
+				.tag("exception", "none")
+				.register(registry));
+		this.acks = register(ackCounter("ack"));
+		this.rejects = register(ackCounter("reject"));
+		this.requeues = register(ackCounter("requeue"));
+		this.batchSize = register(DistributionSummary.builder(BATCH_SIZE)
+				.description("The number of messages in batches delivered to the listener")
+				.tags(tags)
+				.register(registry));
+		register(Gauge.builder(CONSUMERS, container, AbstractMessageListenerContainer::getActiveConsumerCount)
+				.description("The number of active consumers")
+				.tags(tags)
+				.register(registry));
+		register(TimeGauge.builder(IDLE, container, TimeUnit.MILLISECONDS,
+						c -> System.currentTimeMillis() - c.getLastReceive())
+				.description("The time since the last message was received")
+				.tags(tags)
+				.register(registry));
+	}
+
+	private Counter ackCounter(String type) {
+		return Counter.builder(ACKS)
+				.description("Deliveries acknowledged, rejected or requeued by the container")
+				.tags(this.tags)
+				.tag("type", type)
+				.register(this.registry);
+	}
+
+	private <M extends Meter> M register(M meter) {
+		synchronized (this.meters) {
+			this.meters.add(meter);
+		}
+		return meter;
+	}
+
+	/**
+	 * Create the meters if there is exactly one {@link MeterRegistry} in the context.
+	 * @param context the application context.
+	 * @param container the container.
+	 * @param id the value of the {@code listener.id} tag.
+	 * @param extraTags additional tags.
+	 * @return the metrics, or null if there is no unique registry.
+	 */
+	@Nullable
+	static ListenerMetrics create(ApplicationContext context, AbstractMessageListenerContainer container,
+			String id, Map<String, String> extraTags) {
+
+		Map<String, MeterRegistry> registries = context.getBeansOfType(MeterRegistry.class, false, false);
+		if (registries.size() != 1) {
+			return null;
+		}
+		Tags tags = Tags.of("listener.id", id);
+		for (Map.Entry<String, String> tag : extraTags.entrySet()) {
+			tags = tags.and(tag.getKey(), tag.getValue());
+		}
+		return new ListenerMetrics(registries.values().iterator().next(), container, tags);
+	}
+
+	void success(long nanos) {
+		this.successTimer.record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	void failure(long nanos, Throwable exception) {
+		Throwable cause = exception.getCause() == null ? exception : exception.getCause();
+		Timer timer = this.failureTimers.get(cause.getClass());
+		if (timer == null) {
+			timer = this.failureTimers.computeIfAbsent(cause.getClass(), type -> register(Timer.builder(LISTENER)
+					.description("Listener execution time")
+					.tags(this.tags)
+					.tag("result", "failure")
+					.tag("exception", type.getSimpleName())
+					.register(this.registry)));
+		}
+		timer.record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	void acked(int count) {
+		this.acks.increment(count);
+	}
+
+	void rejected(int count, boolean requeue) {
+		if (requeue) {
+			this.requeues.increment(count);
+		}
+		else {
+			this.rejects.increment(count);
+		}
+	}
+
+	void batch(int size) {
+		this.batchSize.record(size);
+	}
+
+	/**
+	 * Remove the meters from the registry.
+	 */
+	void destroy() {
+		synchronized (this.meters) {
+			this.meters.forEach(this.registry::remove);
+			this.meters.clear();
+		}
+	}
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.rabbit.listener;
+
+import org.springframework.util.Assert;
+
+/**
+ * A {@link ConcurrencyPolicy} based on Little's law: the number of consumers required
+ * is the arrival rate multiplied by the average time spent in the listener. The arrival
+ * rate is estimated as the observed throughput plus the rate needed to consume any
+ * backlog within the {@link #setDrainTime(long) drain time}. The result is divided by
+ * the {@link #setTargetUtilization(double) target utilization} to leave some headroom.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+public class LittlesLawConcurrencyPolicy implements ConcurrencyPolicy {
+
+	/**
+	 * The default time (milliseconds) in which a backlog should be consumed.
+	 */
+	public static final long DEFAULT_DRAIN_TIME = 10000L;
+
+	/**
+	 * The default target utilization of each consumer.
+	 */
+	public static final double DEFAULT_TARGET_UTILIZATION = 0.8;
+
+	private static final double MILLIS_PER_SECOND = 1_000.0;
+
+	private long drainTime = DEFAULT_DRAIN_TIME;
+
+	private double targetUtilization = DEFAULT_TARGET_UTILIZATION;
+
+	/**
+	 * Set the time (milliseconds) in which any backlog in the queue(s) should be
+	 * consumed. Default 10000.
+	 * @param drainTime the drain time.
+	 */
+	public void setDrainTime(long drainTime) {
+		Assert.isTrue(drainTime > 0, "'drainTime' must be > 0");
+		this.drainTime = drainTime;
+	}
+
+	/**
+	 * Set the fraction of time each consumer should spend in the listener. Default 0.8.
+	 * @param targetUtilization the target utilization.
+	 */
+	public void setTargetUtilization(double targetUtilization) {
+		Assert.isTrue(targetUtilization > 0 && targetUtilization <= 1, "'targetUtilization' must be > 0 and <= 1");
+		this.targetUtilization = targetUtilization;
+	}
+
+	@Override
+	public int desiredConsumers(ConcurrencySample sample) {
+		boolean backlog = sample.isQueueDepthKnown() && sample.getQueueDepth() > 0;
+		if (sample.getMessageCount() == 0) {
+			// no service time observed; probe with one more consumer if messages are waiting
+			return backlog ? sample.getConsumers() + 1 : sample.getMinConsumers();
+		}
+		double arrivalRate = sample.getThroughput();
+		if (backlog) {
+			arrivalRate += sample.getQueueDepth() * MILLIS_PER_SECOND / this.drainTime;
+		}
+		return (int) Math.ceil(arrivalRate * sample.getAverageListenerTime() / this.targetUtilization);
+	}
+
+}
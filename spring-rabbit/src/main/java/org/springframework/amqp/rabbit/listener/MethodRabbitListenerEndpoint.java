@@ -152,8 +152,10 @@ public class MethodRabbitListenerEndpoint extends AbstractRabbitListenerEndpoint
 	 */
 	protected MessagingMessageListenerAdapter createMessageListenerInstance() {
 		if (isBatchListener()) {
-			return new BatchMessagingMessageListenerAdapter(this.bean, this.method, this.returnExceptions,
-					this.errorHandler, getBatchingStrategy());
+			BatchMessagingMessageListenerAdapter adapter = new BatchMessagingMessageListenerAdapter(this.bean,
+					this.method, this.returnExceptions, this.errorHandler, getBatchingStrategy());
+			adapter.setConversionExecutor(getBatchConversionExecutor());
+			return adapter;
 		}
 		else {
 			return new MessagingMessageListenerAdapter(this.bean, this.method, this.returnExceptions,
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.rabbit.listener;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import org.apache.commons.logging.Log;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Dispatches the deliveries of a consumer to a number of serial lanes that run on an
+ * {@link Executor}. Deliveries with the same partition key are always dispatched to the
+ * same lane, and so are processed in the order they were received; without a key
+ * extractor, deliveries are distributed round-robin and no ordering is preserved.
+ * <p>
+ * {@link #dispatch(Message, Runnable)} must only be called by the consumer's delivery
+ * thread.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+final class PartitionedDispatcher {
+
+	private final Log logger;
+
+	private final Executor executor;
+
+	private final Function<Message, Object> partitionKeyExtractor;
+
+	private final Lane[] lanes;
+
+	private final Object idleMonitor = new Object();
+
+	private int inFlight;
+
+	private Runnable idleCallback;
+
+	private int next;
+
+	/**
+	 * Construct an instance.
+	 * @param executor the executor on which the lanes run.
+	 * @param lanes the number of lanes.
+	 * @param partitionKeyExtractor the key extractor; null for round-robin.
+	 * @param logger the logger.
+	 */
+	PartitionedDispatcher(Executor executor, int lanes,
+			@Nullable Function<Message, Object> partitionKeyExtractor, Log logger) {
+
+		this.executor = executor;
+		this.partitionKeyExtractor = partitionKeyExtractor;
+		this.logger = logger;
+		this.lanes = new Lane[lanes];
+		for (int i = 0; i < lanes; i++) {
+			this.lanes[i] = new Lane();
+		}
+	}
+
+	/**
+	 * Dispatch the task that processes the message to the message's lane.
+	 * @param message the message.
+	 * @param task the task.
+	 * @throws java.util.concurrent.RejectedExecutionException if the executor rejects
+	 * the lane.
+	 */
+	void dispatch(Message message, Runnable task) {
+		Lane lane = laneFor(message);
+		synchronized (this.idleMonitor) {
+			this.inFlight++;
+		}
+		try {
+			lane.execute(task);
+		}
+		catch (RuntimeException e) {
+			taskComplete();
+			throw e;
+		}
+	}
+
+	/**
+	 * Wait for all dispatched tasks to complete.
+	 * @param timeout the maximum time to wait in milliseconds.
+	 * @return true if all tasks completed.
+	 * @throws InterruptedException if interrupted while waiting.
+	 */
+	boolean awaitIdle(long timeout) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + timeout;
+		synchronized (this.idleMonitor) {
+			while (this.inFlight > 0) {
+				long remaining = deadline - System.currentTimeMillis();
+				if (remaining <= 0) {
+					return false;
+				}
+				this.idleMonitor.wait(remaining);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Run the callback once all dispatched tasks have completed; immediately, on the
+	 * calling thread, if there are none, otherwise on the thread that completes the last
+	 * task. Replaces any callback that has not yet run.
+	 * @param callback the callback.
+	 */
+	void whenIdle(Runnable callback) {
+		synchronized (this.idleMonitor) {
+			if (this.inFlight > 0) {
+				this.idleCallback = callback;
+				return;
+			}
+		}
+		callback.run();
+	}
+
+	private Lane laneFor(Message message) {
+		if (this.partitionKeyExtractor == null) {
+			this.next = (this.next + 1) % this.lanes.length;
+			return this.lanes[this.next];
+		}
+		Object key = this.partitionKeyExtractor.apply(message);
+		return this.lanes[Math.floorMod(ObjectUtils.nullSafeHashCode(key), this.lanes.length)];
+	}
+
+	private void taskComplete() {
+		Runnable callback = null;
+		synchronized (this.idleMonitor) {
+			if (--this.inFlight == 0) {
+				this.idleMonitor.notifyAll();
+				callback = this.idleCallback;
+				this.idleCallback = null;
+			}
+		}
+		if (callback != null) {
+			try {
+				callback.run();
+			}
+			catch (RuntimeException e) {
+				this.logger.error("Idle callback failed", e);
+			}
+		}
+	}
+
+	/**
+	 * Runs its tasks one at a time, in order, on the executor; the lane is only
+	 * submitted to the executor while it has tasks.
+	 */
+	private final class Lane implements Runnable {
+
+		private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+		private boolean scheduled;
+
+		void execute(Runnable task) {
+			boolean schedule;
+			synchronized (this) {
+				this.tasks.add(task);
+				schedule = !this.scheduled;
+				this.scheduled = true;
+			}
+			if (schedule) {
+				try {
+					PartitionedDispatcher.this.executor.execute(this);
+				}
+				catch (RuntimeException e) {
+					synchronized (this) {
+						this.tasks.clear();
+						this.scheduled = false;
+					}
+					throw e;
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			while (true) {
+				Runnable task;
+				synchronized (this) {
+					task = this.tasks.poll();
+					if (task == null) {
+						this.scheduled = false;
+						return;
+					}
+				}
+				try {
+					task.run();
+				}
+				catch (RuntimeException e) {
+					PartitionedDispatcher.this.logger.error("Dispatched task failed", e);
+				}
+				finally {
+					taskComplete();
+				}
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.rabbit.listener;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import com.rabbitmq.client.Channel;
+
+/**
+ * Adjusts the prefetch of a consumer's channel at runtime so that enough messages are
+ * in flight to keep the listener busy for a network round trip, without buffering
+ * more than necessary. The target is
+ * {@code ackBatchSize + 2 * roundTripTime / listenerTime}, limited to the configured
+ * range; the round trip time is measured on the {@code basic.qos} RPC itself.
+ * <p>
+ * The tuned value is always applied as a channel-global ({@code global=true})
+ * {@code basic.qos}, which the broker applies to the existing consumers on the channel;
+ * a per-consumer {@code basic.qos} only affects consumers created after it. Unless the
+ * container's {@code globalQos} is set, the per-consumer prefetch is set to the maximum
+ * once, before the consumer is created, so it does not limit the tuned value.
+ * <p>
+ * Not thread-safe; must only be used by the thread that processes deliveries for the
+ * channel.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+final class PrefetchTuner {
+
+	private static final double WEIGHT = 0.2;
+
+	private static final double HYSTERESIS = 0.25;
+
+	private final int minPrefetch;
+
+	private final int maxPrefetch;
+
+	private final int ackBatchSize;
+
+	private final long intervalNanos;
+
+	private final boolean globalQos;
+
+	private final LongSupplier nanoClock;
+
+	private int prefetch;
+
+	private double listenerNanos;
+
+	private double roundTripNanos;
+
+	private long lastEvaluation;
+
+	/**
+	 * Construct an instance.
+	 * @param minPrefetch the minimum prefetch; raised to the ack batch size if lower.
+	 * @param maxPrefetch the maximum prefetch.
+	 * @param initialPrefetch the initial prefetch.
+	 * @param ackBatchSize the number of deliveries acknowledged together.
+	 * @param interval the minimum time (ms) between adjustments.
+	 * @param globalQos true if the prefetch is only applied to the channel; otherwise
+	 * the per-consumer prefetch is also set, to the maximum.
+	 */
+	PrefetchTuner(int minPrefetch, int maxPrefetch, int initialPrefetch, int ackBatchSize, long interval,
+			boolean globalQos) {
+
+		this(minPrefetch, maxPrefetch, initialPrefetch, ackBatchSize, interval, globalQos, System::nanoTime);
+	}
+
+	PrefetchTuner(int minPrefetch, int maxPrefetch, int initialPrefetch, int ackBatchSize, long interval,
+			boolean globalQos, LongSupplier nanoClock) {
+
+		this.minPrefetch = Math.min(Math.max(minPrefetch, ackBatchSize), maxPrefetch);
+		this.maxPrefetch = maxPrefetch;
+		this.ackBatchSize = ackBatchSize;
+		this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(interval);
+		this.globalQos = globalQos;
+		this.nanoClock = nanoClock;
+		this.prefetch = clamp(initialPrefetch);
+		this.lastEvaluation = nanoClock.getAsLong();
+	}
+
+	int getPrefetch() {
+		return this.prefetch;
+	}
+
+	int getMaxPrefetch() {
+		return this.maxPrefetch;
+	}
+
+	/**
+	 * Apply the initial prefetch; must be called before {@code basicConsume}.
+	 * @param channel the channel.
+	 * @throws IOException if the qos RPC fails.
+	 */
+	void initialize(Channel channel) throws IOException {
+		if (!this.globalQos) {
+			channel.basicQos(this.maxPrefetch, false);
+		}
+		applyPrefetch(channel, this.prefetch);
+	}
+
+	/**
+	 * Record the time taken by the listener for one delivery.
+	 * @param nanos the time.
+	 */
+	void recordListenerTime(long nanos) {
+		this.listenerNanos = this.listenerNanos == 0 ? nanos : ewma(this.listenerNanos, nanos);
+	}
+
+	/**
+	 * Adjust the channel prefetch if the interval has elapsed and the target has moved
+	 * sufficiently. If the interval has elapsed, a {@code basic.qos} is always sent so
+	 * that the round trip time is re-sampled.
+	 * @param channel the channel.
+	 * @throws IOException if the qos RPC fails.
+	 */
+	void adjustIfNecessary(Channel channel) throws IOException {
+		long now = this.nanoClock.getAsLong();
+		if (now - this.lastEvaluation < this.intervalNanos || this.listenerNanos == 0) {
+			return;
+		}
+		this.lastEvaluation = now;
+		applyPrefetch(channel, target());
+	}
+
+	int target() {
+		if (this.listenerNanos == 0 || this.roundTripNanos == 0) {
+			return this.prefetch;
+		}
+		int target = clamp((int) Math.min(Integer.MAX_VALUE,
+				this.ackBatchSize + (long) Math.ceil(2 * this.roundTripNanos / this.listenerNanos)));
+		if (Math.abs(target - this.prefetch) > this.prefetch * HYSTERESIS
+				|| target == this.minPrefetch || target == this.maxPrefetch) {
+			return target;
+		}
+		return this.prefetch;
+	}
+
+	private void applyPrefetch(Channel channel, int newPrefetch) throws IOException {
+		long start = this.nanoClock.getAsLong();
+		channel.basicQos(newPrefetch, true);
+		long rtt = this.nanoClock.getAsLong() - start;
+		this.roundTripNanos = this.roundTripNanos == 0 ? rtt : ewma(this.roundTripNanos, rtt);
+		this.prefetch = newPrefetch;
+	}
+
+	private int clamp(int value) {
+		return Math.max(this.minPrefetch, Math.min(this.maxPrefetch, value));
+	}
+
+	private static double ewma(double average, long sample) {
+		return average + WEIGHT * (sample - average);
+	}
+
+}
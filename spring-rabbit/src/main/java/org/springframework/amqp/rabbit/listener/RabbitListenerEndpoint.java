@@ -16,6 +16,8 @@
 
 package org.springframework.amqp.rabbit.listener;
 
+import java.util.concurrent.Executor;
+
 import org.springframework.amqp.core.AcknowledgeMode;
 import org.springframework.amqp.rabbit.core.support.BatchingStrategy;
 import org.springframework.amqp.support.converter.MessageConverter;
@@ -126,6 +128,16 @@ public interface RabbitListenerEndpoint {
 		// NOSONAR empty
 	}
 
+	/**
+	 * Set an executor to convert the messages of a batch listener in parallel.
+	 * @param executor the executor.
+	 * @since 2.2
+	 * @see #setBatchListener(boolean)
+	 */
+	default void setBatchConversionExecutor(Executor executor) {
+		// NOSONAR empty
+	}
+
 	/**
 	 * Override the container factory's {@link AcknowledgeMode}.
 	 * @return the acknowledgment mode.
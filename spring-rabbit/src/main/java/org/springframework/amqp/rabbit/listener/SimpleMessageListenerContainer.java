@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -27,9 +28,11 @@ import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.springframework.amqp.AmqpAuthenticationException;
 import org.springframework.amqp.AmqpConnectException;
@@ -38,8 +41,10 @@ import org.springframework.amqp.AmqpIOException;
 import org.springframework.amqp.AmqpIllegalStateException;
 import org.springframework.amqp.AmqpRejectAndDontRequeueException;
 import org.springframework.amqp.ImmediateAcknowledgeAmqpException;
+import org.springframework.amqp.core.AmqpAdmin;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueInformation;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactoryUtils;
 import org.springframework.amqp.rabbit.connection.ConsumerChannelRegistry;
@@ -54,6 +59,8 @@ import org.springframework.amqp.rabbit.support.ListenerContainerAware;
 import org.springframework.amqp.rabbit.support.RabbitExceptionTranslator;
 import org.springframework.jmx.export.annotation.ManagedMetric;
 import org.springframework.jmx.support.MetricType;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.transaction.support.TransactionTemplate;
@@ -88,6 +95,10 @@ public class SimpleMessageListenerContainer extends AbstractMessageListenerConta
 
 	private static final int DEFAULT_CONSECUTIVE_IDLE_TRIGGER = 10;
 
+	private static final long DEFAULT_CONCURRENCY_POLICY_INTERVAL = 5000L;
+
+	private static final long DEFAULT_QUEUE_DEPTH_INTERVAL = 10000L;
+
 	public static final long DEFAULT_RECEIVE_TIMEOUT = 1000;
 
 	private final AtomicLong lastNoMessageAlert = new AtomicLong();
@@ -128,6 +139,26 @@ public class SimpleMessageListenerContainer extends AbstractMessageListenerConta
 
 	private long consumerStartTimeout = DEFAULT_CONSUMER_START_TIMEOUT;
 
+	private volatile ConcurrencyPolicy concurrencyPolicy;
+
+	private volatile long concurrencyPolicyInterval = DEFAULT_CONCURRENCY_POLICY_INTERVAL;
+
+	private volatile long queueDepthInterval = DEFAULT_QUEUE_DEPTH_INTERVAL;
+
+	private final AtomicLong lastConcurrencyPolicyEvaluation = new AtomicLong();
+
+	private volatile long cachedQueueDepth = -1;
+
+	private TaskScheduler taskScheduler;
+
+	private boolean taskSchedulerSet;
+
+	private volatile ScheduledFuture<?> queueDepthTask;
+
+	private final LongAdder policyMessageCount = new LongAdder();
+
+	private final LongAdder policyListenerNanos = new LongAdder();
+
 	/**
 	 * Default constructor for convenient dependency injection via setters.
 	 */
@@ -301,6 +332,68 @@ public class SimpleMessageListenerContainer extends AbstractMessageListenerConta
 		this.consecutiveIdleTrigger = consecutiveIdleTrigger;
 	}
 
+	/**
+	 * Set a {@link ConcurrencyPolicy} to determine the number of consumers from the
+	 * observed load (queue depth, listener time and throughput) instead of the
+	 * {@link #setConsecutiveActiveTrigger(int) consecutiveActiveTrigger} and
+	 * {@link #setConsecutiveIdleTrigger(int) consecutiveIdleTrigger} algorithm.
+	 * The policy is evaluated every {@link #setConcurrencyPolicyInterval(long)
+	 * concurrencyPolicyInterval} and only when {@link #maxConcurrentConsumers} is set;
+	 * the result is limited to the range {@link #concurrentConsumers} to
+	 * {@link #maxConcurrentConsumers}. The queue depth is obtained from the
+	 * {@link #setAmqpAdmin(AmqpAdmin) amqpAdmin}, if present, every
+	 * {@link #setQueueDepthInterval(long) queueDepthInterval} on the
+	 * {@link #setTaskScheduler(TaskScheduler) taskScheduler}; consumers only read the
+	 * last result.
+	 * @param concurrencyPolicy the policy.
+	 * @since 2.2
+	 * @see AimdConcurrencyPolicy
+	 * @see LittlesLawConcurrencyPolicy
+	 */
+	public void setConcurrencyPolicy(ConcurrencyPolicy concurrencyPolicy) {
+		this.concurrencyPolicy = concurrencyPolicy;
+	}
+
+	/**
+	 * Set the interval (milliseconds) between evaluations of the
+	 * {@link #setConcurrencyPolicy(ConcurrencyPolicy) concurrencyPolicy}. Default 5000.
+	 * @param concurrencyPolicyInterval the interval.
+	 * @since 2.2
+	 */
+	public void setConcurrencyPolicyInterval(long concurrencyPolicyInterval) {
+		Assert.isTrue(concurrencyPolicyInterval > 0, "'concurrencyPolicyInterval' must be > 0");
+		this.concurrencyPolicyInterval = concurrencyPolicyInterval;
+	}
+
+	/**
+	 * Set the interval (milliseconds) between queue depth lookups for the
+	 * {@link #setConcurrencyPolicy(ConcurrencyPolicy) concurrencyPolicy}; each lookup
+	 * queries the broker once per queue, and evaluations in between use the previous
+	 * result. Lookups are not made more often than the
+	 * {@link #setConcurrencyPolicyInterval(long) concurrencyPolicyInterval}.
+	 * Default 10000.
+	 * @param queueDepthInterval the interval.
+	 * @since 2.2
+	 */
+	public void setQueueDepthInterval(long queueDepthInterval) {
+		Assert.isTrue(queueDepthInterval >= 0, "'queueDepthInterval' must be >= 0");
+		this.queueDepthInterval = queueDepthInterval;
+	}
+
+	/**
+	 * Set the task scheduler used to look up the queue depth for the
+	 * {@link #setConcurrencyPolicy(ConcurrencyPolicy) concurrencyPolicy}, so the broker
+	 * round trip is not made on a consumer thread. By default, a single-threaded
+	 * scheduler is created when needed and shut down when the container stops.
+	 * @param taskScheduler the scheduler.
+	 * @since 2.2
+	 */
+	public void setTaskScheduler(TaskScheduler taskScheduler) {
+		Assert.notNull(taskScheduler, "'taskScheduler' cannot be null");
+		this.taskScheduler = taskScheduler;
+		this.taskSchedulerSet = true;
+	}
+
 	/**
 	 * The time (in milliseconds) that a consumer should wait for data. Default
 	 * 1000 (1 second).
@@ -469,6 +562,7 @@ public class SimpleMessageListenerContainer extends AbstractMessageListenerConta
 
 	}
 
+	@Override
 	@ManagedMetric(metricType = MetricType.GAUGE)
 	public int getActiveConsumerCount() {
 		return this.cancellationLock.getCount();
@@ -486,6 +580,10 @@ public class SimpleMessageListenerContainer extends AbstractMessageListenerConta
 			if (this.consumers != null) {
 				throw new IllegalStateException("A stopped container should not have consumers");
 			}
+			this.lastConcurrencyPolicyEvaluation.set(System.currentTimeMillis());
+			this.policyMessageCount.reset();
+			this.policyListenerNanos.reset();
+			startQueueDepthLookups();
 			int newConsumers = initializeConsumers();
 			if (this.consumers == null) {
 				logger.info("Consumers were initialized and then cleared " +
@@ -511,6 +609,42 @@ public class SimpleMessageListenerContainer extends AbstractMessageListenerConta
 		}
 	}
 
+	/*
+	 * The first lookup is made here, so the policy has a queue depth for its first
+	 * evaluation; the rest are made on the scheduler.
+	 */
+	private void startQueueDepthLookups() {
+		AmqpAdmin admin = getAmqpAdmin();
+		this.cachedQueueDepth = -1;
+		if (this.concurrencyPolicy == null || admin == null || this.queueDepthTask != null) {
+			return;
+		}
+		if (this.taskScheduler == null) {
+			ThreadPoolTaskScheduler threadPoolTaskScheduler = new ThreadPoolTaskScheduler();
+			threadPoolTaskScheduler.setThreadNamePrefix(
+					(getBeanName() != null ? getBeanName() : "container") + "-queueDepth-");
+			threadPoolTaskScheduler.afterPropertiesSet();
+			this.taskScheduler = threadPoolTaskScheduler;
+		}
+		this.cachedQueueDepth = lookupQueueDepth(admin);
+		long interval = Math.max(this.queueDepthInterval, this.concurrencyPolicyInterval);
+		this.queueDepthTask = this.taskScheduler.scheduleWithFixedDelay(
+				() -> this.cachedQueueDepth = lookupQueueDepth(admin),
+				new Date(System.currentTimeMillis() + interval), interval);
+	}
+
+	private void stopQueueDepthLookups() {
+		ScheduledFuture<?> task = this.queueDepthTask;
+		if (task != null) {
+			task.cancel(true);
+			this.queueDepthTask = null;
+		}
+		if (!this.taskSchedulerSet && this.taskScheduler != null) {
+			((ThreadPoolTaskScheduler) this.taskScheduler).shutdown();
+			this.taskScheduler = null;
+		}
+	}
+
 	private void checkListenerContainerAware() {
 		if (getMessageListener() instanceof ListenerContainerAware) {
 			Collection<String> expectedQueueNames = ((ListenerContainerAware) getMessageListener()).expectedQueueNames();
@@ -558,6 +692,7 @@ public class SimpleMessageListenerContainer extends AbstractMessageListenerConta
 			logger.info("Shutdown ignored - container is stopping due to an aborted consumer");
 			return;
 		}
+		stopQueueDepthLookups();
 
 		try {
 			List<BlockingQueueConsumer> canceledConsumers = new ArrayList<>();
@@ -733,6 +868,67 @@ public class SimpleMessageListenerContainer extends AbstractMessageListenerConta
 		}
 	}
 
+	private void applyConcurrencyPolicy(ConcurrencyPolicy policy) {
+		long now = System.currentTimeMillis();
+		long lastEvaluation = this.lastConcurrencyPolicyEvaluation.get();
+		if (now - lastEvaluation < this.concurrencyPolicyInterval
+				|| !this.lastConcurrencyPolicyEvaluation.compareAndSet(lastEvaluation, now)) {
+			return;
+		}
+		long messageCount = this.policyMessageCount.sumThenReset();
+		long listenerNanos = this.policyListenerNanos.sumThenReset();
+		long queueDepth = this.cachedQueueDepth;
+		synchronized (this.consumersMonitor) {
+			Integer max = this.maxConcurrentConsumers;
+			if (this.consumers == null || max == null) {
+				return;
+			}
+			int current = this.consumers.size();
+			ConcurrencySample sample = new ConcurrencySample(current, this.concurrentConsumers, max, queueDepth,
+					messageCount, listenerNanos, now - lastEvaluation);
+			int desired = Math.max(this.concurrentConsumers, Math.min(max, policy.desiredConsumers(sample)));
+			if (desired != current && logger.isDebugEnabled()) {
+				logger.debug("Concurrency policy changing consumers from " + current + " to " + desired + "; "
+						+ sample);
+			}
+			if (desired > current) {
+				addAndStartConsumers(desired - current);
+				this.lastConsumerStarted = now;
+			}
+			else if (desired < current) {
+				Iterator<BlockingQueueConsumer> consumerIterator = this.consumers.iterator();
+				while (consumerIterator.hasNext() && this.consumers.size() > desired) {
+					BlockingQueueConsumer consumer = consumerIterator.next();
+					consumer.basicCancel(true);
+					consumerIterator.remove();
+				}
+				this.lastConsumerStopped = now;
+			}
+		}
+	}
+
+	/*
+	 * Total ready messages in our queues, or -1 if it can't be determined.
+	 */
+	private long lookupQueueDepth(AmqpAdmin admin) {
+		long depth = 0;
+		try {
+			for (String queue : getQueueNames()) {
+				QueueInformation info = admin.getQueueInfo(queue);
+				if (info != null) {
+					depth += info.getMessageCount();
+				}
+			}
+		}
+		catch (AmqpException e) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to determine queue depth", e);
+			}
+			return -1;
+		}
+		return depth;
+	}
+
 	private void queuesChanged() {
 		synchronized (this.consumersMonitor) {
 			if (this.consumers != null) {
@@ -758,9 +954,14 @@ public class SimpleMessageListenerContainer extends AbstractMessageListenerConta
 		// There's no point prefetching less than the tx size, otherwise the consumer will stall because the broker
 		// didn't get an ack for delivered messages
 		int actualPrefetchCount = getPrefetchCount() > this.txSize ? getPrefetchCount() : this.txSize;
+		PrefetchTuner prefetchTuner = createPrefetchTuner(actualPrefetchCount, this.txSize);
 		consumer = new BlockingQueueConsumer(getConnectionFactory(), getMessagePropertiesConverter(),
-				this.cancellationLock, getAcknowledgeMode(), isChannelTransacted(), actualPrefetchCount,
+				this.cancellationLock, getAcknowledgeMode(), isChannelTransacted(),
+				prefetchTuner != null ? prefetchTuner.getMaxPrefetch() : actualPrefetchCount,
 				isDefaultRequeueRejected(), getConsumerArguments(), isNoLocal(), isExclusive(), queues);
+		consumer.setPrefetchTuner(prefetchTuner);
+		consumer.setGlobalQos(isGlobalQos());
+		consumer.setMetrics(getMetrics());
 		if (this.declarationRetries != null) {
 			consumer.setDeclarationRetries(this.declarationRetries);
 		}
@@ -854,6 +1055,7 @@ public class SimpleMessageListenerContainer extends AbstractMessageListenerConta
 	private boolean doReceiveAndExecute(BlockingQueueConsumer consumer) throws Exception { //NOSONAR
 
 		Channel channel = consumer.getChannel();
+		boolean timed = this.concurrencyPolicy != null || consumer.isPrefetchTuning();
 
 		for (int i = 0; i < this.txSize; i++) {
 
@@ -862,6 +1064,7 @@ public class SimpleMessageListenerContainer extends AbstractMessageListenerConta
 			if (message == null) {
 				break;
 			}
+			long start = timed ? System.nanoTime() : 0L;
 			try {
 				executeListener(channel, message);
 			}
@@ -909,9 +1112,21 @@ public class SimpleMessageListenerContainer extends AbstractMessageListenerConta
 					throw ex;
 				}
 			}
+			finally {
+				if (timed) {
+					long elapsed = System.nanoTime() - start;
+					if (this.concurrencyPolicy != null) {
+						this.policyListenerNanos.add(elapsed);
+						this.policyMessageCount.increment();
+					}
+					consumer.recordListenerTime(elapsed);
+				}
+			}
 		}
 
-		return consumer.commitIfNecessary(isChannelLocallyTransacted());
+		boolean committed = consumer.commitIfNecessary(isChannelLocallyTransacted());
+		consumer.adjustPrefetchIfNecessary();
+		return committed;
 
 	}
 
@@ -1131,7 +1346,13 @@ public class SimpleMessageListenerContainer extends AbstractMessageListenerConta
 			try {
 				boolean receivedOk = receiveAndExecute(this.consumer); // At least one message received
 				if (SimpleMessageListenerContainer.this.maxConcurrentConsumers != null) {
-					checkAdjust(receivedOk);
+					ConcurrencyPolicy policy = SimpleMessageListenerContainer.this.concurrencyPolicy;
+					if (policy != null) {
+						applyConcurrencyPolicy(policy);
+					}
+					else {
+						checkAdjust(receivedOk);
+					}
 				}
 				long idleEventInterval = getIdleEventInterval();
 				if (idleEventInterval > 0) {
@@ -19,28 +19,43 @@ package org.springframework.amqp.rabbit.listener.adapter;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 import org.springframework.amqp.rabbit.core.support.BatchingStrategy;
 import org.springframework.amqp.rabbit.core.support.SimpleBatchingStrategy;
+import org.springframework.amqp.rabbit.listener.api.ChannelAwareBatchMessageListener;
 import org.springframework.amqp.rabbit.listener.api.RabbitListenerErrorHandler;
+import org.springframework.amqp.support.converter.MessageConversionException;
 import org.springframework.lang.Nullable;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.support.GenericMessage;
 import org.springframework.messaging.support.MessageBuilder;
 
+import com.rabbitmq.client.Channel;
+
 /**
- * A listener adapter for batch listeners.
+ * A listener adapter for batch listeners. Receives either a single message that
+ * contains a producer-created batch, or a consumer-side batch of messages from a
+ * container that supports it. Optionally, the messages in a batch can be converted in
+ * parallel.
  *
  * @author Gary Russell
  * @since 2.2
  *
  */
-public class BatchMessagingMessageListenerAdapter extends MessagingMessageListenerAdapter {
+public class BatchMessagingMessageListenerAdapter extends MessagingMessageListenerAdapter
+		implements ChannelAwareBatchMessageListener {
 
 	private final MessagingMessageConverterAdapter converterAdapter;
 
 	private final BatchingStrategy batchingStrategy;
 
+	@Nullable
+	private Executor conversionExecutor;
+
 	public BatchMessagingMessageListenerAdapter(Object bean, Method method, boolean returnExceptions,
 			RabbitListenerErrorHandler errorHandler, @Nullable BatchingStrategy batchingStrategy) {
 
@@ -49,22 +64,29 @@ public class BatchMessagingMessageListenerAdapter extends MessagingMessageListen
 		this.batchingStrategy = batchingStrategy == null ? new SimpleBatchingStrategy(0, 0, 0L) : batchingStrategy;
 	}
 
+	/**
+	 * Set an executor to convert the messages in a batch in parallel; the listener is
+	 * invoked with the converted payloads in the original order once all conversions are
+	 * complete. The calling (consumer) thread also converts part of the batch. Only
+	 * worthwhile when conversion is expensive (e.g. large JSON or XML payloads); the
+	 * message converter must be thread-safe. Default null: convert on the calling thread.
+	 * @param conversionExecutor the executor, e.g. a {@link java.util.concurrent.ForkJoinPool}.
+	 */
+	public void setConversionExecutor(@Nullable Executor conversionExecutor) {
+		this.conversionExecutor = conversionExecutor;
+	}
+
 	@Override
 	protected Message<?> toMessagingMessage(org.springframework.amqp.core.Message amqpMessage) {
 		if (this.batchingStrategy.canDebatch(amqpMessage.getMessageProperties())) {
 
+			List<org.springframework.amqp.core.Message> fragments = new ArrayList<>();
+			this.batchingStrategy.deBatch(amqpMessage, fragments::add);
 			if (this.converterAdapter.isMessageList()) {
-				List<Message<?>> messages = new ArrayList<>();
-				this.batchingStrategy.deBatch(amqpMessage, fragment -> {
-					messages.add(super.toMessagingMessage(fragment));
-				});
-				return new GenericMessage<>(messages);
+				return new GenericMessage<>(convert(fragments, super::toMessagingMessage));
 			}
 			else {
-				List<Object> list = new ArrayList<>();
-				this.batchingStrategy.deBatch(amqpMessage, fragment -> {
-					list.add(this.converterAdapter.extractPayload(fragment));
-				});
+				List<Object> list = convert(fragments, this.converterAdapter::extractPayload);
 				return MessageBuilder.withPayload(list)
 						.copyHeaders(this.converterAdapter
 								.getHeaderMapper()
@@ -75,4 +97,64 @@ public class BatchMessagingMessageListenerAdapter extends MessagingMessageListen
 		return super.toMessagingMessage(amqpMessage);
 	}
 
+	@Override
+	public void onMessageBatch(List<org.springframework.amqp.core.Message> messages, Channel channel)
+			throws Exception { // NOSONAR
+
+		Message<?> converted;
+		if (this.converterAdapter.isAmqpMessageList()) {
+			converted = new GenericMessage<>(messages);
+		}
+		else if (this.converterAdapter.isMessageList()) {
+			converted = new GenericMessage<>(convert(messages, super::toMessagingMessage));
+		}
+		else {
+			converted = new GenericMessage<>(convert(messages, this.converterAdapter::extractPayload));
+		}
+		invokeHandlerAndProcessResult(null, channel, converted);
+	}
+
+	private <T> List<T> convert(List<org.springframework.amqp.core.Message> messages,
+			Function<org.springframework.amqp.core.Message, T> converter) {
+
+		int size = messages.size();
+		List<T> converted = new ArrayList<>(size);
+		if (this.conversionExecutor == null || size < 2) {
+			for (org.springframework.amqp.core.Message message : messages) {
+				converted.add(converter.apply(message));
+			}
+			return converted;
+		}
+		List<CompletableFuture<T>> futures = new ArrayList<>(size - 1);
+		for (int i = 1; i < size; i++) {
+			org.springframework.amqp.core.Message message = messages.get(i);
+			futures.add(CompletableFuture.supplyAsync(() -> converter.apply(message), this.conversionExecutor));
+		}
+		boolean complete = false;
+		try {
+			converted.add(converter.apply(messages.get(0)));
+			for (CompletableFuture<T> future : futures) {
+				converted.add(future.join());
+			}
+			complete = true;
+		}
+		catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new MessageConversionException("Failed to convert batch", cause);
+		}
+		finally {
+			if (!complete) {
+				// the batch has failed; conversions that have not started yet are skipped
+				futures.forEach(future -> future.cancel(false));
+			}
+		}
+		return converted;
+	}
+
 }
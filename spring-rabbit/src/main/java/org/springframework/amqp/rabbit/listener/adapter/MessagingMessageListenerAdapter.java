@@ -21,6 +21,7 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.WildcardType;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.rabbit.listener.api.RabbitListenerErrorHandler;
@@ -30,11 +31,14 @@ import org.springframework.amqp.support.converter.MessageConversionException;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.amqp.support.converter.MessagingMessageConverter;
 import org.springframework.core.MethodParameter;
+import org.springframework.lang.Nullable;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.MessagingException;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.remoting.support.RemoteInvocationResult;
 import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
 
 import com.rabbitmq.client.Channel;
 
@@ -51,6 +55,11 @@ import com.rabbitmq.client.Channel;
  * the {@link Channel} are provided as additional arguments so that these can
  * be injected as method arguments if necessary.
  *
+ * <p>Starting with version 2.2, the payload is converted and the headers are mapped
+ * when they are first accessed; a listener method that only uses {@code @Header}
+ * arguments, for example, does not incur the cost of converting the payload. This does
+ * not apply if a subclass overrides {@link #toMessagingMessage}.
+ *
  * @author Stephane Nicoll
  * @author Gary Russell
  * @author Artem Bilan
@@ -67,6 +76,8 @@ public class MessagingMessageListenerAdapter extends AbstractAdaptableMessageLis
 
 	private final RabbitListenerErrorHandler errorHandler;
 
+	private final boolean lazyConversion;
+
 	public MessagingMessageListenerAdapter() {
 		this(null, null);
 	}
@@ -86,6 +97,10 @@ public class MessagingMessageListenerAdapter extends AbstractAdaptableMessageLis
 		this.messagingMessageConverter = new MessagingMessageConverterAdapter(bean, method, batch);
 		this.returnExceptions = returnExceptions;
 		this.errorHandler = errorHandler;
+		Method toMessagingMessage = ReflectionUtils.findMethod(getClass(), "toMessagingMessage",
+				org.springframework.amqp.core.Message.class);
+		this.lazyConversion = !batch && toMessagingMessage != null
+				&& MessagingMessageListenerAdapter.class.equals(toMessagingMessage.getDeclaringClass());
 	}
 
 	/**
@@ -125,14 +140,34 @@ public class MessagingMessageListenerAdapter extends AbstractAdaptableMessageLis
 
 	@Override
 	public void onMessage(org.springframework.amqp.core.Message amqpMessage, Channel channel) throws Exception { // NOSONAR
-		Message<?> message = toMessagingMessage(amqpMessage);
+		Message<?> message = this.lazyConversion
+				? new LazyConvertingMessage(amqpMessage)
+				: toMessagingMessage(amqpMessage);
+		invokeHandlerAndProcessResult(amqpMessage, channel, message);
+	}
+
+	/**
+	 * Invoke the handler with the converted message and handle the result, if any.
+	 * @param amqpMessage the raw message; null for a batch of messages, in which case
+	 * the handler cannot return a result.
+	 * @param channel the channel.
+	 * @param message the messaging message.
+	 * @throws Exception if the handler (or error handler) fails.
+	 * @since 2.2
+	 */
+	protected void invokeHandlerAndProcessResult(@Nullable org.springframework.amqp.core.Message amqpMessage,
+			Channel channel, Message<?> message) throws Exception { // NOSONAR
+
 		if (logger.isDebugEnabled()) {
 			logger.debug("Processing [" + message + "]");
 		}
 		InvocationResult result = null;
 		try {
 			result = invokeHandler(amqpMessage, channel, message);
-			if (result.getReturnValue() != null) {
+			if (result.getReturnValue() != null && amqpMessage == null) {
+				logger.warn("Batch listeners cannot return a result; ignored: " + result.getReturnValue());
+			}
+			else if (result.getReturnValue() != null) {
 				handleResult(result, amqpMessage, channel, message);
 			}
 			else {
@@ -170,7 +205,7 @@ public class MessagingMessageListenerAdapter extends AbstractAdaptableMessageLis
 					amqpMessage, channel, message);
 		}
 		catch (ReplyFailureException rfe) {
-			if (void.class.equals(this.handlerAdapter.getReturnType(message.getPayload()))) {
+			if (void.class.equals(this.handlerAdapter.getReturnType(payloadForDiagnostics(message)))) {
 				throw exceptionToThrow;
 			}
 			else {
@@ -191,19 +226,54 @@ public class MessagingMessageListenerAdapter extends AbstractAdaptableMessageLis
 	 * @param message the messaging message.
 	 * @return the result of invoking the handler.
 	 */
-	private InvocationResult invokeHandler(org.springframework.amqp.core.Message amqpMessage, Channel channel,
-			Message<?> message) {
+	private InvocationResult invokeHandler(@Nullable org.springframework.amqp.core.Message amqpMessage,
+			Channel channel, Message<?> message) {
 		try {
 			return this.handlerAdapter.invoke(message, amqpMessage, channel);
 		}
 		catch (MessagingException ex) {
+			rethrowConversionFailure(message, ex);
 			throw new ListenerExecutionFailedException(createMessagingErrorMessage("Listener method could not " +
-					"be invoked with the incoming message", message.getPayload()), ex, amqpMessage);
+					"be invoked with the incoming message", payloadForDiagnostics(message)), ex, amqpMessage);
 		}
 		catch (Exception ex) {
+			rethrowConversionFailure(message, ex);
 			throw new ListenerExecutionFailedException("Listener method '" +
-					this.handlerAdapter.getMethodAsString(message.getPayload()) + "' threw exception", ex, amqpMessage);
+					this.handlerAdapter.getMethodAsString(payloadForDiagnostics(message)) + "' threw exception", ex,
+					amqpMessage);
+		}
+	}
+
+	/*
+	 * A failure to convert a lazily converted payload is propagated as-is, as it would
+	 * have been when converting eagerly, before the handler was invoked. This is only
+	 * done if the handler invocation threw that failure, or an exception caused by it;
+	 * if the listener caught it and threw its own exception, that exception is used.
+	 */
+	private void rethrowConversionFailure(Message<?> message, Exception ex) {
+		if (message instanceof LazyConvertingMessage) {
+			RuntimeException conversionFailure = ((LazyConvertingMessage) message).conversionFailure;
+			if (conversionFailure != null) {
+				Throwable cause = ex;
+				while (cause != null) {
+					if (cause == conversionFailure) {
+						throw conversionFailure;
+					}
+					cause = cause.getCause();
+				}
+			}
+		}
+	}
+
+	/*
+	 * Avoid converting the payload just to report an error; the payload is only used to
+	 * select the method of a multi-method listener, in which case it has been converted.
+	 */
+	private Object payloadForDiagnostics(Message<?> message) {
+		if (message instanceof LazyConvertingMessage && ((LazyConvertingMessage) message).payload == null) {
+			return ((LazyConvertingMessage) message).amqpMessage.getBody();
 		}
+		return message.getPayload();
 	}
 
 	private String createMessagingErrorMessage(String description, Object payload) {
@@ -241,6 +311,85 @@ public class MessagingMessageListenerAdapter extends AbstractAdaptableMessageLis
 		}
 	}
 
+	/**
+	 * A {@link Message} that converts the payload and maps the headers when they are first
+	 * accessed, using the same logic as {@link MessagingMessageConverter#fromMessage}.
+	 * Not thread-safe; it is used by the listener thread.
+	 */
+	private final class LazyConvertingMessage implements Message<Object> {
+
+		private final org.springframework.amqp.core.Message amqpMessage;
+
+		private Object payload;
+
+		private MessageHeaders headers;
+
+		private RuntimeException conversionFailure;
+
+		LazyConvertingMessage(org.springframework.amqp.core.Message amqpMessage) {
+			this.amqpMessage = amqpMessage;
+		}
+
+		@Override
+		public Object getPayload() {
+			if (this.payload == null) {
+				if (this.conversionFailure != null) {
+					throw this.conversionFailure;
+				}
+				try {
+					convertPayload();
+				}
+				catch (RuntimeException e) {
+					this.conversionFailure = e;
+					throw e;
+				}
+			}
+			return this.payload;
+		}
+
+		private void convertPayload() {
+			Object converted = MessagingMessageListenerAdapter.this.messagingMessageConverter
+					.extractPayload(this.amqpMessage);
+			if (converted == null) {
+				throw new MessageConversionException("Message converter returned null");
+			}
+			if (converted instanceof Message) {
+				// headers provided by the converter take precedence over the mapped headers
+				Message<?> convertedMessage = (Message<?>) converted;
+				Map<String, Object> merged = mapHeaders();
+				merged.putAll(convertedMessage.getHeaders());
+				this.headers = new MessageHeaders(merged);
+				this.payload = convertedMessage.getPayload();
+			}
+			else {
+				this.payload = converted;
+			}
+		}
+
+		@Override
+		public MessageHeaders getHeaders() {
+			if (this.headers == null) {
+				this.headers = new MessageHeaders(mapHeaders());
+			}
+			return this.headers;
+		}
+
+		private Map<String, Object> mapHeaders() {
+			return MessagingMessageListenerAdapter.this.messagingMessageConverter.getHeaderMapper()
+					.toHeaders(this.amqpMessage.getMessageProperties());
+		}
+
+		@Override
+		public String toString() {
+			if (this.payload == null) {
+				// don't convert just to log the message
+				return "LazyConvertingMessage [unconverted=" + this.amqpMessage + "]";
+			}
+			return "GenericMessage [payload=" + this.payload + ", headers=" + getHeaders() + "]";
+		}
+
+	}
+
 	/**
 	 * Delegates payload extraction to
 	 * {@link #extractMessage(org.springframework.amqp.core.Message message)}
@@ -261,6 +410,8 @@ public class MessagingMessageListenerAdapter extends AbstractAdaptableMessageLis
 
 		private boolean isMessageList;
 
+		private boolean isAmqpMessageList;
+
 		MessagingMessageConverterAdapter(Object bean, Method method, boolean batch) {
 			this.bean = bean;
 			this.method = method;
@@ -275,6 +426,10 @@ public class MessagingMessageListenerAdapter extends AbstractAdaptableMessageLis
 			return this.isMessageList;
 		}
 
+		protected boolean isAmqpMessageList() {
+			return this.isAmqpMessageList;
+		}
+
 		@Override
 		protected Object extractPayload(org.springframework.amqp.core.Message message) {
 			MessageProperties messageProperties = message.getMessageProperties();
@@ -356,6 +511,7 @@ public class MessagingMessageListenerAdapter extends AbstractAdaptableMessageLis
 					boolean messageHasGeneric = paramType instanceof ParameterizedType
 							&& ((ParameterizedType) paramType).getRawType().equals(Message.class);
 					this.isMessageList = paramType.equals(Message.class) || messageHasGeneric;
+					this.isAmqpMessageList = paramType.equals(org.springframework.amqp.core.Message.class);
 					if (messageHasGeneric) {
 						genericParameterType = ((ParameterizedType) paramType).getActualTypeArguments()[0];
 					}
@@ -16,6 +16,8 @@
 
 package org.springframework.amqp.rabbit.listener.api;
 
+import java.util.List;
+
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.MessageListener;
 
@@ -45,4 +47,15 @@ public interface ChannelAwareMessageListener extends MessageListener {
 		throw new IllegalStateException("Should never be called for a ChannelAwareMessageListener");
 	}
 
+	/**
+	 * Callback for processing a batch of received Rabbit messages.
+	 * @param messages the received AMQP messages.
+	 * @param channel the underlying Rabbit Channel.
+	 * @throws Exception Any.
+	 * @since 2.2
+	 */
+	default void onMessageBatch(List<Message> messages, Channel channel) throws Exception { // NOSONAR
+		throw new UnsupportedOperationException("This listener does not support message batches");
+	}
+
 }
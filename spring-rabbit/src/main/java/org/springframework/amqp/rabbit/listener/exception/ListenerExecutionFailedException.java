@@ -16,6 +16,9 @@
 
 package org.springframework.amqp.rabbit.listener.exception;
 
+import java.util.Collections;
+import java.util.List;
+
 import org.springframework.amqp.AmqpException;
 import org.springframework.amqp.core.Message;
 
@@ -33,6 +36,8 @@ public class ListenerExecutionFailedException extends AmqpException {
 
 	private final Message failedMessage;
 
+	private final List<Message> failedMessages;
+
 	/**
 	 * Constructor for ListenerExecutionFailedException.
 	 * @param msg the detail message
@@ -42,10 +47,35 @@ public class ListenerExecutionFailedException extends AmqpException {
 	public ListenerExecutionFailedException(String msg, Throwable cause, Message failedMessage) {
 		super(msg, cause);
 		this.failedMessage = failedMessage;
+		this.failedMessages = failedMessage == null
+				? Collections.emptyList()
+				: Collections.singletonList(failedMessage);
+	}
+
+	/**
+	 * Constructor for ListenerExecutionFailedException when a batch of messages failed.
+	 * @param msg the detail message
+	 * @param cause the exception thrown by the listener method
+	 * @param failedMessages the messages that failed
+	 * @since 2.2
+	 */
+	public ListenerExecutionFailedException(String msg, Throwable cause, List<Message> failedMessages) {
+		super(msg, cause);
+		this.failedMessage = failedMessages.isEmpty() ? null : failedMessages.get(0);
+		this.failedMessages = Collections.unmodifiableList(failedMessages);
 	}
 
 	public Message getFailedMessage() {
 		return this.failedMessage;
 	}
 
+	/**
+	 * Return the failed messages; a single message unless a batch listener failed.
+	 * @return the messages.
+	 * @since 2.2
+	 */
+	public List<Message> getFailedMessages() {
+		return this.failedMessages;
+	}
+
 }
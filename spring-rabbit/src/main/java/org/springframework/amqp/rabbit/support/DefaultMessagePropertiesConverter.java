@@ -16,6 +16,7 @@
 
 package org.springframework.amqp.rabbit.support;
 
+import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -28,6 +29,7 @@ import org.springframework.amqp.core.MessageDeliveryMode;
 import org.springframework.amqp.core.MessageProperties;
 import org.springframework.lang.Nullable;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
 import com.rabbitmq.client.AMQP.BasicProperties;
@@ -50,6 +52,14 @@ public class DefaultMessagePropertiesConverter implements MessagePropertiesConve
 
 	private final boolean convertLongLongStrings;
 
+	private final boolean toMessagePropertiesOverridden;
+
+	private MessageProperties template;
+
+	private Map<String, Object> templateHeaders = Collections.emptyMap();
+
+	private HeaderStringCache stringCache;
+
 	/**
 	 * Construct an instance where {@link LongString}s will be returned
 	 * unconverted when longer than 1024 bytes.
@@ -80,16 +90,49 @@ public class DefaultMessagePropertiesConverter implements MessagePropertiesConve
 	public DefaultMessagePropertiesConverter(int longStringLimit, boolean convertLongLongStrings) {
 		this.longStringLimit = longStringLimit;
 		this.convertLongLongStrings = convertLongLongStrings;
+		Method toMessageProperties = ReflectionUtils.findMethod(getClass(), "toMessageProperties",
+				BasicProperties.class, Envelope.class, String.class);
+		this.toMessagePropertiesOverridden = toMessageProperties != null
+				&& !DefaultMessagePropertiesConverter.class.equals(toMessageProperties.getDeclaringClass());
 	}
 
 	@Override
 	public MessageProperties toMessageProperties(final BasicProperties source, final Envelope envelope,
 			final String charset) {
 		MessageProperties target = new MessageProperties();
+		copyProperties(source, target, charset);
+		copyEnvelope(envelope, target);
+		return target;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The returned properties are converted when first accessed, unless this class is
+	 * subclassed and {@link #toMessageProperties(BasicProperties, Envelope, String)} is
+	 * overridden, in which case they are converted eagerly.
+	 */
+	@Override
+	public MessageProperties toLazyMessageProperties(BasicProperties source, @Nullable Envelope envelope,
+			String charset) {
+
+		if (this.toMessagePropertiesOverridden) {
+			return toMessageProperties(source, envelope, charset);
+		}
+		return new LazyMessageProperties(this, source, envelope, charset);
+	}
+
+	/**
+	 * Copy the properties (except those from the envelope) to the target.
+	 * @param source the source.
+	 * @param target the target.
+	 * @param charset the charset.
+	 */
+	void copyProperties(BasicProperties source, MessageProperties target, String charset) {
 		Map<String, Object> headers = source.getHeaders();
 		if (!CollectionUtils.isEmpty(headers)) {
 			for (Map.Entry<String, Object> entry : headers.entrySet()) {
-				String key = entry.getKey();
+				String key = internName(entry.getKey());
 				if (MessageProperties.X_DELAY.equals(key)) {
 					Object value = entry.getValue();
 					if (value instanceof Integer) {
@@ -124,42 +167,101 @@ public class DefaultMessagePropertiesConverter implements MessagePropertiesConve
 		if (replyTo != null) {
 			target.setReplyTo(replyTo);
 		}
+	}
+
+	static void copyEnvelope(@Nullable Envelope envelope, MessageProperties target) {
 		if (envelope != null) {
 			target.setReceivedExchange(envelope.getExchange());
 			target.setReceivedRoutingKey(envelope.getRoutingKey());
 			target.setRedelivered(envelope.isRedeliver());
 			target.setDeliveryTag(envelope.getDeliveryTag());
 		}
-		return target;
+	}
+
+	/**
+	 * Set the size of a cache for inbound header names and short (up to 64 bytes) header
+	 * values, so that messages share the {@link String} instances for repeated names and
+	 * values and, on a cache hit, the value does not need to be decoded. The cache is
+	 * bounded; when a name or value hashes to an occupied slot, it replaces the previous
+	 * entry. Useful when the headers have a small set of names and values, especially
+	 * when many messages are retained (for example, when batching). Default 0 (no cache).
+	 * @param size the number of names (and values) to cache; rounded up to a power of 2.
+	 * @since 2.2
+	 */
+	public void setHeaderCacheSize(int size) {
+		this.stringCache = size > 0 ? new HeaderStringCache(size) : null;
+	}
+
+	/**
+	 * Set a template for outbound properties. The template's headers are added to every
+	 * outbound message that does not have a header with the same name; they are
+	 * converted once, and messages without headers of their own share a single
+	 * (unmodifiable) headers map. The template's {@code userId}, {@code appId},
+	 * {@code clusterId}, {@code type} and {@code expiration} are used when the message's
+	 * value is null.
+	 * @param template the template; null to remove.
+	 * @since 2.2
+	 */
+	public void setPropertiesTemplate(@Nullable MessageProperties template) {
+		if (template == null) {
+			this.template = null;
+			this.templateHeaders = Collections.emptyMap();
+		}
+		else {
+			this.templateHeaders = Collections.unmodifiableMap(convertHeadersIfNecessary(template.getHeaders()));
+			MessageProperties copy = new MessageProperties();
+			copy.setUserId(template.getUserId());
+			copy.setAppId(template.getAppId());
+			copy.setClusterId(template.getClusterId());
+			copy.setType(template.getType());
+			copy.setExpiration(template.getExpiration());
+			this.template = copy;
+		}
 	}
 
 	@Override
 	public BasicProperties fromMessageProperties(final MessageProperties source, final String charset) {
-		BasicProperties.Builder target = new BasicProperties.Builder();
-		target.headers(this.convertHeadersIfNecessary(source.getHeaders()))
-			.timestamp(source.getTimestamp())
-			.messageId(source.getMessageId())
-			.userId(source.getUserId())
-			.appId(source.getAppId())
-			.clusterId(source.getClusterId())
-			.type(source.getType());
+		MessageProperties defaults = this.template;
 		MessageDeliveryMode deliveryMode = source.getDeliveryMode();
-		if (deliveryMode != null) {
-			target.deliveryMode(MessageDeliveryMode.toInt(deliveryMode));
-		}
-		target.expiration(source.getExpiration())
-			.priority(source.getPriority())
-			.contentType(source.getContentType())
-			.contentEncoding(source.getContentEncoding());
 		String correlationId = source.getCorrelationId();
-		if (StringUtils.hasText(correlationId)) {
-			target.correlationId(correlationId);
+		return new BasicProperties(
+				source.getContentType(),
+				source.getContentEncoding(),
+				headers(source),
+				deliveryMode == null ? null : MessageDeliveryMode.toInt(deliveryMode),
+				source.getPriority(),
+				StringUtils.hasText(correlationId) ? correlationId : null,
+				source.getReplyTo(),
+				defaults == null ? source.getExpiration() : orDefault(source.getExpiration(), defaults.getExpiration()),
+				source.getMessageId(),
+				source.getTimestamp(),
+				defaults == null ? source.getType() : orDefault(source.getType(), defaults.getType()),
+				defaults == null ? source.getUserId() : orDefault(source.getUserId(), defaults.getUserId()),
+				defaults == null ? source.getAppId() : orDefault(source.getAppId(), defaults.getAppId()),
+				defaults == null ? source.getClusterId() : orDefault(source.getClusterId(), defaults.getClusterId()));
+	}
+
+	private Map<String, Object> headers(MessageProperties source) {
+		Map<String, Object> constant = this.templateHeaders;
+		if (!source.hasHeaders()) {
+			return constant;
 		}
-		String replyTo = source.getReplyTo();
-		if (replyTo != null) {
-			target.replyTo(replyTo);
+		Map<String, Object> headers = source.getHeaders();
+		Map<String, Object> writableHeaders = new HashMap<>(capacity(constant.size() + headers.size()));
+		writableHeaders.putAll(constant);
+		for (Map.Entry<String, Object> entry : headers.entrySet()) {
+			writableHeaders.put(entry.getKey(), convertHeaderValueIfNecessary(entry.getValue()));
 		}
-		return target.build();
+		return writableHeaders;
+	}
+
+	private static int capacity(int size) {
+		return (int) (size / 0.75f) + 1; // NOSONAR magic #
+	}
+
+	@Nullable
+	private static String orDefault(@Nullable String value, @Nullable String defaultValue) {
+		return value != null ? value : defaultValue;
 	}
 
 	private Map<String, Object> convertHeadersIfNecessary(Map<String, Object> headers) {
@@ -231,7 +333,10 @@ public class DefaultMessagePropertiesConverter implements MessagePropertiesConve
 	private Object convertLongString(LongString longString, String charset) {
 		try {
 			if (longString.length() <= this.longStringLimit) {
-				return new String(longString.getBytes(), charset);
+				HeaderStringCache cache = this.stringCache;
+				return cache != null
+						? cache.value(longString.getBytes(), charset)
+						: new String(longString.getBytes(), charset);
 			}
 			else {
 				return this.convertLongLongStrings ? longString.getStream() : longString;
@@ -242,6 +347,11 @@ public class DefaultMessagePropertiesConverter implements MessagePropertiesConve
 		}
 	}
 
+	private String internName(String name) {
+		HeaderStringCache cache = this.stringCache;
+		return cache != null ? cache.name(name) : name;
+	}
+
 	/**
 	 * Converts a LongString value using {@link #convertLongString(LongString, String)}, also handling values
 	 * nested in Lists or Maps.
@@ -249,7 +359,7 @@ public class DefaultMessagePropertiesConverter implements MessagePropertiesConve
 	 * @param charset the charset.
 	 * @return the converted string.
 	 */
-	private Object convertLongStringIfNecessary(Object valueArg, String charset) {
+	Object convertLongStringIfNecessary(Object valueArg, String charset) {
 		Object value = valueArg;
 		if (value instanceof LongString) {
 			value = convertLongString((LongString) value, charset);
@@ -266,7 +376,7 @@ public class DefaultMessagePropertiesConverter implements MessagePropertiesConve
 			Map<String, Object> originalMap = (Map<String, Object>) value;
 			Map<String, Object> convertedMap = new HashMap<String, Object>();
 			for (Map.Entry<String, Object> entry : originalMap.entrySet()) {
-				convertedMap.put(entry.getKey(), this.convertLongStringIfNecessary(entry.getValue(), charset));
+				convertedMap.put(internName(entry.getKey()), this.convertLongStringIfNecessary(entry.getValue(), charset));
 			}
 			value = convertedMap;
 		}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.rabbit.support;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
+
+import org.springframework.util.Assert;
+
+/**
+ * A bounded, lock-free cache of inbound header names and short header values. Each name
+ * or value hashes to a single slot; a miss replaces the slot's entry so that a stream of
+ * unique values cannot grow the cache, and the most frequent strings tend to stay
+ * resident. Values are looked up by their encoded bytes, so a hit skips decoding as well
+ * as sharing the {@link String} between retained messages.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+final class HeaderStringCache {
+
+	/**
+	 * Longer values are decoded but not cached; they are unlikely to be repeated.
+	 */
+	static final int MAX_VALUE_LENGTH = 64;
+
+	private final String[] names;
+
+	private final Value[] values;
+
+	private final int mask;
+
+	HeaderStringCache(int size) {
+		Assert.isTrue(size > 0, "'size' must be greater than zero");
+		int capacity = Integer.highestOneBit(size);
+		if (capacity < size) {
+			capacity <<= 1;
+		}
+		this.names = new String[capacity];
+		this.values = new Value[capacity];
+		this.mask = capacity - 1;
+	}
+
+	/**
+	 * Return a cached instance equal to the name, caching the name if there is none.
+	 * @param name the name.
+	 * @return the cached instance.
+	 */
+	String name(String name) {
+		int index = spread(name.hashCode()) & this.mask;
+		String cached = this.names[index];
+		if (name.equals(cached)) {
+			return cached;
+		}
+		this.names[index] = name;
+		return name;
+	}
+
+	/**
+	 * Return the decoded value, from the cache if possible.
+	 * @param bytes the encoded value.
+	 * @param charset the charset.
+	 * @return the value.
+	 * @throws UnsupportedEncodingException if the charset is not supported.
+	 */
+	String value(byte[] bytes, String charset) throws UnsupportedEncodingException {
+		if (bytes.length > MAX_VALUE_LENGTH) {
+			return new String(bytes, charset);
+		}
+		int index = spread(Arrays.hashCode(bytes)) & this.mask;
+		Value cached = this.values[index];
+		if (cached != null && cached.charset.equals(charset) && Arrays.equals(cached.bytes, bytes)) {
+			return cached.string;
+		}
+		String string = new String(bytes, charset);
+		this.values[index] = new Value(bytes.clone(), charset, string);
+		return string;
+	}
+
+	private static int spread(int hash) {
+		return hash ^ (hash >>> 16); // NOSONAR magic #
+	}
+
+	/**
+	 * Immutable, so entries are safely published to other threads; a lost update when
+	 * two threads replace the same slot only costs a later miss.
+	 */
+	private static final class Value {
+
+		final byte[] bytes; // NOSONAR
+
+		final String charset;
+
+		final String string;
+
+		Value(byte[] bytes, String charset, String string) {
+			this.bytes = bytes;
+			this.charset = charset;
+			this.string = string;
+		}
+
+	}
+
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.amqp.rabbit.support;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.util.Assert;
+
+/**
+ * A lock-free histogram of latencies in nanoseconds, with buckets laid out in the same
+ * way as an HDR histogram: each power of two is divided into {@value #SUB_BUCKETS}
+ * linear sub-buckets, so recorded values keep about two significant digits at any
+ * magnitude. Recording is a few arithmetic operations and an atomic increment; it never
+ * allocates or blocks, so it can be used on the delivery thread.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+public final class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 6;
+
+	/**
+	 * The number of sub-buckets in each power of two.
+	 */
+	static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private static final double PERCENT = 100.0; // NOSONAR magic #
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+	private final LongAdder count = new LongAdder();
+
+	private final LongAdder total = new LongAdder();
+
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Record a latency; negative values (which can occur when the publisher's clock is
+	 * ahead of the consumer's) are recorded as zero.
+	 * @param nanos the latency in nanoseconds.
+	 */
+	public void record(long nanos) {
+		long value = Math.max(0L, nanos);
+		this.counts.incrementAndGet(index(value));
+		this.count.increment();
+		this.total.add(value);
+		if (value > this.max.get()) {
+			this.max.accumulateAndGet(value, Math::max);
+		}
+	}
+
+	/**
+	 * Return the number of recorded values.
+	 * @return the count.
+	 */
+	public long getCount() {
+		return this.count.sum();
+	}
+
+	/**
+	 * Return the largest recorded value.
+	 * @return the maximum in nanoseconds.
+	 */
+	public long getMax() {
+		return this.max.get();
+	}
+
+	/**
+	 * Return the mean of the recorded values.
+	 * @return the mean in nanoseconds, or 0 if no values have been recorded.
+	 */
+	public double getMean() {
+		long n = this.count.sum();
+		return n == 0 ? 0 : (double) this.total.sum() / n;
+	}
+
+	/**
+	 * Return the value at the percentile; the result is the highest value that is
+	 * equivalent to the recorded values at that percentile (the upper bound of its
+	 * bucket), but no higher than {@link #getMax()}.
+	 * @param percentile the percentile (0 to 100).
+	 * @return the value in nanoseconds, or 0 if no values have been recorded.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		Assert.isTrue(percentile >= 0 && percentile <= PERCENT, "'percentile' must be between 0 and 100");
+		long n = 0;
+		long[] snapshot = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			snapshot[i] = this.counts.get(i);
+			n += snapshot[i];
+		}
+		if (n == 0) {
+			return 0;
+		}
+		long rank = Math.max(1L, (long) Math.ceil(percentile / PERCENT * n));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += snapshot[i];
+			if (seen >= rank) {
+				return Math.min(highestEquivalentValue(i), this.max.get());
+			}
+		}
+		return this.max.get();
+	}
+
+	/**
+	 * Clear the recorded values; values recorded concurrently might or might not be
+	 * retained.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			this.counts.set(i, 0);
+		}
+		this.count.reset();
+		this.total.reset();
+		this.max.set(0);
+	}
+
+	static int index(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int msb = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+		int shift = msb - SUB_BUCKET_BITS;
+		return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) - SUB_BUCKETS);
+	}
+
+	static long highestEquivalentValue(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int shift = (index >>> SUB_BUCKET_BITS) - 1;
+		long lowest = (long) (SUB_BUCKETS + (index & (SUB_BUCKETS - 1))) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+	@Override
+	public String toString() {
+		return "LatencyHistogram [count=" + getCount() + ", mean=" + getMean() + ", max=" + getMax() + "]";
+	}
+
+}
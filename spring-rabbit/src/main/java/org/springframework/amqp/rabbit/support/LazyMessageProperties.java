@@ -0,0 +1,360 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.rabbit.support;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.amqp.core.Address;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.MessagePropertiesBuilder;
+import org.springframework.lang.Nullable;
+
+import com.rabbitmq.client.AMQP.BasicProperties;
+import com.rabbitmq.client.Envelope;
+
+/**
+ * {@link MessageProperties} that are converted from the {@link BasicProperties} when
+ * first accessed; listeners that only use the message body do not pay for converting the
+ * properties and headers. The envelope properties (such as the delivery tag) are set
+ * eagerly, and single headers can be read (for example, to check for a batch) without
+ * converting the others.
+ * <p>
+ * Equality is based on the content, so an instance is equal to a plain
+ * {@link MessageProperties} with the same values; it is serialized as a plain
+ * {@link MessageProperties}.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+@SuppressWarnings("serial")
+final class LazyMessageProperties extends MessageProperties {
+
+	private final transient DefaultMessagePropertiesConverter converter;
+
+	private final transient String charset;
+
+	private transient volatile BasicProperties source;
+
+	private transient boolean converting;
+
+	LazyMessageProperties(DefaultMessagePropertiesConverter converter, BasicProperties source,
+			@Nullable Envelope envelope, String charset) {
+
+		this.converter = converter;
+		this.source = source;
+		this.charset = charset;
+		DefaultMessagePropertiesConverter.copyEnvelope(envelope, this);
+	}
+
+	private void convert() {
+		if (this.source != null) {
+			synchronized (this) {
+				BasicProperties properties = this.source;
+				if (properties != null && !this.converting) {
+					this.converting = true;
+					try {
+						this.converter.copyProperties(properties, this, this.charset);
+						this.source = null;
+					}
+					finally {
+						this.converting = false;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Return true if the properties have not yet been converted.
+	 * @return true if not converted.
+	 */
+	boolean isLazy() {
+		return this.source != null;
+	}
+
+	@Override
+	public void setHeader(String key, Object value) {
+		convert();
+		super.setHeader(key, value);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T getHeader(String headerName) {
+		BasicProperties properties = this.source;
+		if (properties != null) {
+			Map<String, Object> headers = properties.getHeaders();
+			if (headers == null || MessageProperties.X_DELAY.equals(headerName)) {
+				return null;
+			}
+			Object value = headers.get(headerName);
+			if (!(value instanceof List || value instanceof Map)) { // mutable values are converted with the rest
+				return value == null ? null : (T) this.converter.convertLongStringIfNecessary(value, this.charset);
+			}
+		}
+		convert();
+		return super.getHeader(headerName);
+	}
+
+	@Override
+	public Map<String, Object> getHeaders() {
+		convert();
+		return super.getHeaders();
+	}
+
+	@Override
+	public boolean hasHeaders() {
+		BasicProperties properties = this.source;
+		if (properties != null) {
+			Map<String, Object> headers = properties.getHeaders();
+			return headers != null && headers.size() > (headers.containsKey(MessageProperties.X_DELAY) ? 1 : 0);
+		}
+		return super.hasHeaders();
+	}
+
+	@Override
+	public void setDelay(Integer delay) {
+		convert();
+		super.setDelay(delay);
+	}
+
+	@Override
+	public void setTimestamp(Date timestamp) {
+		convert();
+		super.setTimestamp(timestamp);
+	}
+
+	@Override
+	public Date getTimestamp() {
+		convert();
+		return super.getTimestamp();
+	}
+
+	@Override
+	public void setMessageId(String messageId) {
+		convert();
+		super.setMessageId(messageId);
+	}
+
+	@Override
+	public String getMessageId() {
+		convert();
+		return super.getMessageId();
+	}
+
+	@Override
+	public String getReceivedUserId() {
+		convert();
+		return super.getReceivedUserId();
+	}
+
+	@Override
+	public void setReceivedUserId(String receivedUserId) {
+		convert();
+		super.setReceivedUserId(receivedUserId);
+	}
+
+	@Override
+	public void setAppId(String appId) {
+		convert();
+		super.setAppId(appId);
+	}
+
+	@Override
+	public String getAppId() {
+		convert();
+		return super.getAppId();
+	}
+
+	@Override
+	public void setClusterId(String clusterId) {
+		convert();
+		super.setClusterId(clusterId);
+	}
+
+	@Override
+	public String getClusterId() {
+		convert();
+		return super.getClusterId();
+	}
+
+	@Override
+	public void setType(String type) {
+		convert();
+		super.setType(type);
+	}
+
+	@Override
+	public String getType() {
+		convert();
+		return super.getType();
+	}
+
+	@Override
+	public void setCorrelationId(String correlationId) {
+		convert();
+		super.setCorrelationId(correlationId);
+	}
+
+	@Override
+	public String getCorrelationId() {
+		convert();
+		return super.getCorrelationId();
+	}
+
+	@Override
+	public void setReplyTo(String replyTo) {
+		convert();
+		super.setReplyTo(replyTo);
+	}
+
+	@Override
+	public String getReplyTo() {
+		convert();
+		return super.getReplyTo();
+	}
+
+	@Override
+	public void setReplyToAddress(Address replyTo) {
+		convert();
+		super.setReplyToAddress(replyTo);
+	}
+
+	@Override
+	public Address getReplyToAddress() {
+		convert();
+		return super.getReplyToAddress();
+	}
+
+	@Override
+	public void setContentType(String contentType) {
+		convert();
+		super.setContentType(contentType);
+	}
+
+	@Override
+	public String getContentType() {
+		convert();
+		return super.getContentType();
+	}
+
+	@Override
+	public void setContentEncoding(String contentEncoding) {
+		convert();
+		super.setContentEncoding(contentEncoding);
+	}
+
+	@Override
+	public String getContentEncoding() {
+		convert();
+		return super.getContentEncoding();
+	}
+
+	@Override
+	public void setDeliveryMode(MessageDeliveryMode deliveryMode) {
+		convert();
+		super.setDeliveryMode(deliveryMode);
+	}
+
+	@Override
+	public MessageDeliveryMode getDeliveryMode() {
+		convert();
+		return super.getDeliveryMode();
+	}
+
+	@Override
+	public MessageDeliveryMode getReceivedDeliveryMode() {
+		convert();
+		return super.getReceivedDeliveryMode();
+	}
+
+	@Override
+	public void setReceivedDeliveryMode(MessageDeliveryMode receivedDeliveryMode) {
+		convert();
+		super.setReceivedDeliveryMode(receivedDeliveryMode);
+	}
+
+	@Override
+	public void setExpiration(String expiration) {
+		convert();
+		super.setExpiration(expiration);
+	}
+
+	@Override
+	public String getExpiration() {
+		convert();
+		return super.getExpiration();
+	}
+
+	@Override
+	public void setPriority(Integer priority) {
+		convert();
+		super.setPriority(priority);
+	}
+
+	@Override
+	public Integer getPriority() {
+		convert();
+		return super.getPriority();
+	}
+
+	@Override
+	public Integer getReceivedDelay() {
+		convert();
+		return super.getReceivedDelay();
+	}
+
+	@Override
+	public void setReceivedDelay(Integer receivedDelay) {
+		convert();
+		super.setReceivedDelay(receivedDelay);
+	}
+
+	@Override
+	public int hashCode() {
+		convert();
+		return super.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		Object other = obj instanceof LazyMessageProperties ? ((LazyMessageProperties) obj).copy() : obj;
+		return copy().equals(other);
+	}
+
+	@Override
+	public String toString() {
+		convert();
+		return super.toString();
+	}
+
+	private Object writeReplace() {
+		return copy();
+	}
+
+	private MessageProperties copy() {
+		return MessagePropertiesBuilder.fromClonedProperties(this).build();
+	}
+
+}
@@ -33,6 +33,22 @@ public interface MessagePropertiesConverter {
 
 	MessageProperties toMessageProperties(BasicProperties source, @Nullable Envelope envelope, String charset);
 
+	/**
+	 * Convert to {@link MessageProperties}, deferring the conversion of the
+	 * {@link BasicProperties} (and headers) until they are first accessed, if supported.
+	 * The default implementation converts eagerly.
+	 * @param source the source properties.
+	 * @param envelope the envelope.
+	 * @param charset the charset.
+	 * @return the message properties.
+	 * @since 2.2
+	 */
+	default MessageProperties toLazyMessageProperties(BasicProperties source, @Nullable Envelope envelope,
+			String charset) {
+
+		return toMessageProperties(source, envelope, charset);
+	}
+
 	BasicProperties fromMessageProperties(MessageProperties source, String charset);
 
 }
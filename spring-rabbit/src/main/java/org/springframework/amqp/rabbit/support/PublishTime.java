@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.amqp.rabbit.support;
+
+/**
+ * Support for the publish time header used to measure the latency between publishing a
+ * message and its delivery to a listener container. The time is in nanoseconds since the
+ * epoch: {@link System#currentTimeMillis()} is sampled and advanced with
+ * {@link System#nanoTime()}, and it is re-sampled every second so that it does not drift
+ * from the wall clock. A re-sample only moves the time back if the wall clock is more than
+ * a millisecond behind, so successive values within a process do not normally decrease.
+ * <p>
+ * The resolution is one nanosecond, but the accuracy is not: the wall clock has a
+ * granularity of a millisecond, so the time can be up to about a millisecond off, and
+ * between processes it is only as good as the clock synchronization of the hosts.
+ * Latencies below a millisecond or so should therefore be treated as approximate.
+ *
+ * @author agent
+ * @since 2.2
+ *
+ */
+public final class PublishTime {
+
+	/**
+	 * The header containing the publish time in nanoseconds since the epoch.
+	 */
+	public static final String HEADER = "spring_publish_time_nanos";
+
+	private static final long NANOS_PER_MILLI = 1_000_000L;
+
+	private static final long RESAMPLE_INTERVAL = 1_000_000_000L;
+
+	private static volatile Anchor anchor = new Anchor(System.nanoTime(), 0L);
+
+	private PublishTime() {
+		super();
+	}
+
+	/**
+	 * Return the current time in nanoseconds since the epoch.
+	 * @return the time.
+	 */
+	public static long currentTimeNanos() {
+		long nanos = System.nanoTime();
+		Anchor current = anchor;
+		if (nanos - current.nanoTime > RESAMPLE_INTERVAL) {
+			current = new Anchor(nanos, current.epochNanos + (nanos - current.nanoTime));
+			anchor = current;
+		}
+		return current.epochNanos + (nanos - current.nanoTime);
+	}
+
+	/**
+	 * A wall clock sample and the {@link System#nanoTime()} it was taken at; the
+	 * previous time is kept if the sample is behind it by less than the wall clock
+	 * granularity.
+	 */
+	private static final class Anchor {
+
+		private final long nanoTime;
+
+		private final long epochNanos;
+
+		Anchor(long nanoTime, long previous) {
+			this.nanoTime = nanoTime;
+			long sampled = System.currentTimeMillis() * NANOS_PER_MILLI;
+			this.epochNanos = sampled < previous && previous - sampled < NANOS_PER_MILLI ? previous : sampled;
+		}
+
+	}
+
+}
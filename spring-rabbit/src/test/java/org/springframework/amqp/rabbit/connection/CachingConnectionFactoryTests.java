@@ -59,19 +59,25 @@ import java.util.concurrent.atomic.AtomicReference;
 import org.apache.commons.logging.Log;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 
 import org.springframework.amqp.AmqpConnectException;
 import org.springframework.amqp.AmqpTimeoutException;
 import org.springframework.amqp.rabbit.connection.CachingConnectionFactory.CacheMode;
 import org.springframework.amqp.utils.test.TestUtils;
+import org.springframework.context.support.GenericApplicationContext;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import com.rabbitmq.client.Address;
+import com.rabbitmq.client.BlockedListener;
 import com.rabbitmq.client.Channel;
 import com.rabbitmq.client.ConnectionFactory;
 import com.rabbitmq.client.GetResponse;
+import com.rabbitmq.client.ShutdownListener;
 import com.rabbitmq.client.ShutdownSignalException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 /**
  * @author Mark Pollack
@@ -122,6 +128,86 @@ public class CachingConnectionFactoryTests extends AbstractConnectionFactoryTest
 		verify(mockChannel, never()).close();
 	}
 
+	@Test
+	public void testMetrics() throws Exception {
+		com.rabbitmq.client.ConnectionFactory mockConnectionFactory = mock(com.rabbitmq.client.ConnectionFactory.class);
+		com.rabbitmq.client.Connection mockConnection = mock(com.rabbitmq.client.Connection.class);
+		Channel mockChannel1 = mock(Channel.class);
+		Channel mockChannel2 = mock(Channel.class);
+
+		when(mockConnectionFactory.newConnection(any(ExecutorService.class), anyString())).thenReturn(mockConnection);
+		when(mockConnection.createChannel()).thenReturn(mockChannel1, mockChannel2);
+		when(mockChannel1.isOpen()).thenReturn(true);
+		when(mockChannel2.isOpen()).thenReturn(true);
+		when(mockConnection.isOpen()).thenReturn(true);
+
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.registerBean(MeterRegistry.class, () -> registry);
+		context.refresh();
+		CachingConnectionFactory ccf = new CachingConnectionFactory(mockConnectionFactory);
+		ccf.setExecutor(mock(ExecutorService.class));
+		ccf.setChannelCacheSize(2);
+		ccf.setChannelCheckoutTimeout(1000);
+		ccf.setBeanName("ccf");
+		ccf.setApplicationContext(context);
+		ccf.afterPropertiesSet();
+		Connection con = ccf.createConnection();
+
+		Channel channel1 = con.createChannel(false);
+		Channel channel2 = con.createChannel(false);
+		assertThat(registry.get(ConnectionFactoryMetrics.CHANNELS).tag("state", "busy").gauge().value())
+				.isEqualTo(2);
+		channel1.close();
+		assertThat(registry.get(ConnectionFactoryMetrics.CHANNELS).tag("state", "busy").gauge().value())
+				.isEqualTo(1);
+		assertThat(registry.get(ConnectionFactoryMetrics.CHANNELS).tag("state", "idle").gauge().value())
+				.isEqualTo(1);
+		Channel channel3 = con.createChannel(false);
+		assertThat(channel3).isSameAs(channel1);
+		assertThat(registry.get(ConnectionFactoryMetrics.CHANNELS).tag("state", "idle").gauge().value())
+				.isEqualTo(0);
+		channel2.close();
+		channel3.close();
+		assertThat(registry.get(ConnectionFactoryMetrics.CHANNELS).tag("state", "busy").gauge().value())
+				.isEqualTo(0);
+		assertThat(registry.get(ConnectionFactoryMetrics.CHANNELS).tag("state", "idle").gauge().value())
+				.isEqualTo(2);
+		assertThat(registry.get(ConnectionFactoryMetrics.HIGH_WATER).gauge().value()).isEqualTo(2);
+		assertThat(registry.get(ConnectionFactoryMetrics.CREATED).tag("connection.factory", "ccf")
+				.counter().count()).isEqualTo(2);
+		assertThat(registry.get(ConnectionFactoryMetrics.CLOSED).tag("type", "logical").counter().count())
+				.isEqualTo(3);
+		assertThat(registry.get(ConnectionFactoryMetrics.CHECKOUT).tag("result", "acquired").timer().count())
+				.isEqualTo(3);
+		Channel channel4 = con.createChannel(false);
+		assertThat(registry.get(ConnectionFactoryMetrics.CHANNELS).tag("state", "busy").gauge().value())
+				.isEqualTo(1);
+		RabbitUtils.setPhysicalCloseRequired(channel4, true);
+		channel4.close();
+		channel4.close();
+		assertThat(registry.get(ConnectionFactoryMetrics.CHANNELS).tag("state", "busy").gauge().value())
+				.isEqualTo(0);
+
+		ArgumentCaptor<BlockedListener> blockedListener = ArgumentCaptor.forClass(BlockedListener.class);
+		verify(mockConnection).addBlockedListener(blockedListener.capture());
+		blockedListener.getValue().handleBlocked("test");
+		assertThat(registry.get(ConnectionFactoryMetrics.BLOCKED_CURRENT).gauge().value()).isEqualTo(1);
+		blockedListener.getValue().handleUnblocked();
+		assertThat(registry.get(ConnectionFactoryMetrics.BLOCKED_CURRENT).gauge().value()).isEqualTo(0);
+		assertThat(registry.get(ConnectionFactoryMetrics.BLOCKED).timer().count()).isEqualTo(1);
+		blockedListener.getValue().handleBlocked("test");
+		verify(mockConnection).addShutdownListener((ShutdownListener) blockedListener.getValue());
+		((ShutdownListener) blockedListener.getValue())
+				.shutdownCompleted(new ShutdownSignalException(true, false, null, null));
+		assertThat(registry.get(ConnectionFactoryMetrics.BLOCKED_CURRENT).gauge().value()).isEqualTo(0);
+		assertThat(registry.get(ConnectionFactoryMetrics.BLOCKED).timer().count()).isEqualTo(2);
+
+		ccf.destroy();
+		assertThat(registry.find(ConnectionFactoryMetrics.CHANNELS).meters()).isEmpty();
+		context.close();
+	}
+
 	@Test
 	public void testPublisherConnection() throws Exception {
 		com.rabbitmq.client.ConnectionFactory mockConnectionFactory = mock(com.rabbitmq.client.ConnectionFactory.class);
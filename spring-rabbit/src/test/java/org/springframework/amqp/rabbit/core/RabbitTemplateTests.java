@@ -21,8 +21,10 @@ import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
 import static org.assertj.core.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willAnswer;
@@ -44,6 +46,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 import org.springframework.amqp.AmqpAuthenticationException;
@@ -57,11 +60,14 @@ import org.springframework.amqp.core.ReceiveAndReplyCallback;
 import org.springframework.amqp.rabbit.connection.AbstractRoutingConnectionFactory;
 import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
 import org.springframework.amqp.rabbit.connection.ChannelProxy;
+import org.springframework.amqp.rabbit.connection.PendingConfirm;
 import org.springframework.amqp.rabbit.connection.PublisherCallbackChannel;
 import org.springframework.amqp.rabbit.connection.SimpleRoutingConnectionFactory;
 import org.springframework.amqp.rabbit.connection.SingleConnectionFactory;
+import org.springframework.amqp.rabbit.support.PublishTime;
 import org.springframework.amqp.support.converter.SimpleMessageConverter;
 import org.springframework.amqp.utils.SerializationUtils;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.context.ApplicationContext;
 import org.springframework.expression.Expression;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
@@ -84,6 +90,7 @@ import com.rabbitmq.client.ShutdownListener;
 import com.rabbitmq.client.ShutdownSignalException;
 import com.rabbitmq.client.impl.AMQImpl;
 import com.rabbitmq.client.impl.AMQImpl.Queue.DeclareOk;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 /**
  * @author Gary Russell
@@ -268,6 +275,139 @@ public class RabbitTemplateTests {
 		verify(channel).addListener(template);
 	}
 
+	@Test
+	public void testMetrics() {
+		org.springframework.amqp.rabbit.connection.ConnectionFactory cf =
+				mock(org.springframework.amqp.rabbit.connection.ConnectionFactory.class);
+		given(cf.isPublisherConfirms()).willReturn(true);
+		org.springframework.amqp.rabbit.connection.Connection conn =
+				mock(org.springframework.amqp.rabbit.connection.Connection.class);
+		given(cf.createConnection()).willReturn(conn);
+		PublisherCallbackChannel channel = mock(PublisherCallbackChannel.class);
+		given(conn.createChannel(false)).willReturn(channel);
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.registerSingleton("registry", registry);
+		RabbitTemplate template = new RabbitTemplate(cf);
+		template.setBeanName("template");
+		template.setBeanFactory(beanFactory);
+		template.setMicrometerMaxDestinations(2);
+		template.setMicrometerRoutingKeyMapper(rk -> rk.substring(0, rk.indexOf('.')));
+		template.convertAndSend("ex", "orders.1", "foo");
+		template.convertAndSend("ex", "orders.2", "foo");
+		template.convertAndSend("ex", "invoices.1", "foo");
+		template.convertAndSend("ex", "payments.1", "foo");
+		ArgumentCaptor<PendingConfirm> confirms = ArgumentCaptor.forClass(PendingConfirm.class);
+		verify(channel, times(4)).addPendingConfirm(any(), anyLong(), confirms.capture());
+		assertThat(template.isConfirmListener()).isTrue();
+		template.handleConfirm(confirms.getAllValues().get(0), true);
+		template.handleConfirm(confirms.getAllValues().get(1), false);
+		template.handleReturn(312, "NO_ROUTE", "ex", "orders.3",
+				new AMQP.BasicProperties.Builder().headers(new HashMap<>()).build(), new byte[0]);
+		assertThat(registry.get(RabbitTemplateMetrics.SEND)
+				.tags("template.name", "template", "exchange", "ex", "routing.key", "orders")
+				.timer().count()).isEqualTo(2);
+		assertThat(registry.get(RabbitTemplateMetrics.SEND)
+				.tags("exchange", "ex", "routing.key", "invoices")
+				.timer().count()).isEqualTo(1);
+		assertThat(registry.get(RabbitTemplateMetrics.SEND)
+				.tags("exchange", RabbitTemplateMetrics.OTHER, "routing.key", RabbitTemplateMetrics.OTHER)
+				.timer().count()).isEqualTo(1);
+		assertThat(registry.get(RabbitTemplateMetrics.CONFIRM).tags("routing.key", "orders", "result", "ack")
+				.timer().count()).isEqualTo(1);
+		assertThat(registry.get(RabbitTemplateMetrics.CONFIRM).tags("routing.key", "orders", "result", "nack")
+				.timer().count()).isEqualTo(1);
+		assertThat(registry.get(RabbitTemplateMetrics.RETURNS).tags("routing.key", "orders")
+				.counter().count()).isEqualTo(1);
+		template.stop();
+		assertThat(registry.find(RabbitTemplateMetrics.SEND).meters()).isEmpty();
+	}
+
+	@Test
+	public void testMetricsOverflowAfterDestroy() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.registerSingleton("registry", registry);
+		RabbitTemplateMetrics metrics = RabbitTemplateMetrics.create(beanFactory, "template",
+				Collections.emptyMap(), 0, rk -> rk);
+		metrics.reply("ex", "rk", 1_000L, false);
+		assertThat(registry.get(RabbitTemplateMetrics.REPLY)
+				.tags("exchange", RabbitTemplateMetrics.OTHER, "routing.key", RabbitTemplateMetrics.OTHER)
+				.timer().count()).isEqualTo(1);
+		metrics.destroy();
+		assertThat(registry.find(RabbitTemplateMetrics.REPLY).meters()).isEmpty();
+		metrics.reply("ex", "rk", 1_000L, false);
+		assertThat(registry.get(RabbitTemplateMetrics.REPLY)
+				.tags("exchange", RabbitTemplateMetrics.OTHER, "routing.key", RabbitTemplateMetrics.OTHER)
+				.timer().count()).isEqualTo(1);
+	}
+
+	@Test
+	public void testPublishTimeHeader() throws Exception {
+		org.springframework.amqp.rabbit.connection.ConnectionFactory cf =
+				mock(org.springframework.amqp.rabbit.connection.ConnectionFactory.class);
+		org.springframework.amqp.rabbit.connection.Connection conn =
+				mock(org.springframework.amqp.rabbit.connection.Connection.class);
+		given(cf.createConnection()).willReturn(conn);
+		Channel channel = mock(Channel.class);
+		given(conn.createChannel(false)).willReturn(channel);
+		RabbitTemplate template = new RabbitTemplate(cf);
+		template.setPublishTimeHeader(true);
+		long before = PublishTime.currentTimeNanos();
+		template.convertAndSend("ex", "rk", "foo");
+		ArgumentCaptor<AMQP.BasicProperties> props = ArgumentCaptor.forClass(AMQP.BasicProperties.class);
+		verify(channel).basicPublish(eq("ex"), eq("rk"), anyBoolean(), props.capture(), any(byte[].class));
+		assertThat((Long) props.getValue().getHeaders().get(PublishTime.HEADER))
+				.isBetween(before, PublishTime.currentTimeNanos());
+	}
+
+	@Test
+	public void testMetricsTemporaryReplyQueue() throws Exception {
+		ConnectionFactory mockConnectionFactory = mock(ConnectionFactory.class);
+		Connection mockConnection = mock(Connection.class);
+		Channel mockChannel = mock(Channel.class);
+
+		given(mockConnectionFactory.newConnection(any(ExecutorService.class), anyString())).willReturn(mockConnection);
+		given(mockConnection.isOpen()).willReturn(true);
+		given(mockConnection.createChannel()).willReturn(mockChannel);
+		given(mockChannel.queueDeclare()).willReturn(new AMQImpl.Queue.DeclareOk("foo", 0, 0));
+		final AtomicReference<Consumer> consumer = new AtomicReference<Consumer>();
+		willAnswer(invocation -> {
+			consumer.set(invocation.getArgument(6));
+			return null;
+		}).given(mockChannel).basicConsume(anyString(), anyBoolean(), anyString(),
+				anyBoolean(), anyBoolean(), isNull(), any(Consumer.class));
+		final AtomicBoolean reply = new AtomicBoolean(true);
+		willAnswer(invocation -> {
+			if (reply.getAndSet(false)) {
+				consumer.get().handleDelivery("foo", new Envelope(1, false, "", "foo"),
+						new AMQP.BasicProperties(), "reply".getBytes());
+			}
+			return null;
+		}).given(mockChannel).basicPublish(anyString(), anyString(), anyBoolean(), any(), any());
+		SingleConnectionFactory connectionFactory = new SingleConnectionFactory(mockConnectionFactory);
+		connectionFactory.setExecutor(mock(ExecutorService.class));
+		RabbitTemplate template = new RabbitTemplate(connectionFactory);
+		template.setReplyTimeout(1);
+		template.setBeanName("template");
+		assertThat(template.getMetrics()).isNull();
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.registerSingleton("registry", registry);
+		template.setBeanFactory(beanFactory);
+		assertThat(template.getMetrics()).isNotNull();
+		assertThat(template.doSendAndReceiveWithTemporary("ex", "rk",
+				new Message("foo".getBytes(), new MessageProperties()), null)).isNotNull();
+		assertThat(template.doSendAndReceiveWithTemporary("ex", "rk",
+				new Message("foo".getBytes(), new MessageProperties()), null)).isNull();
+		assertThat(registry.get(RabbitTemplateMetrics.REPLY)
+				.tags("template.name", "template", "exchange", "ex", "routing.key", "rk", "result", "success")
+				.timer().count()).isEqualTo(1);
+		assertThat(registry.get(RabbitTemplateMetrics.REPLY)
+				.tags("exchange", "ex", "routing.key", "rk", "result", "timeout")
+				.timer().count()).isEqualTo(1);
+	}
+
 	@Test
 	public void testNoListenerAllowed1() {
 		RabbitTemplate template = new RabbitTemplate();
@@ -33,9 +33,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
@@ -259,9 +257,8 @@ public class BlockingQueueConsumerTests {
 			Channel channel, BlockingQueueConsumer blockingQueueConsumer) throws Exception {
 		DirectFieldAccessor dfa = new DirectFieldAccessor(blockingQueueConsumer);
 		dfa.setPropertyValue("channel", channel);
-		Set<Long> deliveryTags = new HashSet<Long>();
-		deliveryTags.add(1L);
-		dfa.setPropertyValue("deliveryTags", deliveryTags);
+		dfa.setPropertyValue("lastDeliveryTag", 1L);
+		dfa.setPropertyValue("deliveryTagCount", 1);
 		blockingQueueConsumer.rollbackOnExceptionIfNecessary(ex);
 		verify(channel).basicNack(1L, true, expectedRequeue);
 	}
@@ -356,4 +353,47 @@ public class BlockingQueueConsumerTests {
 		verify(channel, times(1)).basicCancel("consumerTag");
 	}
 
+	@Test
+	public void testMultipleAckUsesHighestDeliveryTag() throws Exception {
+		ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+		Connection connection = mock(Connection.class);
+		Channel channel = mock(Channel.class);
+
+		when(connectionFactory.createConnection()).thenReturn(connection);
+		when(connection.createChannel(anyBoolean())).thenReturn(channel);
+		when(channel.isOpen()).thenReturn(true);
+		AtomicReference<Consumer> theConsumer = new AtomicReference<>();
+		doAnswer(inv -> {
+			Consumer consumer = inv.getArgument(6);
+			consumer.handleConsumeOk("consumerTag");
+			theConsumer.set(consumer);
+			return "consumerTag";
+		}).when(channel).basicConsume(anyString(), anyBoolean(), anyString(), anyBoolean(), anyBoolean(),
+				anyMap(), any(Consumer.class));
+
+		BlockingQueueConsumer blockingQueueConsumer = new BlockingQueueConsumer(connectionFactory,
+				new DefaultMessagePropertiesConverter(), new ActiveObjectCounter<BlockingQueueConsumer>(),
+				AcknowledgeMode.AUTO, false, 3, "testQ");
+		blockingQueueConsumer.start();
+
+		BasicProperties props = new BasicProperties.Builder().build();
+		for (long tag = 1; tag <= 3; tag++) {
+			theConsumer.get().handleDelivery("consumerTag", new Envelope(tag, false, "foo", "bar"), props,
+					new byte[0]);
+			assertThat(blockingQueueConsumer.nextMessage(1000)).isNotNull();
+		}
+		assertThat(blockingQueueConsumer.commitIfNecessary(false)).isTrue();
+		verify(channel).basicAck(3L, true);
+		assertThat(blockingQueueConsumer.commitIfNecessary(false)).isFalse();
+
+		theConsumer.get().handleDelivery("consumerTag", new Envelope(4, false, "foo", "bar"), props, new byte[0]);
+		theConsumer.get().handleDelivery("consumerTag", new Envelope(5, false, "foo", "bar"), props, new byte[0]);
+		assertThat(blockingQueueConsumer.nextMessage(1000)).isNotNull();
+		assertThat(blockingQueueConsumer.nextMessage(1000)).isNotNull();
+		blockingQueueConsumer.rollbackOnExceptionIfNecessary(new RuntimeException());
+		verify(channel).basicNack(5L, true, true);
+		assertThat(blockingQueueConsumer.commitIfNecessary(false)).isFalse();
+		blockingQueueConsumer.stop();
+	}
+
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.rabbit.listener;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author agent
+ * @since 2.2
+ *
+ */
+public class ConcurrencyPolicyTests {
+
+	@Test
+	public void testAimdIncreasesWithBacklog() {
+		AimdConcurrencyPolicy policy = new AimdConcurrencyPolicy();
+		policy.setIncrease(2);
+		assertThat(policy.desiredConsumers(new ConcurrencySample(3, 1, 10, 100, 50, 1_000_000_000L, 5000)))
+				.isEqualTo(5);
+	}
+
+	@Test
+	public void testAimdDecreasesWhenIdle() {
+		AimdConcurrencyPolicy policy = new AimdConcurrencyPolicy();
+		assertThat(policy.desiredConsumers(new ConcurrencySample(8, 1, 10, 0, 10, 10_000_000L, 5000)))
+				.isEqualTo(4);
+	}
+
+	@Test
+	public void testAimdHoldsUnderSteadyLoad() {
+		AimdConcurrencyPolicy policy = new AimdConcurrencyPolicy();
+		// 4 consumers, 50% busy, no backlog
+		assertThat(policy.desiredConsumers(new ConcurrencySample(4, 1, 10, 0, 1000, 10_000_000_000L, 5000)))
+				.isEqualTo(4);
+	}
+
+	@Test
+	public void testAimdUsesUtilizationWhenDepthUnknown() {
+		AimdConcurrencyPolicy policy = new AimdConcurrencyPolicy();
+		// 2 consumers, 90% busy
+		assertThat(policy.desiredConsumers(new ConcurrencySample(2, 1, 10, -1, 1000, 9_000_000_000L, 5000)))
+				.isEqualTo(3);
+	}
+
+	@Test
+	public void testLittlesLaw() {
+		LittlesLawConcurrencyPolicy policy = new LittlesLawConcurrencyPolicy();
+		policy.setTargetUtilization(1.0);
+		// 100 msg/s at 50ms each; no backlog
+		ConcurrencySample sample = new ConcurrencySample(2, 1, 20, 0, 500, 25_000_000_000L, 5000);
+		assertThat(sample.getThroughput()).isEqualTo(100.0);
+		assertThat(sample.getAverageListenerTime()).isEqualTo(0.05);
+		assertThat(policy.desiredConsumers(sample)).isEqualTo(5);
+		// plus a backlog of 1000 to be drained in 10 seconds
+		sample = new ConcurrencySample(2, 1, 20, 1000, 500, 25_000_000_000L, 5000);
+		assertThat(policy.desiredConsumers(sample)).isEqualTo(10);
+	}
+
+	@Test
+	public void testLittlesLawNoMessages() {
+		LittlesLawConcurrencyPolicy policy = new LittlesLawConcurrencyPolicy();
+		assertThat(policy.desiredConsumers(new ConcurrencySample(3, 2, 10, 5, 0, 0, 5000))).isEqualTo(4);
+		assertThat(policy.desiredConsumers(new ConcurrencySample(3, 2, 10, 0, 0, 0, 5000))).isEqualTo(2);
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.rabbit.listener;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author agent
+ * @since 2.2
+ *
+ */
+public class ContiguousDeliveryTagTrackerTests {
+
+	@Test
+	public void testInOrder() {
+		ContiguousDeliveryTagTracker tracker = new ContiguousDeliveryTagTracker();
+		tracker.delivered(1L);
+		assertThat(tracker.complete(1L, true)).isEqualTo(1L);
+		assertThat(tracker.complete(2L, true)).isEqualTo(2L);
+		assertThat(tracker.getPendingCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void testOutOfOrder() {
+		ContiguousDeliveryTagTracker tracker = new ContiguousDeliveryTagTracker();
+		tracker.delivered(5L);
+		assertThat(tracker.complete(7L, true)).isEqualTo(-1L);
+		assertThat(tracker.complete(6L, true)).isEqualTo(-1L);
+		assertThat(tracker.getPendingCount()).isEqualTo(2);
+		assertThat(tracker.complete(5L, true)).isEqualTo(7L);
+		assertThat(tracker.getPendingCount()).isEqualTo(0);
+		assertThat(tracker.complete(9L, true)).isEqualTo(-1L);
+		assertThat(tracker.complete(8L, true)).isEqualTo(9L);
+	}
+
+	@Test
+	public void testRejectedNeverUsedAsAckTag() {
+		ContiguousDeliveryTagTracker tracker = new ContiguousDeliveryTagTracker();
+		tracker.delivered(1L);
+		assertThat(tracker.complete(3L, false)).isEqualTo(-1L);
+		assertThat(tracker.complete(2L, true)).isEqualTo(-1L);
+		assertThat(tracker.complete(1L, true)).isEqualTo(2L);
+		assertThat(tracker.complete(4L, false)).isEqualTo(-1L);
+		assertThat(tracker.complete(5L, true)).isEqualTo(5L);
+	}
+
+	@Test
+	public void testLongRunningChannel() {
+		ContiguousDeliveryTagTracker tracker = new ContiguousDeliveryTagTracker();
+		tracker.delivered(1L);
+		long tags = 200_000L;
+		for (long tag = 1; tag < tags; tag += 2) {
+			assertThat(tracker.complete(tag + 1, true)).isEqualTo(-1L);
+			assertThat(tracker.getPendingCount()).isEqualTo(1);
+			assertThat(tracker.complete(tag, true)).isEqualTo(tag + 1);
+		}
+		assertThat(tracker.getPendingCount()).isEqualTo(0);
+	}
+
+}
@@ -17,6 +17,7 @@
 package org.springframework.amqp.rabbit.listener;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
@@ -24,25 +25,40 @@ import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.intThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 import org.junit.Test;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.BatchMessageListener;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.connection.ChannelProxy;
 import org.springframework.amqp.rabbit.connection.Connection;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.support.LatencyHistogram;
+import org.springframework.amqp.rabbit.support.PublishTime;
+import org.springframework.context.support.GenericApplicationContext;
 
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.AMQP.BasicProperties;
@@ -50,6 +66,8 @@ import com.rabbitmq.client.Channel;
 import com.rabbitmq.client.Consumer;
 import com.rabbitmq.client.Envelope;
 import com.rabbitmq.client.impl.recovery.AutorecoveringChannel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 /**
  * @author Gary Russell
@@ -200,6 +218,218 @@ public class DirectMessageListenerContainerMockTests {
 		verify(channel).basicAck(20L, true);
 	}
 
+	@Test
+	public void testConsumerBatching() throws Exception {
+		MockConsumerChannel mocks = mockConsumerChannel();
+		ChannelProxy channel = mocks.channel;
+		AtomicReference<Consumer> consumer = mocks.consumer;
+		final AtomicInteger qos = new AtomicInteger();
+		willAnswer(i -> {
+			qos.set(i.getArgument(0));
+			return null;
+		}).given(channel).basicQos(anyInt());
+		final CountDownLatch latch2 = new CountDownLatch(3);
+		willAnswer(i -> {
+			latch2.countDown();
+			return null;
+		}).given(channel).basicAck(anyLong(), anyBoolean());
+		final CountDownLatch latch3 = new CountDownLatch(1);
+		willAnswer(i -> {
+			latch3.countDown();
+			return null;
+		}).given(channel).basicNack(9L, true, true);
+
+		DirectMessageListenerContainer container = new DirectMessageListenerContainer(mocks.connectionFactory);
+		container.setQueueNames("test");
+		container.setPrefetchCount(2);
+		container.setMonitorInterval(10_000);
+		container.setConsumerBatchEnabled(true);
+		container.setBatchSize(3);
+		container.setBatchTimeout(100);
+		List<List<Long>> batches = new ArrayList<>();
+		container.setMessageListener(new BatchMessageListener() {
+
+			@Override
+			public void onMessageBatch(List<Message> messages) {
+				batches.add(messages.stream()
+						.map(m -> m.getMessageProperties().getDeliveryTag())
+						.collect(Collectors.toList()));
+				if (messages.get(0).getMessageProperties().getDeliveryTag() == 8L) {
+					throw new RuntimeException("test batch failure");
+				}
+			}
+
+		});
+		container.afterPropertiesSet();
+		container.start();
+
+		assertThat(mocks.consumeLatch.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(qos.get()).isEqualTo(3);
+		BasicProperties props = new BasicProperties();
+		byte[] body = new byte[1];
+		for (long i = 1; i < 8; i++) {
+			consumer.get().handleDelivery("consumerTag", envelope(i), props, body);
+		}
+		// one full batch, then a partial batch delivered by the monitor
+		assertThat(latch2.await(10, TimeUnit.SECONDS)).isTrue();
+		verify(channel).basicAck(3L, true);
+		verify(channel).basicAck(6L, true);
+		verify(channel).basicAck(7L, true);
+		consumer.get().handleDelivery("consumerTag", envelope(8), props, body);
+		consumer.get().handleDelivery("consumerTag", envelope(9), props, body);
+		assertThat(latch3.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(batches).containsExactly(Arrays.asList(1L, 2L, 3L), Arrays.asList(4L, 5L, 6L),
+				Collections.singletonList(7L), Arrays.asList(8L, 9L));
+		container.stop();
+	}
+
+	@Test
+	public void testPartialBatchDiscardedWhenChannelClosed() throws Exception {
+		MockConsumerChannel mocks = mockConsumerChannel();
+		ChannelProxy channel = mocks.channel;
+		AtomicReference<Consumer> consumer = mocks.consumer;
+		final AtomicBoolean isOpen = new AtomicBoolean(true);
+		willAnswer(i -> isOpen.get()).given(channel).isOpen();
+		final CountDownLatch closeLatch = new CountDownLatch(1);
+		willAnswer(i -> {
+			closeLatch.countDown();
+			return null;
+		}).given(channel).close();
+
+		DirectMessageListenerContainer container = new DirectMessageListenerContainer(mocks.connectionFactory);
+		container.setQueueNames("test");
+		container.setPrefetchCount(2);
+		container.setMonitorInterval(100);
+		container.setShutdownTimeout(100);
+		container.setConsumerBatchEnabled(true);
+		container.setBatchSize(3);
+		container.setBatchTimeout(10);
+		List<List<Message>> batches = Collections.synchronizedList(new ArrayList<>());
+		container.setMessageListener((BatchMessageListener) batches::add);
+		container.afterPropertiesSet();
+		container.start();
+
+		assertThat(mocks.consumeLatch.await(10, TimeUnit.SECONDS)).isTrue();
+		Consumer first = consumer.get();
+		isOpen.set(false);
+		BasicProperties props = new BasicProperties();
+		byte[] body = new byte[1];
+		first.handleDelivery("consumerTag", envelope(1), props, body);
+		first.handleDelivery("consumerTag", envelope(2), props, body);
+		// the monitor cancels the consumer
+		assertThat(closeLatch.await(10, TimeUnit.SECONDS)).isTrue();
+		first.handleCancelOk("consumerTag");
+		assertThat(batches).isEmpty();
+		verify(channel, never()).basicAck(anyLong(), anyBoolean());
+		container.stop();
+	}
+
+	@Test
+	public void testBatchListenerInvokedOutsideConsumerMonitor() throws Exception {
+		MockConsumerChannel mocks = mockConsumerChannel();
+		ChannelProxy channel = mocks.channel;
+		AtomicReference<Consumer> consumer = mocks.consumer;
+
+		DirectMessageListenerContainer container = new DirectMessageListenerContainer(mocks.connectionFactory);
+		container.setQueueNames("test");
+		container.setConsumerBatchEnabled(true);
+		container.setBatchSize(2);
+		final CountDownLatch monitorLatch = new CountDownLatch(1);
+		container.setMessageListener((BatchMessageListener) messages -> {
+			Executors.newSingleThreadExecutor().execute(() -> {
+				synchronized (consumer.get()) {
+					monitorLatch.countDown();
+				}
+			});
+			try {
+				monitorLatch.await(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		container.afterPropertiesSet();
+		container.start();
+
+		assertThat(mocks.consumeLatch.await(10, TimeUnit.SECONDS)).isTrue();
+		BasicProperties props = new BasicProperties();
+		byte[] body = new byte[1];
+		consumer.get().handleDelivery("consumerTag", envelope(1), props, body);
+		consumer.get().handleDelivery("consumerTag", envelope(2), props, body);
+		// the listener could acquire the consumer's monitor on another thread
+		assertThat(monitorLatch.getCount()).isEqualTo(0L);
+		verify(channel).basicAck(2L, true);
+		container.stop();
+	}
+
+	@Test
+	public void testConsumerBatchingRequiresBatchListener() {
+		DirectMessageListenerContainer container =
+				new DirectMessageListenerContainer(mock(ConnectionFactory.class));
+		container.setQueueNames("test");
+		container.setConsumerBatchEnabled(true);
+		container.setMessageListener(message -> { });
+		assertThatThrownBy(container::afterPropertiesSet)
+				.hasCauseInstanceOf(IllegalStateException.class)
+				.hasStackTraceContaining("'consumerBatchEnabled' requires a 'BatchMessageListener'");
+	}
+
+	@Test
+	public void testDispatchedAcksInOrder() throws Exception {
+		MockConsumerChannel mocks = mockConsumerChannel();
+		ChannelProxy channel = mocks.channel;
+		AtomicReference<Consumer> consumer = mocks.consumer;
+		final CountDownLatch ackLatch = new CountDownLatch(1);
+		willAnswer(i -> {
+			ackLatch.countDown();
+			return null;
+		}).given(channel).basicAck(anyLong(), anyBoolean());
+
+		DirectMessageListenerContainer container = new DirectMessageListenerContainer(mocks.connectionFactory);
+		container.setQueueNames("test");
+		container.setPrefetchCount(10);
+		container.setMonitorInterval(10_000);
+		container.setDispatchConcurrency(2);
+		// tag 1 on one lane, 2 and 3 on the other
+		container.setPartitionKeyExtractor(m -> m.getMessageProperties().getDeliveryTag() == 1L ? "a" : "b");
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch laterDone = new CountDownLatch(2);
+		container.setMessageListener(m -> {
+			if (m.getMessageProperties().getDeliveryTag() == 1L) {
+				try {
+					release.await(10, TimeUnit.SECONDS);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			else {
+				laterDone.countDown();
+			}
+		});
+		container.afterPropertiesSet();
+		container.start();
+
+		assertThat(mocks.consumeLatch.await(10, TimeUnit.SECONDS)).isTrue();
+		BasicProperties props = new BasicProperties();
+		byte[] body = new byte[1];
+		for (long i = 1; i < 4; i++) {
+			consumer.get().handleDelivery("consumerTag", envelope(i), props, body);
+		}
+		assertThat(laterDone.await(10, TimeUnit.SECONDS)).isTrue();
+		// 2 and 3 are complete but must not be acked before 1
+		verify(channel, never()).basicAck(anyLong(), anyBoolean());
+		release.countDown();
+		assertThat(ackLatch.await(10, TimeUnit.SECONDS)).isTrue();
+		verify(channel).basicAck(3L, true);
+		verify(channel, times(1)).basicAck(anyLong(), anyBoolean());
+		willAnswer(i -> {
+			consumer.get().handleCancelOk("consumerTag");
+			return null;
+		}).given(channel).basicCancel("consumerTag");
+		container.stop();
+	}
+
 	@Test
 	public void testRemoveQueuesWhileNotConnected() throws Exception {
 		ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
@@ -263,8 +493,204 @@ public class DirectMessageListenerContainerMockTests {
 		container.stop();
 	}
 
+	@Test
+	public void testMetrics() throws Exception {
+		MockConsumerChannel mocks = mockConsumerChannel();
+		ChannelProxy channel = mocks.channel;
+		AtomicReference<Consumer> consumer = mocks.consumer;
+
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.registerBean(MeterRegistry.class, () -> registry);
+		context.refresh();
+		DirectMessageListenerContainer container = new DirectMessageListenerContainer(mocks.connectionFactory);
+		container.setQueueNames("test");
+		container.setListenerId("metrics");
+		container.setMicrometerTags(Collections.singletonMap("extra", "tag"));
+		container.setApplicationContext(context);
+		container.setMessageListener(message -> {
+			long tag = message.getMessageProperties().getDeliveryTag();
+			if (tag == 2L) {
+				throw new IllegalStateException("test");
+			}
+			if (tag == 3L) {
+				throw new AmqpRejectAndDontRequeueException("test");
+			}
+		});
+		container.afterPropertiesSet();
+		container.start();
+
+		assertThat(mocks.consumeLatch.await(10, TimeUnit.SECONDS)).isTrue();
+		BasicProperties props = new BasicProperties();
+		byte[] body = new byte[1];
+		consumer.get().handleDelivery("consumerTag", envelope(1), props, body);
+		consumer.get().handleDelivery("consumerTag", envelope(2), props, body);
+		consumer.get().handleDelivery("consumerTag", envelope(3), props, body);
+		assertThat(registry.get("spring.rabbitmq.listener")
+				.tags("listener.id", "metrics", "extra", "tag", "result", "success")
+				.timer().count()).isEqualTo(1L);
+		assertThat(registry.get("spring.rabbitmq.listener")
+				.tags("result", "failure", "exception", "IllegalStateException")
+				.timer().count()).isEqualTo(1L);
+		assertThat(registry.get("spring.rabbitmq.listener.acks").tag("type", "ack").counter().count())
+				.isEqualTo(1.0);
+		assertThat(registry.get("spring.rabbitmq.listener.acks").tag("type", "requeue").counter().count())
+				.isEqualTo(1.0);
+		assertThat(registry.get("spring.rabbitmq.listener.acks").tag("type", "reject").counter().count())
+				.isEqualTo(1.0);
+		assertThat(registry.get("spring.rabbitmq.listener.consumers").gauge().value()).isEqualTo(1.0);
+		assertThat(registry.get("spring.rabbitmq.listener.idle").timeGauge()).isNotNull();
+		container.stop();
+		container.destroy();
+		assertThat(registry.find("spring.rabbitmq.listener").meters()).isEmpty();
+	}
+
+	@Test
+	public void testDeliveryLatency() throws Exception {
+		MockConsumerChannel mocks = mockConsumerChannel();
+		ChannelProxy channel = mocks.channel;
+		AtomicReference<Consumer> consumer = mocks.consumer;
+
+		DirectMessageListenerContainer container = new DirectMessageListenerContainer(mocks.connectionFactory);
+		container.setQueueNames("test");
+		container.setDeliveryLatencyEnabled(true);
+		container.setMessageListener(message -> { });
+		container.afterPropertiesSet();
+		container.start();
+
+		assertThat(mocks.consumeLatch.await(10, TimeUnit.SECONDS)).isTrue();
+		long published = PublishTime.currentTimeNanos() - 5_000_000L;
+		BasicProperties props = new BasicProperties.Builder()
+				.headers(Collections.singletonMap(PublishTime.HEADER, published))
+				.build();
+		byte[] body = new byte[1];
+		consumer.get().handleDelivery("consumerTag", envelope(1), props, body);
+		consumer.get().handleDelivery("consumerTag", envelope(2), new BasicProperties(), body);
+		LatencyHistogram histogram = container.getDeliveryLatencies().get("test");
+		assertThat(histogram).isNotNull();
+		assertThat(histogram.getCount()).isEqualTo(1L);
+		assertThat(histogram.getMax()).isGreaterThanOrEqualTo(5_000_000L);
+		container.stop();
+	}
+
+	@Test
+	public void testDeliveryLatencyConsumerBatch() throws Exception {
+		MockConsumerChannel mocks = mockConsumerChannel();
+		ChannelProxy channel = mocks.channel;
+		AtomicReference<Consumer> consumer = mocks.consumer;
+
+		DirectMessageListenerContainer container = new DirectMessageListenerContainer(mocks.connectionFactory);
+		container.setQueueNames("test");
+		container.setDeliveryLatencyEnabled(true);
+		container.setPrefetchCount(3);
+		container.setConsumerBatchEnabled(true);
+		container.setBatchSize(3);
+		final CountDownLatch batchLatch = new CountDownLatch(1);
+		container.setMessageListener((BatchMessageListener) messages -> batchLatch.countDown());
+		container.afterPropertiesSet();
+		container.start();
+
+		assertThat(mocks.consumeLatch.await(10, TimeUnit.SECONDS)).isTrue();
+		long published = PublishTime.currentTimeNanos() - 5_000_000L;
+		BasicProperties props = new BasicProperties.Builder()
+				.headers(Collections.singletonMap(PublishTime.HEADER, published))
+				.build();
+		byte[] body = new byte[1];
+		consumer.get().handleDelivery("consumerTag", envelope(1), props, body);
+		consumer.get().handleDelivery("consumerTag", envelope(2), new BasicProperties(), body);
+		consumer.get().handleDelivery("consumerTag", envelope(3), props, body);
+		assertThat(batchLatch.await(10, TimeUnit.SECONDS)).isTrue();
+		LatencyHistogram histogram = container.getDeliveryLatencies().get("test");
+		assertThat(histogram).isNotNull();
+		assertThat(histogram.getCount()).isEqualTo(2L);
+		assertThat(histogram.getMax()).isGreaterThanOrEqualTo(5_000_000L);
+		container.stop();
+	}
+
+	@Test
+	public void testPrefetchTuningWithDefaultGlobalQos() throws Exception {
+		MockConsumerChannel mocks = mockConsumerChannel();
+		ChannelProxy channel = mocks.channel;
+		AtomicReference<Consumer> consumer = mocks.consumer;
+
+		DirectMessageListenerContainer container = new DirectMessageListenerContainer(mocks.connectionFactory);
+		container.setQueueNames("test");
+		container.setPrefetchCount(250);
+		container.setMaxPrefetchCount(500);
+		container.setPrefetchTuning(true);
+		container.setPrefetchTuningInterval(1);
+		container.setMessageListener(message -> {
+			try {
+				Thread.sleep(5);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		container.afterPropertiesSet();
+		container.start();
+
+		assertThat(mocks.consumeLatch.await(10, TimeUnit.SECONDS)).isTrue();
+		consumer.get().handleDelivery("consumerTag", envelope(1), new BasicProperties(), new byte[1]);
+		// the per-consumer limit is only a ceiling; the tuned value must be channel-global to
+		// affect the existing consumer
+		InOrder inOrder = inOrder(channel);
+		inOrder.verify(channel).basicQos(500, false);
+		inOrder.verify(channel).basicQos(250, true);
+		inOrder.verify(channel).basicConsume(anyString(), anyBoolean(), anyString(), anyBoolean(), anyBoolean(),
+				anyMap(), any(Consumer.class));
+		inOrder.verify(channel).basicQos(intThat(prefetch -> prefetch < 250), eq(true));
+		verify(channel, never()).basicQos(anyInt());
+		container.stop();
+	}
+
+	private MockConsumerChannel mockConsumerChannel() throws Exception {
+		ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+		Connection connection = mock(Connection.class);
+		ChannelProxy channel = mock(ChannelProxy.class);
+		Channel rabbitChannel = mock(AutorecoveringChannel.class);
+		given(channel.getTargetChannel()).willReturn(rabbitChannel);
+
+		given(connectionFactory.createConnection()).willReturn(connection);
+		given(connection.createChannel(anyBoolean())).willReturn(channel);
+		given(channel.isOpen()).willReturn(true);
+		given(channel.queueDeclarePassive(Mockito.anyString()))
+				.willAnswer(invocation -> mock(AMQP.Queue.DeclareOk.class));
+		MockConsumerChannel mocks = new MockConsumerChannel(connectionFactory, channel);
+		willAnswer(i -> {
+			mocks.consumer.set(i.getArgument(6));
+			mocks.consumer.get().handleConsumeOk("consumerTag");
+			mocks.consumeLatch.countDown();
+			return "consumerTag";
+		}).given(channel)
+				.basicConsume(anyString(), anyBoolean(), anyString(), anyBoolean(), anyBoolean(),
+						anyMap(), any(Consumer.class));
+		return mocks;
+	}
+
 	private Envelope envelope(long tag) {
 		return new Envelope(tag, false, "", "");
 	}
 
+	/**
+	 * A mock connection factory and channel; the consumer passed to
+	 * {@code basicConsume} is captured.
+	 */
+	private static final class MockConsumerChannel {
+
+		private final ConnectionFactory connectionFactory;
+
+		private final ChannelProxy channel;
+
+		private final AtomicReference<Consumer> consumer = new AtomicReference<>();
+
+		private final CountDownLatch consumeLatch = new CountDownLatch(1);
+
+		MockConsumerChannel(ConnectionFactory connectionFactory, ChannelProxy channel) {
+			this.connectionFactory = connectionFactory;
+			this.channel = channel;
+		}
+
+	}
+
 }
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.rabbit.listener;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.logging.Log;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+/**
+ * @author agent
+ * @since 2.2
+ *
+ */
+public class PartitionedDispatcherTests {
+
+	@Test
+	public void testOrderPreservedPerKey() throws Exception {
+		ExecutorService exec = Executors.newCachedThreadPool();
+		PartitionedDispatcher dispatcher = new PartitionedDispatcher(exec, 4,
+				m -> m.getMessageProperties().getHeaders().get("key"), mock(Log.class));
+		Map<String, List<Integer>> results = new ConcurrentHashMap<>();
+		for (int i = 0; i < 200; i++) {
+			String key = "key" + (i % 10);
+			MessageProperties props = new MessageProperties();
+			props.setHeader("key", key);
+			int sequence = i;
+			dispatcher.dispatch(new Message(new byte[0], props), () -> {
+				try {
+					Thread.sleep(ThreadLocalRandom.current().nextInt(2));
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				results.computeIfAbsent(key, k -> new ArrayList<>()).add(sequence);
+			});
+		}
+		assertThat(dispatcher.awaitIdle(10_000)).isTrue();
+		assertThat(results).hasSize(10);
+		results.values().forEach(list -> {
+			assertThat(list).hasSize(20);
+			assertThat(list).isSorted();
+		});
+		exec.shutdownNow();
+	}
+
+	@Test
+	public void testWhenIdle() throws Exception {
+		ExecutorService exec = Executors.newCachedThreadPool();
+		PartitionedDispatcher dispatcher = new PartitionedDispatcher(exec, 2, null, mock(Log.class));
+		AtomicBoolean ran = new AtomicBoolean();
+		dispatcher.whenIdle(() -> ran.set(true));
+		assertThat(ran.get()).isTrue();
+		CountDownLatch release = new CountDownLatch(1);
+		dispatcher.dispatch(new Message(new byte[0], new MessageProperties()), () -> {
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		CountDownLatch idle = new CountDownLatch(1);
+		dispatcher.whenIdle(idle::countDown);
+		assertThat(idle.getCount()).isEqualTo(1);
+		release.countDown();
+		assertThat(idle.await(10, TimeUnit.SECONDS)).isTrue();
+		exec.shutdownNow();
+	}
+
+}
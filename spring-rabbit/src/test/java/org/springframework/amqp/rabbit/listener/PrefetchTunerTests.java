@@ -0,0 +1,126 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.amqp.rabbit.listener;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import com.rabbitmq.client.Channel;
+
+/**
+ * @author agent
+ * @since 2.2
+ *
+ */
+public class PrefetchTunerTests {
+
+	private final AtomicLong clock = new AtomicLong();
+
+	@Test
+	public void testInitialize() throws Exception {
+		Channel channel = mock(Channel.class);
+		PrefetchTuner tuner = new PrefetchTuner(1, 500, 250, 1, 1, false, this.clock::get);
+		tuner.initialize(channel);
+		InOrder inOrder = inOrder(channel);
+		inOrder.verify(channel).basicQos(500, false);
+		inOrder.verify(channel).basicQos(250, true);
+		assertThat(tuner.getPrefetch()).isEqualTo(250);
+	}
+
+	@Test
+	public void testGlobalQos() throws Exception {
+		Channel channel = channel(1);
+		PrefetchTuner tuner = new PrefetchTuner(5, 100, 50, 10, 1, true, this.clock::get);
+		tuner.initialize(channel);
+		verify(channel).basicQos(50, true);
+		tuner.recordListenerTime(10_000_000_000L);
+		tick(1);
+		tuner.adjustIfNecessary(channel);
+		verify(channel).basicQos(11, true);
+		verify(channel, never()).basicQos(anyInt(), eq(false));
+	}
+
+	@Test
+	public void testIncreaseForSlowNetwork() throws Exception {
+		Channel channel = channel(20);
+		PrefetchTuner tuner = new PrefetchTuner(1, 30, 2, 1, 1, false, this.clock::get);
+		tuner.initialize(channel);
+		// 20ms round trip, 1ms listener
+		tuner.recordListenerTime(1_000_000L);
+		tuner.adjustIfNecessary(channel);
+		assertThat(tuner.getPrefetch()).isEqualTo(30);
+		verify(channel).basicQos(30, true);
+	}
+
+	@Test
+	public void testDecreaseForSlowListener() throws Exception {
+		Channel channel = channel(1);
+		PrefetchTuner tuner = new PrefetchTuner(5, 100, 50, 10, 1, false, this.clock::get);
+		tuner.initialize(channel);
+		tuner.recordListenerTime(10_000_000_000L);
+		tick(1);
+		tuner.adjustIfNecessary(channel);
+		// the ack batch size plus one
+		assertThat(tuner.getPrefetch()).isEqualTo(11);
+		verify(channel).basicQos(11, true);
+		verify(channel, times(1)).basicQos(anyInt(), eq(false));
+	}
+
+	@Test
+	public void testNoAdjustmentBeforeInterval() throws Exception {
+		Channel channel = channel(1);
+		PrefetchTuner tuner = new PrefetchTuner(1, 100, 50, 1, 60_000, false, this.clock::get);
+		tuner.initialize(channel);
+		tuner.recordListenerTime(10_000_000_000L);
+		// the initial per-consumer and channel qos took 1ms each
+		tick(59_997);
+		tuner.adjustIfNecessary(channel);
+		assertThat(tuner.getPrefetch()).isEqualTo(50);
+		verify(channel, times(2)).basicQos(anyInt(), anyBoolean());
+		tick(1);
+		tuner.adjustIfNecessary(channel);
+		assertThat(tuner.getPrefetch()).isEqualTo(2);
+	}
+
+	private Channel channel(long roundTripMillis) throws Exception {
+		Channel channel = mock(Channel.class);
+		willAnswer(inv -> {
+			tick(roundTripMillis);
+			return null;
+		}).given(channel).basicQos(anyInt(), anyBoolean());
+		return channel;
+	}
+
+	private void tick(long millis) {
+		this.clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+	}
+
+}
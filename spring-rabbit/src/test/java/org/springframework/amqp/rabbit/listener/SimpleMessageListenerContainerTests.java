@@ -62,11 +62,13 @@ import org.springframework.amqp.AmqpAuthenticationException;
 import org.springframework.amqp.AmqpException;
 import org.springframework.amqp.ImmediateAcknowledgeAmqpException;
 import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.AmqpAdmin;
 import org.springframework.amqp.core.AnonymousQueue;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.MessageBuilder;
 import org.springframework.amqp.core.MessagePostProcessor;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueInformation;
 import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
 import org.springframework.amqp.rabbit.connection.CachingConnectionFactory.CacheMode;
 import org.springframework.amqp.rabbit.connection.ChannelProxy;
@@ -275,6 +277,58 @@ public class SimpleMessageListenerContainerTests {
 		container.stop();
 	}
 
+	@Test
+	public void testConcurrencyPolicyAddsAndRemovesConsumers() throws Exception {
+		ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+		Connection connection = mock(Connection.class);
+		Channel channel = mock(Channel.class);
+		when(connectionFactory.createConnection()).thenReturn(connection);
+		when(connection.createChannel(false)).thenReturn(channel);
+		when(channel.isOpen()).thenReturn(true);
+		final List<Consumer> consumers = Collections.synchronizedList(new ArrayList<>());
+		setupMockConsume(channel, consumers, new AtomicInteger(), new CountDownLatch(3));
+		setUpMockCancel(channel, consumers);
+		AmqpAdmin admin = mock(AmqpAdmin.class);
+		List<Thread> lookupThreads = Collections.synchronizedList(new ArrayList<>());
+		given(admin.getQueueInfo("foo")).willAnswer(i -> {
+			lookupThreads.add(Thread.currentThread());
+			return new QueueInformation("foo", 42, 1);
+		});
+
+		AtomicInteger desired = new AtomicInteger(3);
+		List<Long> depths = Collections.synchronizedList(new ArrayList<>());
+		SimpleMessageListenerContainer container = new SimpleMessageListenerContainer(connectionFactory);
+		container.setQueueNames("foo");
+		container.setMessageListener(m -> { });
+		container.setReceiveTimeout(10);
+		container.setConcurrentConsumers(1);
+		container.setMaxConcurrentConsumers(3);
+		container.setConcurrencyPolicyInterval(10);
+		container.setQueueDepthInterval(60_000);
+		container.setAmqpAdmin(admin);
+		container.setConcurrencyPolicy(sample -> {
+			depths.add(sample.getQueueDepth());
+			return desired.get();
+		});
+		container.start();
+		waitForConsumerCount(container, 3);
+		desired.set(1);
+		waitForConsumerCount(container, 1);
+		container.stop();
+		assertThat(depths).isNotEmpty();
+		assertThat(depths).containsOnly(42L);
+		verify(admin, times(1)).getQueueInfo("foo");
+		assertThat(lookupThreads).containsExactly(Thread.currentThread());
+	}
+
+	private void waitForConsumerCount(SimpleMessageListenerContainer container, int expected) throws Exception {
+		int n = 0;
+		while (container.getActiveConsumerCount() != expected && n++ < 500) {
+			Thread.sleep(10);
+		}
+		assertThat(container.getActiveConsumerCount()).isEqualTo(expected);
+	}
+
 	@SuppressWarnings("unchecked")
 	@Test
 	public void testConsumerArgs() throws Exception {
@@ -17,28 +17,41 @@
 package org.springframework.amqp.rabbit.listener.adapter;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.commons.logging.Log;
 import org.junit.Before;
 import org.junit.Test;
 
 import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.listener.api.RabbitListenerErrorHandler;
 import org.springframework.amqp.rabbit.listener.exception.ListenerExecutionFailedException;
 import org.springframework.amqp.rabbit.test.MessageTestUtils;
 import org.springframework.amqp.support.AmqpHeaders;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.amqp.support.converter.SimpleMessageConverter;
+import org.springframework.beans.DirectFieldAccessor;
 import org.springframework.beans.factory.support.StaticListableBeanFactory;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.support.DefaultMessageHandlerMethodFactory;
 import org.springframework.messaging.handler.invocation.InvocableHandlerMethod;
 import org.springframework.messaging.support.MessageBuilder;
@@ -212,6 +225,118 @@ public class MessagingMessageListenerAdapterTests {
 		assertThat(this.sample.payload.getClass()).isEqualTo(LinkedHashMap.class);
 	}
 
+	@Test
+	public void headerOnlyListenerSkipsConversion() throws Exception {
+		org.springframework.amqp.core.Message message = MessageTestUtils.createTextMessage("not json");
+		message.getMessageProperties().setHeader("foo", "bar");
+		MessageConverter converter = mock(MessageConverter.class);
+		MessagingMessageListenerAdapter listener = getSimpleInstance("withHeaderOnly", String.class);
+		listener.setMessageConverter(converter);
+		Log logger = mock(Log.class);
+		given(logger.isDebugEnabled()).willReturn(true);
+		new DirectFieldAccessor(listener).setPropertyValue("logger", logger);
+		listener.onMessage(message, mock(Channel.class));
+		assertThat(this.sample.payload).isEqualTo("bar");
+		verify(converter, never()).fromMessage(any());
+		// logging the message must not convert it
+		verify(logger).debug(contains("LazyConvertingMessage [unconverted="));
+	}
+
+	@Test
+	public void lazyConversionFailureIsNotWrapped() throws Exception {
+		org.springframework.amqp.core.Message message = MessageTestUtils.createTextMessage("{ \"foo\" : ");
+		message.getMessageProperties().setContentType("application/json");
+		RabbitListenerErrorHandler errorHandler = mock(RabbitListenerErrorHandler.class);
+		Method m = ReflectionUtils.findMethod(SampleBean.class, "withFoo", Foo.class);
+		MessagingMessageListenerAdapter listener = new MessagingMessageListenerAdapter(null, m, false, errorHandler);
+		listener.setHandlerAdapter(new HandlerAdapter(factory.createInvocableHandlerMethod(sample, m)));
+		listener.setMessageConverter(new Jackson2JsonMessageConverter());
+		assertThatThrownBy(() -> listener.onMessage(message, mock(Channel.class)))
+				.isInstanceOf(MessageConversionException.class);
+		verify(errorHandler, never()).handleError(any(), any(), any());
+	}
+
+	@Test
+	public void listenerExceptionNotReplacedByHandledConversionFailure() throws Exception {
+		org.springframework.amqp.core.Message message = MessageTestUtils.createTextMessage("{ \"foo\" : ");
+		message.getMessageProperties().setContentType("application/json");
+		Method m = ReflectionUtils.findMethod(SampleBean.class, "withFoo", Foo.class);
+		MessagingMessageListenerAdapter listener = new MessagingMessageListenerAdapter(null, m, false, null);
+		HandlerAdapter handlerAdapter = mock(HandlerAdapter.class);
+		willAnswer(i -> {
+			try {
+				((Message<?>) i.getArgument(0)).getPayload();
+			}
+			catch (MessageConversionException e) {
+				throw new IllegalStateException("listener failure");
+			}
+			return null;
+		}).given(handlerAdapter).invoke(any(), any());
+		listener.setHandlerAdapter(handlerAdapter);
+		listener.setMessageConverter(new Jackson2JsonMessageConverter());
+		assertThatThrownBy(() -> listener.onMessage(message, mock(Channel.class)))
+				.isInstanceOf(ListenerExecutionFailedException.class)
+				.hasCauseInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	public void batchParallelConversion() throws Exception {
+		Method m = ReflectionUtils.findMethod(SampleBean.class, "withFooList", List.class);
+		BatchMessagingMessageListenerAdapter listener = new BatchMessagingMessageListenerAdapter(null, m, false, null,
+				null);
+		listener.setHandlerAdapter(new HandlerAdapter(factory.createInvocableHandlerMethod(sample, m)));
+		listener.setMessageConverter(new Jackson2JsonMessageConverter());
+		ForkJoinPool pool = new ForkJoinPool(4);
+		listener.setConversionExecutor(pool);
+		List<org.springframework.amqp.core.Message> messages = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			org.springframework.amqp.core.Message message =
+					MessageTestUtils.createTextMessage("{ \"foo\" : \"" + i + "\" }");
+			message.getMessageProperties().setContentType("application/json");
+			messages.add(message);
+		}
+		listener.onMessageBatch(messages, mock(Channel.class));
+		pool.shutdown();
+		assertThat(this.sample.payload).isInstanceOf(List.class);
+		List<?> foos = (List<?>) this.sample.payload;
+		assertThat(foos).hasSize(20);
+		for (int i = 0; i < 20; i++) {
+			assertThat(((Foo) foos.get(i)).getFoo()).isEqualTo(Integer.toString(i));
+		}
+	}
+
+	@Test
+	public void batchParallelConversionFailureCancelsRemainingConversions() {
+		Method m = ReflectionUtils.findMethod(SampleBean.class, "withFooList", List.class);
+		BatchMessagingMessageListenerAdapter listener = new BatchMessagingMessageListenerAdapter(null, m, false, null,
+				null);
+		listener.setHandlerAdapter(new HandlerAdapter(factory.createInvocableHandlerMethod(sample, m)));
+		AtomicInteger conversions = new AtomicInteger();
+		listener.setMessageConverter(new Jackson2JsonMessageConverter() {
+
+			@Override
+			public Object fromMessage(org.springframework.amqp.core.Message message, Object conversionHint) {
+				conversions.incrementAndGet();
+				return super.fromMessage(message, conversionHint);
+			}
+
+		});
+		List<Runnable> pending = new ArrayList<>();
+		listener.setConversionExecutor(pending::add);
+		List<org.springframework.amqp.core.Message> messages = new ArrayList<>();
+		messages.add(MessageTestUtils.createTextMessage("{ \"foo\" : "));
+		for (int i = 1; i < 5; i++) {
+			messages.add(MessageTestUtils.createTextMessage("{ \"foo\" : \"" + i + "\" }"));
+		}
+		messages.forEach(message -> message.getMessageProperties().setContentType("application/json"));
+		assertThatThrownBy(() -> listener.onMessageBatch(messages, mock(Channel.class)))
+				.isInstanceOf(MessageConversionException.class);
+		assertThat(pending).hasSize(4);
+		pending.forEach(Runnable::run);
+		// only the first (failed) conversion
+		assertThat(conversions.get()).isEqualTo(1);
+	}
+
 	protected MessagingMessageListenerAdapter getSimpleInstance(String methodName, Class<?>... parameterTypes) {
 		Method m = ReflectionUtils.findMethod(SampleBean.class, methodName, parameterTypes);
 		return createInstance(m, false);
@@ -286,6 +411,16 @@ public class MessagingMessageListenerAdapterTests {
 			this.payload = foo;
 		}
 
+		@SuppressWarnings("unused")
+		public void withHeaderOnly(@Header("foo") String foo) {
+			this.payload = foo;
+		}
+
+		@SuppressWarnings("unused")
+		public void withFooList(List<Foo> foos) {
+			this.payload = foos;
+		}
+
 		@SuppressWarnings("unused")
 		public void withGenericMessageFooType(Message<Foo> message) {
 			this.payload = message.getPayload();
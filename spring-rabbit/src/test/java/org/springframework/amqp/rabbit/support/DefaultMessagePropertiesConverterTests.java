@@ -30,6 +30,7 @@ import org.junit.Test;
 
 import org.springframework.amqp.core.MessageDeliveryMode;
 import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.utils.SerializationUtils;
 
 import com.rabbitmq.client.AMQP.BasicProperties;
 import com.rabbitmq.client.Envelope;
@@ -39,6 +40,7 @@ import com.rabbitmq.client.impl.LongStringHelper;
 /**
  * @author Soeren Unruh
  * @author Gary Russell
+ * @author agent
  * @since 1.3
  */
 public class DefaultMessagePropertiesConverterTests {
@@ -193,6 +195,140 @@ public class DefaultMessagePropertiesConverterTests {
 		assertThat(props.getDeliveryMode()).isNull();
 	}
 
+	@Test
+	public void testLazyMessageProperties() {
+		Map<String, Object> headers = new HashMap<String, Object>();
+		headers.put("longString", longString);
+		headers.put("list", Arrays.asList(longString));
+		headers.put(MessageProperties.X_DELAY, 42);
+		BasicProperties source = new BasicProperties.Builder()
+				.headers(headers)
+				.contentType("text/plain")
+				.deliveryMode(1)
+				.correlationId("")
+				.build();
+		MessageProperties expected = messagePropertiesConverter.toMessageProperties(source,
+				new Envelope(123L, true, "ex", "rk"), "UTF-8");
+		MessageProperties lazy = messagePropertiesConverter.toLazyMessageProperties(source,
+				new Envelope(123L, true, "ex", "rk"), "UTF-8");
+		assertThat(lazy).isInstanceOf(LazyMessageProperties.class);
+		assertThat(lazy.getDeliveryTag()).isEqualTo(123L);
+		assertThat(lazy.getReceivedRoutingKey()).isEqualTo("rk");
+		assertThat(lazy.hasHeaders()).isTrue();
+		assertThat((String) lazy.getHeader("longString")).isEqualTo(longStringString);
+		assertThat((Object) lazy.getHeader(MessageProperties.X_DELAY)).isNull();
+		assertThat(((LazyMessageProperties) lazy).isLazy()).isTrue();
+		assertThat(lazy.getContentType()).isEqualTo("text/plain");
+		assertThat(((LazyMessageProperties) lazy).isLazy()).isFalse();
+		assertThat(lazy.getReceivedDelay()).isEqualTo(42);
+		assertThat(lazy.getReceivedDeliveryMode()).isEqualTo(MessageDeliveryMode.NON_PERSISTENT);
+		assertThat(lazy.getDeliveryMode()).isNull();
+		assertThat(lazy.getCorrelationId()).isNull();
+		assertThat(lazy.getHeaders()).isEqualTo(expected.getHeaders());
+		assertThat(lazy.toString()).isEqualTo(expected.toString());
+
+		lazy = messagePropertiesConverter.toLazyMessageProperties(source, null, "UTF-8");
+		lazy.setContentType("application/json");
+		assertThat(lazy.getContentType()).isEqualTo("application/json");
+		assertThat(lazy.getReceivedDeliveryMode()).isEqualTo(MessageDeliveryMode.NON_PERSISTENT);
+
+		DefaultMessagePropertiesConverter subclass = new DefaultMessagePropertiesConverter() {
+
+			@Override
+			public MessageProperties toMessageProperties(BasicProperties source, Envelope envelope, String charset) {
+				return super.toMessageProperties(source, envelope, charset);
+			}
+
+		};
+		assertThat(subclass.toLazyMessageProperties(source, null, "UTF-8"))
+				.isNotInstanceOf(LazyMessageProperties.class);
+	}
+
+	@Test
+	public void testLazyMessagePropertiesEqualityAndSerialization() {
+		Map<String, Object> headers = new HashMap<String, Object>();
+		headers.put("longString", longString);
+		headers.put("list", Arrays.asList(longString));
+		BasicProperties source = new BasicProperties.Builder()
+				.headers(headers)
+				.contentType("text/plain")
+				.messageId("foo")
+				.build();
+		MessageProperties eager = messagePropertiesConverter.toMessageProperties(source,
+				new Envelope(123L, true, "ex", "rk"), "UTF-8");
+		MessageProperties lazy = messagePropertiesConverter.toLazyMessageProperties(source,
+				new Envelope(123L, true, "ex", "rk"), "UTF-8");
+		assertThat(((LazyMessageProperties) lazy).isLazy()).isTrue();
+		assertThat(lazy.equals(eager)).isTrue();
+		assertThat(lazy.hashCode()).isEqualTo(eager.hashCode());
+		assertThat(lazy).isEqualTo(messagePropertiesConverter.toLazyMessageProperties(source,
+				new Envelope(123L, true, "ex", "rk"), "UTF-8"));
+		lazy = messagePropertiesConverter.toLazyMessageProperties(source, new Envelope(123L, true, "ex", "rk"),
+				"UTF-8");
+		Object deserialized = SerializationUtils.deserialize(SerializationUtils.serialize(lazy));
+		assertThat(deserialized.getClass()).isEqualTo(MessageProperties.class);
+		assertThat(deserialized).isEqualTo(eager);
+		assertThat(((MessageProperties) deserialized).getDeliveryTag()).isEqualTo(123L);
+		assertThat((String) ((MessageProperties) deserialized).getHeader("longString")).isEqualTo(longStringString);
+	}
+
+	@Test
+	public void testPropertiesTemplate() {
+		DefaultMessagePropertiesConverter converter = new DefaultMessagePropertiesConverter();
+		MessageProperties template = new MessageProperties();
+		template.setHeader("source", "orders");
+		template.setHeader("version", 2);
+		template.setHeader("foo", new Foo());
+		template.setAppId("app");
+		converter.setPropertiesTemplate(template);
+		MessageProperties props = new MessageProperties();
+		props.setMessageId("id1");
+		BasicProperties first = converter.fromMessageProperties(props, "UTF-8");
+		assertThat(first.getHeaders()).containsEntry("source", "orders")
+				.containsEntry("version", 2)
+				.containsEntry("foo", "FooAsAString");
+		assertThat(first.getAppId()).isEqualTo("app");
+		assertThat(first.getMessageId()).isEqualTo("id1");
+		assertThat(first.getDeliveryMode()).isEqualTo(2);
+		assertThat(converter.fromMessageProperties(new MessageProperties(), "UTF-8").getHeaders())
+				.isSameAs(first.getHeaders());
+		props.setHeader("version", 3);
+		props.setHeader("bar", new Foo());
+		props.setAppId("other");
+		BasicProperties second = converter.fromMessageProperties(props, "UTF-8");
+		assertThat(second.getHeaders()).hasSize(4)
+				.containsEntry("version", 3)
+				.containsEntry("bar", "FooAsAString");
+		assertThat(second.getAppId()).isEqualTo("other");
+		converter.setPropertiesTemplate(null);
+		assertThat(converter.fromMessageProperties(new MessageProperties(), "UTF-8").getHeaders()).isEmpty();
+	}
+
+	@Test
+	public void testHeaderCache() {
+		DefaultMessagePropertiesConverter converter = new DefaultMessagePropertiesConverter();
+		converter.setHeaderCacheSize(16);
+		MessageProperties first = converter.toMessageProperties(withHeaders(), envelope, "UTF-8");
+		MessageProperties second = converter.toMessageProperties(withHeaders(), envelope, "UTF-8");
+		assertThat(second.getHeaders()).isEqualTo(first.getHeaders());
+		String name = first.getHeaders().keySet().stream().filter("status"::equals).findFirst().get();
+		assertThat(second.getHeaders().keySet().stream().filter("status"::equals).findFirst().get()).isSameAs(name);
+		assertThat((String) second.getHeader("status")).isSameAs(first.getHeader("status"));
+		assertThat((String) second.getHeader("long")).isEqualTo(first.getHeader("long"))
+				.isNotSameAs(first.getHeader("long"));
+		MessageProperties uncached = messagePropertiesConverter.toMessageProperties(withHeaders(), envelope, "UTF-8");
+		assertThat((String) uncached.getHeader("status")).isNotSameAs(first.getHeader("status"));
+	}
+
+	private static BasicProperties withHeaders() {
+		Map<String, Object> headers = new HashMap<>();
+		headers.put(new String("status"), LongStringHelper.asLongString("ACTIVE"));
+		char[] chars = new char[HeaderStringCache.MAX_VALUE_LENGTH + 1];
+		Arrays.fill(chars, 'x');
+		headers.put("long", LongStringHelper.asLongString(new String(chars)));
+		return new BasicProperties.Builder().headers(headers).build();
+	}
+
 	private static class Foo {
 
 		Foo() {
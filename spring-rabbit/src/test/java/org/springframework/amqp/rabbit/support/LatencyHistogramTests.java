@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.amqp.rabbit.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author agent
+ * @since 2.2
+ *
+ */
+public class LatencyHistogramTests {
+
+	@Test
+	void percentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(i * 1000L);
+		}
+		assertThat(histogram.getCount()).isEqualTo(1000);
+		assertThat(histogram.getMax()).isEqualTo(1_000_000L);
+		assertThat(histogram.getMean()).isEqualTo(500_500d);
+		assertThat((double) histogram.getValueAtPercentile(50)).isCloseTo(500_000d, within(500_000d / 64));
+		assertThat((double) histogram.getValueAtPercentile(99)).isCloseTo(990_000d, within(990_000d / 64));
+		assertThat(histogram.getValueAtPercentile(100)).isEqualTo(1_000_000L);
+	}
+
+	@Test
+	void indexesAreMonotonic() {
+		int last = LatencyHistogram.index(0);
+		for (long value = 1; value < 10_000_000L; value += 7) {
+			int index = LatencyHistogram.index(value);
+			assertThat(index).isGreaterThanOrEqualTo(last);
+			assertThat(LatencyHistogram.highestEquivalentValue(index)).isGreaterThanOrEqualTo(value);
+			last = index;
+		}
+		assertThat(LatencyHistogram.index(Long.MAX_VALUE)).isGreaterThanOrEqualTo(last);
+	}
+
+	@Test
+	void negativeAndReset() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(-5);
+		assertThat(histogram.getMax()).isEqualTo(0);
+		assertThat(histogram.getValueAtPercentile(50)).isEqualTo(0);
+		histogram.reset();
+		assertThat(histogram.getCount()).isEqualTo(0);
+		assertThat(histogram.getValueAtPercentile(50)).isEqualTo(0);
+	}
+
+}